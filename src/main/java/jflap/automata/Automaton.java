@@ -21,6 +21,7 @@ import java.awt.*;
 import java.io.Serializable;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import jflap.automata.event.*;
 import jflap.automata.mealy.MooreMachine;
 import jflap.gui.environment.EnvironmentFrame;
@@ -69,17 +70,18 @@ public class Automaton implements Serializable, Cloneable {
     private String fileName = "";   // Jinghui bug fixing.
     private EnvironmentFrame myEnvFrame = null;
     /**
-     * The cached array of states.
+     * The cached array of states. Caches are volatile, so an automaton that
+     * is no longer modified can be read from many threads at once.
      */
-    private State[] cachedStates = null;
+    private volatile State[] cachedStates = null;
     /**
      * The cached array of transitions.
      */
-    private Transition[] cachedTransitions = null;
+    private volatile Transition[] cachedTransitions = null;
     /**
      * The cached array of final states.
      */
-    private State[] cachedFinalStates = null;
+    private volatile State[] cachedFinalStates = null;
     /**
      * A mapping from states to a list holding transitions from those states.
      */
@@ -94,14 +96,14 @@ public class Automaton implements Serializable, Cloneable {
      * A mapping from states to an array holding transitions from a state. This
      * is a sort of cashing.
      */
-    private HashMap<State, Transition[]> transitionArrayFromStateMap =
-        new HashMap<State, Transition[]>();
+    private Map<State, Transition[]> transitionArrayFromStateMap =
+        new ConcurrentHashMap<State, Transition[]>();
     /**
      * A mapping from states to an array holding transitions from a state. This
      * is a sort of cashing.
      */
-    private HashMap<State, Transition[]> transitionArrayToStateMap =
-        new HashMap<State, Transition[]>();
+    private Map<State, Transition[]> transitionArrayToStateMap =
+        new ConcurrentHashMap<State, Transition[]>();
     private final ArrayList<Note> myNotes = new ArrayList<Note>();
     // LISTENER STUFF
     // Structures related to this object as something that generates
@@ -345,11 +347,12 @@ public class Automaton implements Serializable, Cloneable {
      * @return an array containing all transitions for this automaton
      */
     public Transition[] getTransitions() {
-        if (cachedTransitions == null) {
-            cachedTransitions = transitions
-                .toArray(new Transition[0]);
+        Transition[] toReturn = cachedTransitions;
+        if (toReturn == null) {
+            toReturn = transitions.toArray(new Transition[0]);
+            cachedTransitions = toReturn;
         }
-        return cachedTransitions;
+        return toReturn;
     }
 
     /**
@@ -560,9 +563,10 @@ public class Automaton implements Serializable, Cloneable {
      * @return an array containing all the states in this automaton
      */
     public State[] getStates() {
-        if (cachedStates == null) {
-            cachedStates = states.toArray(new State[0]);
-            Arrays.sort(cachedStates, new Comparator<Object>() {
+        State[] toReturn = cachedStates;
+        if (toReturn == null) {
+            toReturn = states.toArray(new State[0]);
+            Arrays.sort(toReturn, new Comparator<Object>() {
                 public int compare(Object o1, Object o2) {
                     return ((State) o1).getID() - ((State) o2).getID();
                 }
@@ -571,8 +575,9 @@ public class Automaton implements Serializable, Cloneable {
                     return this == o;
                 }
             });
+            cachedStates = toReturn;
         }
-        return cachedStates;
+        return toReturn;
     }
 
     public void selectStatesWithinBounds(Rectangle bounds) {
@@ -648,10 +653,12 @@ public class Automaton implements Serializable, Cloneable {
      * @return an array containing all final states of this automaton
      */
     public State[] getFinalStates() {
-        if (cachedFinalStates == null) {
-            cachedFinalStates = finalStates.toArray(new State[0]);
+        State[] toReturn = cachedFinalStates;
+        if (toReturn == null) {
+            toReturn = finalStates.toArray(new State[0]);
+            cachedFinalStates = toReturn;
         }
-        return cachedFinalStates;
+        return toReturn;
     }
 
     /**
@@ -998,9 +1005,9 @@ public class Automaton implements Serializable, Cloneable {
         transitionFromStateMap = new HashMap<State, LinkedList<Transition>>();
         transitionToStateMap = new HashMap<State, LinkedList<Transition>>();
 
-        transitionArrayFromStateMap = new HashMap<State, Transition[]>();
+        transitionArrayFromStateMap = new ConcurrentHashMap<State, Transition[]>();
 
-        transitionArrayToStateMap = new HashMap<State, Transition[]>();
+        transitionArrayToStateMap = new ConcurrentHashMap<State, Transition[]>();
 
 
         while (myNotes.size() != 0) {
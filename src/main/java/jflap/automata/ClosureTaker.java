@@ -18,7 +18,9 @@
 package jflap.automata;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * The closure taker object can be used to take the closure of states in an
@@ -46,18 +48,20 @@ public class ClosureTaker {
      */
     public static State[] getClosure(State state, Automaton automaton) {
         List<State> list = new ArrayList<>();
+        Set<State> visited = new HashSet<>();
         list.add(state);
+        visited.add(state);
+        LambdaTransitionChecker checker = LambdaCheckerFactory
+            .getLambdaChecker(automaton);
         for (int i = 0; i < list.size(); i++) {
             state = list.get(i);
             Transition[] transitions = automaton.getTransitionsFromState(state);
             for (int k = 0; k < transitions.length; k++) {
                 Transition transition = transitions[k];
-                LambdaTransitionChecker checker = LambdaCheckerFactory
-                    .getLambdaChecker(automaton);
                 /** if lambda transition */
                 if (checker.isLambdaTransition(transition)) {
                     State toState = transition.getToState();
-                    if (!list.contains(toState)) {
+                    if (visited.add(toState)) {
                         list.add(toState);
                     }
                 }
@@ -0,0 +1,242 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.automata.fsa;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import jflap.automata.State;
+import jflap.automata.Transition;
+import jflap.regular.RegularNode;
+import jflap.regular.RegularNodeFactory;
+
+/**
+ * The state elimination converter converts a finite state automaton of any
+ * form to an equivalent jflap.regular expression, without changing the
+ * automaton. States which are not both reachable and able to reach a final
+ * state are dropped, a new initial and a new final state are added, and the
+ * other states are eliminated one by one, always the one with the fewest
+ * pairs of incoming and outgoing transitions, since eliminating it adds the
+ * fewest new labels.
+ * <p>
+ * Labels are kept as nodes of a {@link RegularNodeFactory}, so equal labels
+ * are shared and simplified as they are combined, and the expression is
+ * turned into a string only once, at the end.
+ *
+ * @see jflap.automata.fsa.FSAToRegularExpressionConverter
+ */
+
+public class FSAStateEliminationConverter {
+    /**
+     * The factory of labels.
+     */
+    private final RegularNodeFactory myFactory = new RegularNodeFactory();
+    /**
+     * The labels of transitions to each state, by the states they come from.
+     */
+    private Map<Integer, RegularNode>[] myIn;
+    /**
+     * The labels of transitions from each state, by the states they go to.
+     */
+    private Map<Integer, RegularNode>[] myOut;
+    /**
+     * The expression equivalent to the automaton.
+     */
+    private final RegularNode myExpression;
+
+    /**
+     * Converts <CODE>automaton</CODE> to a jflap.regular expression.
+     *
+     * @param automaton the automaton to convert
+     */
+    public FSAStateEliminationConverter(FiniteStateAutomaton automaton) {
+        myExpression = convert(automaton);
+    }
+
+    /**
+     * Returns the expression equivalent to the automaton.
+     *
+     * @return the root of the expression
+     */
+    public RegularNode getExpression() {
+        return myExpression;
+    }
+
+    /**
+     * Returns the number of distinct subexpressions made during the
+     * conversion.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return myFactory.getNodeCount();
+    }
+
+    /**
+     * Builds the transition graph of <CODE>automaton</CODE> and eliminates
+     * all of its states.
+     *
+     * @param automaton the automaton to convert
+     * @return the expression on the transition from the new initial to the
+     *         new final state
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private RegularNode convert(FiniteStateAutomaton automaton) {
+        State[] states = automaton.getStates();
+        State initialState = automaton.getInitialState();
+        if (initialState == null) {
+            return myFactory.empty();
+        }
+        int count = states.length;
+        int initial = count, last = count + 1;
+        Map<State, Integer> numbers = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            numbers.put(states[i], i);
+        }
+
+        myIn = new Map[count + 2];
+        myOut = new Map[count + 2];
+        for (int i = 0; i < myIn.length; i++) {
+            myIn[i] = new HashMap<>();
+            myOut[i] = new HashMap<>();
+        }
+        Transition[] transitions = automaton.getTransitions();
+        for (int i = 0; i < transitions.length; i++) {
+            FSATransition transition = (FSATransition) transitions[i];
+            add(numbers.get(transition.getFromState()), numbers.get(transition.getToState()),
+                myFactory.word(transition.getLabel()));
+        }
+        add(initial, numbers.get(initialState), myFactory.lambda());
+        State[] finals = automaton.getFinalStates();
+        for (int i = 0; i < finals.length; i++) {
+            add(numbers.get(finals[i]), last, myFactory.lambda());
+        }
+
+        boolean[] reachable = search(initial, myOut);
+        boolean[] productive = search(last, myIn);
+        for (int k = 0; k < count; k++) {
+            if (!reachable[k] || !productive[k]) {
+                remove(k);
+            }
+        }
+        for (int k = cheapest(count); k != -1; k = cheapest(count)) {
+            eliminate(k);
+        }
+        RegularNode expression = myOut[initial].get(last);
+        return expression == null ? myFactory.empty() : expression;
+    }
+
+    /**
+     * Returns the state which adds the fewest transitions when eliminated,
+     * the one with the lowest number on ties.
+     *
+     * @param count the number of states of the automaton
+     * @return the state to eliminate next, or -1 if none is left
+     */
+    private int cheapest(int count) {
+        int best = -1;
+        long bestCost = Long.MAX_VALUE;
+        for (int k = 0; k < count; k++) {
+            if (myIn[k] == null) {
+                continue;
+            }
+            int loop = myOut[k].containsKey(k) ? 1 : 0;
+            long cost = (long) (myIn[k].size() - loop) * (myOut[k].size() - loop);
+            if (cost < bestCost) {
+                best = k;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Eliminates state <CODE>k</CODE>, replacing every path p-k-q with a
+     * transition labeled with the label of p-k, the star of the loop on
+     * <CODE>k</CODE> and the label of k-q.
+     *
+     * @param k the state to eliminate
+     */
+    private void eliminate(int k) {
+        RegularNode loop = myOut[k].remove(k);
+        myIn[k].remove(k);
+        RegularNode star = loop == null ? myFactory.lambda() : myFactory.star(loop);
+        for (Map.Entry<Integer, RegularNode> in : myIn[k].entrySet()) {
+            for (Map.Entry<Integer, RegularNode> out : myOut[k].entrySet()) {
+                add(in.getKey(), out.getKey(),
+                    myFactory.concatenation(in.getValue(), star, out.getValue()));
+            }
+        }
+        remove(k);
+    }
+
+    /**
+     * Adds <CODE>label</CODE> to the transition from <CODE>p</CODE> to
+     * <CODE>q</CODE>, as another operand of a union if there is one.
+     *
+     * @param p     the state the transition comes from
+     * @param q     the state the transition goes to
+     * @param label the label to add
+     */
+    private void add(int p, int q, RegularNode label) {
+        RegularNode old = myOut[p].get(q);
+        RegularNode union = old == null ? label : myFactory.union(old, label);
+        myOut[p].put(q, union);
+        myIn[q].put(p, union);
+    }
+
+    /**
+     * Removes state <CODE>k</CODE> and its transitions.
+     *
+     * @param k the state to remove
+     */
+    private void remove(int k) {
+        for (Integer p : myIn[k].keySet()) {
+            myOut[p].remove(k);
+        }
+        for (Integer q : myOut[k].keySet()) {
+            myIn[q].remove(k);
+        }
+        myIn[k] = null;
+        myOut[k] = null;
+    }
+
+    /**
+     * Returns the states reachable from <CODE>start</CODE> along
+     * <CODE>edges</CODE>.
+     *
+     * @param start the state to start from
+     * @param edges the neighbours of each state
+     * @return which states are reachable
+     */
+    private static boolean[] search(int start, Map<Integer, RegularNode>[] edges) {
+        boolean[] visited = new boolean[edges.length];
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        visited[start] = true;
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            for (Integer next : edges[stack.pop()].keySet()) {
+                if (!visited[next]) {
+                    visited[next] = true;
+                    stack.push(next);
+                }
+            }
+        }
+        return visited;
+    }
+}
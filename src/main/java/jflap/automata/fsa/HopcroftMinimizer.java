@@ -0,0 +1,346 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.automata.fsa;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jflap.automata.Automaton;
+import jflap.automata.AutomatonChecker;
+import jflap.automata.State;
+import jflap.automata.StatePlacer;
+import jflap.automata.Transition;
+
+/**
+ * The Hopcroft minimizer object can be used to minimize a deterministic finite
+ * state automaton in one call, without building the tree of distinguishable
+ * groups used by <CODE>Minimizer</CODE>. States are refined with Hopcroft's
+ * partition refinement algorithm over integer arrays, which takes
+ * O(n&middot;k&middot;log n) time for n states and k terminals.
+ * <p>
+ * Unreachable states are dropped and an implicit trap state completes the
+ * automaton. States equivalent to the trap state are not part of the result.
+ * States of the minimum dfa are numbered in breadth first order from the
+ * initial state, following terminals in alphabetical order, so two equivalent
+ * automata produce minimum dfas with identical state ids and transitions.
+ * <p>
+ * The minimizer keeps no state between calls, so one instance can be shared.
+ *
+ * @see jflap.automata.fsa.Minimizer
+ */
+
+public class HopcroftMinimizer {
+    /**
+     * The placer used for states of the minimum dfa.
+     */
+    private static final StatePlacer STATE_PLACER = new StatePlacer();
+
+    /**
+     * Creates an instance of <CODE>HopcroftMinimizer</CODE>.
+     */
+    public HopcroftMinimizer() {
+
+    }
+
+    /**
+     * Returns the minimum dfa equivalent to <CODE>automaton</CODE>.
+     * <CODE>automaton</CODE> is not altered.
+     *
+     * @param automaton the deterministic automaton to minimize. Labels of
+     *                  many characters are split first, and the automaton is
+     *                  made deterministic again if any of them share a prefix.
+     * @return the minimum dfa equivalent to <CODE>automaton</CODE>.
+     * @throws IllegalArgumentException if <CODE>automaton</CODE> has no
+     *                                  initial state, or is not deterministic
+     */
+    public FiniteStateAutomaton getMinimumDfa(Automaton automaton) {
+        if (automaton.getInitialState() == null) {
+            throw new IllegalArgumentException("Automaton has no initial state.");
+        }
+        if (FSALabelHandler.hasMultipleCharacterLabels(automaton)) {
+            automaton = (Automaton) automaton.clone();
+            FSALabelHandler.removeMultipleCharacterLabelsFromAutomaton(automaton);
+            /** labels sharing a prefix split into edges on the same terminal. */
+            if (new AutomatonChecker().isNFA(automaton)) {
+                automaton = new NFAToDFA().convertToDFA(automaton);
+            }
+        }
+
+        /** index reachable states, initial state first. */
+        List<State> states = new ArrayList<>();
+        Map<State, Integer> indexes = new HashMap<>();
+        states.add(automaton.getInitialState());
+        indexes.put(automaton.getInitialState(), 0);
+        List<String> alphabet = new ArrayList<>();
+        for (int i = 0; i < states.size(); i++) {
+            Transition[] transitions = automaton.getTransitionsFromState(states.get(i));
+            for (int j = 0; j < transitions.length; j++) {
+                String label = ((FSATransition) transitions[j]).getLabel();
+                if (label.length() == 0) {
+                    throw new IllegalArgumentException("Automaton is not deterministic.");
+                }
+                if (!alphabet.contains(label)) {
+                    alphabet.add(label);
+                }
+                State toState = transitions[j].getToState();
+                if (!indexes.containsKey(toState)) {
+                    indexes.put(toState, states.size());
+                    states.add(toState);
+                }
+            }
+        }
+        Collections.sort(alphabet);
+        Map<String, Integer> terminals = new HashMap<>();
+        for (int a = 0; a < alphabet.size(); a++) {
+            terminals.put(alphabet.get(a), a);
+        }
+
+        /** the complete transition function, with trap state at index n. */
+        int n = states.size();
+        int size = n + 1;
+        int k = alphabet.size();
+        int[] delta = new int[size * k];
+        Arrays.fill(delta, n);
+        boolean[] finals = new boolean[size];
+        for (int q = 0; q < n; q++) {
+            finals[q] = automaton.isFinalState(states.get(q));
+            Transition[] transitions = automaton.getTransitionsFromState(states.get(q));
+            for (int j = 0; j < transitions.length; j++) {
+                int a = terminals.get(((FSATransition) transitions[j]).getLabel());
+                int to = indexes.get(transitions[j].getToState());
+                if (delta[q * k + a] != n && delta[q * k + a] != to) {
+                    throw new IllegalArgumentException("Automaton is not deterministic.");
+                }
+                delta[q * k + a] = to;
+            }
+        }
+
+        int[] block = getBlocks(delta, size, k, finals);
+        return createMinimumDfa(delta, block, size, k, finals, states, alphabet);
+    }
+
+    /**
+     * Refines the partition of states into blocks of equivalent states.
+     *
+     * @param delta  the complete transition function, indexed with
+     *               <CODE>state * k + terminal</CODE>.
+     * @param size   the number of states.
+     * @param k      the number of terminals.
+     * @param finals which states are final.
+     * @return the block of every state.
+     */
+    private int[] getBlocks(int[] delta, int size, int k, boolean[] finals) {
+        /** inverse transitions in compressed form. */
+        int[] inverseStart = new int[size * k + 1];
+        for (int q = 0; q < size * k; q++) {
+            inverseStart[delta[q] * k + q % k + 1]++;
+        }
+        for (int i = 0; i < size * k; i++) {
+            inverseStart[i + 1] += inverseStart[i];
+        }
+        int[] inverse = new int[size * k];
+        int[] fill = Arrays.copyOf(inverseStart, size * k);
+        for (int q = 0; q < size * k; q++) {
+            inverse[fill[delta[q] * k + q % k]++] = q / k;
+        }
+
+        /** blocks are contiguous segments of elements. */
+        int[] elements = new int[size];
+        int[] location = new int[size];
+        int[] block = new int[size];
+        int[] start = new int[size];
+        int[] end = new int[size];
+        int[] marked = new int[size];
+        int finalCount = 0;
+        for (int q = 0; q < size; q++) {
+            if (finals[q]) {
+                finalCount++;
+            }
+        }
+        int first = 0;
+        int second = finalCount;
+        for (int q = 0; q < size; q++) {
+            int position = finals[q] ? first++ : second++;
+            elements[position] = q;
+            location[q] = position;
+            block[q] = finals[q] || finalCount == 0 ? 0 : 1;
+        }
+        if (finalCount == 0 || finalCount == size) {
+            return block;
+        }
+        int blocks = 2;
+        start[0] = 0;
+        end[0] = finalCount;
+        start[1] = finalCount;
+        end[1] = size;
+
+        boolean[] waiting = new boolean[size];
+        ArrayDeque<Integer> worklist = new ArrayDeque<>();
+        int smallest = finalCount <= size - finalCount ? 0 : 1;
+        waiting[smallest] = true;
+        worklist.add(smallest);
+
+        int[] splitter = new int[size];
+        int[] touched = new int[size];
+        while (!worklist.isEmpty()) {
+            int s = worklist.poll();
+            waiting[s] = false;
+            int length = end[s] - start[s];
+            System.arraycopy(elements, start[s], splitter, 0, length);
+            for (int a = 0; a < k; a++) {
+                /** move predecessors to the front of their blocks. */
+                int touchedCount = 0;
+                for (int i = 0; i < length; i++) {
+                    int index = splitter[i] * k + a;
+                    for (int j = inverseStart[index]; j < inverseStart[index + 1]; j++) {
+                        int p = inverse[j];
+                        int b = block[p];
+                        int m = start[b] + marked[b];
+                        if (location[p] >= m) {
+                            int other = elements[m];
+                            elements[location[p]] = other;
+                            location[other] = location[p];
+                            elements[m] = p;
+                            location[p] = m;
+                            if (marked[b]++ == 0) {
+                                touched[touchedCount++] = b;
+                            }
+                        }
+                    }
+                }
+                /** split blocks that were only partly marked. */
+                for (int t = 0; t < touchedCount; t++) {
+                    int b = touched[t];
+                    int count = marked[b];
+                    marked[b] = 0;
+                    if (count == end[b] - start[b]) {
+                        continue;
+                    }
+                    int created = blocks++;
+                    start[created] = start[b];
+                    end[created] = start[b] + count;
+                    start[b] = end[created];
+                    for (int i = start[created]; i < end[created]; i++) {
+                        block[elements[i]] = created;
+                    }
+                    if (waiting[b]) {
+                        waiting[created] = true;
+                        worklist.add(created);
+                    } else {
+                        int smaller = count <= end[b] - start[b] ? created : b;
+                        waiting[smaller] = true;
+                        worklist.add(smaller);
+                    }
+                }
+            }
+        }
+        return block;
+    }
+
+    /**
+     * Creates the minimum dfa with one state for every block reachable from
+     * the block of the initial state, except for the block of the trap state.
+     *
+     * @param delta    the complete transition function.
+     * @param block    the block of every state.
+     * @param size     the number of states, including the trap state.
+     * @param k        the number of terminals.
+     * @param finals   which states are final.
+     * @param states   the original states, by index.
+     * @param alphabet the terminals, by index.
+     * @return the minimum dfa.
+     */
+    private FiniteStateAutomaton createMinimumDfa(int[] delta, int[] block, int size, int k,
+                                                  boolean[] finals, List<State> states,
+                                                  List<String> alphabet) {
+        int trapBlock = block[size - 1];
+        int[] representative = new int[size];
+        Arrays.fill(representative, -1);
+        List<List<Integer>> groups = new ArrayList<>();
+        for (int q = 0; q < size; q++) {
+            groups.add(null);
+        }
+        for (int q = 0; q < size - 1; q++) {
+            if (representative[block[q]] == -1) {
+                representative[block[q]] = q;
+                groups.set(block[q], new ArrayList<Integer>());
+            }
+            groups.get(block[q]).add(states.get(q).getID());
+        }
+
+        FiniteStateAutomaton minDfa = new FiniteStateAutomaton();
+        State[] created = new State[size];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        minDfa.setInitialState(createState(minDfa, block[0], groups, finals[0], created));
+        queue.add(block[0]);
+        while (!queue.isEmpty()) {
+            int b = queue.poll();
+            if (b == trapBlock) {
+                continue;
+            }
+            int q = representative[b];
+            for (int a = 0; a < k; a++) {
+                int to = block[delta[q * k + a]];
+                if (to == trapBlock) {
+                    continue;
+                }
+                if (created[to] == null) {
+                    createState(minDfa, to, groups, finals[representative[to]], created);
+                    queue.add(to);
+                }
+                minDfa.addTransition(new FSATransition(created[b], created[to], alphabet.get(a)));
+            }
+        }
+        return minDfa;
+    }
+
+    /**
+     * Creates the state of the minimum dfa for block <CODE>b</CODE>.
+     *
+     * @param minDfa  the minimum dfa.
+     * @param b       the block.
+     * @param groups  the ids of original states in each block.
+     * @param isFinal if the block is final.
+     * @param created the states created so far, by block.
+     * @return the created state.
+     */
+    private State createState(Automaton minDfa, int b, List<List<Integer>> groups,
+                              boolean isFinal, State[] created) {
+        State state = minDfa.createStateWithId(STATE_PLACER.getPointForState(minDfa),
+            minDfa.states.size());
+        List<Integer> group = groups.get(b);
+        Collections.sort(group);
+        StringBuilder label = new StringBuilder();
+        for (int i = 0; i < group.size(); i++) {
+            if (i > 0) {
+                label.append(",");
+            }
+            label.append(group.get(i));
+        }
+        state.setLabel(label.toString());
+        if (isFinal) {
+            minDfa.addFinalState(state);
+        }
+        created[b] = state;
+        return state;
+    }
+}
@@ -40,6 +40,16 @@ import jflap.automata.*;
  */
 
 public class NFAToDFA {
+    /**
+     * The placer used for states created during the conversion.
+     */
+    private static final StatePlacer STATE_PLACER = new StatePlacer();
+
+    /**
+     * The number of subsets expanded during the last conversion.
+     */
+    private int exploredSubsets = 0;
+
     /**
      * Creates an instance of <CODE>NFAToDFA</CODE>
      */
@@ -321,12 +331,14 @@ public class NFAToDFA {
 
     /**
      * Returns a deterministic finite state automaton equivalent to <CODE>automaton</CODE>.
+     * Subsets of nfa states are kept as bit sets of state indexes and looked up in
+     * a hash map, so every subset is expanded exactly once.
      * <CODE>automaton</CODE> is not at all affected by this conversion.
-     *
      * @param automaton the automaton to convert to a dfa.
      * @return a deterministic finite state automaton equivalent to <CODE>automaton</CODE>.
      */
     public FiniteStateAutomaton convertToDFA(Automaton automaton) {
+        exploredSubsets = 0;
         /** check if actually nfa. */
         AutomatonChecker ac = new AutomatonChecker();
         if (!ac.isNFA(automaton)) {
@@ -336,28 +348,136 @@ public class NFAToDFA {
         if (FSALabelHandler.hasMultipleCharacterLabels(automaton)) {
             FSALabelHandler.removeMultipleCharacterLabelsFromAutomaton(automaton);
         }
+
+        State[] nfaStates = automaton.getStates();
+        Map<State, Integer> indexes = new HashMap<>();
+        for (int k = 0; k < nfaStates.length; k++) {
+            indexes.put(nfaStates[k], k);
+        }
+        String[] alphabet = new FSAAlphabetRetriever().getAlphabet(automaton);
+        Map<String, Integer> terminals = new HashMap<>();
+        for (int k = 0; k < alphabet.length; k++) {
+            terminals.put(alphabet[k], k);
+        }
+        BitSet finals = new BitSet(nfaStates.length);
+        for (int k = 0; k < nfaStates.length; k++) {
+            if (automaton.isFinalState(nfaStates[k])) {
+                finals.set(k);
+            }
+        }
+
+        /** moves[state][terminal] holds closure of states reachable on terminal. */
+        BitSet[][] moves = new BitSet[nfaStates.length][alphabet.length];
+        BitSet[] closures = new BitSet[nfaStates.length];
+        for (int k = 0; k < nfaStates.length; k++) {
+            Transition[] transitions = automaton.getTransitionsFromState(nfaStates[k]);
+            for (int i = 0; i < transitions.length; i++) {
+                FSATransition transition = (FSATransition) transitions[i];
+                Integer terminal = terminals.get(transition.getLabel());
+                if (terminal == null) {
+                    continue;
+                }
+                if (moves[k][terminal] == null) {
+                    moves[k][terminal] = new BitSet(nfaStates.length);
+                }
+                moves[k][terminal].or(getClosure(indexes.get(transition.getToState()),
+                    closures, nfaStates, indexes, automaton));
+            }
+        }
+
         /** create new finite state automaton. */
         FiniteStateAutomaton dfa = new FiniteStateAutomaton();
-        State initialState = createInitialState(automaton, dfa);
-        /**
-         * get initial state and add to list of states that need to be expanded.
-         */
-        ArrayList<State> list = new ArrayList<>();
-        list.add(initialState);
-        /** while still more states to be expanded. */
-        while (!list.isEmpty()) {
-            ArrayList<State> statesToExpand = new ArrayList<>();
-            Iterator<State> it = list.iterator();
-            while (it.hasNext()) {
-                State state = it.next();
-                /** expand state. */
-                statesToExpand.addAll(expandState(state, automaton, dfa));
-                it.remove();
+        Map<BitSet, State> subsets = new HashMap<>();
+        ArrayDeque<BitSet> worklist = new ArrayDeque<>();
+        BitSet initial = getClosure(indexes.get(automaton.getInitialState()),
+            closures, nfaStates, indexes, automaton);
+        dfa.setInitialState(createStateForSubset(dfa, initial, nfaStates, finals, subsets));
+        worklist.add(initial);
+        /** while still more subsets to be expanded. */
+        while (!worklist.isEmpty()) {
+            BitSet subset = worklist.poll();
+            State state = subsets.get(subset);
+            exploredSubsets++;
+            for (int k = 0; k < alphabet.length; k++) {
+                BitSet reachable = new BitSet(nfaStates.length);
+                for (int i = subset.nextSetBit(0); i >= 0; i = subset.nextSetBit(i + 1)) {
+                    if (moves[i][k] != null) {
+                        reachable.or(moves[i][k]);
+                    }
+                }
+                if (reachable.isEmpty()) {
+                    continue;
+                }
+                State toState = subsets.get(reachable);
+                if (toState == null) {
+                    toState = createStateForSubset(dfa, reachable, nfaStates, finals, subsets);
+                    worklist.add(reachable);
+                }
+                dfa.addTransition(new FSATransition(state, toState, alphabet[k]));
             }
-            list.addAll(statesToExpand);
         }
 
         return dfa;
     }
 
+    /**
+     * Returns the number of subsets of nfa states expanded during the last
+     * call of <CODE>convertToDFA</CODE>.
+     * @return the number of subsets expanded during the last conversion.
+     */
+    public int getExploredSubsets() {
+        return exploredSubsets;
+    }
+
+    /**
+     * Returns the closure of the nfa state with index <CODE>k</CODE> as a bit
+     * set of state indexes. Closures are computed once and cached in
+     * <CODE>closures</CODE>.
+     * @param k         the index of the state.
+     * @param closures  the cache of already computed closures.
+     * @param nfaStates the states of the nfa, by index.
+     * @param indexes   the map from nfa states to their indexes.
+     * @param nfa       the nfa.
+     * @return the closure of the state.
+     */
+    private BitSet getClosure(int k, BitSet[] closures, State[] nfaStates,
+                              Map<State, Integer> indexes, Automaton nfa) {
+        if (closures[k] == null) {
+            State[] closure = ClosureTaker.getClosure(nfaStates[k], nfa);
+            closures[k] = new BitSet(nfaStates.length);
+            for (int i = 0; i < closure.length; i++) {
+                closures[k].set(indexes.get(closure[i]));
+            }
+        }
+        return closures[k];
+    }
+
+    /**
+     * Creates a state in <CODE>dfa</CODE> representing <CODE>subset</CODE>
+     * of nfa states and registers it in <CODE>subsets</CODE>.
+     * @param dfa       the dfa being built.
+     * @param subset    the indexes of nfa states represented by the state.
+     * @param nfaStates the states of the nfa, by index.
+     * @param finals    the indexes of final nfa states.
+     * @param subsets   the map from subsets to dfa states.
+     * @return the created state.
+     */
+    private State createStateForSubset(Automaton dfa, BitSet subset, State[] nfaStates,
+                                       BitSet finals, Map<BitSet, State> subsets) {
+        State state = dfa.createStateWithId(STATE_PLACER.getPointForState(dfa), subsets.size());
+        StringBuilder label = new StringBuilder();
+        for (int i = subset.nextSetBit(0); i >= 0; i = subset.nextSetBit(i + 1)) {
+            if (label.length() > 0) {
+                label.append(",");
+            }
+            label.append(nfaStates[i].getID());
+        }
+        state.setLabel(label.toString());
+        if (subset.intersects(finals)) {
+            dfa.addFinalState(state);
+        }
+        subsets.put(subset, state);
+        return state;
+    }
+
 }
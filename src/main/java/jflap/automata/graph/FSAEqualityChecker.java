@@ -18,7 +18,7 @@
 package jflap.automata.graph;
 
 import jflap.automata.fsa.FiniteStateAutomaton;
-import jflap.automata.fsa.Minimizer;
+import jflap.automata.fsa.HopcroftMinimizer;
 import jflap.automata.fsa.NFAToDFA;
 
 /**
@@ -32,14 +32,10 @@ public class FSAEqualityChecker {
      * The equality checker.
      */
     private static final DFAEqualityChecker checker = new DFAEqualityChecker();
-    /**
-     * The converter for an NFA to a DFA.
-     */
-    private static final NFAToDFA nfaConverter = new NFAToDFA();
     /**
      * That which minimizes a DFA.
      */
-    private static final Minimizer minimizer = new Minimizer();
+    private static final HopcroftMinimizer minimizer = new HopcroftMinimizer();
 
     /**
      * Checks if two FSAs accept the same language.
@@ -55,20 +51,14 @@ public class FSAEqualityChecker {
         fsa1 = (FiniteStateAutomaton) fsa1.clone();
         fsa2 = (FiniteStateAutomaton) fsa2.clone();
 
-        // Make sure they're DFAs.
+        // Make sure they're DFAs. The converter keeps statistics of its last
+        // conversion, so it is not shared between threads.
+        NFAToDFA nfaConverter = new NFAToDFA();
         fsa1 = nfaConverter.convertToDFA(fsa1);
         fsa2 = nfaConverter.convertToDFA(fsa2);
         // Minimize the DFAs.
-        minimizer.initializeMinimizer();
-        fsa1 = (FiniteStateAutomaton) minimizer.getMinimizeableAutomaton(fsa1);
-        javax.swing.tree.DefaultTreeModel tree = minimizer
-            .getDistinguishableGroupsTree(fsa1);
-        fsa1 = minimizer.getMinimumDfa(fsa1, tree);
-
-        minimizer.initializeMinimizer();
-        fsa2 = (FiniteStateAutomaton) minimizer.getMinimizeableAutomaton(fsa2);
-        tree = minimizer.getDistinguishableGroupsTree(fsa2);
-        fsa2 = minimizer.getMinimumDfa(fsa2, tree);
+        fsa1 = minimizer.getMinimumDfa(fsa1);
+        fsa2 = minimizer.getMinimumDfa(fsa2);
 
         // Check the minimized DFAs to see if they are the same.
         return checker.equals(fsa1, fsa2);
@@ -17,27 +17,33 @@
 
 package jflap.automata.pda;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 /**
  * A character stack. Allows the pushing and popping of individual <CODE>char</CODE>s.
+ * <p>
+ * Characters are kept in a linked list of immutable nodes, top of the stack
+ * first. Pushing and popping only replace the reference to the top node, so
+ * copies of a stack share all nodes below the point where they diverge and
+ * copying a stack takes constant time. Every node stores the height and hash
+ * of the stack it tops, so <CODE>hashCode</CODE> and <CODE>height</CODE>
+ * take constant time as well.
  *
  * @author Thomas Finley
  */
 
 public class CharacterStack implements Serializable {
     /**
-     *
-     */
-    private static final long serialVersionUID = 1L;
-    /**
-     * The string buffer.
+     * Stacks are serialized as their characters since version 2.
      */
-    private StringBuffer buffer = new StringBuffer();
+    private static final long serialVersionUID = 2L;
     /**
-     * The cached hash value.
+     * The top node, or <CODE>null</CODE> if the stack is empty.
      */
-    private int cachedHash = 0xdeadbeef;
+    private transient Node top;
 
     /**
      * Instantiates an empty character stack.
@@ -48,11 +54,13 @@ public class CharacterStack implements Serializable {
 
     /**
      * Instantiates a character stack that is a copy of a given character stack.
+     * The copy shares its nodes with <CODE>stack</CODE>, and neither of them
+     * is affected by later changes to the other.
      *
      * @param stack the character stack to copy
      */
     public CharacterStack(CharacterStack stack) {
-        this.buffer = new StringBuffer(stack.buffer.toString());
+        this.top = stack.top;
     }
 
     /**
@@ -61,8 +69,7 @@ public class CharacterStack implements Serializable {
      * @param character the character to push onto the stack
      */
     public void push(char character) {
-        buffer.insert(0, character);
-        cachedHash = 0xdeadbeef;
+        top = new Node(character, top);
     }
 
     /**
@@ -72,16 +79,16 @@ public class CharacterStack implements Serializable {
      * @param string the strings characters which we push onto the stack
      */
     public void push(String string) {
-        buffer.insert(0, string);
-        cachedHash = 0xdeadbeef;
+        for (int i = string.length() - 1; i >= 0; i--) {
+            top = new Node(string.charAt(i), top);
+        }
     }
 
     /**
      * Clears the stack.
      */
     public void clear() {
-        buffer = new StringBuffer();
-        cachedHash = 0xdeadbeef;
+        top = null;
     }
 
     /**
@@ -90,21 +97,23 @@ public class CharacterStack implements Serializable {
      * @return the number of characters on this stack
      */
     public int height() {
-        return buffer.length();
+        return top == null ? 0 : top.height;
     }
 
     /**
      * Pops a character from this stack. This will remove that character from
      * the stack.
      *
-     * @return the top character in the stack, or 0 if there is no character in
-     * the stack
+     * @return the top character in the stack
+     * @throws IndexOutOfBoundsException if the stack is empty
      */
     public char pop() {
-        char[] toReturn = new char[1];
-        buffer.getChars(0, 1, toReturn, 0);
-        buffer.deleteCharAt(0);
-        return toReturn[0];
+        if (top == null) {
+            throw new IndexOutOfBoundsException("Stack is empty.");
+        }
+        char character = top.character;
+        top = top.next;
+        return character;
     }
 
     /**
@@ -118,39 +127,84 @@ public class CharacterStack implements Serializable {
      * stack
      */
     public String pop(int number) {
-        if (buffer.length() < number) {
+        if (height() < number) {
             return null;
         }
         char[] c = new char[number];
-        buffer.getChars(0, number, c, 0);
-        buffer.delete(0, number);
+        for (int i = 0; i < number; i++) {
+            c[i] = top.character;
+            top = top.next;
+        }
         return new String(c);
     }
 
+    /**
+     * Checks if the top characters of this stack are the characters of
+     * <CODE>string</CODE>, first character of the string on the top. The stack
+     * is not altered.
+     *
+     * @param string the characters to look for
+     * @return <CODE>true</CODE> if popping <CODE>string.length()</CODE>
+     * characters would return <CODE>string</CODE>, <CODE>false</CODE>
+     * otherwise
+     */
+    public boolean startsWith(String string) {
+        if (height() < string.length()) {
+            return false;
+        }
+        Node node = top;
+        for (int i = 0; i < string.length(); i++) {
+            if (node.character != string.charAt(i)) {
+                return false;
+            }
+            node = node.next;
+        }
+        return true;
+    }
+
     /**
      * Returns a string representation of this object.
      *
      * @return a string representation of this object
      */
     public String toString() {
-        return buffer.toString();
+        StringBuilder builder = new StringBuilder(height());
+        for (Node node = top; node != null; node = node.next) {
+            builder.append(node.character);
+        }
+        return builder.toString();
     }
 
     /**
      * Predictably, two character stacks are equal if they have the same
-     * characters in the stack in the same order, etc.
+     * characters in the stack in the same order, etc. Stacks which share
+     * nodes are compared only down to the first shared node.
      *
      * @param stack the stack to check against for equality
      * @return <CODE>true</CODE> if the stacks are equal, <CODE>false</CODE>
      * otherwise
      */
     public boolean equals(Object stack) {
-        try {
-            return ((CharacterStack) stack).buffer.toString().equals(
-                buffer.toString());
-        } catch (ClassCastException e) {
+        if (!(stack instanceof CharacterStack)) {
+            return false;
+        }
+        Node node = top;
+        Node other = ((CharacterStack) stack).top;
+        if (node == other) {
+            return true;
+        }
+        if (node == null || other == null || node.height != other.height
+            || node.hash != other.hash) {
             return false;
         }
+        while (node != other) {
+            if (node.character != other.character) {
+                return false;
+            }
+            node = node.next;
+            other = other.next;
+        }
+        return true;
     }
 
     /**
@@ -159,9 +213,76 @@ public class CharacterStack implements Serializable {
      * @return a hash value for this character stack
      */
     public int hashCode() {
-        if (cachedHash != 0xdeadbeef) {
-            return cachedHash;
+        return top == null ? 0 : top.hash;
+    }
+
+    /**
+     * Writes the height and characters of the stack instead of its nodes, so
+     * deep stacks do not overflow the serialization stack.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(height());
+        out.writeChars(toString());
+    }
+
+    /**
+     * Reads the characters of the stack written by <CODE>writeObject</CODE>.
+     *
+     * @param in the stream to read from
+     * @throws IOException            if reading fails
+     * @throws ClassNotFoundException if a class of the stream is unknown
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        char[] characters = new char[in.readInt()];
+        for (int i = 0; i < characters.length; i++) {
+            characters[i] = in.readChar();
+        }
+        push(new String(characters));
+    }
+
+    /**
+     * An immutable node of the stack, with the height and hash of the stack
+     * it is the top of.
+     */
+    private static final class Node {
+        /**
+         * The character of this node.
+         */
+        private final char character;
+        /**
+         * The node below, or <CODE>null</CODE> at the bottom of the stack.
+         */
+        private final Node next;
+        /**
+         * The number of characters from this node to the bottom.
+         */
+        private final int height;
+        /**
+         * The hash of characters from this node to the bottom.
+         */
+        private final int hash;
+
+        /**
+         * Instantiates a node on top of <CODE>next</CODE>.
+         *
+         * @param character the character of the node
+         * @param next      the node below, or <CODE>null</CODE>
+         */
+        private Node(char character, Node next) {
+            this.character = character;
+            this.next = next;
+            if (next == null) {
+                this.height = 1;
+                this.hash = 31 + character;
+            } else {
+                this.height = next.height + 1;
+                this.hash = 31 * next.hash + character;
+            }
         }
-        return cachedHash = buffer.toString().hashCode();
     }
 }
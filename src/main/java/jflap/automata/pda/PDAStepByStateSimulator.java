@@ -113,11 +113,11 @@ public class PDAStepByStateSimulator extends AutomatonSimulator {
             String inputToRead = transition.getInputToRead();
             String stringToPop = transition.getStringToPop();
             CharacterStack tempStack = configuration.getStack();
-            /** copy stack object so as to not alter original. */
-            CharacterStack stack = new CharacterStack(tempStack);
-            String stackContents = stack.pop(stringToPop.length());
             if (unprocessedInput.startsWith(inputToRead)
-                && stringToPop.equals(stackContents)) {
+                && tempStack.startsWith(stringToPop)) {
+                /** copy stack object so as to not alter original. */
+                CharacterStack stack = new CharacterStack(tempStack);
+                stack.pop(stringToPop.length());
                 String input = "";
                 if (inputToRead.length() < unprocessedInput.length()) {
                     input = unprocessedInput.substring(inputToRead.length());
@@ -0,0 +1,306 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.automata.pda;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import jflap.automata.State;
+import jflap.automata.Transition;
+import jflap.grammar.Production;
+import jflap.grammar.ProductionChecker;
+import jflap.grammar.cfg.ContextFreeGrammar;
+
+/**
+ * The PDA to CFG triple converter converts a pushdown automaton in the form
+ * required by {@link PDAToCFGConverter} to an equivalent context free
+ * jflap.grammar without a user interface. A variable (p, A, q) derives the
+ * words read while going from p to q and popping A, but instead of making
+ * productions for every pair of states for every transition and removing the
+ * useless ones afterwards, only productions of variables which derive some
+ * word are made.
+ * <p>
+ * Variables are found bottom up with a worklist: a transition popping
+ * <CODE>A</CODE> gives (p, A, q) at once, and a transition pushing
+ * <CODE>BC</CODE> gives (p, A, q) when both (r, B, k) and (k, C, q) are found,
+ * so a new variable is only joined with found variables that it fits. Then
+ * only the productions reachable from the start variable (q0, Z, qf) are kept,
+ * and the jflap.grammar is built directly, with the start variable named S
+ * and the other variables named by unused uppercase letters.
+ *
+ * @see jflap.automata.pda.PDAToCFGConverter
+ */
+
+public class PDAToCFGTripleConverter {
+    /**
+     * The number of states.
+     */
+    private final int myStateCount;
+    /**
+     * The numbers of stack symbols.
+     */
+    private final Map<Character, Integer> mySymbols = new HashMap<>();
+    /**
+     * The found variables, which derive some word.
+     */
+    private final BitSet myFound = new BitSet();
+    /**
+     * The found variables already joined with the others.
+     */
+    private final BitSet myJoined = new BitSet();
+    /**
+     * The found variables waiting to be joined.
+     */
+    private final ArrayDeque<Integer> myWorklist = new ArrayDeque<>();
+    /**
+     * The last states of joined variables, by their first state and symbol.
+     */
+    private final Map<Integer, List<Integer>> myEnds = new HashMap<>();
+    /**
+     * The productions, as their left hand side, read string and variables.
+     */
+    private final Set<Rule> myRules = new LinkedHashSet<>();
+    /**
+     * The jflap.grammar.
+     */
+    private final ContextFreeGrammar myGrammar = new ContextFreeGrammar();
+
+    /**
+     * Converts <CODE>automaton</CODE> to a context free jflap.grammar.
+     *
+     * @param automaton the automaton to convert
+     * @throws IllegalArgumentException if the automaton is not in the correct
+     *                                  form for conversion
+     */
+    public PDAToCFGTripleConverter(PushdownAutomaton automaton) {
+        if (!new PDAToCFGConverter().isInCorrectFormForConversion(automaton)) {
+            throw new IllegalArgumentException("automaton not in correct form for conversion to CFG");
+        }
+        State[] states = automaton.getStates();
+        myStateCount = states.length;
+        Map<State, Integer> numbers = new HashMap<>();
+        for (int i = 0; i < states.length; i++) {
+            numbers.put(states[i], i);
+        }
+        Transition[] all = automaton.getTransitions();
+        int[] from = new int[all.length], to = new int[all.length], pop = new int[all.length];
+        int[] first = new int[all.length], second = new int[all.length];
+        String[] read = new String[all.length];
+        for (int t = 0; t < all.length; t++) {
+            PDATransition transition = (PDATransition) all[t];
+            from[t] = numbers.get(transition.getFromState());
+            to[t] = numbers.get(transition.getToState());
+            read[t] = transition.getInputToRead();
+            pop[t] = symbol(transition.getStringToPop().charAt(0));
+            String push = transition.getStringToPush();
+            first[t] = push.isEmpty() ? -1 : symbol(push.charAt(0));
+            second[t] = push.isEmpty() ? -1 : symbol(push.charAt(1));
+        }
+        int start = variable(numbers.get(automaton.getInitialState()),
+            symbol(PDAToCFGConverter.BOTTOM_OF_STACK.charAt(0)), numbers.get(automaton.getFinalStates()[0]));
+
+        // transitions pushing two symbols, by their target and first symbol,
+        // and by their second symbol
+        Map<Integer, List<Integer>> byTarget = new HashMap<>(), bySecond = new HashMap<>();
+        for (int t = 0; t < all.length; t++) {
+            if (first[t] == -1) {
+                add(new Rule(variable(from[t], pop[t], to[t]), read[t], -1, -1));
+            } else {
+                listOf(byTarget, to[t] * mySymbols.size() + first[t]).add(t);
+                listOf(bySecond, second[t]).add(t);
+            }
+        }
+        while (!myWorklist.isEmpty()) {
+            int variable = myWorklist.poll();
+            int p = variable / mySymbols.size() / myStateCount;
+            int symbol = variable / myStateCount % mySymbols.size();
+            int q = variable % myStateCount;
+            myJoined.set(variable);
+            listOf(myEnds, p * mySymbols.size() + symbol).add(q);
+            // the variable as the first of a pair
+            for (int t : listOf(byTarget, p * mySymbols.size() + symbol)) {
+                for (int end : listOf(myEnds, q * mySymbols.size() + second[t])) {
+                    add(new Rule(variable(from[t], pop[t], end), read[t], variable,
+                        variable(q, second[t], end)));
+                }
+            }
+            // the variable as the second of a pair
+            for (int t : listOf(bySecond, symbol)) {
+                int before = variable(to[t], first[t], p);
+                if (myJoined.get(before)) {
+                    add(new Rule(variable(from[t], pop[t], q), read[t], before, variable));
+                }
+            }
+        }
+        build(start);
+    }
+
+    /**
+     * Returns the jflap.grammar equivalent to the automaton.
+     *
+     * @return the context free jflap.grammar
+     */
+    public ContextFreeGrammar getGrammar() {
+        return myGrammar;
+    }
+
+    /**
+     * Keeps the productions reachable from the start variable and adds them to
+     * the jflap.grammar, naming the variables in the order they are reached.
+     *
+     * @param start the start variable
+     */
+    private void build(int start) {
+        Map<Integer, List<Rule>> rulesOf = new HashMap<>();
+        Set<Character> used = new LinkedHashSet<>();
+        for (Rule rule : myRules) {
+            listOf(rulesOf, rule.lhs).add(rule);
+            for (int i = 0; i < rule.read.length(); i++) {
+                used.add(rule.read.charAt(i));
+            }
+        }
+        String startName = PDAToCFGConverter.START_SYMBOL;
+        used.add(startName.charAt(0));
+        myGrammar.setStartVariable(startName);
+        if (!myFound.get(start)) {
+            return;
+        }
+
+        Map<Integer, String> names = new LinkedHashMap<>();
+        names.put(start, startName);
+        List<Integer> queue = new ArrayList<>();
+        queue.add(start);
+        List<Production> productions = new ArrayList<>();
+        int next = 'A';
+        for (int head = 0; head < queue.size(); head++) {
+            int lhs = queue.get(head);
+            for (Rule rule : rulesOf.get(lhs)) {
+                StringBuilder rhs = new StringBuilder(rule.read);
+                for (int variable : new int[] {rule.first, rule.second}) {
+                    if (variable == -1) {
+                        continue;
+                    }
+                    String name = names.get(variable);
+                    if (name == null) {
+                        while (next <= Character.MAX_VALUE
+                            && (!ProductionChecker.isVariable((char) next) || used.contains((char) next))) {
+                            next++;
+                        }
+                        if (next > Character.MAX_VALUE) {
+                            throw new UnsupportedOperationException(
+                                "All " + names.size() + " available variables are used");
+                        }
+                        name = String.valueOf((char) next++);
+                        names.put(variable, name);
+                        queue.add(variable);
+                    }
+                    rhs.append(name);
+                }
+                productions.add(new Production(names.get(lhs), rhs.toString()));
+            }
+        }
+        myGrammar.addNewProductions(productions.toArray(new Production[0]));
+    }
+
+    /**
+     * Adds a production and finds its left hand side.
+     *
+     * @param rule the production
+     */
+    private void add(Rule rule) {
+        if (myRules.add(rule) && !myFound.get(rule.lhs)) {
+            myFound.set(rule.lhs);
+            myWorklist.add(rule.lhs);
+        }
+    }
+
+    /**
+     * Returns the number of the variable (p, A, q).
+     *
+     * @param p      the state the variable starts in
+     * @param symbol the number of the popped symbol
+     * @param q      the state the variable ends in
+     * @return the number of the variable
+     */
+    private int variable(int p, int symbol, int q) {
+        return (p * mySymbols.size() + symbol) * myStateCount + q;
+    }
+
+    /**
+     * Returns the number of a stack symbol, numbering it if it has none.
+     *
+     * @param symbol the stack symbol
+     * @return the number of the symbol
+     */
+    private int symbol(char symbol) {
+        Integer number = mySymbols.get(symbol);
+        if (number == null) {
+            number = mySymbols.size();
+            mySymbols.put(symbol, number);
+        }
+        return number;
+    }
+
+    /**
+     * Returns the list under <CODE>key</CODE>, adding an empty one if there
+     * is none.
+     */
+    private static <T> List<T> listOf(Map<Integer, List<T>> map, int key) {
+        List<T> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<>();
+            map.put(key, list);
+        }
+        return list;
+    }
+
+    /**
+     * A production with its left hand side, the string read and at most two
+     * variables, which are -1 if absent.
+     */
+    private static final class Rule {
+        final int lhs, first, second;
+        final String read;
+
+        Rule(int lhs, String read, int first, int second) {
+            this.lhs = lhs;
+            this.read = read;
+            this.first = first;
+            this.second = second;
+        }
+
+        public int hashCode() {
+            return ((lhs * 31 + first) * 31 + second) * 31 + read.hashCode();
+        }
+
+        public boolean equals(Object object) {
+            if (!(object instanceof Rule)) {
+                return false;
+            }
+            Rule other = (Rule) object;
+            return lhs == other.lhs && first == other.first && second == other.second
+                && read.equals(other.read);
+        }
+    }
+}
@@ -46,6 +46,10 @@ import jflap.gui.environment.Universe;
 public class NDTMSimulator extends AutomatonSimulator {
     private final AcceptanceFilter[] myFilters;
     private String[] inputStrings;
+    /**
+     * The transitions of the machine, by read symbols.
+     */
+    private final TMTransitionTable myTransitions = new TMTransitionTable(true);
 
     /**
      * Creates a TM simulator for the given automaton.
@@ -144,25 +148,15 @@ public class NDTMSimulator extends AutomatonSimulator {
         /** get all information from configuration. */
 
         State currentState = configuration.getCurrentState();
-        Transition[] transitions =
-            myAutomaton.getTransitionsFromState(currentState);
+        Tape[] tapes = configuration.getTapes();
+        TMTransition[] transitions =
+            myTransitions.getTransitions(currentState, tapes);
         for (int k = 0; k < transitions.length; k++) {
-            TMTransition t = (TMTransition) transitions[k];
-            Tape[] tapes = configuration.getTapes();
-            boolean okay = true;
-            for (int i = 0; okay && i < tapes.length; i++) {
-                String charAtHead = tapes[i].read();
-                String toRead = t.getRead(i);
-                if (!charAtHead.equals(toRead)) {
-                    okay = false;
-                }
-            }
-            if (!okay) {
-                continue; // One of the toReads wasn't satisfied.
-            }
+            TMTransition t = transitions[k];
             State toState = t.getToState();
             Tape[] tapes2 = new Tape[tapes.length];
             for (int i = 0; i < tapes.length; i++) {
+                // the copy shares cells with the parent tape until written
                 tapes2[i] = new Tape(tapes[i]);
                 String toWrite = t.getWrite(i);
                 String direction = t.getDirection(i);
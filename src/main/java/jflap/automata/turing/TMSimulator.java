@@ -22,7 +22,6 @@ import javax.swing.*;
 import jflap.automata.Automaton;
 import jflap.automata.AutomatonSimulator;
 import jflap.automata.Configuration;
-import jflap.automata.Transition;
 import jflap.debug.EDebug;
 import jflap.gui.environment.Universe;
 
@@ -34,10 +33,34 @@ import jflap.gui.environment.Universe;
  */
 
 public class TMSimulator extends AutomatonSimulator {
+    /**
+     * Error code of a step which went fine.
+     */
+    public static final int NO_ERROR = 0;
+    /**
+     * Error code of a step into a building block which lacks an initial state.
+     */
+    public static final int MISSING_INITIAL_STATE = 1;
+    /**
+     * Error code of a step by a transition which uses a variable on the left side of the assignment operator.
+     */
+    public static final int ILLEGAL_VARIABLE = 2;
+
     private String[] inputStrings;
     private final Map<String, String> varToChar = new HashMap<String, String>();
     private final AcceptanceFilter[] myFilters;
-
+    /**
+     * The transitions of the machine and its building blocks, by read symbols.
+     */
+    private final TMTransitionTable myTransitions = new TMTransitionTable(false);
+    /**
+     * If errors of the machine are shown to the user in dialogs.
+     */
+    private final boolean myInteractive;
+    /**
+     * The error which stopped the last step.
+     */
+    private int myError = NO_ERROR;
 
     /**
      * Creates a TM simulator for the given automaton.
@@ -46,7 +69,21 @@ public class TMSimulator extends AutomatonSimulator {
      * @throws IllegalArgumentException if this automaton is not a Turing machine
      */
     public TMSimulator(Automaton automaton) {
+        this(automaton, true);
+    }
+
+    /**
+     * Creates a TM simulator for the given automaton.
+     *
+     * @param automaton   the machine to simulate
+     * @param interactive if errors of the machine are shown to the user in
+     *                    dialogs; otherwise the step which meets one returns no
+     *                    configurations and the error is kept for {@link #getError()}
+     * @throws IllegalArgumentException if this automaton is not a Turing machine
+     */
+    public TMSimulator(Automaton automaton, boolean interactive) {
         super(automaton);
+        myInteractive = interactive;
         if (!(automaton instanceof TuringMachine)) {
             throw new IllegalArgumentException(
                 "Automaton is not a Turing machine, but a "
@@ -110,6 +147,7 @@ public class TMSimulator extends AutomatonSimulator {
     public Configuration[] getInitialConfigurations(String[] inputs) {
 //        System.out.println("Get Initial Configuration of multitape");
         inputStrings = inputs.clone();
+        myError = NO_ERROR;
         Tape[] tapes = new Tape[inputs.length];
         for (int i = 0; i < tapes.length; i++) {
             tapes[i] = new Tape(inputs[i]);
@@ -124,81 +162,42 @@ public class TMSimulator extends AutomatonSimulator {
     }
 
     /**
-     * A vision and a dream, that another take this responsibility.
-     * <p>
-     * This method figures out whether a particular transition is matched by a particular array of tapes.
+     * Returns the error which stopped the last step.
+     *
+     * @return one of the error codes, {@link #NO_ERROR} if there was none
      */
-    private boolean matches(Tape[] tapes, TMTransition tmt) {
-        assert tapes.length == tmt.tapes(); //make sure they address the same number of tapes
-
-        //for MULTITAPE turing Machine
-        if (tapes.length > 1) {
-            for (int i = 0; i < tapes.length; i++) {
-//                System.out.printf("Matches %d%n", i);
-                char underHead = tapes[i].readChar();
-                char toMatch = tmt.getRead(i).charAt(0);
-
-//                if (toMatch == '!'){
-//                    toMatch = tmt.getRead(i).charAt(1);
-//                    if (underHead == toMatch)
-//                        return false;
-//                }
-                if (underHead != toMatch && toMatch != '~') {
-                    return false;
-                }
-                //would like to get priorities right for each tape, because the ! parameter shoudl not introduce arbitrary nondeterminism unless we want it to
-            }
-            return true;
-        }
-
-        assert tapes.length == 1;
+    public int getError() {
+        return myError;
+    }
 
-        //fancy features only work on single-tape machines
-        char underHead = tapes[0].readChar();
+    /**
+     * Warns the user if a variable is used on the left side of the assignment
+     * operator of <CODE>tmt</CODE>.
+     *
+     * @return false if the assignment is illegal
+     */
+    private boolean checkAssignment(TMTransition tmt) {
         String strtoMatch = tmt.getRead(0);
-
         int assignIndex = strtoMatch.indexOf('}');
-        int bangIndex = strtoMatch.indexOf('!');
-
-        //MERLIN MERLIN MERLIN MERLIN MERLIN//
-        //this should have been taken care of during the editing phase - probably put in a re-check on load from save, for legacy issues
-        assert assignIndex == -1 || bangIndex == -1; //both cannot coexist
-
-        if (assignIndex == -1 && bangIndex == -1) { //ordinary case
-            return underHead == strtoMatch.charAt(0) || strtoMatch.charAt(0) == '~';
-
-            //watch out for recognizing a variable
-        } else if (assignIndex != -1) {
-            String[] characters = strtoMatch.substring(0, assignIndex).split(",");
-            boolean flag =
-                false; //this would not be needed, but we want to go through and do error checking on the transition as well
-            for (int i = 0; i < characters.length; i++) {
-                assert characters[i].length() == 1;
-                if (varToChar.containsKey(characters[i])) {
-                    //warn the user that they are attempting something erroneous
-                    //MERLIN MERLIN MERLIN MERLIN MERLIN//
+        if (assignIndex == -1) {
+            return true;
+        }
+        String[] characters = strtoMatch.substring(0, assignIndex).split(",");
+        for (int i = 0; i < characters.length; i++) {
+            if (varToChar.containsKey(characters[i])) {
+                //warn the user that they are attempting something erroneous
+                //MERLIN MERLIN MERLIN MERLIN MERLIN//
+                myError = ILLEGAL_VARIABLE;
+                if (myInteractive) {
                     JOptionPane.showMessageDialog(null,
                         "You cannot use a variable on the left side of the assignment operator!\n Please fix this and restart the simulation.",
                         "Illegal Variable Location!\n"
                         , JOptionPane.ERROR_MESSAGE);
-
-                }
-                if (characters[i].charAt(0) == underHead) {
-                    flag = true;
                 }
-                //take care of assignment somewhere else //here, it's only alphabet letters
+                return false;
             }
-            if (flag) {
-                return flag;
-            }
-        } else {
-            assert bangIndex == 0;
-            return underHead != strtoMatch.charAt(1);
         }
-
-        assert false; //should never get down here
         return true;
-
     }
 
     /**
@@ -246,11 +245,14 @@ public class TMSimulator extends AutomatonSimulator {
 
             //check that the initial state exists
             if (currentState == null) {
-                JOptionPane.showMessageDialog(null,
-                    "It appears that one of your building blocks, possibly nested, lacks an initial state.\n " +
-                        "Please resolve this problem and restart the simulation.",
-                    "Missing Initial State"
-                    , JOptionPane.ERROR_MESSAGE);
+                myError = MISSING_INITIAL_STATE;
+                if (myInteractive) {
+                    JOptionPane.showMessageDialog(null,
+                        "It appears that one of your building blocks, possibly nested, lacks an initial state.\n " +
+                            "Please resolve this problem and restart the simulation.",
+                        "Missing Initial State"
+                        , JOptionPane.ERROR_MESSAGE);
+                }
 
                 return list;
             }
@@ -259,35 +261,15 @@ public class TMSimulator extends AutomatonSimulator {
         assert (tmp == currentState.getInnerTM());
         assert (tmp.getParent() == currentState);
 
-        Transition[] trans = currentState.getAutomaton().getTransitionsFromState(currentState);
         TMTransition tmt = null;
         boolean success = false;
-        outer:
         while (true) {
-
-            //sort the ones with the ! symbol to be the later ones. If there are multiple !, then the choice is arbitrary.
-            Arrays.sort(trans, new Comparator<Transition>() {
-                public int compare(Transition a,
-                                   Transition b) { //variables are only allowed with SINGLE TAPE, and same with NOT
-
-                    TMTransition tma = (TMTransition) a;
-                    TMTransition tmb = (TMTransition) b;
-
-                    char fa = tma.getRead(0).charAt(0);
-                    char fb = tmb.getRead(0).charAt(0);
-                    return (fa == '!') ? (fb == '!' ? 0 : 1) : (fb == '!' ? 1 : 0);
-                }
-            });
-
-            //go through transitions at current level
-            for (int i = 0; i < trans.length; i++) {
-                tmt = (TMTransition) trans[i];
-                if (matches(configuration.getTapes(), tmt)) {
-//                    System.out.println(tmt);
-                    success = true;
-                    break outer;
-                }
-                //tilda means to read nothing or write nothing, and it seems to be explicitly written for turing machines, rather differently from other jflap.automata
+            //transitions with the ! symbol come after the others. If there are multiple !, then the choice is arbitrary.
+            TMTransition[] trans = myTransitions.getTransitions(currentState, configuration.getTapes());
+            if (trans.length > 0) {
+                tmt = trans[0];
+                success = true;
+                break;
             }
 
             //rise a level above.
@@ -296,8 +278,6 @@ public class TMSimulator extends AutomatonSimulator {
             {
                 currentState = tmp.getParent();
                 tmp = (TuringMachine) currentState.getAutomaton();
-                trans =
-                    tmp.getTransitionsFromState(currentState); //this line does not matter right now
             } else {
                 break; //halting condition
             }
@@ -336,6 +316,9 @@ public class TMSimulator extends AutomatonSimulator {
             } else { //only do variable assignments for the one-tape Turing machine...
 
                 //do necessary variable assignments
+                if (!checkAssignment(tmt) && !myInteractive) {
+                    return list;
+                }
                 String st = tmt.getRead(0);
                 int assignIndex = st.indexOf('}');
 
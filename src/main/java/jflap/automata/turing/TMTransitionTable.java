@@ -0,0 +1,191 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.automata.turing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jflap.automata.State;
+import jflap.automata.Transition;
+
+/**
+ * The transition table holds the outgoing transitions of Turing machine
+ * states, indexed by the symbols under the tape heads. For every state and
+ * every combination of symbols seen during simulation, the transitions which
+ * match are found once and kept in the order in which they should be tried,
+ * so every later step in the same situation is a single lookup.
+ * <p>
+ * States of building blocks are indexed in the same table, since every state
+ * knows the machine its transitions belong to. The table is filled as the
+ * simulation goes, so it should not outlive changes to the machine.
+ *
+ * @see jflap.automata.turing.TMSimulator
+ * @see jflap.automata.turing.NDTMSimulator
+ */
+
+public class TMTransitionTable {
+    /**
+     * Whether read symbols are compared literally, without special symbols.
+     */
+    private final boolean literal;
+    /**
+     * The transitions from each state, in order of priority.
+     */
+    private final Map<State, TMTransition[]> myTransitions = new HashMap<>();
+    /**
+     * The matching transitions from each state, by symbols under the heads.
+     */
+    private final Map<State, Map<String, TMTransition[]>> myMatches = new HashMap<>();
+
+    /**
+     * Instantiates a table.
+     *
+     * @param literal if <CODE>true</CODE>, a transition matches only if each
+     *                of its read symbols is the symbol under the head; if
+     *                <CODE>false</CODE>, "~" matches any symbol, and on single
+     *                tape machines "!a" matches anything but "a", "a,b}x"
+     *                matches "a" or "b", and "!" transitions are tried last
+     */
+    public TMTransitionTable(boolean literal) {
+        this.literal = literal;
+    }
+
+    /**
+     * Returns the transitions from <CODE>state</CODE> which match the symbols
+     * under the heads of <CODE>tapes</CODE>, in order in which they should be
+     * tried. The returned array should not be modified.
+     *
+     * @param state the state to take transitions from
+     * @param tapes the tapes of the machine
+     * @return the matching transitions, possibly none
+     */
+    public TMTransition[] getTransitions(State state, Tape[] tapes) {
+        Map<String, TMTransition[]> matches = myMatches.get(state);
+        if (matches == null) {
+            matches = new HashMap<>();
+            myMatches.put(state, matches);
+        }
+        String symbols = symbolsUnderHeads(tapes);
+        TMTransition[] transitions = matches.get(symbols);
+        if (transitions == null) {
+            List<TMTransition> matching = new ArrayList<>();
+            for (TMTransition transition : getTransitions(state)) {
+                if (matches(symbols, transition)) {
+                    matching.add(transition);
+                }
+            }
+            transitions = matching.toArray(new TMTransition[0]);
+            matches.put(symbols, transitions);
+        }
+        return transitions;
+    }
+
+    /**
+     * Returns the transitions from <CODE>state</CODE> in order of priority,
+     * which is their original order with "!" transitions moved to the end.
+     *
+     * @param state the state to take transitions from
+     * @return the transitions from <CODE>state</CODE>
+     */
+    private TMTransition[] getTransitions(State state) {
+        TMTransition[] transitions = myTransitions.get(state);
+        if (transitions == null) {
+            Transition[] all = state.getAutomaton().getTransitionsFromState(state);
+            List<TMTransition> ordered = new ArrayList<>(all.length);
+            List<TMTransition> negated = new ArrayList<>();
+            for (int i = 0; i < all.length; i++) {
+                TMTransition transition = (TMTransition) all[i];
+                if (!literal && transition.getRead(0).charAt(0) == '!') {
+                    negated.add(transition);
+                } else {
+                    ordered.add(transition);
+                }
+            }
+            ordered.addAll(negated);
+            transitions = ordered.toArray(new TMTransition[0]);
+            myTransitions.put(state, transitions);
+        }
+        return transitions;
+    }
+
+    /**
+     * Returns the symbols under the heads of <CODE>tapes</CODE>, one
+     * character for each tape.
+     *
+     * @param tapes the tapes
+     * @return the symbols under the heads
+     */
+    private static String symbolsUnderHeads(Tape[] tapes) {
+        if (tapes.length == 1) {
+            return String.valueOf(tapes[0].readChar());
+        }
+        char[] symbols = new char[tapes.length];
+        for (int i = 0; i < tapes.length; i++) {
+            symbols[i] = tapes[i].readChar();
+        }
+        return new String(symbols);
+    }
+
+    /**
+     * Determines whether <CODE>transition</CODE> matches
+     * <CODE>symbols</CODE>.
+     *
+     * @param symbols    the symbols under the heads, one for each tape
+     * @param transition the transition
+     * @return <CODE>true</CODE> if the transition may be taken
+     */
+    private boolean matches(String symbols, TMTransition transition) {
+        if (literal) {
+            for (int i = 0; i < symbols.length(); i++) {
+                if (!transition.getRead(i).equals(String.valueOf(symbols.charAt(i)))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        if (symbols.length() > 1) {
+            for (int i = 0; i < symbols.length(); i++) {
+                char toMatch = transition.getRead(i).charAt(0);
+                if (symbols.charAt(i) != toMatch && toMatch != '~') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** fancy features only work on single-tape machines. */
+        char underHead = symbols.charAt(0);
+        String toMatch = transition.getRead(0);
+        int assignIndex = toMatch.indexOf('}');
+        if (assignIndex != -1) {
+            String[] characters = toMatch.substring(0, assignIndex).split(",");
+            for (int i = 0; i < characters.length; i++) {
+                if (characters[i].charAt(0) == underHead) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (toMatch.charAt(0) == '!') {
+            return underHead != toMatch.charAt(1);
+        }
+        return underHead == toMatch.charAt(0) || toMatch.charAt(0) == '~';
+    }
+}
@@ -18,10 +18,21 @@
 package jflap.automata.turing;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 /**
  * A tape for a Turing machine. The tape head can move across the tape, reading
  * and writing individual characters.
+ * <p>
+ * The cells are kept in chunks of fixed size. A copy of a tape shares all
+ * chunks with the original, and either of them makes its own copy of a chunk
+ * only when it writes to that chunk, so branching nondeterministic machines
+ * copy a single chunk per step instead of the whole tape. Moving the tape head
+ * past either end of the visited part takes amortized constant time, since the
+ * table of chunks doubles in size towards the side which ran out of space.
+ * <p>
+ * The hash code is kept up to date with every write and move of the head, so
+ * tapes can be compared by hash without going through their cells.
  *
  * @author Ryan Cavalcante
  */
@@ -36,17 +47,48 @@ public class Tape implements Serializable {
      */
     private static final long serialVersionUID = 1L;
     /**
-     * The string buffer.
+     * The number of bits of a cell index which select a cell in its chunk.
      */
-    private StringBuffer buffer = new StringBuffer();
+    private static final int CHUNK_BITS = 6;
     /**
-     * The tape head (index in buffer).
+     * The number of cells in a chunk.
      */
-    private int tapeHead;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
     /**
-     * The cached hash code, since it takes a bit to compute.
+     * The minimal number of chunks added when the table of chunks grows.
      */
-    private int cachedHash = 0xdeadbeef;
+    private static final int MIN_GROWTH = 2;
+    /**
+     * The base of the hash code, and its multiplicative inverse.
+     */
+    private static final int HASH_BASE = 31, HASH_BASE_INVERSE = 0xbdef7bdf;
+    /**
+     * The chunks of cells, visited part from <CODE>first</CODE> to
+     * <CODE>last</CODE>. Chunks outside of the visited part may be null.
+     */
+    private char[][] chunks;
+    /**
+     * Whether each chunk belongs only to this tape and may be written.
+     */
+    private boolean[] owned;
+    /**
+     * The cell index of the first visited cell.
+     */
+    private int first;
+    /**
+     * The cell index after the last visited cell.
+     */
+    private int last;
+    /**
+     * The tape head (cell index).
+     */
+    private int head;
+    /**
+     * The hash code, which is the sum of <CODE>c - BLANK</CODE> times
+     * <CODE>HASH_BASE</CODE> to the power of the distance from the tape head
+     * over all cells, so blank cells do not change it.
+     */
+    private int hash;
 
     /**
      * Instantiates an empty tape object.
@@ -62,23 +104,75 @@ public class Tape implements Serializable {
      * @param input the read string to write to the tape
      */
     public Tape(String input) {
-        buffer = new StringBuffer();
-        if (input.equals("")) {
-            input = "" + BLANK;
-        }
-        buffer.insert(0, input);
-        tapeHead = 0;
+        reset(input.equals("") ? "" + BLANK : input, 0);
     }
 
     /**
-     * Instantiates a tape that is a copy of a given tape.
+     * Instantiates a tape that is a copy of a given tape. The copy shares
+     * chunks with <CODE>tape</CODE> until either of them writes to them.
      *
      * @param tape the tape to copy
      */
     public Tape(Tape tape) {
-        this.buffer = new StringBuffer(tape.buffer.toString());
-        tapeHead = tape.getTapeHead();
-        cachedHash = tape.cachedHash;
+        this.chunks = tape.chunks.clone();
+        this.owned = new boolean[chunks.length];
+        Arrays.fill(tape.owned, false);
+        this.first = tape.first;
+        this.last = tape.last;
+        this.head = tape.head;
+        this.hash = tape.hash;
+    }
+
+    /**
+     * Replaces the tape with <CODE>contents</CODE>, with the tape head at
+     * index <CODE>tapeHead</CODE> of it.
+     *
+     * @param contents the new contents of the tape
+     * @param tapeHead the index of the tape head in the contents
+     */
+    private void reset(String contents, int tapeHead) {
+        int length = contents.length();
+        chunks = new char[(length >> CHUNK_BITS) + 1 + 2 * MIN_GROWTH][];
+        owned = new boolean[chunks.length];
+        first = MIN_GROWTH * CHUNK_SIZE;
+        last = first;
+        hash = 0;
+        for (int i = 0; i < length; i++) {
+            set(last++, contents.charAt(i));
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            hash = hash * HASH_BASE + (contents.charAt(i) - BLANK);
+        }
+        for (int i = 0; i < tapeHead; i++) {
+            hash *= HASH_BASE_INVERSE;
+        }
+        head = first + tapeHead;
+    }
+
+    /**
+     * Returns the character in cell <CODE>index</CODE>.
+     *
+     * @param index the cell index
+     * @return the character in the cell
+     */
+    private char get(int index) {
+        return chunks[index >> CHUNK_BITS][index & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * Sets the character in cell <CODE>index</CODE>, first copying its chunk
+     * if it is shared with other tapes.
+     *
+     * @param index     the cell index
+     * @param character the character to set
+     */
+    private void set(int index, char character) {
+        int chunk = index >> CHUNK_BITS;
+        if (!owned[chunk]) {
+            chunks[chunk] = chunks[chunk] == null ? new char[CHUNK_SIZE] : chunks[chunk].clone();
+            owned[chunk] = true;
+        }
+        chunks[chunk][index & (CHUNK_SIZE - 1)] = character;
     }
 
     /**
@@ -87,20 +181,28 @@ public class Tape implements Serializable {
      * @param character the character to write to the tape.
      */
     public void writeChar(char character) {
-        buffer.deleteCharAt(tapeHead);
-        buffer.insert(tapeHead, character);
-        cachedHash = 0xdeadbeef;
+        char old = get(head);
+        if (old != character) {
+            set(head, character);
+            hash += character - old;
+        }
     }
 
     /**
-     * Writes <CODE>symbol</CODE> to the tape.
+     * Writes <CODE>symbol</CODE> to the tape. The symbol replaces the
+     * character under the tape head.
      *
      * @param symbol the symbol to write to the tape.
      */
     public void write(String symbol) {
-        buffer.deleteCharAt(tapeHead);
-        buffer.insert(tapeHead, symbol);
-        cachedHash = 0xdeadbeef;
+        if (symbol.length() == 1) {
+            writeChar(symbol.charAt(0));
+            return;
+        }
+        StringBuilder contents = new StringBuilder(getContents());
+        int tapeHead = getTapeHead();
+        contents.replace(tapeHead, tapeHead + 1, symbol);
+        reset(contents.toString(), tapeHead);
     }
 
     /**
@@ -109,9 +211,7 @@ public class Tape implements Serializable {
      * @return the character pointed to by the tape head.
      */
     public char readChar() {
-        char[] toReturn = new char[1];
-        buffer.getChars(tapeHead, tapeHead + 1, toReturn, 0);
-        return toReturn[0];
+        return get(head);
     }
 
     /**
@@ -121,9 +221,7 @@ public class Tape implements Serializable {
      * head.
      */
     public String read() {
-        char[] toReturn = new char[1];
-        buffer.getChars(tapeHead, tapeHead + 1, toReturn, 0);
-        return new String(toReturn);
+        return String.valueOf(get(head));
     }
 
     /**
@@ -133,47 +231,82 @@ public class Tape implements Serializable {
      * @throws IllegalArgumentException if <CODE>direction</CODE> is not one of "L", "R", or "S"
      */
     public void moveHead(String direction) {
-        try {
-            switch (direction.charAt(0)) {
-                case 'L':
-                    tapeHead--;
-                    break;
-                case 'R':
-                    tapeHead++;
-                    break;
-                case 'S':
-                    break;
-                default:
-                    throw new IllegalArgumentException("Bad tape direction "
-                        + direction);
-            }
-        } catch (IndexOutOfBoundsException e) {
+        if (direction.length() == 0) {
             throw new IllegalArgumentException(
                 "Tape direction is empty string!");
         }
+        switch (direction.charAt(0)) {
+            case 'L':
+                moveLeft();
+                break;
+            case 'R':
+                moveRight();
+                break;
+            case 'S':
+                break;
+            default:
+                throw new IllegalArgumentException("Bad tape direction "
+                    + direction);
+        }
+    }
 
-        /**
-         * If the tape head is moved to an index out of the range of the buffer,
-         * the buffer needs to grow accordingly, filled with blanks where
-         * appropriate.
-         */
-
-        if (tapeHead >= buffer.length()) {
-            int bufferLength = buffer.length();
-            buffer.setLength(tapeHead + 1);
-            for (int k = bufferLength; k < buffer.length(); k++) {
-                buffer.deleteCharAt(k);
-                buffer.insert(k, BLANK);
+    /**
+     * Moves the tape head one cell to the left. If the tape head leaves the
+     * visited part of the tape, a blank is added in front of it.
+     */
+    private void moveLeft() {
+        if (head == first) {
+            if (first == 0) {
+                int growth = Math.max(chunks.length, MIN_GROWTH);
+                char[][] grown = new char[chunks.length + growth][];
+                boolean[] grownOwned = new boolean[grown.length];
+                System.arraycopy(chunks, 0, grown, growth, chunks.length);
+                System.arraycopy(owned, 0, grownOwned, growth, owned.length);
+                chunks = grown;
+                owned = grownOwned;
+                first += growth * CHUNK_SIZE;
+                last += growth * CHUNK_SIZE;
+                head += growth * CHUNK_SIZE;
             }
-        } else if (tapeHead < 0) {
-            int numToInsert = Math.abs(tapeHead);
-            char[] toInsert = new char[numToInsert];
-            for (int i = 0; i < numToInsert; i++) {
-                toInsert[i] = BLANK;
+            set(--first, BLANK);
+        }
+        head--;
+        hash *= HASH_BASE;
+    }
+
+    /**
+     * Moves the tape head one cell to the right. If the tape head leaves the
+     * visited part of the tape, a blank is added after it.
+     */
+    private void moveRight() {
+        head++;
+        hash *= HASH_BASE_INVERSE;
+        if (head == last) {
+            if (last == chunks.length * CHUNK_SIZE) {
+                int growth = Math.max(chunks.length, MIN_GROWTH);
+                chunks = Arrays.copyOf(chunks, chunks.length + growth);
+                owned = Arrays.copyOf(owned, owned.length + growth);
             }
-            buffer.insert(0, toInsert);
-            tapeHead = 0;
+            set(last++, BLANK);
+        }
+    }
+
+    /**
+     * Returns the cells from <CODE>from</CODE> to <CODE>to</CODE> as a string.
+     *
+     * @param from the index of the first cell
+     * @param to   the index after the last cell
+     * @return the contents of the cells
+     */
+    private String cells(int from, int to) {
+        char[] contents = new char[to - from];
+        for (int i = from; i < to; ) {
+            int offset = i & (CHUNK_SIZE - 1);
+            int length = Math.min(CHUNK_SIZE - offset, to - i);
+            System.arraycopy(chunks[i >> CHUNK_BITS], offset, contents, i - from, length);
+            i += length;
         }
+        return new String(contents);
     }
 
     /**
@@ -183,7 +316,7 @@ public class Tape implements Serializable {
      * @return the contents of the tape as a string
      */
     public String getContents() {
-        return buffer.toString();
+        return cells(first, last);
     }
 
     /**
@@ -196,22 +329,22 @@ public class Tape implements Serializable {
      * @return the output of the tape
      */
     public String getOutput() {
-        int nextBlank = buffer.indexOf("" + BLANK, getTapeHead());
-        if (nextBlank == -1) {
-            nextBlank = buffer.length();
+        int nextBlank = head;
+        while (nextBlank < last && get(nextBlank) != BLANK) {
+            nextBlank++;
         }
-        return buffer.substring(getTapeHead(), nextBlank);
+        return cells(head, nextBlank);
     }
 
     /**
-     * Returns the index in the buffer that the tape head is currently pointing
-     * to.
+     * Returns the index in the contents that the tape head is currently
+     * pointing to.
      *
-     * @return the index in the buffer that the tape head is currently pointing
-     * to.
+     * @return the index in the contents that the tape head is currently
+     * pointing to.
      */
     public int getTapeHead() {
-        return tapeHead;
+        return head - first;
     }
 
     /**
@@ -220,7 +353,7 @@ public class Tape implements Serializable {
      * @return a string representation of the tape object.
      */
     public String toString() {
-        return "[" + buffer.toString() + "]" + " TAPE HEAD AT " + tapeHead;
+        return "[" + getContents() + "]" + " TAPE HEAD AT " + getTapeHead();
     }
 
     /**
@@ -229,19 +362,19 @@ public class Tape implements Serializable {
      * tape symbols.
      *
      * @param section an array of two intergers, which will hold, when finished, the
-     *                index of the first non-blank character in the first entry, and
-     *                the index of the first blank character of the suffix. Here,
-     *                <CODE>section[1]-section[0]</CODE> is the length of the
-     *                non-trivial section.
+     *                cell index of the first non-blank character in the first
+     *                entry, and the cell index of the first blank character of
+     *                the suffix. Here, <CODE>section[1]-section[0]</CODE> is the
+     *                length of the non-trivial section.
      */
     private void nonTrivial(int[] section) {
         int s, e;
-        for (e = buffer.length() - 1; e > 0 && buffer.charAt(e) == BLANK; e--) {
+        for (e = last - 1; e > first && get(e) == BLANK; e--) {
         }
-        if (buffer.charAt(e) != BLANK) {
+        if (get(e) != BLANK) {
             e++;
         }
-        for (s = 0; s < e && buffer.charAt(s) == BLANK; s++) {
+        for (s = first; s < e && get(s) == BLANK; s++) {
         }
         section[0] = s;
         section[1] = e;
@@ -260,10 +393,11 @@ public class Tape implements Serializable {
         if (tape == this) {
             return true;
         }
-        Tape t;
-        try {
-            t = (Tape) tape;
-        } catch (ClassCastException e) {
+        if (!(tape instanceof Tape)) {
+            return false;
+        }
+        Tape t = (Tape) tape;
+        if (hash != t.hash) {
             return false;
         }
         // These variables are necessary for going into the tape so we
@@ -277,12 +411,19 @@ public class Tape implements Serializable {
             return false;
         }
         // If they're at different positions, who cares?
-        if (tapeHead - first[0] != t.tapeHead - second[0]) {
+        if (head - first[0] != t.head - second[0]) {
             return false;
         }
         // If all else fails, compare the characters.
         for (; first[0] < first[1]; first[0]++, second[0]++) {
-            if (buffer.charAt(first[0]) != t.buffer.charAt(second[0])) {
+            int chunk = first[0] >> CHUNK_BITS, otherChunk = second[0] >> CHUNK_BITS;
+            if (chunks[chunk] == t.chunks[otherChunk]
+                && (first[0] & (CHUNK_SIZE - 1)) == (second[0] & (CHUNK_SIZE - 1))) {
+                // a shared chunk is the same up to its end
+                int skip = Math.min(CHUNK_SIZE - (first[0] & (CHUNK_SIZE - 1)), first[1] - first[0]) - 1;
+                first[0] += skip;
+                second[0] += skip;
+            } else if (get(first[0]) != t.get(second[0])) {
                 return false;
             }
         }
@@ -291,16 +432,13 @@ public class Tape implements Serializable {
     }
 
     /**
-     * Returns a hash code for this tape.
+     * Returns a hash code for this tape. Tapes which are equal have the same
+     * hash code regardless of their blank prefixes and suffixes, since blank
+     * cells do not add to it.
      *
      * @return a hash code for this tape
      */
     public int hashCode() {
-        if (cachedHash != 0xdeadbeef) {
-            return cachedHash;
-        }
-        int[] bounds = new int[2];
-        this.nonTrivial(bounds);
-        return cachedHash = buffer.substring(bounds[0], bounds[1]).hashCode();
+        return hash;
     }
 }
@@ -17,6 +17,7 @@
 
 package jflap.file.xml;
 
+import java.awt.GraphicsEnvironment;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
@@ -105,6 +106,10 @@ public class TransducerFactory {
             if (OpenAction.openOrRead) {
                 return instantiate(new TMBBTransducer());
             }
+            // without a display there is nobody to ask, so open it as it was saved
+            if (GraphicsEnvironment.isHeadless()) {
+                return instantiate(new TMTransducer());
+            }
             Object[] possibleValues =
                 {"Standard Turing Machine", "Turing Machine with Building Blocks"};
             Object selectedValue = JOptionPane.showInputDialog(null,
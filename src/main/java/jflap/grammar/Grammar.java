@@ -206,6 +206,23 @@ public abstract class Grammar implements Serializable, Cloneable {
         }
     }
 
+    /**
+     * Adds <CODE>productions</CODE> to the jflap.grammar without searching for
+     * them among its productions, which is faster for large grammars. None of
+     * the productions may be in the jflap.grammar already or be repeated.
+     *
+     * @param productions the distinct new productions
+     * @throws IllegalArgumentException if a production is unsuitable somehow
+     */
+    public void addNewProductions(Production[] productions) {
+        for (int k = 0; k < productions.length; k++) {
+            checkProduction(productions[k]);
+            myProductions.add(productions[k]);
+            myVariables.addAll(Arrays.asList(productions[k].getVariables()));
+            myTerminals.addAll(Arrays.asList(productions[k].getTerminals()));
+        }
+    }
+
     /**
      * Removes <CODE>production</CODE> from the set of productions in the
      * jflap.grammar.
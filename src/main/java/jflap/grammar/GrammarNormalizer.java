@@ -0,0 +1,711 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.grammar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import jflap.grammar.cfg.ContextFreeGrammar;
+
+/**
+ * The jflap.grammar normalizer transforms a context-free jflap.grammar without
+ * a user interface. Symbols are numbered once and productions are kept as
+ * arrays of symbol numbers, the left hand side first, so the passes share the
+ * symbol table and index productions by arrays instead of searching them.
+ * Sets of nullable, generating and reachable variables are computed with
+ * worklists, each production is visited once for every symbol of its right
+ * hand side, so each of these fixpoints takes time linear in the size of the
+ * jflap.grammar.
+ * <p>
+ * The passes may be applied one by one, or combined by
+ * {@link #toChomskyNormalForm} and {@link #toGreibachNormalForm}. The
+ * language of the jflap.grammar is kept, including the empty string: when the
+ * start variable derives it, it keeps a lambda production, and if it is on a
+ * right hand side, a new start variable takes its name and the old one gets a
+ * new name. New variables are uppercase letters not used by the
+ * jflap.grammar, the letters A to Z first.
+ *
+ * @see jflap.grammar.LambdaProductionRemover
+ * @see jflap.grammar.UnitProductionRemover
+ * @see jflap.grammar.UselessProductionRemover
+ * @see jflap.grammar.CNFConverter
+ */
+
+public class GrammarNormalizer {
+    /**
+     * The most productions made of one production by removing its nullable
+     * variables.
+     */
+    public static final int MAX_LAMBDA_VARIANTS = 1 << 16;
+    /**
+     * The symbols, by their numbers.
+     */
+    private final StringBuilder myNames = new StringBuilder();
+    /**
+     * The numbers of the symbols.
+     */
+    private final Map<Character, Integer> myNumbers = new HashMap<>();
+    /**
+     * Which symbols are variables.
+     */
+    private final BitSet myVariables = new BitSet();
+    /**
+     * The productions, each as its left hand side followed by its right hand
+     * side.
+     */
+    private Set<Rule> myProductions = new LinkedHashSet<>();
+    /**
+     * The start variable.
+     */
+    private int myStart;
+    /**
+     * The next character checked when a new variable is needed.
+     */
+    private int myNextName = 'A';
+
+    /**
+     * Instantiates a normalizer of <CODE>grammar</CODE>, which is not changed.
+     * If the start variable of the jflap.grammar has no productions, the left
+     * hand side of the first production is the start variable.
+     *
+     * @param grammar the context-free jflap.grammar to normalize
+     * @throws IllegalArgumentException if the jflap.grammar is not context-free
+     */
+    public GrammarNormalizer(Grammar grammar) {
+        Production[] productions = grammar.getProductions();
+        String start = grammar.getStartVariable();
+        if (productions.length > 0 && !hasProductions(productions, start)) {
+            // as in the editor, the start is then the first left hand side
+            start = productions[0].getLHS();
+        }
+        if (start == null || start.length() != 1 || !ProductionChecker.isVariable(start.charAt(0))) {
+            start = "S";
+        }
+        myStart = number(start.charAt(0));
+        for (int i = 0; i < productions.length; i++) {
+            String lhs = productions[i].getLHS(), rhs = productions[i].getRHS();
+            if (lhs.length() != 1 || !ProductionChecker.isVariable(lhs.charAt(0))) {
+                throw new IllegalArgumentException("Grammar is not context-free");
+            }
+            int[] symbols = new int[rhs.length() + 1];
+            symbols[0] = number(lhs.charAt(0));
+            for (int j = 0; j < rhs.length(); j++) {
+                symbols[j + 1] = number(rhs.charAt(j));
+            }
+            myProductions.add(new Rule(symbols));
+        }
+    }
+
+    /**
+     * Returns the number of productions of the jflap.grammar as transformed so
+     * far.
+     *
+     * @return the number of productions
+     */
+    public int getProductionCount() {
+        return myProductions.size();
+    }
+
+    /**
+     * Returns the jflap.grammar as transformed so far. Productions of the start
+     * variable come first.
+     *
+     * @return a new jflap.grammar
+     */
+    public Grammar getGrammar() {
+        List<Production> productions = new ArrayList<>(myProductions.size());
+        for (int pass = 0; pass < 2; pass++) {
+            for (Rule rule : myProductions) {
+                int[] symbols = rule.symbols;
+                if ((symbols[0] == myStart) != (pass == 0)) {
+                    continue;
+                }
+                StringBuilder rhs = new StringBuilder(symbols.length - 1);
+                for (int i = 1; i < symbols.length; i++) {
+                    rhs.append(myNames.charAt(symbols[i]));
+                }
+                productions.add(new Production(String.valueOf(myNames.charAt(symbols[0])), rhs.toString()));
+            }
+        }
+        ContextFreeGrammar grammar = new ContextFreeGrammar();
+        grammar.setStartVariable(String.valueOf(myNames.charAt(myStart)));
+        grammar.addNewProductions(productions.toArray(new Production[0]));
+        return grammar;
+    }
+
+    /**
+     * Removes productions with variables which derive no word or can not be
+     * reached from the start variable.
+     */
+    public void removeUselessProductions() {
+        BitSet terminals = (BitSet) myVariables.clone();
+        terminals.flip(0, myNames.length());
+        BitSet generating = derivable(terminals);
+        Set<Rule> productions = new LinkedHashSet<>();
+        for (Rule rule : myProductions) {
+            if (containsAll(generating, rule.symbols)) {
+                productions.add(rule);
+            }
+        }
+        myProductions = productions;
+
+        int[][][] productionsOf = productionsOf();
+        BitSet reachable = new BitSet();
+        int[] stack = new int[myNames.length()];
+        int size = 0;
+        reachable.set(myStart);
+        stack[size++] = myStart;
+        while (size > 0) {
+            for (int[] symbols : productionsOf[stack[--size]]) {
+                for (int i = 1; i < symbols.length; i++) {
+                    if (myVariables.get(symbols[i]) && !reachable.get(symbols[i])) {
+                        reachable.set(symbols[i]);
+                        stack[size++] = symbols[i];
+                    }
+                }
+            }
+        }
+        productions = new LinkedHashSet<>();
+        for (Rule rule : myProductions) {
+            if (reachable.get(rule.symbols[0])) {
+                productions.add(rule);
+            }
+        }
+        myProductions = productions;
+    }
+
+    /**
+     * Removes lambda productions, adding for every production the productions
+     * without any subset of its nullable variables. If the start variable
+     * derives the empty string, it keeps a lambda production and is replaced
+     * if it is on a right hand side.
+     * <p>
+     * A production with <CODE>k</CODE> nullable variables on its right hand
+     * side gives up to <CODE>2^k</CODE> productions. They are generated symbol
+     * by symbol with equal prefixes merged, so only the distinct ones are
+     * built, e.g. <CODE>k + 1</CODE> for <CODE>k</CODE> occurrences of the same
+     * variable, but distinct nullable variables still give all of them.
+     *
+     * @return false if a production would give more than
+     *         {@link #MAX_LAMBDA_VARIANTS} productions, in which case the
+     *         jflap.grammar is not changed
+     */
+    public boolean removeLambdaProductions() {
+        BitSet nullable = derivable(new BitSet());
+        Set<Rule> productions = new LinkedHashSet<>();
+        for (Rule rule : myProductions) {
+            int[] symbols = rule.symbols;
+            Set<Rule> prefixes = new LinkedHashSet<>();
+            prefixes.add(new Rule(new int[] {symbols[0]}));
+            for (int i = 1; i < symbols.length; i++) {
+                Set<Rule> longer = new LinkedHashSet<>();
+                for (Rule prefix : prefixes) {
+                    int[] extended = Arrays.copyOf(prefix.symbols, prefix.symbols.length + 1);
+                    extended[prefix.symbols.length] = symbols[i];
+                    longer.add(new Rule(extended));
+                    if (nullable.get(symbols[i])) {
+                        longer.add(prefix);
+                    }
+                }
+                if (longer.size() > MAX_LAMBDA_VARIANTS) {
+                    return false;
+                }
+                prefixes = longer;
+            }
+            for (Rule variant : prefixes) {
+                if (variant.symbols.length > 1) {
+                    productions.add(variant);
+                }
+            }
+        }
+        myProductions = productions;
+        if (nullable.get(myStart)) {
+            if (isOnRightHandSide(myStart)) {
+                replaceStart();
+            }
+            myProductions.add(new Rule(new int[] {myStart}));
+        }
+        return true;
+    }
+
+    /**
+     * Removes unit productions, giving every variable the other productions
+     * of the variables it derives by unit productions.
+     */
+    public void removeUnitProductions() {
+        int[][][] productionsOf = productionsOf();
+        Set<Rule> productions = new LinkedHashSet<>();
+        int[] visited = new int[myNames.length()];
+        Arrays.fill(visited, -1);
+        int[] stack = new int[myNames.length()];
+        for (int variable = 0; variable < myNames.length(); variable++) {
+            if (productionsOf[variable].length == 0) {
+                continue;
+            }
+            int size = 0;
+            visited[variable] = variable;
+            stack[size++] = variable;
+            while (size > 0) {
+                for (int[] symbols : productionsOf[stack[--size]]) {
+                    if (isUnit(symbols)) {
+                        if (visited[symbols[1]] != variable) {
+                            visited[symbols[1]] = variable;
+                            stack[size++] = symbols[1];
+                        }
+                    } else {
+                        int[] copy = symbols.clone();
+                        copy[0] = variable;
+                        productions.add(new Rule(copy));
+                    }
+                }
+            }
+        }
+        myProductions = productions;
+    }
+
+    /**
+     * Converts the jflap.grammar to Chomsky normal form, in which right hand
+     * sides are two variables or one terminal, except for a lambda production
+     * of the start variable, which is then on no right hand side. Long right
+     * hand sides are broken up first, so removing lambda productions makes at
+     * most three productions of each, and the result is linear in the size of
+     * the jflap.grammar apart from the unit productions removed.
+     */
+    public void toChomskyNormalForm() {
+        binarize();
+        removeLambdaProductions();
+        removeUnitProductions();
+        removeUselessProductions();
+    }
+
+    /**
+     * Replaces terminals in right hand sides longer than one symbol by
+     * variables deriving them, and breaks right hand sides longer than two
+     * symbols into a variable and a variable for the rest. Both kinds of
+     * variables are hash-consed: every terminal and every pair of symbols
+     * gets one variable, which is a variable of the jflap.grammar if it is the
+     * only production of that variable, so equal suffixes of right hand sides
+     * share their variables.
+     */
+    private void binarize() {
+        Map<Integer, Integer> wrappers = new HashMap<>();
+        Map<Long, Integer> pairs = new HashMap<>();
+        int[][][] productionsOf = productionsOf();
+        for (int variable = 0; variable < productionsOf.length; variable++) {
+            if (productionsOf[variable].length != 1 || variable == myStart) {
+                continue;
+            }
+            int[] symbols = productionsOf[variable][0];
+            if (symbols.length == 2 && !myVariables.get(symbols[1])) {
+                wrappers.put(symbols[1], variable);
+            } else if (symbols.length == 3 && myVariables.get(symbols[1]) && myVariables.get(symbols[2])) {
+                pairs.put(pair(symbols[1], symbols[2]), variable);
+            }
+        }
+
+        Set<Rule> productions = new LinkedHashSet<>();
+        for (Rule rule : myProductions) {
+            int[] symbols = rule.symbols;
+            if (symbols.length <= 2) {
+                productions.add(rule);
+                continue;
+            }
+            int[] body = symbols.clone();
+            for (int i = 1; i < body.length; i++) {
+                if (!myVariables.get(body[i])) {
+                    Integer wrapper = wrappers.get(body[i]);
+                    if (wrapper == null) {
+                        wrapper = newVariable();
+                        wrappers.put(body[i], wrapper);
+                        productions.add(new Rule(new int[] {wrapper, body[i]}));
+                    }
+                    body[i] = wrapper;
+                }
+            }
+            int rest = body[body.length - 1];
+            for (int i = body.length - 2; i > 1; i--) {
+                Integer variable = pairs.get(pair(body[i], rest));
+                if (variable == null) {
+                    variable = newVariable();
+                    pairs.put(pair(body[i], rest), variable);
+                    productions.add(new Rule(new int[] {variable, body[i], rest}));
+                }
+                rest = variable;
+            }
+            productions.add(new Rule(new int[] {body[0], body[1], rest}));
+        }
+        myProductions = productions;
+    }
+
+    /**
+     * Converts the jflap.grammar to Greibach normal form, in which right hand
+     * sides are a terminal followed by variables, except for a lambda
+     * production of the start variable, which is then on no right hand side.
+     * The jflap.grammar is converted to Chomsky normal form first, then left
+     * recursion is removed in the order of variables and leading variables are
+     * replaced by their productions. The result may be much larger.
+     */
+    public void toGreibachNormalForm() {
+        toChomskyNormalForm();
+        Rule lambda = new Rule(new int[] {myStart});
+        boolean derivesLambda = myProductions.remove(lambda);
+
+        int[][][] productionsOf = productionsOf();
+        int[] order = new int[myNames.length()];
+        Arrays.fill(order, Integer.MAX_VALUE);
+        List<Integer> variables = new ArrayList<>();
+        for (int variable = 0; variable < productionsOf.length; variable++) {
+            if (productionsOf[variable].length > 0) {
+                order[variable] = variables.size();
+                variables.add(variable);
+            }
+        }
+        Map<Integer, Set<Rule>> bodies = new LinkedHashMap<>();
+        for (int variable : variables) {
+            Set<Rule> own = new LinkedHashSet<>();
+            for (int[] symbols : productionsOf[variable]) {
+                own.add(new Rule(Arrays.copyOfRange(symbols, 1, symbols.length)));
+            }
+            bodies.put(variable, own);
+        }
+
+        for (int i = 0; i < variables.size(); i++) {
+            int variable = variables.get(i);
+            // bodies of earlier variables lead with later variables or
+            // terminals, so substituting them raises the leading variable
+            List<int[]> pending = new ArrayList<>();
+            for (Rule body : bodies.get(variable)) {
+                pending.add(body.symbols);
+            }
+            Set<Rule> recursive = new LinkedHashSet<>(), other = new LinkedHashSet<>();
+            while (!pending.isEmpty()) {
+                int[] body = pending.remove(pending.size() - 1);
+                if (body[0] < order.length && order[body[0]] < i) {
+                    for (Rule lead : bodies.get(body[0])) {
+                        pending.add(concatenate(lead.symbols, body, 1));
+                    }
+                } else if (body[0] == variable) {
+                    recursive.add(new Rule(Arrays.copyOfRange(body, 1, body.length)));
+                } else {
+                    other.add(new Rule(body));
+                }
+            }
+            if (!recursive.isEmpty()) {
+                int tail = newVariable();
+                Set<Rule> tails = new LinkedHashSet<>();
+                for (Rule body : recursive) {
+                    tails.add(body);
+                    tails.add(new Rule(concatenate(body.symbols, new int[] {tail}, 0)));
+                }
+                bodies.put(tail, tails);
+                for (Rule body : new ArrayList<>(other)) {
+                    other.add(new Rule(concatenate(body.symbols, new int[] {tail}, 0)));
+                }
+            }
+            bodies.put(variable, other);
+        }
+
+        Map<Integer, Set<Rule>> expanded = new HashMap<>();
+        Set<Rule> productions = new LinkedHashSet<>();
+        for (int variable : bodies.keySet()) {
+            for (Rule body : expand(variable, bodies, expanded, new BitSet())) {
+                productions.add(new Rule(concatenate(new int[] {variable}, body.symbols, 0)));
+            }
+        }
+        if (derivesLambda) {
+            productions.add(lambda);
+        }
+        myProductions = productions;
+        removeUselessProductions();
+    }
+
+    /**
+     * Returns the bodies of productions of <CODE>variable</CODE> with leading
+     * variables replaced by their expanded bodies until they lead with
+     * terminals.
+     *
+     * @param variable the variable to expand
+     * @param bodies   the bodies of productions of every variable, none of
+     *                 them left recursive
+     * @param expanded the expanded bodies of variables done so far
+     * @param visiting the variables being expanded
+     * @return the bodies leading with terminals
+     */
+    private Set<Rule> expand(int variable, Map<Integer, Set<Rule>> bodies,
+                             Map<Integer, Set<Rule>> expanded, BitSet visiting) {
+        Set<Rule> result = expanded.get(variable);
+        if (result != null) {
+            return result;
+        }
+        if (visiting.get(variable)) {
+            throw new IllegalStateException("Left recursion left at " + myNames.charAt(variable));
+        }
+        visiting.set(variable);
+        result = new LinkedHashSet<>();
+        for (Rule body : bodies.get(variable)) {
+            int lead = body.symbols[0];
+            if (!myVariables.get(lead)) {
+                result.add(body);
+                continue;
+            }
+            for (Rule leading : expand(lead, bodies, expanded, visiting)) {
+                result.add(new Rule(concatenate(leading.symbols, body.symbols, 1)));
+            }
+        }
+        visiting.clear(variable);
+        expanded.put(variable, result);
+        return result;
+    }
+
+    /**
+     * Returns the variables deriving words of symbols in <CODE>known</CODE>:
+     * the empty string if it is empty, or any word if it has all terminals.
+     * A production is counted down as variables of its right hand side become
+     * known, and gives its left hand side when the count is zero.
+     *
+     * @param known the symbols known to derive such words
+     * @return the known symbols and the variables found
+     */
+    private BitSet derivable(BitSet known) {
+        known = (BitSet) known.clone();
+        int[][] rules = new int[myProductions.size()][];
+        int index = 0;
+        for (Rule rule : myProductions) {
+            rules[index++] = rule.symbols;
+        }
+        int[][] occurrences = occurrences(rules);
+        int[] remaining = new int[rules.length];
+        int[] stack = new int[myNames.length()];
+        int size = 0;
+        for (int p = 0; p < rules.length; p++) {
+            for (int i = 1; i < rules[p].length; i++) {
+                if (!known.get(rules[p][i])) {
+                    remaining[p]++;
+                }
+            }
+        }
+        for (int p = 0; p < rules.length; p++) {
+            if (remaining[p] == 0 && !known.get(rules[p][0])) {
+                known.set(rules[p][0]);
+                stack[size++] = rules[p][0];
+            }
+        }
+        while (size > 0) {
+            for (int p : occurrences[stack[--size]]) {
+                if (--remaining[p] == 0 && !known.get(rules[p][0])) {
+                    known.set(rules[p][0]);
+                    stack[size++] = rules[p][0];
+                }
+            }
+        }
+        return known;
+    }
+
+    /**
+     * Returns the indexes of productions with each symbol on their right hand
+     * sides, once for every occurrence.
+     *
+     * @param rules the productions
+     * @return the indexes of productions, by symbols
+     */
+    private int[][] occurrences(int[][] rules) {
+        int[] counts = new int[myNames.length()];
+        for (int[] symbols : rules) {
+            for (int i = 1; i < symbols.length; i++) {
+                counts[symbols[i]]++;
+            }
+        }
+        int[][] occurrences = new int[counts.length][];
+        for (int s = 0; s < counts.length; s++) {
+            occurrences[s] = new int[counts[s]];
+            counts[s] = 0;
+        }
+        for (int p = 0; p < rules.length; p++) {
+            for (int i = 1; i < rules[p].length; i++) {
+                occurrences[rules[p][i]][counts[rules[p][i]]++] = p;
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Returns the productions of each symbol, which are none for terminals.
+     *
+     * @return the productions, by their left hand sides
+     */
+    private int[][][] productionsOf() {
+        List<List<int[]>> lists = new ArrayList<>();
+        for (int s = 0; s < myNames.length(); s++) {
+            lists.add(new ArrayList<int[]>());
+        }
+        for (Rule rule : myProductions) {
+            lists.get(rule.symbols[0]).add(rule.symbols);
+        }
+        int[][][] productions = new int[lists.size()][][];
+        for (int s = 0; s < productions.length; s++) {
+            productions[s] = lists.get(s).toArray(new int[0][]);
+        }
+        return productions;
+    }
+
+    /**
+     * Returns if any of <CODE>productions</CODE> has <CODE>variable</CODE> on
+     * the left hand side.
+     */
+    private static boolean hasProductions(Production[] productions, String variable) {
+        for (int i = 0; i < productions.length; i++) {
+            if (productions[i].getLHS().equals(variable)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of <CODE>name</CODE>, numbering it if it has none.
+     *
+     * @param name the symbol
+     * @return the number of the symbol
+     */
+    private int number(char name) {
+        Integer number = myNumbers.get(name);
+        if (number == null) {
+            number = myNames.length();
+            myNames.append(name);
+            myNumbers.put(name, number);
+            myVariables.set(number, ProductionChecker.isVariable(name));
+        }
+        return number;
+    }
+
+    /**
+     * Returns a new variable, named by an unused uppercase letter.
+     *
+     * @return the number of the variable
+     * @throws UnsupportedOperationException if all uppercase letters are used
+     */
+    private int newVariable() {
+        for (; myNextName <= Character.MAX_VALUE; myNextName++) {
+            char name = (char) myNextName;
+            if (Character.isUpperCase(name) && !myNumbers.containsKey(name)) {
+                return number(name);
+            }
+        }
+        throw new UnsupportedOperationException(
+            "All " + myVariables.cardinality() + " available variables are used");
+    }
+
+    /**
+     * Makes a new start variable with the name of the old one and a unit
+     * production of the old one, which gets a new name.
+     */
+    private void replaceStart() {
+        int start = newVariable();
+        char name = myNames.charAt(myStart), renamed = myNames.charAt(start);
+        myNames.setCharAt(myStart, renamed);
+        myNames.setCharAt(start, name);
+        myNumbers.put(renamed, myStart);
+        myNumbers.put(name, start);
+        myProductions.add(new Rule(new int[] {start, myStart}));
+        myStart = start;
+    }
+
+    /**
+     * Returns if <CODE>variable</CODE> is on any right hand side.
+     *
+     * @param variable the variable
+     * @return <CODE>true</CODE> if it is on a right hand side
+     */
+    private boolean isOnRightHandSide(int variable) {
+        for (Rule rule : myProductions) {
+            for (int i = 1; i < rule.symbols.length; i++) {
+                if (rule.symbols[i] == variable) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns if a production has a single variable on the right hand side.
+     *
+     * @param symbols the production
+     * @return <CODE>true</CODE> if it is a unit production
+     */
+    private boolean isUnit(int[] symbols) {
+        return symbols.length == 2 && myVariables.get(symbols[1]);
+    }
+
+    /**
+     * Returns the key of a pair of symbols.
+     */
+    private static long pair(int first, int second) {
+        return (long) first << 32 | second;
+    }
+
+    /**
+     * Returns if all of <CODE>symbols</CODE> are in <CODE>set</CODE>.
+     */
+    private static boolean containsAll(BitSet set, int[] symbols) {
+        for (int i = 0; i < symbols.length; i++) {
+            if (!set.get(symbols[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns <CODE>first</CODE> followed by <CODE>second</CODE> without its
+     * first <CODE>from</CODE> symbols.
+     */
+    private static int[] concatenate(int[] first, int[] second, int from) {
+        int[] result = Arrays.copyOf(first, first.length + second.length - from);
+        System.arraycopy(second, from, result, first.length, second.length - from);
+        return result;
+    }
+
+    /**
+     * An array of symbol numbers compared by contents, so equal productions
+     * are kept once.
+     */
+    private static final class Rule {
+        final int[] symbols;
+        private final int hash;
+
+        Rule(int[] symbols) {
+            this.symbols = symbols;
+            hash = Arrays.hashCode(symbols);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object object) {
+            return object instanceof Rule && Arrays.equals(symbols, ((Rule) object).symbols);
+        }
+    }
+}
@@ -0,0 +1,511 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.grammar.parse;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import jflap.grammar.Grammar;
+import jflap.grammar.Production;
+
+/**
+ * The <CODE>BruteSearch</CODE> decides whether a string is derived by an
+ * unrestricted or restricted jflap.grammar without a graphical interface. It
+ * looks for the derivation best-first: the sentential forms whose minimum
+ * length, as given by {@link Unrestricted#minimumLength}, is closest to the
+ * length of the target are rewritten first. Forms of restricted grammars are
+ * only rewritten at their leftmost variable, and must match the terminals of
+ * the target as in {@link RestrictedBruteParser}.
+ * <p>
+ * Every sentential form is stored once, in a table of visited forms, with its
+ * parent form and the production which derived it kept in arrays of ints
+ * instead of a tree of nodes. The table holds at most a given number of forms,
+ * and the search may be limited in time, so it always ends, either with an
+ * answer or with the limit reached. The forms of one step of the search may be
+ * rewritten on a pool of worker threads.
+ *
+ * @see BruteParser
+ */
+
+public class BruteSearch {
+    /**
+     * The verdict of a search which found the derivation of the target.
+     */
+    public static final int ACCEPTED = 0;
+    /**
+     * The verdict of a search which rewrote every form that may derive the
+     * target and none of them did.
+     */
+    public static final int REJECTED = 1;
+    /**
+     * The verdict of a search stopped by the limit of forms or of time.
+     */
+    public static final int LIMITED = 2;
+    /**
+     * The number of forms rewritten in one step of the search by each of the
+     * worker threads.
+     */
+    private static final int FORMS_PER_WORKER = 16;
+
+    /**
+     * The jflap.grammar without useless productions, <CODE>null</CODE> if it
+     * derives nothing.
+     */
+    private final Grammar grammar;
+    /**
+     * The productions of the jflap.grammar.
+     */
+    private final Production[] productions;
+    /**
+     * The target string.
+     */
+    private final String target;
+    /**
+     * Whether the jflap.grammar is restricted, so only the leftmost variable
+     * is rewritten.
+     */
+    private final boolean restricted;
+    /**
+     * The numbers of productions, by the first symbol of their left hand
+     * side.
+     */
+    private final Map<Character, int[]> myProductionsByFirst = new HashMap<>();
+    /**
+     * The change of minimum length of a form rewritten with each production.
+     */
+    private final int[] myLengthChange;
+
+    /**
+     * The numbers of the visited forms.
+     */
+    private final Map<String, Integer> myNumbers = new HashMap<>();
+    /**
+     * The visited forms, by their numbers.
+     */
+    private String[] myForms = new String[64];
+    /**
+     * The number of the form each form was derived from, -1 for the start
+     * variable.
+     */
+    private int[] myParents = new int[64];
+    /**
+     * The production each form was derived with.
+     */
+    private int[] myProductions = new int[64];
+    /**
+     * The position at which each form was derived.
+     */
+    private int[] myPositions = new int[64];
+    /**
+     * The difference between the length of the target and the minimum length
+     * of each form.
+     */
+    private int[] myGaps = new int[64];
+    /**
+     * The number of visited forms.
+     */
+    private int mySize = 0;
+    /**
+     * The binary heap of numbers of forms which are still to be rewritten.
+     */
+    private int[] myHeap = new int[64];
+    /**
+     * The number of forms in the heap.
+     */
+    private int myHeapSize = 0;
+    /**
+     * The number of rewritten forms.
+     */
+    private int myExplored = 0;
+    /**
+     * The number of the target form, -1 if it was not derived.
+     */
+    private int myAnswer = -1;
+    /**
+     * The verdict of the search, -1 before the search.
+     */
+    private int myVerdict = -1;
+
+    /**
+     * Instantiates a search for <CODE>target</CODE> in
+     * <CODE>grammar</CODE>.
+     *
+     * @param grammar the jflap.grammar
+     * @param target  the target string
+     * @throws IllegalArgumentException if the target contains a variable
+     */
+    public BruteSearch(Grammar grammar, String target) {
+        for (int i = 0; i < target.length(); i++) {
+            if (grammar.isVariable(target.substring(i, i + 1))) {
+                throw new IllegalArgumentException(
+                    "String to parse has nonterminal "
+                        + target.charAt(i) + ".");
+            }
+        }
+        this.target = target;
+        this.restricted = !Unrestricted.isUnrestricted(grammar);
+        this.grammar = Unrestricted.optimize(grammar);
+        if (this.grammar == null) {
+            productions = new Production[0];
+            myLengthChange = new int[0];
+            return;
+        }
+
+        productions = this.grammar.getProductions();
+        Set<String> smaller = Unrestricted.smallerSymbols(this.grammar);
+        myLengthChange = new int[productions.length];
+        Map<Character, Integer> counts = new HashMap<>();
+        for (int i = 0; i < productions.length; i++) {
+            myLengthChange[i] = Unrestricted.minimumLength(productions[i].getRHS(), smaller)
+                - Unrestricted.minimumLength(productions[i].getLHS(), smaller);
+            counts.merge(productions[i].getLHS().charAt(0), 1, Integer::sum);
+        }
+        for (Map.Entry<Character, Integer> count : counts.entrySet()) {
+            myProductionsByFirst.put(count.getKey(), new int[count.getValue()]);
+            count.setValue(0);
+        }
+        for (int i = 0; i < productions.length; i++) {
+            char first = productions[i].getLHS().charAt(0);
+            int index = counts.get(first);
+            myProductionsByFirst.get(first)[index] = i;
+            counts.put(first, index + 1);
+        }
+
+        String start = this.grammar.getStartVariable();
+        add(start, -1, -1, -1,
+            target.length() - Unrestricted.minimumLength(start, smaller));
+    }
+
+    /**
+     * Searches for the derivation of the target. A search may be run only
+     * once.
+     *
+     * @param maxForms    the maximum number of forms in the table of visited
+     *                    forms
+     * @param timeLimit   the maximum time of the search in milliseconds, 0 if
+     *                    the time is not limited
+     * @param parallelism the number of threads to rewrite forms on
+     * @return {@link #ACCEPTED}, {@link #REJECTED} or {@link #LIMITED}
+     */
+    public synchronized int search(int maxForms, long timeLimit, int parallelism) {
+        if (myVerdict != -1) {
+            throw new IllegalStateException("Search was already run.");
+        }
+        long deadline = timeLimit == 0 ? Long.MAX_VALUE
+            : System.nanoTime() + timeLimit * 1000000L;
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        int batchSize = parallelism > 1 ? parallelism * FORMS_PER_WORKER : 1;
+        try {
+            myVerdict = search(maxForms, deadline, pool, batchSize);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        return myVerdict;
+    }
+
+    /**
+     * Searches for the derivation of the target.
+     *
+     * @param maxForms  the maximum number of forms in the table
+     * @param deadline  the value of {@link System#nanoTime} after which the
+     *                  search is stopped
+     * @param pool      the pool to rewrite forms on, <CODE>null</CODE> to
+     *                  rewrite them on the calling thread
+     * @param batchSize the number of forms rewritten in one step
+     * @return the verdict
+     */
+    private int search(int maxForms, long deadline, ForkJoinPool pool, int batchSize) {
+        if (grammar == null) {
+            return REJECTED;
+        }
+        if (mySize > maxForms) {
+            return LIMITED;
+        }
+        int[] batch = new int[batchSize];
+        Successors[] successors = new Successors[batchSize];
+        while (myHeapSize > 0) {
+            if (System.nanoTime() > deadline) {
+                return LIMITED;
+            }
+            int size = 0;
+            while (size < batchSize && myHeapSize > 0) {
+                batch[size++] = poll();
+            }
+            if (pool == null) {
+                successors[0] = rewrite(batch[0]);
+            } else {
+                pool.invoke(new Rewriting(batch, successors, 0, size));
+            }
+            for (int i = 0; i < size; i++) {
+                Successors next = successors[i];
+                successors[i] = null;
+                for (int j = 0; j < next.size; j++) {
+                    if (myNumbers.containsKey(next.forms[j])) {
+                        continue;
+                    }
+                    if (mySize == maxForms) {
+                        return LIMITED;
+                    }
+                    int number = add(next.forms[j], batch[i],
+                        next.productions[j], next.positions[j], next.gaps[j]);
+                    if (next.forms[j].equals(target)) {
+                        myAnswer = number;
+                        return ACCEPTED;
+                    }
+                }
+                myExplored++;
+            }
+        }
+        return REJECTED;
+    }
+
+    /**
+     * Returns the forms derived in one step from the form with the given
+     * number, which may still derive the target.
+     *
+     * @param number the number of the form
+     * @return the derived forms
+     */
+    private Successors rewrite(int number) {
+        String form = myForms[number];
+        int gap = myGaps[number];
+        Successors successors = new Successors();
+        for (int position = 0; position < form.length(); position++) {
+            int[] candidates = myProductionsByFirst.get(form.charAt(position));
+            if (candidates != null) {
+                for (int i = 0; i < candidates.length; i++) {
+                    Production production = productions[candidates[i]];
+                    String lhs = production.getLHS();
+                    int childGap = gap - myLengthChange[candidates[i]];
+                    if (childGap < 0 || !form.startsWith(lhs, position)) {
+                        continue;
+                    }
+                    String child = form.substring(0, position)
+                        + production.getRHS()
+                        + form.substring(position + lhs.length());
+                    if (restricted
+                        && !RestrictedBruteParser.matchesTerminals(grammar, target, child)) {
+                        continue;
+                    }
+                    successors.add(child, candidates[i], position, childGap);
+                }
+            }
+            if (restricted && grammar.isVariable(form.substring(position, position + 1))) {
+                break;
+            }
+        }
+        return successors;
+    }
+
+    /**
+     * Adds a form to the table and to the heap.
+     *
+     * @return the number of the form
+     */
+    private int add(String form, int parent, int production, int position, int gap) {
+        if (mySize == myForms.length) {
+            int capacity = mySize * 2;
+            myForms = Arrays.copyOf(myForms, capacity);
+            myParents = Arrays.copyOf(myParents, capacity);
+            myProductions = Arrays.copyOf(myProductions, capacity);
+            myPositions = Arrays.copyOf(myPositions, capacity);
+            myGaps = Arrays.copyOf(myGaps, capacity);
+        }
+        int number = mySize++;
+        myForms[number] = form;
+        myParents[number] = parent;
+        myProductions[number] = production;
+        myPositions[number] = position;
+        myGaps[number] = gap;
+        myNumbers.put(form, number);
+        offer(number);
+        return number;
+    }
+
+    /**
+     * Returns whether the form with number <CODE>a</CODE> is rewritten before
+     * the form with number <CODE>b</CODE>: forms closer to the length of the
+     * target go first, and forms with equal gaps in order of visiting.
+     */
+    private boolean precedes(int a, int b) {
+        return myGaps[a] < myGaps[b] || (myGaps[a] == myGaps[b] && a < b);
+    }
+
+    /**
+     * Adds the number of a form to the heap.
+     */
+    private void offer(int number) {
+        if (myHeapSize == myHeap.length) {
+            myHeap = Arrays.copyOf(myHeap, myHeapSize * 2);
+        }
+        int i = myHeapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!precedes(number, myHeap[parent])) {
+                break;
+            }
+            myHeap[i] = myHeap[parent];
+            i = parent;
+        }
+        myHeap[i] = number;
+    }
+
+    /**
+     * Removes the number of the form to be rewritten first from the heap.
+     */
+    private int poll() {
+        int first = myHeap[0];
+        int last = myHeap[--myHeapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= myHeapSize) {
+                break;
+            }
+            if (child + 1 < myHeapSize && precedes(myHeap[child + 1], myHeap[child])) {
+                child++;
+            }
+            if (!precedes(myHeap[child], last)) {
+                break;
+            }
+            myHeap[i] = myHeap[child];
+            i = child;
+        }
+        myHeap[i] = last;
+        return first;
+    }
+
+    /**
+     * Returns the verdict of the search.
+     *
+     * @return {@link #ACCEPTED}, {@link #REJECTED} or {@link #LIMITED}, or -1
+     * if the search was not run yet
+     */
+    public synchronized int getVerdict() {
+        return myVerdict;
+    }
+
+    /**
+     * Returns the number of forms which were rewritten.
+     *
+     * @return the number of rewritten forms
+     */
+    public synchronized int getExploredCount() {
+        return myExplored;
+    }
+
+    /**
+     * Returns the number of forms in the table of visited forms.
+     *
+     * @return the number of visited forms
+     */
+    public synchronized int getFormCount() {
+        return mySize;
+    }
+
+    /**
+     * Returns the derivation of the target. Each node of the derivation holds
+     * one sentential form with the production and the position at which it
+     * was derived from its parent, and the root holds the start variable.
+     *
+     * @return the last node of the derivation, or <CODE>null</CODE> if the
+     * target was not derived
+     */
+    public synchronized ParseNode getAnswer() {
+        if (myAnswer == -1) {
+            return null;
+        }
+        int length = 0;
+        for (int number = myAnswer; number != -1; number = myParents[number]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int number = myAnswer; number != -1; number = myParents[number]) {
+            path[--length] = number;
+        }
+        ParseNode node = new ParseNode(myForms[path[0]], new Production[0], new int[0]);
+        for (int i = 1; i < path.length; i++) {
+            ParseNode child = new ParseNode(myForms[path[i]],
+                new Production[]{productions[myProductions[path[i]]]},
+                new int[]{myPositions[path[i]]});
+            node.add(child);
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * The forms derived from one form, with the productions and positions
+     * which derived them, and their gaps.
+     */
+    private static final class Successors {
+        String[] forms = new String[8];
+        int[] productions = new int[8];
+        int[] positions = new int[8];
+        int[] gaps = new int[8];
+        int size = 0;
+
+        void add(String form, int production, int position, int gap) {
+            if (size == forms.length) {
+                forms = Arrays.copyOf(forms, size * 2);
+                productions = Arrays.copyOf(productions, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+                gaps = Arrays.copyOf(gaps, size * 2);
+            }
+            forms[size] = form;
+            productions[size] = production;
+            positions[size] = position;
+            gaps[size] = gap;
+            size++;
+        }
+    }
+
+    /**
+     * The task of rewriting a range of forms of one step, split in halves
+     * until single forms are left.
+     */
+    private final class Rewriting extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] batch;
+        private final Successors[] successors;
+        private final int from;
+        private final int to;
+
+        Rewriting(int[] batch, Successors[] successors, int from, int to) {
+            this.batch = batch;
+            this.successors = successors;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from == 1) {
+                successors[from] = rewrite(batch[from]);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Rewriting(batch, successors, from, middle),
+                    new Rewriting(batch, successors, middle, to));
+            }
+        }
+    }
+}
@@ -24,6 +24,15 @@ import jflap.grammar.Production;
 /**
  * CYK Parser
  * It parses jflap.grammar that is in CNF form and returns whether the String is accepted by language or not.
+ * <p>
+ * Every variable gets an integer number, and the table is kept as bitsets:
+ * for every variable and start of a substring there is a bitset of the ends
+ * of substrings which the variable derives, and for every variable and end
+ * there is a bitset of the starts. Productions with two variables are indexed
+ * by the pair of their variables, so a cell is filled by testing each pair
+ * once against 64 split points at a time. The parser may be built once and
+ * then solve any number of strings. No back-pointers are kept; the derivation
+ * is found again from the table only when a trace is requested.
  *
  * @author Kyung Min (Jason) Lee
  */
@@ -33,11 +42,33 @@ public class CYKParser {
     /**
      * Start variable of the jflap.grammar
      */
-    private static String START_VARIABLE;
+    private final String myStartVariable;
     /**
-     * Production array that will contain all the productions of jflap.grammar
+     * The variables of the jflap.grammar, by their numbers
      */
-    private final Production[] myProductions;
+    private final String[] myVariables;
+    /**
+     * Variables which derive each terminal, by the terminal
+     */
+    private final Map<Character, int[]> myTerminalVariables;
+    /**
+     * First and second variables of the distinct pairs on the right hand side
+     * of productions with two variables
+     */
+    private final int[] myFirsts, mySeconds;
+    /**
+     * Left hand sides of productions with two variables, by their pair
+     */
+    private final int[][] myPairVariables;
+    /**
+     * Productions with two variables, by their left hand side; every
+     * production is a pair of its first and second variable
+     */
+    private final int[][] myProductionsByLHS;
+    /**
+     * Number of the start variable, -1 if it has no productions
+     */
+    private final int myStart;
     /**
      * Length of the read String
      */
@@ -49,26 +80,128 @@ public class CYKParser {
     private ArrayList<Production> myAnswerProductions;
 
     /**
-     * Map to store the output of subparts
+     * Ends of substrings derived by each variable, by the variable and the
+     * start; rows of variables which derive nothing there are null
      */
-    private HashMap<String, HashSet<String>> myMap;
+    private long[][][] myEnds;
+    /**
+     * Starts of substrings derived by each variable, by the variable and the
+     * end; rows of variables which derive nothing there are null
+     */
+    private long[][][] myStarts;
 
     /**
      * Input string that CYK is trying to parse
      */
     private String myTarget;
 
-    private OrderCorrectly myOrderComparator;
-
     /**
      * Constructor for CYK Parser
      *
      * @param grammar Grammar that is going to be used in CYK Parsing (It has to be in CNF Form)
      */
     public CYKParser(Grammar grammar) {
-        myProductions = grammar.getProductions();
-        START_VARIABLE = grammar.getStartVariable();
-        //	System.out.println("GRAMMAR = "+Arrays.asList(jflap.grammar.getProductions()));
+        Production[] productions = grammar.getProductions();
+        myStartVariable = grammar.getStartVariable();
+
+        Map<String, Integer> numbers = new LinkedHashMap<String, Integer>();
+        for (Production production : productions) {
+            if (!numbers.containsKey(production.getLHS())) {
+                numbers.put(production.getLHS(), numbers.size());
+            }
+        }
+        myVariables = numbers.keySet().toArray(new String[0]);
+        Integer start = numbers.get(myStartVariable);
+        myStart = start == null ? -1 : start;
+
+        Map<Character, List<Integer>> terminals = new HashMap<Character, List<Integer>>();
+        Map<Long, List<Integer>> pairs = new LinkedHashMap<Long, List<Integer>>();
+        List<List<Integer>> byLHS = new ArrayList<List<Integer>>();
+        for (int i = 0; i < myVariables.length; i++) {
+            byLHS.add(new ArrayList<Integer>());
+        }
+        for (Production production : productions) {
+            int lhs = numbers.get(production.getLHS());
+            String rhs = production.getRHS();
+            if (rhs.length() == 1 && !numbers.containsKey(rhs)) {
+                List<Integer> variables = terminals.get(rhs.charAt(0));
+                if (variables == null) {
+                    variables = new ArrayList<Integer>();
+                    terminals.put(rhs.charAt(0), variables);
+                }
+                variables.add(lhs);
+                continue;
+            }
+            // variables may have longer names, so try every split of the right hand side
+            for (int split = 1; split < rhs.length(); split++) {
+                Integer first = numbers.get(rhs.substring(0, split));
+                Integer second = numbers.get(rhs.substring(split));
+                if (first != null && second != null) {
+                    Long pair = ((long) first << 32) | second;
+                    List<Integer> variables = pairs.get(pair);
+                    if (variables == null) {
+                        variables = new ArrayList<Integer>();
+                        pairs.put(pair, variables);
+                    }
+                    variables.add(lhs);
+                    byLHS.get(lhs).add(first);
+                    byLHS.get(lhs).add(second);
+                    break;
+                }
+            }
+        }
+
+        myTerminalVariables = new HashMap<Character, int[]>();
+        for (Map.Entry<Character, List<Integer>> entry : terminals.entrySet()) {
+            myTerminalVariables.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        myFirsts = new int[pairs.size()];
+        mySeconds = new int[pairs.size()];
+        myPairVariables = new int[pairs.size()][];
+        int index = 0;
+        for (Map.Entry<Long, List<Integer>> entry : pairs.entrySet()) {
+            myFirsts[index] = (int) (entry.getKey() >>> 32);
+            mySeconds[index] = (int) (long) entry.getKey();
+            myPairVariables[index++] = toArray(entry.getValue());
+        }
+        myProductionsByLHS = new int[myVariables.length][];
+        for (int i = 0; i < myVariables.length; i++) {
+            myProductionsByLHS[i] = toArray(byLHS.get(i));
+        }
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Checks if <CODE>variable</CODE> derives the substring from
+     * <CODE>x</CODE> to <CODE>y</CODE>, both inclusive
+     */
+    private boolean derives(int variable, int x, int y) {
+        long[] ends = myEnds[variable][x];
+        return ends != null && (ends[y >>> 6] & (1L << y)) != 0;
+    }
+
+    /**
+     * Marks that <CODE>variable</CODE> derives the substring from
+     * <CODE>x</CODE> to <CODE>y</CODE>, both inclusive
+     */
+    private void add(int variable, int x, int y) {
+        long[] ends = myEnds[variable][x];
+        if (ends == null) {
+            ends = myEnds[variable][x] = new long[(myTargetLength >>> 6) + 1];
+        }
+        ends[y >>> 6] |= 1L << y;
+        long[] starts = myStarts[variable][y];
+        if (starts == null) {
+            starts = myStarts[variable][y] = new long[(myTargetLength >>> 6) + 1];
+        }
+        starts[x >>> 6] |= 1L << x;
     }
 
     /**
@@ -76,217 +209,136 @@ public class CYKParser {
      * using DP
      */
     public boolean solve(String target) {
-        myMap = new HashMap<String, HashSet<String>>();
         int targetLength = target.length();
         myTargetLength = targetLength;
         myTarget = target;
+        myEnds = null;
+        myStarts = null;
 
-        if (target.equals("")) {
+        if (target.equals("") || myStart == -1) {
             return false;
         }
 
+        myEnds = new long[myVariables.length][targetLength][];
+        myStarts = new long[myVariables.length][targetLength][];
         for (int i = 0; i < targetLength; i++) {
-            String a = target.substring(i, i + 1);
-            HashSet<String> temp = new HashSet<String>();
-            int count = 0;
-
-            for (int j = 0; j < myProductions.length; j++) {
-                if (myProductions[j].getRHS().equals(a)) {
-                    count++;
-                    temp.add(myProductions[j].getLHS());
-                }
-            }
-            String key = i + "," + i;
-            myMap.put(key, temp);
-            if (count == 0) {
+            int[] variables = myTerminalVariables.get(target.charAt(i));
+            if (variables == null) {
                 return false;
             }
-            count = 0;
-
-        }
-        //System.out.println(myMap);
-
-        int increment = 1;
-        for (int i = 0; i < targetLength; i++) {
-            for (int j = 0; j < targetLength; j++) {
-                if (targetLength <= j + increment) {
-                    break;
-                }
-                int k = j + increment;
-                checkProductions(j, k);
-
-                //	System.out.print(myMap.get(j+","+k));
+            for (int variable : variables) {
+                add(variable, i, i);
             }
-            //System.out.println();
-            increment++;
         }
 
-        if (increment == 2) {
-            return myMap.get("0," + (targetLength - 1)).contains(START_VARIABLE);
+        for (int increment = 1; increment < targetLength; increment++) {
+            for (int j = 0; j + increment < targetLength; j++) {
+                checkProductions(j, j + increment);
+            }
         }
 
-        return myMap.get("0," + (targetLength - 1)).contains(START_VARIABLE);
-
+        return derives(myStart, 0, targetLength - 1);
     }
 
     /**
-     * Helper method of solve method that checks the surrounding production
+     * Helper method of solve method that fills the cell of the substring from
+     * <CODE>x</CODE> to <CODE>y</CODE> from the cells of its splits
      *
      * @param x
      * @param y
      */
     private void checkProductions(int x, int y) {
-        HashSet<String> tempSet = new HashSet<String>();
-
-        for (int i = 0; i < myProductions.length; i++) {
-            for (int k = x; k < y; k++) {
-                String key1 = x + "," + k;
-                String key2 = (k + 1) + "," + y;
-                for (String A : myMap.get(key1)) {
-                    for (String B : myMap.get(key2)) {
-                        String target = A + B;
-                        if (myProductions[i].getRHS().equals(target)) {
-                            HashSet<String> temp2Set = new HashSet<String>();
-                            tempSet.add(myProductions[i].getLHS());
-                            temp2Set.add("0" + A + "/" + key1);
-                            temp2Set.add("1" + B + "/" + key2);
-
-                            String tempKey = x + "," + y + myProductions[i].getLHS();
-                            if (myMap.get(tempKey) != null) {
-                                temp2Set.addAll(myMap.get(tempKey));
-                            }
-
-                            myMap.put(tempKey, temp2Set);
-                        }
-                    }
+        for (int pair = 0; pair < myFirsts.length; pair++) {
+            int[] variables = myPairVariables[pair];
+            if (variables.length == 1 && derives(variables[0], x, y)) {
+                continue;
+            }
+            long[] ends = myEnds[myFirsts[pair]][x];
+            long[] starts = myStarts[mySeconds[pair]][y];
+            if (ends != null && starts != null && split(ends, starts, x, y) != -1) {
+                for (int variable : variables) {
+                    add(variable, x, y);
                 }
             }
         }
-        String key = x + "," + y;
-        myMap.put(key, tempSet);
+    }
+
+    /**
+     * Finds the first split point <CODE>k</CODE> between <CODE>x</CODE> and
+     * <CODE>y</CODE>, such that <CODE>k</CODE> is in <CODE>ends</CODE> and
+     * <CODE>k + 1</CODE> is in <CODE>starts</CODE>
+     *
+     * @return the split point, or -1 if there is none
+     */
+    private static int split(long[] ends, long[] starts, int x, int y) {
+        int last = (y - 1) >>> 6;
+        for (int word = x >>> 6; word <= last; word++) {
+            long shifted = starts[word] >>> 1;
+            if (word + 1 < starts.length) {
+                shifted |= starts[word + 1] << 63;
+            }
+            long common = ends[word] & shifted;
+            if (common != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(common);
+            }
+        }
+        return -1;
     }
 
     /**
      * Method for getting the trace of how the parser achieved the target String
      *
-     * @return ArrayList of Productions that was applied to attain target String
+     * @return ArrayList of Productions that was applied to attain target String,
+     * in order of the leftmost derivation
      */
     public ArrayList<Production> getTrace() {
         myAnswerProductions = new ArrayList<Production>();
-        myOrderComparator = new OrderCorrectly();
-
-        //	System.out.println("WHOLE MAP = "+myMap);
-
-        getMoreProductions(START_VARIABLE, "0," + (myTargetLength - 1));
-
-        //	System.out.println(myAnswerProductions);
+        if (myEnds == null || !derives(myStart, 0, myTargetLength - 1)) {
+            return myAnswerProductions;
+        }
 
+        // pending variables with their substrings, the leftmost on top
+        Deque<int[]> pending = new ArrayDeque<int[]>();
+        pending.push(new int[]{myStart, 0, myTargetLength - 1});
+        while (!pending.isEmpty()) {
+            int[] next = pending.pop();
+            int variable = next[0], x = next[1], y = next[2];
+            if (x == y) {
+                myAnswerProductions.add(new Production(myVariables[variable], myTarget.substring(x, x + 1)));
+                continue;
+            }
+            int[] split = getMoreProductions(variable, x, y);
+            myAnswerProductions.add(new Production(myVariables[variable],
+                myVariables[split[0]] + myVariables[split[1]]));
+            pending.push(new int[]{split[1], split[2] + 1, y});
+            pending.push(new int[]{split[0], x, split[2]});
+        }
         return myAnswerProductions;
     }
 
     /**
-     * Helper method of getTrace method which recursively backtracks how Parser achieved the target String
+     * Helper method of getTrace method which finds how <CODE>variable</CODE>
+     * derives the substring from <CODE>x</CODE> to <CODE>y</CODE>, preferring
+     * the shortest first part
      *
-     * @param variable Variable that we are chekcing
-     * @param location Location of the variable
+     * @param variable Variable that we are checking
+     * @return the first and the second variable of the production, and the
+     * end of the first part
      */
-    private void getMoreProductions(String variable, String location) {
-        //	//System.out.println("WHOLE MAP = "+myMap);
-        if (myMap.get(location + variable) == null) {
-            //	//System.out.println("Location inside = "+location);
-            //	//System.out.println("Variable inside = "+variable);
-            int loc = Integer.parseInt(location.substring(0, location.indexOf(",")));
-            myAnswerProductions.add(new Production(variable, myTarget.substring(loc, loc + 1)));
-            return;
-
-        }
-		
-	/*	//System.out.println("Map = "+myMap.get(location+variable));
-		//System.out.println("Location = "+location);
-		//System.out.println("Variable = "+variable);*/
-
-        ArrayList<String> optionsA = new ArrayList<String>();
-        ArrayList<String> optionsB = new ArrayList<String>();
-
-        String[] A = new String[2];
-        String[] B = new String[2];
-        for (String var : myMap.get(location + variable)) {
-            if (var.startsWith("0")) {
-                optionsA.add(var);
-            } else {
-                optionsB.add(var);
+    private int[] getMoreProductions(int variable, int x, int y) {
+        int[] productions = myProductionsByLHS[variable];
+        int[] best = null;
+        for (int p = 0; p < productions.length; p += 2) {
+            long[] ends = myEnds[productions[p]][x];
+            long[] starts = myStarts[productions[p + 1]][y];
+            int k = ends == null || starts == null ? -1 : split(ends, starts, x, y);
+            if (k != -1 && (best == null || k < best[2])) {
+                best = new int[]{productions[p], productions[p + 1], k};
             }
         }
-        Collections.sort(optionsA, myOrderComparator);
-        Collections.sort(optionsB, myOrderComparator);
-
-        //	//System.out.println("AAA = "+optionsA);
-        //	//System.out.println("BBB = "+optionsB);
-
-
-        boolean isDone = false;
-        for (int i = 0; i < optionsA.size(); i++) {
-            int index = optionsA.get(i).indexOf("/");
-            String a = optionsA.get(i).substring(1, index);
-            String locA = optionsA.get(i).substring(index + 1);
-
-            for (int j = 0; j < optionsB.size(); j++) {
-                index = optionsB.get(i).indexOf("/");
-                String b = optionsB.get(i).substring(1, index);
-                String locB = optionsB.get(i).substring(index + 1);
-
-                Production p = new Production(variable, a + b);
-                for (int k = 0; k < myProductions.length; k++) {
-                    if (myProductions[k].getLHS().equals(p.getLHS()) &&
-                        myProductions[k].getRHS().equals(p.getRHS())) {
-                        A[0] = a;
-                        A[1] = locA;
-                        B[0] = b;
-                        B[1] = locB;
-                        isDone = true;
-                        break;
-                    }
-                }
-                if (isDone) {
-                    break;
-                }
-            }
-            if (isDone) {
-                break;
-            }
+        if (best == null) {
+            throw new IllegalStateException("Cell of " + myVariables[variable] + " has no derivation");
         }
-
-        //	//System.out.println("Selected = "+A[0]+" at "+A[1]);
-        //	//System.out.println("Selected = "+B[0]+" at "+B[1]);
-
-        myAnswerProductions.add(new Production(variable, A[0] + B[0]));
-        getMoreProductions(A[0], A[1]);
-        getMoreProductions(B[0], B[1]);
-
+        return best;
     }
 }
-
-final class OrderCorrectly implements Comparator<Object> {
-    public int compare(Object o1, Object o2) {
-        String str1 = (String) o1;
-        String str2 = (String) o2;
-        int index1 = str1.indexOf("/");
-        String loc1 = str1.substring(index1 + 1);
-        int index1_1 = loc1.indexOf(",");
-        int lc1_1 = Integer.parseInt(loc1.substring(0, index1_1));
-        int lc1_2 = Integer.parseInt(loc1.substring(index1_1 + 1));
-
-        int index2 = str2.indexOf("/");
-        String loc2 = str2.substring(index2 + 1);
-        int index2_1 = loc2.indexOf(",");
-        int lc2_1 = Integer.parseInt(loc2.substring(0, index2_1));
-        int lc2_2 = Integer.parseInt(loc2.substring(index2_1 + 1));
-
-        if (lc1_1 == lc2_1) {
-            return lc1_2 - lc2_2;
-        }
-
-        return lc1_1 - lc2_1;
-    }
-
-}
\ No newline at end of file
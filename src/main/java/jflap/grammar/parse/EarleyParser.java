@@ -0,0 +1,188 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.grammar.parse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jflap.grammar.Grammar;
+import jflap.grammar.Production;
+import jflap.grammar.ProductionChecker;
+
+/**
+ * Earley parser for any context-free jflap.grammar. It works directly on the
+ * productions of the grammar, without converting it to CNF first, and
+ * handles lambda productions by moving over nullable variables as soon as
+ * they are predicted. Right recursion is completed in linear time with
+ * Leo's optimization: a chain of items which would all be completed one after
+ * another is replaced by its topmost item.
+ * <p>
+ * The grammar is compiled once, and parsing does not change the parser, so
+ * one parser may parse any number of strings, also concurrently.
+ *
+ * @see ParseForest
+ */
+
+public class EarleyParser {
+    /**
+     * The productions of the grammar, by their numbers.
+     */
+    final Production[] myProductions;
+    /**
+     * The left hand side variable of each production.
+     */
+    final int[] myLHS;
+    /**
+     * The right hand side of each production; variables are given by their
+     * numbers, and terminals by <CODE>-1 - terminal</CODE>.
+     */
+    final int[][] myRHS;
+    /**
+     * The number of the first item of each production, which is the item with
+     * the dot at the start of its right hand side; the other items of the
+     * production follow it.
+     */
+    final int[] myFirstItem;
+    /**
+     * The productions of each variable.
+     */
+    final int[][] myProductionsOf;
+    /**
+     * Whether each variable derives the empty string.
+     */
+    final boolean[] myNullable;
+    /**
+     * The production which first showed that a variable is nullable, so that
+     * the empty string may be derived with it without cycles; -1 for
+     * variables which are not nullable.
+     */
+    final int[] myLambdaProduction;
+    /**
+     * The number of the start variable, -1 if there is none.
+     */
+    final int myStart;
+
+    /**
+     * Instantiates a parser for <CODE>grammar</CODE>.
+     *
+     * @param grammar the context-free grammar to parse
+     * @throws IllegalArgumentException if the grammar is not context-free
+     */
+    public EarleyParser(Grammar grammar) {
+        myProductions = grammar.getProductions();
+        Map<Character, Integer> numbers = new HashMap<>();
+        for (Production production : myProductions) {
+            String lhs = production.getLHS();
+            if (lhs.length() != 1 || !ProductionChecker.isVariable(lhs.charAt(0))) {
+                throw new IllegalArgumentException("Grammar is not context-free");
+            }
+            number(numbers, lhs.charAt(0));
+        }
+        String start = grammar.getStartVariable();
+        myStart = start == null || start.length() != 1 ? -1 : numbers.getOrDefault(start.charAt(0), -1);
+
+        myLHS = new int[myProductions.length];
+        myRHS = new int[myProductions.length][];
+        myFirstItem = new int[myProductions.length];
+        for (int p = 0; p < myProductions.length; p++) {
+            myFirstItem[p] = p == 0 ? 0 : myFirstItem[p - 1] + myRHS[p - 1].length + 1;
+            myLHS[p] = numbers.get(myProductions[p].getLHS().charAt(0));
+            String rhs = myProductions[p].getRHS();
+            myRHS[p] = new int[rhs.length()];
+            for (int i = 0; i < rhs.length(); i++) {
+                char c = rhs.charAt(i);
+                myRHS[p][i] = ProductionChecker.isVariable(c) ? number(numbers, c) : -1 - c;
+            }
+        }
+
+        int variables = numbers.size();
+        List<List<Integer>> productionsOf = new ArrayList<>();
+        for (int v = 0; v < variables; v++) {
+            productionsOf.add(new ArrayList<Integer>());
+        }
+        for (int p = 0; p < myProductions.length; p++) {
+            productionsOf.get(myLHS[p]).add(p);
+        }
+        myProductionsOf = new int[variables][];
+        for (int v = 0; v < variables; v++) {
+            List<Integer> list = productionsOf.get(v);
+            myProductionsOf[v] = new int[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                myProductionsOf[v][i] = list.get(i);
+            }
+        }
+
+        myNullable = new boolean[variables];
+        myLambdaProduction = new int[variables];
+        Arrays.fill(myLambdaProduction, -1);
+        for (boolean changed = true; changed; ) {
+            changed = false;
+            for (int p = 0; p < myProductions.length; p++) {
+                if (myNullable[myLHS[p]]) {
+                    continue;
+                }
+                boolean nullable = true;
+                for (int symbol : myRHS[p]) {
+                    nullable &= symbol >= 0 && myNullable[symbol];
+                }
+                if (nullable) {
+                    myNullable[myLHS[p]] = true;
+                    myLambdaProduction[myLHS[p]] = p;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives <CODE>variable</CODE> the next number, unless it already has one.
+     *
+     * @return the number of the variable
+     */
+    private static int number(Map<Character, Integer> numbers, char variable) {
+        Integer number = numbers.get(variable);
+        if (number == null) {
+            number = numbers.size();
+            numbers.put(variable, number);
+        }
+        return number;
+    }
+
+    /**
+     * Parses <CODE>input</CODE>.
+     *
+     * @param input the string to parse
+     * @return the forest of all parses of the string, which is empty if the
+     * grammar does not derive it
+     */
+    public ParseForest parse(String input) {
+        return new ParseForest(this, input);
+    }
+
+    /**
+     * Checks whether the grammar derives <CODE>input</CODE>.
+     *
+     * @param input the string to check
+     * @return <CODE>true</CODE> if the grammar derives the string
+     */
+    public boolean solve(String input) {
+        return parse(input).isAccepted();
+    }
+}
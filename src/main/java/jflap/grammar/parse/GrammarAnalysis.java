@@ -0,0 +1,645 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.grammar.parse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jflap.grammar.Grammar;
+import jflap.grammar.Production;
+
+/**
+ * The <CODE>GrammarAnalysis</CODE> computes the facts about a
+ * jflap.grammar which parse tables are built from. Symbols are interned to
+ * ints: variables are numbered from 0 in sorted order, and terminals follow
+ * them, also in sorted order. FIRST and FOLLOW sets are bitsets over the
+ * numbers of terminals, found with worklists which revisit only what depends
+ * on a changed set.
+ * <p>
+ * LR(0) items are pairs of a production and a position in its right hand
+ * side, numbered with ints, and sets of items are numbered by their kernels,
+ * so equal sets are found with one lookup. The goto of each set is computed
+ * once for all symbols and remembered.
+ *
+ * @see Operations
+ * @see LLParseTableGenerator
+ * @see LRParseTableGenerator
+ */
+
+public class GrammarAnalysis {
+    /**
+     * The productions of the jflap.grammar, by their numbers.
+     */
+    private final Production[] myProductions;
+    /**
+     * The names of symbols, variables first and terminals after them.
+     */
+    private final String[] mySymbols;
+    /**
+     * The number of variables, which is also the number of the first
+     * terminal.
+     */
+    private final int myVariableCount;
+    /**
+     * The numbers of symbols, by their names.
+     */
+    private final Map<String, Integer> myNumbers = new HashMap<>();
+    /**
+     * The left hand side variable of each production.
+     */
+    private final int[] myLHS;
+    /**
+     * The symbols of the right hand side of each production.
+     */
+    private final int[][] myRHS;
+    /**
+     * The productions of each variable.
+     */
+    private final int[][] myProductionsOf;
+    /**
+     * Whether each variable derives the empty string.
+     */
+    private final boolean[] myNullable;
+    /**
+     * The FIRST set of each variable, over numbers of terminals counted from
+     * 0, without the empty string.
+     */
+    private final BitSet[] myFirst;
+    /**
+     * The FOLLOW set of each variable, over numbers of terminals counted from
+     * 0, with the end of the string as the last terminal.
+     */
+    private final BitSet[] myFollow;
+
+    /**
+     * The number of the first item of each production, the item with the
+     * position at the start of its right hand side.
+     */
+    private final int[] myFirstItem;
+    /**
+     * The production of each item.
+     */
+    private final int[] myItemProduction;
+    /**
+     * The items added to a closure by each variable after the position, or
+     * <CODE>null</CODE> if they were not needed yet.
+     */
+    private final int[][] myClosureItems;
+    /**
+     * The numbers of sets of items, by their kernels.
+     */
+    private final Map<Kernel, Integer> mySets = new HashMap<>();
+    /**
+     * The closures of sets of items, by their numbers.
+     */
+    private final List<int[]> myClosures = new ArrayList<>();
+    /**
+     * The gotos of sets of items, by their numbers and then by symbols, -1 if
+     * there is no goto; <CODE>null</CODE> for sets whose gotos were not
+     * needed yet.
+     */
+    private final List<int[]> myGotos = new ArrayList<>();
+
+    /**
+     * Analyzes a jflap.grammar. Every left hand side is taken as a variable,
+     * so the augmented jflap.grammar may be analyzed as well.
+     *
+     * @param grammar the jflap.grammar to analyze
+     * @throws IllegalArgumentException if a symbol in the productions is not
+     *                                  a variable or a terminal of the
+     *                                  jflap.grammar
+     */
+    public GrammarAnalysis(Grammar grammar) {
+        myProductions = grammar.getProductions();
+        List<String> variables = new ArrayList<>(Arrays.asList(grammar.getVariables()));
+        for (int i = 0; i < myProductions.length; i++) {
+            if (!variables.contains(myProductions[i].getLHS())) {
+                variables.add(myProductions[i].getLHS());
+            }
+        }
+        String[] sortedVariables = variables.toArray(new String[0]);
+        Arrays.sort(sortedVariables);
+        String[] terminals = grammar.getTerminals();
+        Arrays.sort(terminals);
+        myVariableCount = sortedVariables.length;
+        mySymbols = new String[myVariableCount + terminals.length];
+        System.arraycopy(sortedVariables, 0, mySymbols, 0, myVariableCount);
+        System.arraycopy(terminals, 0, mySymbols, myVariableCount, terminals.length);
+        for (int i = 0; i < mySymbols.length; i++) {
+            myNumbers.put(mySymbols[i], i);
+        }
+
+        myLHS = new int[myProductions.length];
+        myRHS = new int[myProductions.length][];
+        int[] counts = new int[myVariableCount];
+        for (int i = 0; i < myProductions.length; i++) {
+            myLHS[i] = myNumbers.get(myProductions[i].getLHS());
+            String rhs = myProductions[i].getRHS();
+            myRHS[i] = new int[rhs.length()];
+            for (int j = 0; j < rhs.length(); j++) {
+                Integer symbol = myNumbers.get(rhs.substring(j, j + 1));
+                if (symbol == null) {
+                    throw new IllegalArgumentException(rhs.charAt(j)
+                        + " is not in the jflap.grammar!");
+                }
+                myRHS[i][j] = symbol;
+            }
+            counts[myLHS[i]]++;
+        }
+        myProductionsOf = new int[myVariableCount][];
+        for (int i = 0; i < myVariableCount; i++) {
+            myProductionsOf[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int i = 0; i < myProductions.length; i++) {
+            myProductionsOf[myLHS[i]][counts[myLHS[i]]++] = i;
+        }
+
+        myNullable = new boolean[myVariableCount];
+        myFirst = new BitSet[myVariableCount];
+        myFollow = new BitSet[myVariableCount];
+        for (int i = 0; i < myVariableCount; i++) {
+            myFirst[i] = new BitSet();
+            myFollow[i] = new BitSet();
+        }
+        computeFirst();
+        Integer start = myNumbers.get(grammar.getStartVariable());
+        if (start != null && start < myVariableCount) {
+            myFollow[start].set(getTerminalCount());
+        }
+        computeFollow();
+
+        myFirstItem = new int[myProductions.length + 1];
+        for (int i = 0; i < myProductions.length; i++) {
+            myFirstItem[i + 1] = myFirstItem[i] + myRHS[i].length + 1;
+        }
+        myItemProduction = new int[myFirstItem[myProductions.length]];
+        for (int i = 0; i < myProductions.length; i++) {
+            Arrays.fill(myItemProduction, myFirstItem[i], myFirstItem[i + 1], i);
+        }
+        myClosureItems = new int[myVariableCount][];
+    }
+
+    /**
+     * Computes FIRST sets and nullable variables. Each production is
+     * revisited only when the FIRST set of a variable on its right hand side
+     * grows, or the variable becomes nullable.
+     */
+    private void computeFirst() {
+        int[][] occurrences = occurrences();
+        int[] queue = new int[myProductions.length];
+        boolean[] queued = new boolean[myProductions.length];
+        int head = 0, size = 0;
+        for (int i = 0; i < myProductions.length; i++) {
+            queue[size++] = i;
+            queued[i] = true;
+        }
+        while (size > 0) {
+            int production = queue[head];
+            head = (head + 1) % queue.length;
+            size--;
+            queued[production] = false;
+
+            int variable = myLHS[production];
+            int before = myFirst[variable].cardinality();
+            boolean nullable = addFirst(myRHS[production], 0, myFirst[variable]);
+            boolean changed = myFirst[variable].cardinality() != before;
+            if (nullable && !myNullable[variable]) {
+                myNullable[variable] = true;
+                changed = true;
+            }
+            if (!changed) {
+                continue;
+            }
+            int[] dependent = occurrences[variable];
+            for (int i = 0; i < dependent.length; i++) {
+                if (!queued[dependent[i]]) {
+                    queued[dependent[i]] = true;
+                    queue[(head + size++) % queue.length] = dependent[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the productions which have each variable on the right hand
+     * side, each production once.
+     */
+    private int[][] occurrences() {
+        List<List<Integer>> occurrences = new ArrayList<>();
+        for (int i = 0; i < myVariableCount; i++) {
+            occurrences.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < myProductions.length; i++) {
+            for (int j = 0; j < myRHS[i].length; j++) {
+                int symbol = myRHS[i][j];
+                List<Integer> list = symbol < myVariableCount ? occurrences.get(symbol) : null;
+                if (list != null && (list.isEmpty() || list.get(list.size() - 1) != i)) {
+                    list.add(i);
+                }
+            }
+        }
+        int[][] result = new int[myVariableCount][];
+        for (int i = 0; i < myVariableCount; i++) {
+            List<Integer> list = occurrences.get(i);
+            result[i] = new int[list.size()];
+            for (int j = 0; j < result[i].length; j++) {
+                result[i][j] = list.get(j);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes FOLLOW sets. FIRST sets of what follows variables are added
+     * once; then FOLLOW sets flow from left hand sides to variables at
+     * nullable ends of right hand sides, and only changed sets flow further.
+     */
+    private void computeFollow() {
+        List<List<Integer>> edges = new ArrayList<>();
+        for (int i = 0; i < myVariableCount; i++) {
+            edges.add(new ArrayList<Integer>());
+        }
+        BitSet suffix = new BitSet();
+        for (int i = 0; i < myProductions.length; i++) {
+            int[] rhs = myRHS[i];
+            suffix.clear();
+            boolean nullable = true;
+            for (int j = rhs.length - 1; j >= 0; j--) {
+                int symbol = rhs[j];
+                if (symbol < myVariableCount) {
+                    myFollow[symbol].or(suffix);
+                    if (nullable && symbol != myLHS[i]) {
+                        edges.get(myLHS[i]).add(symbol);
+                    }
+                    if (!myNullable[symbol]) {
+                        suffix.clear();
+                        nullable = false;
+                    }
+                    suffix.or(myFirst[symbol]);
+                } else {
+                    suffix.clear();
+                    suffix.set(symbol - myVariableCount);
+                    nullable = false;
+                }
+            }
+        }
+
+        int[] queue = new int[myVariableCount];
+        boolean[] queued = new boolean[myVariableCount];
+        int head = 0, size = 0;
+        for (int i = 0; i < myVariableCount; i++) {
+            queue[size++] = i;
+            queued[i] = true;
+        }
+        while (size > 0) {
+            int variable = queue[head];
+            head = (head + 1) % queue.length;
+            size--;
+            queued[variable] = false;
+            List<Integer> targets = edges.get(variable);
+            for (int i = 0; i < targets.size(); i++) {
+                int target = targets.get(i);
+                int before = myFollow[target].cardinality();
+                myFollow[target].or(myFollow[variable]);
+                if (myFollow[target].cardinality() != before && !queued[target]) {
+                    queued[target] = true;
+                    queue[(head + size++) % queue.length] = target;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the FIRST set of the symbols of <CODE>sequence</CODE> from
+     * <CODE>from</CODE> on to <CODE>first</CODE>.
+     *
+     * @return <CODE>true</CODE> if those symbols derive the empty string
+     */
+    private boolean addFirst(int[] sequence, int from, BitSet first) {
+        for (int i = from; i < sequence.length; i++) {
+            int symbol = sequence[i];
+            if (symbol >= myVariableCount) {
+                first.set(symbol - myVariableCount);
+                return false;
+            }
+            first.or(myFirst[symbol]);
+            if (!myNullable[symbol]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of variables.
+     *
+     * @return the number of variables, which is also the number of the first
+     * terminal
+     */
+    public int getVariableCount() {
+        return myVariableCount;
+    }
+
+    /**
+     * Returns the number of terminals, which is also the number of the end of
+     * the string in FOLLOW sets.
+     *
+     * @return the number of terminals
+     */
+    public int getTerminalCount() {
+        return mySymbols.length - myVariableCount;
+    }
+
+    /**
+     * Returns the name of a symbol.
+     *
+     * @param symbol the number of the symbol
+     * @return the name of the symbol
+     */
+    public String getSymbol(int symbol) {
+        return mySymbols[symbol];
+    }
+
+    /**
+     * Returns the number of a symbol.
+     *
+     * @param symbol the name of the symbol
+     * @return the number of the symbol, or -1 if it is not in the
+     * jflap.grammar
+     */
+    public int getNumber(String symbol) {
+        Integer number = myNumbers.get(symbol);
+        return number == null ? -1 : number;
+    }
+
+    /**
+     * Returns the number of productions.
+     *
+     * @return the number of productions
+     */
+    public int getProductionCount() {
+        return myProductions.length;
+    }
+
+    /**
+     * Returns the left hand side variable of a production.
+     *
+     * @param production the number of the production
+     * @return the number of the variable
+     */
+    public int getLHS(int production) {
+        return myLHS[production];
+    }
+
+    /**
+     * Returns if a variable derives the empty string.
+     *
+     * @param variable the number of the variable
+     * @return <CODE>true</CODE> if the variable is nullable
+     */
+    public boolean isNullable(int variable) {
+        return myNullable[variable];
+    }
+
+    /**
+     * Returns the FIRST set of a variable, without the empty string. The
+     * returned set should not be modified.
+     *
+     * @param variable the number of the variable
+     * @return the numbers of terminals, counted from 0
+     */
+    public BitSet getFirst(int variable) {
+        return myFirst[variable];
+    }
+
+    /**
+     * Returns the FOLLOW set of a variable. The returned set should not be
+     * modified.
+     *
+     * @param variable the number of the variable
+     * @return the numbers of terminals, counted from 0, with
+     * {@link #getTerminalCount} standing for the end of the string
+     */
+    public BitSet getFollow(int variable) {
+        return myFollow[variable];
+    }
+
+    /**
+     * Adds the FIRST set of the right hand side of a production to
+     * <CODE>first</CODE>.
+     *
+     * @param production the number of the production
+     * @param first      the set to add to
+     * @return <CODE>true</CODE> if the right hand side derives the empty
+     * string
+     */
+    public boolean addFirstOfRHS(int production, BitSet first) {
+        return addFirst(myRHS[production], 0, first);
+    }
+
+    /**
+     * Returns the number of the set of items whose kernel is the first item
+     * of a production, which for the start production of the augmented
+     * jflap.grammar is the initial set of the goto graph.
+     *
+     * @param production the number of the production
+     * @return the number of the set
+     */
+    public int getInitialSet(int production) {
+        return number(new int[]{myFirstItem[production]});
+    }
+
+    /**
+     * Returns the number of sets of items found so far.
+     *
+     * @return the number of sets
+     */
+    public int getSetCount() {
+        return myClosures.size();
+    }
+
+    /**
+     * Returns the number of the set reached from a set of items on a symbol.
+     *
+     * @param set    the number of the set of items
+     * @param symbol the number of the symbol
+     * @return the number of the reached set, or -1 if no item of the set has
+     * the symbol after its position
+     */
+    public int goTo(int set, int symbol) {
+        int[] gotos = myGotos.get(set);
+        if (gotos == null) {
+            gotos = gotos(set);
+            myGotos.set(set, gotos);
+        }
+        return gotos[symbol];
+    }
+
+    /**
+     * Returns the productions of complete items of a set, those with the
+     * position at the end of the right hand side.
+     *
+     * @param set the number of the set of items
+     * @return the numbers of productions, in ascending order
+     */
+    public int[] getCompleteProductions(int set) {
+        int[] closure = myClosures.get(set);
+        int[] complete = new int[closure.length];
+        int size = 0;
+        for (int i = 0; i < closure.length; i++) {
+            int production = myItemProduction[closure[i]];
+            if (closure[i] == myFirstItem[production + 1] - 1) {
+                complete[size++] = production;
+            }
+        }
+        return Arrays.copyOf(complete, size);
+    }
+
+    /**
+     * Returns the symbol after the position of an item.
+     *
+     * @return the number of the symbol, or -1 if the item is complete
+     */
+    private int next(int item) {
+        int production = myItemProduction[item];
+        int position = item - myFirstItem[production];
+        return position == myRHS[production].length ? -1 : myRHS[production][position];
+    }
+
+    /**
+     * Computes the gotos of a set on all symbols at once.
+     */
+    private int[] gotos(int set) {
+        int[] closure = myClosures.get(set);
+        int[] counts = new int[mySymbols.length];
+        for (int i = 0; i < closure.length; i++) {
+            int symbol = next(closure[i]);
+            if (symbol != -1) {
+                counts[symbol]++;
+            }
+        }
+        int[][] kernels = new int[mySymbols.length][];
+        for (int i = 0; i < closure.length; i++) {
+            int symbol = next(closure[i]);
+            if (symbol == -1) {
+                continue;
+            }
+            if (kernels[symbol] == null) {
+                kernels[symbol] = new int[counts[symbol]];
+                counts[symbol] = 0;
+            }
+            kernels[symbol][counts[symbol]++] = closure[i] + 1;
+        }
+        int[] gotos = new int[mySymbols.length];
+        for (int i = 0; i < gotos.length; i++) {
+            gotos[i] = kernels[i] == null ? -1 : number(kernels[i]);
+        }
+        return gotos;
+    }
+
+    /**
+     * Returns the number of the set of items with a kernel, adding the set if
+     * it is new.
+     *
+     * @param kernel the kernel items, in ascending order
+     */
+    private int number(int[] kernel) {
+        Kernel key = new Kernel(kernel);
+        Integer number = mySets.get(key);
+        if (number == null) {
+            number = myClosures.size();
+            mySets.put(key, number);
+            myClosures.add(closure(kernel));
+            myGotos.add(null);
+        }
+        return number;
+    }
+
+    /**
+     * Returns the closure of a kernel, in ascending order of items.
+     */
+    private int[] closure(int[] kernel) {
+        BitSet items = new BitSet();
+        for (int i = 0; i < kernel.length; i++) {
+            items.set(kernel[i]);
+            int symbol = next(kernel[i]);
+            if (symbol != -1 && symbol < myVariableCount) {
+                int[] added = closureItems(symbol);
+                for (int j = 0; j < added.length; j++) {
+                    items.set(added[j]);
+                }
+            }
+        }
+        return items.stream().toArray();
+    }
+
+    /**
+     * Returns the first items of productions of all variables which may
+     * start a derivation from a variable, the variable included.
+     */
+    private int[] closureItems(int variable) {
+        if (myClosureItems[variable] != null) {
+            return myClosureItems[variable];
+        }
+        BitSet reached = new BitSet(myVariableCount);
+        int[] stack = new int[myVariableCount];
+        int top = 0;
+        stack[top++] = variable;
+        reached.set(variable);
+        BitSet items = new BitSet();
+        while (top > 0) {
+            int current = stack[--top];
+            int[] productions = myProductionsOf[current];
+            for (int i = 0; i < productions.length; i++) {
+                items.set(myFirstItem[productions[i]]);
+                int[] rhs = myRHS[productions[i]];
+                if (rhs.length > 0 && rhs[0] < myVariableCount && !reached.get(rhs[0])) {
+                    reached.set(rhs[0]);
+                    stack[top++] = rhs[0];
+                }
+            }
+        }
+        myClosureItems[variable] = items.stream().toArray();
+        return myClosureItems[variable];
+    }
+
+    /**
+     * The kernel of a set of items as a key of a map.
+     */
+    private static final class Kernel {
+        private final int[] items;
+        private final int hash;
+
+        Kernel(int[] items) {
+            this.items = items;
+            this.hash = Arrays.hashCode(items);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object object) {
+            return object instanceof Kernel && Arrays.equals(items, ((Kernel) object).items);
+        }
+    }
+}
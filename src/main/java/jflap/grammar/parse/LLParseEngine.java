@@ -0,0 +1,194 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.grammar.parse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import jflap.grammar.Grammar;
+
+/**
+ * The <CODE>LLParseEngine</CODE> runs an {@link LLParseTable} as a
+ * predictive parser. The table is compiled into an array of expansions,
+ * indexed by the variable on top of the stack and the lookahead terminal, and
+ * the stack holds symbols coded as ints: variables by their rows, and
+ * terminals by <CODE>-1 - column</CODE>.
+ *
+ * @see LLParseTableGenerator
+ */
+
+public class LLParseEngine extends ParseEngine {
+    /**
+     * The number of columns of terminals, including the end of the string.
+     */
+    private final int myWidth;
+    /**
+     * The number of the expansion for each variable and lookahead, by
+     * <CODE>variable * width + column</CODE>, -1 for errors.
+     */
+    private final int[] myTable;
+    /**
+     * The symbols of each expansion, coded as on the stack, in reverse
+     * order, so they are pushed as they are.
+     */
+    private final int[][] myExpansions;
+    /**
+     * The row of the start variable, -1 if it has no row.
+     */
+    private final int myStart;
+
+    /**
+     * Compiles an LL parse table.
+     *
+     * @param table   the parse table
+     * @param grammar the jflap.grammar of the table
+     */
+    public LLParseEngine(LLParseTable table, Grammar grammar) {
+        this(table, grammar, terminals(table));
+    }
+
+    /**
+     * Compiles an LL parse table with the given terminals.
+     */
+    private LLParseEngine(LLParseTable table, Grammar grammar, String[] terminals) {
+        super(terminals, conflicts(table));
+        int rows = table.getRowCount();
+        myWidth = terminals.length + 1;
+        Map<String, Integer> variables = new HashMap<>();
+        for (int i = 0; i < rows; i++) {
+            variables.put((String) table.getValueAt(i, 0), i);
+        }
+        Integer start = variables.get(grammar.getStartVariable());
+        myStart = start == null ? -1 : start;
+
+        Map<String, Integer> numbers = new HashMap<>();
+        List<int[]> expansions = new ArrayList<>();
+        myTable = new int[rows * myWidth];
+        Arrays.fill(myTable, -1);
+        for (int i = 0; i < rows; i++) {
+            String variable = (String) table.getValueAt(i, 0);
+            for (int j = 0; j < myWidth; j++) {
+                SortedSet<String> entries = table.get(variable,
+                    table.getColumnName(j + 1));
+                if (entries.isEmpty()) {
+                    continue;
+                }
+                String expansion = entries.first();
+                Integer number = numbers.get(expansion);
+                if (number == null) {
+                    number = expansions.size();
+                    numbers.put(expansion, number);
+                    expansions.add(code(expansion, variables));
+                }
+                myTable[i * myWidth + j] = number;
+            }
+        }
+        myExpansions = expansions.toArray(new int[0][]);
+    }
+
+    /**
+     * Returns the terminals of a table, in order of their columns.
+     */
+    private static String[] terminals(LLParseTable table) {
+        String[] terminals = new String[table.getColumnCount() - 2];
+        for (int i = 0; i < terminals.length; i++) {
+            terminals[i] = table.getColumnName(i + 1);
+        }
+        return terminals;
+    }
+
+    /**
+     * Returns the descriptions of cells of a table with more than one entry.
+     */
+    private static String[] conflicts(LLParseTable table) {
+        List<String> conflicts = new ArrayList<>();
+        for (int i = 0; i < table.getRowCount(); i++) {
+            String variable = (String) table.getValueAt(i, 0);
+            for (int j = 1; j < table.getColumnCount(); j++) {
+                SortedSet<String> entries = table.get(variable, table.getColumnName(j));
+                if (entries.size() > 1) {
+                    conflicts.add(conflict(variable, table.getColumnName(j), entries));
+                }
+            }
+        }
+        return conflicts.toArray(new String[0]);
+    }
+
+    /**
+     * Codes the symbols of an expansion in reverse order.
+     */
+    private int[] code(String expansion, Map<String, Integer> variables) {
+        int[] coded = new int[expansion.length()];
+        for (int i = 0; i < coded.length; i++) {
+            String symbol = expansion.substring(i, i + 1);
+            Integer variable = variables.get(symbol);
+            int code = variable != null ? variable : -1 - columnOf(symbol);
+            coded[coded.length - 1 - i] = code;
+        }
+        return coded;
+    }
+
+    /**
+     * Returns the column of a terminal.
+     */
+    private int columnOf(String terminal) {
+        int column = column(terminal, 0);
+        if (column == -1) {
+            throw new IllegalArgumentException(terminal + " is not a terminal!");
+        }
+        return column;
+    }
+
+    int run(CharSequence input) {
+        if (myStart == -1) {
+            return 0;
+        }
+        int[] stack = new int[INITIAL_STACK_SIZE];
+        int top = 0;
+        stack[top++] = myStart;
+        int position = 0;
+        int lookahead = column(input, 0);
+        while (top > 0) {
+            int symbol = stack[--top];
+            if (symbol < 0) {
+                if (-1 - symbol != lookahead) {
+                    return position;
+                }
+                lookahead = column(input, ++position);
+                continue;
+            }
+            if (lookahead == -1) {
+                return position;
+            }
+            int expansion = myTable[symbol * myWidth + lookahead];
+            if (expansion == -1) {
+                return position;
+            }
+            int[] symbols = myExpansions[expansion];
+            if (top + symbols.length > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + symbols.length));
+            }
+            System.arraycopy(symbols, 0, stack, top, symbols.length);
+            top += symbols.length;
+        }
+        return lookahead == myEnd ? ACCEPTED : position;
+    }
+}
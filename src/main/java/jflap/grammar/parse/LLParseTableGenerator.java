@@ -17,9 +17,7 @@
 
 package jflap.grammar.parse;
 
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Set;
+import java.util.BitSet;
 import jflap.grammar.Grammar;
 import jflap.grammar.Production;
 
@@ -37,34 +35,27 @@ public class LLParseTableGenerator {
     }
 
     /**
-     * Generates a parse table for a particular jflap.grammar.
+     * Generates a parse table for a particular jflap.grammar. FIRST and FOLLOW
+     * sets are taken from a {@link GrammarAnalysis} of the jflap.grammar.
      *
      * @param grammar the jflap.grammar for which a complete parse table should be
      *                generated
      */
     public static LLParseTable generate(Grammar grammar) {
         LLParseTable table = new LLParseTable(grammar);
-        Map<String, Set<String>> first = Operations.first(grammar), follow = Operations
-            .follow(grammar);
+        GrammarAnalysis analysis = new GrammarAnalysis(grammar);
         Production[] productions = grammar.getProductions();
+        BitSet firsts = new BitSet();
         for (int i = 0; i < productions.length; i++) {
             String alpha = productions[i].getRHS();
             String A = productions[i].getLHS();
-            Set<String> firsts = Operations.first(first, alpha);
-            Iterator<String> it = firsts.iterator();
-            while (it.hasNext()) {
-                String a = it.next();
-                if (!a.equals("")) {
-                    table.addEntry(A, a, alpha);
-                }
+            firsts.clear();
+            if (analysis.addFirstOfRHS(i, firsts)) {
+                firsts.or(analysis.getFollow(analysis.getLHS(i)));
             }
-            if (!firsts.contains("")) {
-                continue;
-            }
-            Set<String> follows = follow.get(A);
-            it = follows.iterator();
-            while (it.hasNext()) {
-                table.addEntry(A, it.next(), alpha);
+            for (int t = firsts.nextSetBit(0); t >= 0; t = firsts.nextSetBit(t + 1)) {
+                table.addEntry(A, t == analysis.getTerminalCount() ? "$"
+                    : analysis.getSymbol(analysis.getVariableCount() + t), alpha);
             }
         }
         return table;
@@ -0,0 +1,214 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.grammar.parse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import jflap.grammar.Grammar;
+import jflap.grammar.Production;
+
+/**
+ * The <CODE>LRParseEngine</CODE> runs an SLR(1) {@link LRParseTable} as a
+ * shift-reduce parser. The entries "s#", "r#" and "acc" are read once, when
+ * the table is compiled into arrays of actions and gotos indexed by state and
+ * column, and the stack holds only the numbers of states.
+ *
+ * @see LRParseTableGenerator
+ */
+
+public class LRParseEngine extends ParseEngine {
+    /**
+     * The action which accepts the string.
+     */
+    private static final int ACCEPT = Integer.MIN_VALUE;
+    /**
+     * The number of columns of terminals, including the end of the string.
+     */
+    private final int myWidth;
+    /**
+     * The number of columns of variables.
+     */
+    private final int myVariableCount;
+    /**
+     * The action for each state and lookahead, by
+     * <CODE>state * width + column</CODE>: 0 for errors, <CODE>1 + state</CODE>
+     * for shifts, <CODE>-1 - production</CODE> for reductions and
+     * {@link #ACCEPT} for acceptance.
+     */
+    private final int[] myActions;
+    /**
+     * The state to go to for each state and variable, by
+     * <CODE>state * variables + variable</CODE>, -1 if there is none.
+     */
+    private final int[] myGotos;
+    /**
+     * The column of the left hand side variable of each production.
+     */
+    private final int[] myLHS;
+    /**
+     * The length of the right hand side of each production.
+     */
+    private final int[] myLengths;
+
+    /**
+     * Compiles an LR parse table.
+     *
+     * @param table the parse table, with its augmented jflap.grammar
+     */
+    public LRParseEngine(LRParseTable table) {
+        this(table, terminalColumns(table));
+    }
+
+    /**
+     * Compiles an LR parse table with the given number of columns of
+     * terminals, including the end of the string.
+     */
+    private LRParseEngine(LRParseTable table, int width) {
+        super(terminals(table, width), conflicts(table));
+        Grammar grammar = table.getGrammar();
+        int states = table.getRowCount();
+        myWidth = width;
+        myVariableCount = table.getColumnCount() - 1 - width;
+        Map<String, Integer> variables = new HashMap<>();
+        for (int i = 0; i < myVariableCount; i++) {
+            variables.put(table.getColumnName(1 + width + i), i);
+        }
+
+        myActions = new int[states * myWidth];
+        myGotos = new int[states * myVariableCount];
+        Arrays.fill(myGotos, -1);
+        for (int i = 0; i < states; i++) {
+            for (int j = 0; j < myWidth; j++) {
+                SortedSet<String> entries = table.getSetAt(i, 1 + j);
+                if (!entries.isEmpty()) {
+                    myActions[i * myWidth + j] = action(entries.first());
+                }
+            }
+            for (int j = 0; j < myVariableCount; j++) {
+                SortedSet<String> entries = table.getSetAt(i, 1 + myWidth + j);
+                if (!entries.isEmpty()) {
+                    myGotos[i * myVariableCount + j] = Integer.parseInt(entries.first());
+                }
+            }
+        }
+
+        Production[] productions = grammar.getProductions();
+        myLHS = new int[productions.length];
+        myLengths = new int[productions.length];
+        for (int i = 0; i < productions.length; i++) {
+            Integer variable = variables.get(productions[i].getLHS());
+            myLHS[i] = variable == null ? -1 : variable;
+            myLengths[i] = productions[i].getRHS().length();
+        }
+    }
+
+    /**
+     * Returns the number of columns of terminals of a table, including the
+     * end of the string.
+     */
+    private static int terminalColumns(LRParseTable table) {
+        Grammar grammar = table.getGrammar();
+        int columns = 0;
+        while (columns + 1 < table.getColumnCount()
+            && !grammar.isVariable(table.getColumnName(columns + 1))) {
+            columns++;
+        }
+        return columns;
+    }
+
+    /**
+     * Returns the terminals of a table, without the end of the string.
+     */
+    private static String[] terminals(LRParseTable table, int width) {
+        String[] terminals = new String[width - 1];
+        for (int i = 0; i < terminals.length; i++) {
+            terminals[i] = table.getColumnName(i + 1);
+        }
+        return terminals;
+    }
+
+    /**
+     * Returns the descriptions of cells of a table with more than one entry.
+     */
+    private static String[] conflicts(LRParseTable table) {
+        List<String> conflicts = new ArrayList<>();
+        for (int i = 0; i < table.getRowCount(); i++) {
+            for (int j = 1; j < table.getColumnCount(); j++) {
+                SortedSet<String> entries = table.getSetAt(i, j);
+                if (entries.size() > 1) {
+                    conflicts.add(conflict(Integer.toString(i), table.getColumnName(j), entries));
+                }
+            }
+        }
+        return conflicts.toArray(new String[0]);
+    }
+
+    /**
+     * Codes an entry of a terminal column.
+     */
+    private static int action(String entry) {
+        switch (entry.charAt(0)) {
+            case 'a':
+                return ACCEPT;
+            case 's':
+                return 1 + Integer.parseInt(entry.substring(1));
+            case 'r':
+                return -1 - Integer.parseInt(entry.substring(1));
+            default:
+                throw new IllegalArgumentException(entry + " is not an action!");
+        }
+    }
+
+    int run(CharSequence input) {
+        int[] stack = new int[INITIAL_STACK_SIZE];
+        int top = 0;
+        stack[top++] = 0;
+        int position = 0;
+        int lookahead = column(input, 0);
+        while (lookahead != -1) {
+            int action = myActions[stack[top - 1] * myWidth + lookahead];
+            if (action == 0) {
+                return position;
+            }
+            if (action == ACCEPT) {
+                return ACCEPTED;
+            }
+            int state;
+            if (action > 0) {
+                state = action - 1;
+                lookahead = column(input, ++position);
+            } else {
+                int production = -1 - action;
+                top -= myLengths[production];
+                state = myGotos[stack[top - 1] * myVariableCount + myLHS[production]];
+                if (state == -1) {
+                    return position;
+                }
+            }
+            if (top == stack.length) {
+                stack = Arrays.copyOf(stack, top * 2);
+            }
+            stack[top++] = state;
+        }
+        return position;
+    }
+}
@@ -70,6 +70,17 @@ public class LRParseTable extends AbstractTableModel implements Serializable,
      * @param fsa     the goto graph for the jflap.grammar
      */
     public LRParseTable(Grammar grammar, FiniteStateAutomaton fsa) {
+        this(grammar, fsa.getStates().length);
+    }
+
+    /**
+     * Instantiates a new LR parse table with a number of states, for a goto
+     * graph which is not built as an automaton.
+     *
+     * @param grammar the augmented jflap.grammar
+     * @param states  the number of states of the goto graph
+     */
+    LRParseTable(Grammar grammar, int states) {
         ArrayList<String> term = new ArrayList<>(Arrays.asList(grammar.getTerminals()));
         ArrayList<String> vars = new ArrayList<>(Arrays.asList(grammar.getVariables()));
         this.grammar = grammar;
@@ -86,7 +97,7 @@ public class LRParseTable extends AbstractTableModel implements Serializable,
             symbolsToColumn.put(variables[i], new Integer(i + 1
                 + terminals.length));
         }
-        entries = new String[fsa.getStates().length][terminals.length
+        entries = new String[states][terminals.length
             + variables.length + 1];
         for (int i = 0; i < entries.length; i++) {
             for (int j = 0; j < entries[i].length; j++) {
@@ -113,6 +124,16 @@ public class LRParseTable extends AbstractTableModel implements Serializable,
         symbolsToColumn = table.symbolsToColumn;
     }
 
+    /**
+     * Returns the augmented jflap.grammar of this table, whose productions are
+     * numbered by the reduce entries.
+     *
+     * @return the augmented jflap.grammar
+     */
+    public Grammar getGrammar() {
+        return grammar;
+    }
+
     /**
      * Returns a clone of this object.
      *
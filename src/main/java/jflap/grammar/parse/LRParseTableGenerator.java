@@ -17,7 +17,12 @@
 
 package jflap.grammar.parse;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import jflap.automata.State;
@@ -35,6 +40,101 @@ import jflap.grammar.Production;
  */
 
 public abstract class LRParseTableGenerator {
+    /**
+     * Generates an SLR(1) parse table for a jflap.grammar, building the goto graph
+     * of its augmented jflap.grammar without any user interaction. Items,
+     * their sets and FOLLOW sets are found by a {@link GrammarAnalysis}, and
+     * states are numbered as in the goto graph built by the user.
+     *
+     * @param grammar the jflap.grammar, not augmented
+     * @return the parse table, whose {@link LRParseTable#getGrammar} is the
+     * augmented jflap.grammar
+     * @throws IllegalArgumentException if the jflap.grammar can not be augmented
+     */
+    public static LRParseTable generate(Grammar grammar) {
+        Grammar augmented = Operations.getAugmentedGrammar(grammar);
+        if (augmented == null) {
+            throw new IllegalArgumentException("Grammar can not be augmented.");
+        }
+        GrammarAnalysis analysis = new GrammarAnalysis(augmented);
+        final String[] symbols = new String[analysis.getVariableCount()
+            + analysis.getTerminalCount()];
+        Integer[] order = new Integer[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = analysis.getSymbol(i);
+            order[i] = i;
+        }
+        // States are numbered as they are found, with symbols in the order of
+        // their names, so that they are numbered as in the goto graph.
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return symbols[a].compareTo(symbols[b]);
+            }
+        });
+        int[] stateOfSet = new int[16];
+        Arrays.fill(stateOfSet, -1);
+        List<Integer> sets = new ArrayList<>();
+        List<int[]> moves = new ArrayList<>();
+        sets.add(analysis.getInitialSet(0));
+        stateOfSet[sets.get(0)] = 0;
+        for (int i = 0; i < sets.size(); i++) {
+            int set = sets.get(i);
+            for (int j = 0; j < order.length; j++) {
+                int next = analysis.goTo(set, order[j]);
+                if (next == -1) {
+                    continue;
+                }
+                if (next >= stateOfSet.length) {
+                    int length = stateOfSet.length;
+                    stateOfSet = Arrays.copyOf(stateOfSet, Math.max(length * 2, next + 1));
+                    Arrays.fill(stateOfSet, length, stateOfSet.length, -1);
+                }
+                if (stateOfSet[next] == -1) {
+                    stateOfSet[next] = sets.size();
+                    sets.add(next);
+                }
+                moves.add(new int[]{i, order[j], stateOfSet[next]});
+            }
+        }
+
+        LRParseTable pt = new LRParseTable(augmented, sets.size()) {
+            /**
+             *
+             */
+            private static final long serialVersionUID = 1L;
+
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (int[] move : moves) {
+            if (move[1] < analysis.getVariableCount()) {
+                // Is a move.
+                pt.appendValueAt("" + move[2], move[0], symbols[move[1]]);
+            } else {
+                // Is a shift.
+                pt.appendValueAt("s" + move[2], move[0], symbols[move[1]]);
+            }
+        }
+        // Find the acceptance and reduction.
+        for (int i = 0; i < sets.size(); i++) {
+            int[] complete = analysis.getCompleteProductions(sets.get(i));
+            for (int j = 0; j < complete.length; j++) {
+                if (complete[j] == 0) {
+                    // This is the S' production.
+                    pt.appendValueAt("acc", i, "$");
+                    continue;
+                }
+                BitSet follow = analysis.getFollow(analysis.getLHS(complete[j]));
+                for (int t = follow.nextSetBit(0); t >= 0; t = follow.nextSetBit(t + 1)) {
+                    pt.appendValueAt("r" + complete[j], i, t == analysis.getTerminalCount()
+                        ? "$" : symbols[analysis.getVariableCount() + t]);
+                }
+            }
+        }
+        return pt;
+    }
+
     /**
      * Generates an LR parse table.
      *
@@ -70,44 +70,45 @@ public class Operations {
      * @param grammar the jflap.grammar to calculate first sets for
      * @return a map of symbols in the jflap.grammar to the first sets of that symbol
      * for this jflap.grammar
+     * @see GrammarAnalysis
      */
     public static Map<String, Set<String>> first(Grammar grammar) {
         if (CACHED_FIRST.containsKey(grammar)) {
             return CACHED_FIRST.get(grammar);
         }
+        GrammarAnalysis analysis = new GrammarAnalysis(grammar);
         Map<String, Set<String>> first = new HashMap<>();
         // Put the terminals in the map.
-        String[] terminals = grammar.getTerminals();
-        for (int i = 0; i < terminals.length; i++) {
+        for (int i = 0; i < analysis.getTerminalCount(); i++) {
             Set<String> termSet = new HashSet<>();
-            termSet.add(terminals[i]);
-            first.put(terminals[i], termSet);
+            termSet.add(analysis.getSymbol(analysis.getVariableCount() + i));
+            first.put(termSet.iterator().next(), termSet);
         }
-        // Put the variables in the map as empty sets.
-        String[] variables = grammar.getVariables();
-        for (int i = 0; i < variables.length; i++) {
-            first.put(variables[i], new HashSet<String>());
-        }
-
-        // Repeatedly go over the productions until there is no more
-        // change.
-        boolean hasChanged = true;
-        Production[] productions = grammar.getProductions();
-        while (hasChanged) {
-            hasChanged = false;
-            for (int i = 0; i < productions.length; i++) {
-                String variable = productions[i].getLHS();
-                String rhs = productions[i].getRHS();
-                Set<String> firstRhs = first(first, rhs);
-                if (setForKey(first, variable).addAll(firstRhs)) {
-                    hasChanged = true;
-                }
+        // Put the variables in the map with their fixpoint sets.
+        for (int i = 0; i < analysis.getVariableCount(); i++) {
+            Set<String> varSet = terminals(analysis, analysis.getFirst(i));
+            if (analysis.isNullable(i)) {
+                varSet.add("");
             }
+            first.put(analysis.getSymbol(i), varSet);
         }
         CACHED_FIRST.put(grammar, Collections.unmodifiableMap(first));
         return first(grammar);
     }
 
+    /**
+     * Returns the names of terminals in a set of numbers of terminals, with
+     * the end of the string as "$".
+     */
+    private static Set<String> terminals(GrammarAnalysis analysis, BitSet set) {
+        Set<String> names = new HashSet<>();
+        for (int t = set.nextSetBit(0); t >= 0; t = set.nextSetBit(t + 1)) {
+            names.add(t == analysis.getTerminalCount() ? "$"
+                : analysis.getSymbol(analysis.getVariableCount() + t));
+        }
+        return names;
+    }
+
     /**
      * Given a first map as returned by {@link #first(Grammar)} and a string
      * containing some sequence of symbols, return the first for that sequence.
@@ -147,57 +148,21 @@ public class Operations {
      *
      * @param grammar the jflap.grammar to calculate follow sets for
      * @return the map of non-terminals to the follow sets
+     * @see GrammarAnalysis
      */
     public static Map<String, Set<String>> follow(Grammar grammar) {
         if (CACHED_FOLLOW.containsKey(grammar)) {
             return CACHED_FOLLOW.get(grammar);
         }
+        GrammarAnalysis analysis = new GrammarAnalysis(grammar);
         Map<String, Set<String>> follow = new HashMap<>();
         // Add the mapping from the initial variable to the end of
         // string character.
         Set<String> initialSet = new HashSet<>();
         initialSet.add("$");
         follow.put(grammar.getStartVariable(), initialSet);
-        // Make every follow mapping empty for now.
-        String[] variables = grammar.getVariables();
-        for (int i = 0; i < variables.length; i++) {
-            if (!variables[i].equals(grammar.getStartVariable())) {
-                follow.put(variables[i], new HashSet<String>());
-            }
-        }
-        // Get the first sets.
-        Map<String, Set<String>> firstSets = first(grammar);
-        // Iterate repeatedly over the productions until we're
-        // completely done.
-        Production[] productions = grammar.getProductions();
-        boolean hasChanged = true;
-        while (hasChanged) {
-            hasChanged = false;
-            for (int i = 0; i < productions.length; i++) {
-                String variable = productions[i].getLHS();
-                String rhs = productions[i].getRHS();
-                for (int j = 0; j < rhs.length(); j++) {
-                    String rhsVariable = rhs.substring(j, j + 1);
-                    if (!grammar.isVariable(rhsVariable)) {
-                        continue;
-                    }
-                    Set<String> firstFollowing = first(firstSets, rhs.substring(j + 1));
-                    // Is lambda in that following the variable? For
-                    // A->aBb where lambda is in FIRST(b), everything
-                    // in FOLLOW(A) is in FOLLOW(B).
-                    if (firstFollowing.remove("")) {
-                        if (setForKey(follow, rhsVariable).addAll(
-                            setForKey(follow, variable))) {
-                            hasChanged = true;
-                        }
-                    }
-                    // For A->aBb, everything in FIRST(b) except
-                    // lambda is put in FOLLOW(B).
-                    if (setForKey(follow, rhsVariable).addAll(firstFollowing)) {
-                        hasChanged = true;
-                    }
-                }
-            }
+        for (int i = 0; i < analysis.getVariableCount(); i++) {
+            follow.put(analysis.getSymbol(i), terminals(analysis, analysis.getFollow(i)));
         }
         CACHED_FOLLOW.put(grammar, Collections.unmodifiableMap(follow));
         return follow(grammar);
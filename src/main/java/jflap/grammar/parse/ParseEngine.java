@@ -0,0 +1,154 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.grammar.parse;
+
+import java.util.Arrays;
+
+/**
+ * The <CODE>ParseEngine</CODE> is the common base of deterministic parsers
+ * which run a parse table compiled into arrays of ints. Terminals are coded
+ * by their columns in the table, so a string is parsed without looking up
+ * any strings. Cells of the table with more than one entry are reported as
+ * conflicts when the table is compiled, and such a table can not be run.
+ * <p>
+ * Parsing does not change the engine, so one engine may parse any number of
+ * strings, also concurrently.
+ *
+ * @see LLParseEngine
+ * @see LRParseEngine
+ */
+
+public abstract class ParseEngine {
+    /**
+     * The result of parsing a string which was accepted.
+     */
+    public static final int ACCEPTED = -1;
+    /**
+     * The initial size of the stack of a parse.
+     */
+    static final int INITIAL_STACK_SIZE = 32;
+
+    /**
+     * The column of each character which is a terminal, -1 for other
+     * characters.
+     */
+    private final int[] myColumns;
+    /**
+     * The column of the end of the string.
+     */
+    final int myEnd;
+    /**
+     * The descriptions of cells of the table with more than one entry.
+     */
+    private final String[] myConflicts;
+
+    /**
+     * Instantiates an engine for the given terminals.
+     *
+     * @param terminals the terminals, in order of their columns
+     * @param conflicts the descriptions of conflicting cells of the table
+     */
+    ParseEngine(String[] terminals, String[] conflicts) {
+        int maxChar = 0;
+        for (int i = 0; i < terminals.length; i++) {
+            maxChar = Math.max(maxChar, terminals[i].charAt(0));
+        }
+        myColumns = new int[maxChar + 1];
+        Arrays.fill(myColumns, -1);
+        for (int i = 0; i < terminals.length; i++) {
+            myColumns[terminals[i].charAt(0)] = i;
+        }
+        myEnd = terminals.length;
+        myConflicts = conflicts;
+    }
+
+    /**
+     * Returns the column of the token at <CODE>position</CODE> of
+     * <CODE>input</CODE>.
+     *
+     * @return the column of the token, the end column if the position is the
+     * end of the input, or -1 if the token is not a terminal
+     */
+    final int column(CharSequence input, int position) {
+        if (position == input.length()) {
+            return myEnd;
+        }
+        char c = input.charAt(position);
+        return c < myColumns.length ? myColumns[c] : -1;
+    }
+
+    /**
+     * Returns the descriptions of the cells of the table with more than one
+     * entry, each of which names the row, the column and the entries.
+     *
+     * @return the descriptions of conflicts, empty if there are none
+     */
+    public String[] getConflicts() {
+        return myConflicts.clone();
+    }
+
+    /**
+     * Returns if the table has conflicts.
+     *
+     * @return <CODE>true</CODE> if some cell of the table has more than one
+     * entry
+     */
+    public boolean hasConflicts() {
+        return myConflicts.length != 0;
+    }
+
+    /**
+     * Parses a string of terminals, one character each.
+     *
+     * @param input the string to parse
+     * @return {@link #ACCEPTED} if the string was accepted, otherwise the
+     * position of the token at which the parse failed, which is the length
+     * of the input if the input ended too early
+     * @throws IllegalStateException if the table has conflicts
+     */
+    public final int parse(CharSequence input) {
+        if (hasConflicts()) {
+            throw new IllegalStateException("Parse table has conflicts.");
+        }
+        return run(input);
+    }
+
+    /**
+     * Runs the compiled table on a string of terminals.
+     *
+     * @param input the string to parse
+     * @return {@link #ACCEPTED} or the position at which the parse failed
+     */
+    abstract int run(CharSequence input);
+
+    /**
+     * Returns a description of a conflicting cell.
+     *
+     * @param row     the name of the row
+     * @param column  the name of the column
+     * @param entries the entries of the cell
+     */
+    static String conflict(String row, String column, Iterable<String> entries) {
+        StringBuffer sb = new StringBuffer();
+        sb.append(row).append(", ").append(column).append(':');
+        for (String entry : entries) {
+            sb.append(' ').append(entry.equals("") ? "!" : entry);
+        }
+        return sb.toString();
+    }
+}
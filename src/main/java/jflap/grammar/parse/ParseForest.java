@@ -0,0 +1,469 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.grammar.parse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import jflap.grammar.Production;
+
+/**
+ * A shared packed parse forest of a string, built by the
+ * <CODE>EarleyParser</CODE>. Every item of the Earley sets is a node of the
+ * forest which is shared by all parses using it, and every way of reaching
+ * the item is kept as one of its packed alternatives: the position at which
+ * its last symbol starts. Items skipped thanks to Leo's optimization are
+ * rebuilt only when a derivation needs them.
+ * <p>
+ * A derivation is extracted only when it is asked for, and is given in the
+ * same form as answers of the brute force parsers.
+ *
+ * @see EarleyParser
+ */
+
+public class ParseForest {
+    /**
+     * The parser which built the forest.
+     */
+    private final EarleyParser myParser;
+    /**
+     * The parsed string.
+     */
+    private final String myInput;
+    /**
+     * The Earley sets, one for every position in the string.
+     */
+    private final EarleySet[] mySets;
+    /**
+     * The item with the start variable spanning the whole string, or
+     * <CODE>null</CODE> if the string is not derived.
+     */
+    private final Item myRoot;
+    /**
+     * The items chosen for derivations of substrings by variables, see
+     * <CODE>choose</CODE>.
+     */
+    private final Map<Long, Item> myChosenItems = new HashMap<>();
+    /**
+     * The splits chosen for items used in the derivation, which end where
+     * the substring of their variable ends.
+     */
+    private final Map<Item, Integer> myChosenSplits = new HashMap<>();
+
+    /**
+     * Parses <CODE>input</CODE> with <CODE>parser</CODE>.
+     *
+     * @param parser the parser of the grammar
+     * @param input  the string to parse
+     */
+    ParseForest(EarleyParser parser, String input) {
+        myParser = parser;
+        myInput = input;
+        mySets = new EarleySet[input.length() + 1];
+        if (parser.myStart == -1) {
+            myRoot = null;
+            return;
+        }
+
+        mySets[0] = new EarleySet(0);
+        for (int production : parser.myProductionsOf[parser.myStart]) {
+            mySets[0].add(production, 0, 0, -1);
+        }
+        for (int i = 0; i < mySets.length; i++) {
+            if (mySets[i] == null) {
+                myRoot = null;
+                return;
+            }
+            process(i);
+        }
+        myRoot = getComplete(input.length(), parser.myStart, 0);
+    }
+
+    /**
+     * Predicts, scans and completes the items of set <CODE>i</CODE>, which
+     * grows as it is processed.
+     *
+     * @param i the position of the set
+     */
+    private void process(int i) {
+        EarleySet set = mySets[i];
+        for (int index = 0; index < set.myItems.size(); index++) {
+            Item item = set.myItems.get(index);
+            int[] rhs = myParser.myRHS[item.myProduction];
+            if (item.myDot == rhs.length) {
+                complete(item, i);
+                continue;
+            }
+            int symbol = rhs[item.myDot];
+            if (symbol >= 0) {
+                set.waiting(symbol).add(item);
+                if (!set.myPredicted[symbol]) {
+                    set.myPredicted[symbol] = true;
+                    for (int production : myParser.myProductionsOf[symbol]) {
+                        set.add(production, 0, i, -1);
+                    }
+                }
+                if (myParser.myNullable[symbol]) {
+                    set.add(item.myProduction, item.myDot + 1, item.myOrigin, i);
+                }
+            } else if (i < myInput.length() && myInput.charAt(i) == -1 - symbol) {
+                if (mySets[i + 1] == null) {
+                    mySets[i + 1] = new EarleySet(i + 1);
+                }
+                mySets[i + 1].add(item.myProduction, item.myDot + 1, item.myOrigin, i);
+            }
+        }
+    }
+
+    /**
+     * Completes <CODE>item</CODE> in set <CODE>i</CODE>, advancing the items
+     * which wait for its variable at its origin.
+     *
+     * @param item the complete item
+     * @param i    the position of the set
+     */
+    private void complete(Item item, int i) {
+        EarleySet set = mySets[i];
+        int variable = myParser.myLHS[item.myProduction];
+        int origin = item.myOrigin;
+        Long key = key(variable, origin);
+        if (set.myComplete.containsKey(key)) {
+            // the items waiting for the variable were already advanced
+            return;
+        }
+        set.myComplete.put(key, item);
+        if (origin == i) {
+            // nullable variables were already moved over when predicted
+            return;
+        }
+        int[] top = mySets[origin].leo(variable);
+        if (top != null) {
+            set.myLeo.add(new int[]{variable, origin, top[0], top[1]});
+            set.add(top[0], myParser.myRHS[top[0]].length, top[1], top[2]);
+            return;
+        }
+        for (Item waiting : mySets[origin].waiting(variable)) {
+            set.add(waiting.myProduction, waiting.myDot + 1, waiting.myOrigin, origin);
+        }
+    }
+
+    /**
+     * Returns the complete item with <CODE>variable</CODE> from
+     * <CODE>origin</CODE> in set <CODE>i</CODE>, rebuilding it if it was
+     * skipped by Leo's optimization.
+     *
+     * @return the item, or <CODE>null</CODE> if there is none
+     */
+    private Item getComplete(int i, int variable, int origin) {
+        Item item = mySets[i].myComplete.get(key(variable, origin));
+        return item != null ? item : getSkipped(i, variable, origin);
+    }
+
+    /**
+     * Rebuilds the complete item with <CODE>variable</CODE> from
+     * <CODE>origin</CODE> in set <CODE>i</CODE> which was skipped by Leo's
+     * optimization.
+     *
+     * @return the item, or <CODE>null</CODE> if no such item was skipped
+     */
+    private Item getSkipped(int i, int variable, int origin) {
+        for (int[] leo : mySets[i].myLeo) {
+            // walk the chain in the same way as it was walked when completing
+            int completed = leo[0], from = leo[1];
+            for (Item waiting = mySets[from].leoWaiting(completed); waiting != null;
+                 waiting = mySets[from].leoWaiting(completed)) {
+                completed = myParser.myLHS[waiting.myProduction];
+                if (completed == variable && waiting.myOrigin == origin) {
+                    return new Item(waiting.myProduction, waiting.myDot + 1, origin, i, from);
+                }
+                if (waiting.myProduction == leo[2] && waiting.myOrigin == leo[3]) {
+                    break;
+                }
+                from = waiting.myOrigin;
+            }
+        }
+        return null;
+    }
+
+    private static Long key(int variable, int origin) {
+        return ((long) variable << 32) | origin;
+    }
+
+    private long key(int production, int dot, int origin) {
+        return ((long) (myParser.myFirstItem[production] + dot) << 32) | origin;
+    }
+
+    /**
+     * Returns whether the grammar derives the string.
+     *
+     * @return <CODE>true</CODE> if the string is derived
+     */
+    public boolean isAccepted() {
+        return myRoot != null;
+    }
+
+    /**
+     * Extracts the leftmost derivation of the string. Each node is a step of
+     * the derivation and the child of the previous step, as in the answers of
+     * the brute force parsers.
+     *
+     * @return the last step of the derivation, or <CODE>null</CODE> if the
+     * string is not derived
+     */
+    public ParseNode getDerivation() {
+        if (!isAccepted()) {
+            return null;
+        }
+        Production[] productions = myParser.myProductions;
+        int start = myParser.myStart;
+        ParseNode node = new ParseNode(productions[myParser.myProductionsOf[start][0]].getLHS(),
+            new Production[0], new int[0]);
+        StringBuilder derivation = new StringBuilder(node.getDerivation());
+
+        // variables still to expand, with their spans, the leftmost on top
+        Deque<int[]> pending = new ArrayDeque<>();
+        pending.push(new int[]{start, 0, myInput.length()});
+        while (!pending.isEmpty()) {
+            int[] next = pending.pop();
+            int variable = next[0], position = next[1];
+            Item item = position == next[2] ? null : choose(variable, position, next[2], new HashSet<Long>());
+            int production = item == null ? myParser.myLambdaProduction[variable] : item.myProduction;
+            int[] rhs = myParser.myRHS[production];
+
+            derivation.replace(position, position + 1, productions[production].getRHS());
+            ParseNode step = new ParseNode(derivation.toString(), new Production[]{productions[production]},
+                new int[]{position});
+            node.add(step);
+            node = step;
+
+            // children from the last to the first, with their starts
+            Item current = item;
+            int end = next[2];
+            for (int dot = rhs.length - 1; dot >= 0; dot--) {
+                Integer chosen = current == null ? null : myChosenSplits.get(current);
+                int split = current == null ? position : chosen == null ? current.mySplits[0] : chosen;
+                if (rhs[dot] >= 0) {
+                    pending.push(new int[]{rhs[dot], split, end});
+                }
+                if (current != null) {
+                    current = dot == 0 ? null
+                        : mySets[split].myItemsByKey.get(key(production, dot, current.myOrigin));
+                }
+                end = split;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Chooses the complete item by which <CODE>variable</CODE> derives the
+     * substring from <CODE>start</CODE> to <CODE>end</CODE>. Unit productions
+     * and nullable symbols may make a variable derive the substring through
+     * itself, so the variables deriving the same substring on the way from
+     * the chosen item, which are kept in <CODE>path</CODE>, are not chosen
+     * again, and each choice is made once, after the choices it depends on.
+     *
+     * @return the item, or <CODE>null</CODE> if every item leads back to
+     * <CODE>path</CODE>
+     */
+    private Item choose(int variable, int start, int end, Set<Long> path) {
+        Long key = ((long) variable * mySets.length + start) * mySets.length + end;
+        Item chosen = myChosenItems.get(key);
+        if (chosen != null || !path.add(key)) {
+            return chosen;
+        }
+        int[] productions = myParser.myProductionsOf[variable];
+        for (int i = 0; i <= productions.length && chosen == null; i++) {
+            Item item = i < productions.length
+                ? mySets[end].myItemsByKey.get(key(productions[i], myParser.myRHS[productions[i]].length, start))
+                : getSkipped(end, variable, start);
+            if (item != null && choose(item, start, end, path)) {
+                chosen = item;
+            }
+        }
+        path.remove(key);
+        if (chosen != null) {
+            myChosenItems.put(key, chosen);
+        }
+        return chosen;
+    }
+
+    /**
+     * Chooses the split of <CODE>item</CODE> and of the items before it in
+     * its production, such that no symbol derives the substring from
+     * <CODE>start</CODE> to <CODE>end</CODE> through a variable of
+     * <CODE>path</CODE>, see <CODE>choose</CODE>. Items which end before
+     * <CODE>end</CODE> have only shorter symbols, so any of their splits is
+     * taken and none is chosen.
+     *
+     * @return <CODE>true</CODE> if there is such a split
+     */
+    private boolean choose(Item item, int start, int end, Set<Long> path) {
+        if (item.myDot == 0 || item.mySet != end || myChosenSplits.containsKey(item)) {
+            return true;
+        }
+        int symbol = myParser.myRHS[item.myProduction][item.myDot - 1];
+        for (int i = 0; i < item.mySplitCount; i++) {
+            int split = item.mySplits[i];
+            Item prefix = item.myDot == 1 ? null
+                : mySets[split].myItemsByKey.get(key(item.myProduction, item.myDot - 1, item.myOrigin));
+            if (item.myDot == 1 ? split != item.myOrigin : prefix == null) {
+                continue;
+            }
+            // only a symbol deriving the whole substring may lead back to the path
+            if (symbol >= 0 && split == start && item.mySet == end && choose(symbol, start, end, path) == null) {
+                continue;
+            }
+            if (prefix == null || choose(prefix, start, end, path)) {
+                myChosenSplits.put(item, split);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An item of an Earley set: a production with a dot in its right hand
+     * side, the position at which the production started, and the positions
+     * at which the symbol before the dot started in every way of reaching it.
+     */
+    private static final class Item {
+        private final int myProduction;
+        private final int myDot;
+        private final int myOrigin;
+        private final int mySet;
+        private int[] mySplits;
+        private int mySplitCount;
+
+        private Item(int production, int dot, int origin, int set, int split) {
+            myProduction = production;
+            myDot = dot;
+            myOrigin = origin;
+            mySet = set;
+            mySplits = new int[]{split};
+            mySplitCount = 1;
+        }
+
+        private void addSplit(int split) {
+            for (int i = 0; i < mySplitCount; i++) {
+                if (mySplits[i] == split) {
+                    return;
+                }
+            }
+            if (mySplitCount == mySplits.length) {
+                mySplits = Arrays.copyOf(mySplits, mySplitCount * 2);
+            }
+            mySplits[mySplitCount++] = split;
+        }
+    }
+
+    /**
+     * A set of items which end at the same position.
+     */
+    private final class EarleySet {
+        private final int myPosition;
+        private final List<Item> myItems = new ArrayList<>();
+        private final Map<Long, Item> myItemsByKey = new HashMap<>();
+        private final boolean[] myPredicted = new boolean[myParser.myNullable.length];
+        private final List<Item>[] myWaiting;
+        private final Map<Long, Item> myComplete = new HashMap<>();
+        /**
+         * Completions of a variable from an origin, which were done with
+         * Leo's optimization, with the production and origin of the topmost
+         * item of their chains.
+         */
+        private final List<int[]> myLeo = new ArrayList<>();
+        /**
+         * The topmost item of the chain of each variable, see
+         * <CODE>leo</CODE>.
+         */
+        private final Map<Integer, int[]> myLeoTops = new HashMap<>();
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private EarleySet(int position) {
+            myPosition = position;
+            myWaiting = new List[myPredicted.length];
+        }
+
+        private void add(int production, int dot, int origin, int split) {
+            long key = key(production, dot, origin);
+            Item item = myItemsByKey.get(key);
+            if (item == null) {
+                item = new Item(production, dot, origin, myPosition, split);
+                myItemsByKey.put(key, item);
+                myItems.add(item);
+            } else {
+                item.addSplit(split);
+            }
+        }
+
+        private List<Item> waiting(int variable) {
+            if (myWaiting[variable] == null) {
+                myWaiting[variable] = new ArrayList<>();
+            }
+            return myWaiting[variable];
+        }
+
+        /**
+         * Returns the only item waiting for <CODE>variable</CODE>, if the
+         * variable is its last symbol.
+         *
+         * @return the item, or <CODE>null</CODE> if there is none
+         */
+        private Item leoWaiting(int variable) {
+            List<Item> waiting = myWaiting[variable];
+            if (waiting == null || waiting.size() != 1) {
+                return null;
+            }
+            Item item = waiting.get(0);
+            return item.myDot + 1 == myParser.myRHS[item.myProduction].length ? item : null;
+        }
+
+        /**
+         * Returns the topmost item of the chain of items completed after the
+         * completion of <CODE>variable</CODE> from this position, if each of
+         * them is the only item waiting for the previous one.
+         *
+         * @return the production, origin and split of the topmost item, or
+         * <CODE>null</CODE> if there is no such chain
+         */
+        private int[] leo(int variable) {
+            if (myLeoTops.containsKey(variable)) {
+                return myLeoTops.get(variable);
+            }
+            // a chain of unit productions may come back here, which ends it
+            myLeoTops.put(variable, null);
+            Item waiting = leoWaiting(variable);
+            int[] top = null;
+            if (waiting != null) {
+                top = mySets[waiting.myOrigin].leo(myParser.myLHS[waiting.myProduction]);
+                if (top == null) {
+                    top = new int[]{waiting.myProduction, waiting.myOrigin, myPosition};
+                }
+            }
+            myLeoTops.put(variable, top);
+            return top;
+        }
+    }
+}
@@ -42,7 +42,21 @@ public class RestrictedBruteParser extends BruteParser {
         if (Unrestricted.minimumLength(derivation, smaller) > target.length()) {
             return false;
         }
-        int targetSearched = 0;
+        return matchesTerminals(grammar, target, derivation);
+    }
+
+    /**
+     * Checks whether the groups of terminals in <CODE>derivation</CODE>
+     * appear in <CODE>target</CODE> in the same order, with the leading and
+     * the trailing group at the start and the end of the target.
+     *
+     * @param grammar    the restricted grammar
+     * @param target     the target string
+     * @param derivation the derivation to check
+     * @return <CODE>false</CODE> if the derivation surely can not derive the
+     * target
+     */
+    static boolean matchesTerminals(Grammar grammar, String target, String derivation) {
         boolean startBookend = false, endBookend = false;
         ArrayList<String> discrete = new ArrayList<>();
         StringBuffer sb = new StringBuffer();
@@ -28,6 +28,7 @@ import javax.swing.*;
 import jflap.automata.Automaton;
 import jflap.automata.turing.TuringMachine;
 import jflap.grammar.Grammar;
+import jflap.grammar.parse.CYKParser;
 import jflap.gui.JTableExtender;
 import jflap.gui.SplitPaneFactory;
 import jflap.gui.TableTextSizeSlider;
@@ -52,12 +53,17 @@ public class MultipleCYKSimulateAction extends MultipleSimulateAction {
     private final Grammar myOriginalGrammar;
     private final Grammar myCNFGrammar;
     private final Environment myEnvironment;
+    /**
+     * The parser of the CNF grammar, shared by all panes of this action.
+     */
+    private final CYKParser myParser;
 
     public MultipleCYKSimulateAction(Grammar original, Grammar cnf, Environment environment) {
         super(original, environment);
         myOriginalGrammar = original;
         myEnvironment = environment;
         myCNFGrammar = cnf;
+        myParser = new CYKParser(cnf);
     }
 
     public void performAction(Component source) {
@@ -135,7 +141,7 @@ public class MultipleCYKSimulateAction extends MultipleSimulateAction {
                     Grammar currentGram = (Grammar) getObject();
                     CYKParsePane parsePane =
                         new CYKParsePane((GrammarEnvironment) getEnvironment(), myOriginalGrammar,
-                            myCNFGrammar, model);
+                            myCNFGrammar, myParser, model);
                     parsePane.inputField.setEditable(false);
                     parsePane.row = -1;
                     parsePane.parseMultiple();
@@ -510,7 +516,7 @@ public class MultipleCYKSimulateAction extends MultipleSimulateAction {
         if (finObject instanceof Grammar) {
             CYKParsePane bp =
                 new CYKParsePane((GrammarEnvironment) getEnvironment(), (Grammar) finObject,
-                    myCNFGrammar, (InputTableModel) table.getModel());
+                    myCNFGrammar, myParser, (InputTableModel) table.getModel());
             bp.inputField.setEditable(false);
             if (getEnvironment().myTestStrings != null &&
                 getEnvironment().myTestStrings.size() > 0) {
@@ -586,7 +592,7 @@ public class MultipleCYKSimulateAction extends MultipleSimulateAction {
             }
 
             CYKParsePane bp =
-                new CYKParsePane((GrammarEnvironment) getEnvironment(), cur, myCNFGrammar, null);
+                new CYKParsePane((GrammarEnvironment) getEnvironment(), cur, myCNFGrammar, myParser, null);
             int column = 1;
             if (spot == -1) {
                 column = 0;
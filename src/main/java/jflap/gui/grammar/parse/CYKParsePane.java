@@ -101,9 +101,25 @@ public class CYKParsePane extends BruteParsePane {
      */
     public CYKParsePane(GrammarEnvironment environment, Grammar original, Grammar cnf,
                         InputTableModel model) {
+        this(environment, original, cnf, new CYKParser(cnf), model);
+    }
+
+    /**
+     * Constructor for CYK Control Parse Pane which shares an already built
+     * parser of the CNF grammar, so panes of the same grammar do not build it
+     * again
+     *
+     * @param environment
+     * @param original
+     * @param cnf
+     * @param parser the parser of <CODE>cnf</CODE>
+     * @param model
+     */
+    public CYKParsePane(GrammarEnvironment environment, Grammar original, Grammar cnf,
+                        CYKParser parser, InputTableModel model) {
         super(environment, original, model);
         myCNFGrammar = cnf;
-        myParser = new CYKParser(myCNFGrammar);
+        myParser = parser;
         myModel = model;
     }
 
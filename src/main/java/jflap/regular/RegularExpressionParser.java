@@ -0,0 +1,173 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.regular;
+
+import java.util.ArrayList;
+import java.util.List;
+import jflap.gui.environment.Profile;
+import jflap.gui.environment.Universe;
+
+/**
+ * The <CODE>RegularExpressionParser</CODE> parses the strings of jflap.regular
+ * expressions into syntax trees, without any user interaction. The syntax is
+ * that of JFLAP: "+" is union, "*" is the Kleene star, concatenation is
+ * juxtaposition and parentheses group. The empty string is written as "!" or
+ * as the empty string of the profile, the empty set as "ø", and every other
+ * character is a symbol. The empty expression denotes the empty string, as
+ * it does in expressions converted from automata.
+ *
+ * @see RegularNode
+ */
+
+public class RegularExpressionParser {
+    /**
+     * The expression being parsed.
+     */
+    private final String myExpression;
+    /**
+     * The position of the next character to parse.
+     */
+    private int myPosition = 0;
+
+    /**
+     * Instantiates a parser of one expression.
+     *
+     * @param expression the expression to parse
+     */
+    private RegularExpressionParser(String expression) {
+        myExpression = expression;
+    }
+
+    /**
+     * Parses a jflap.regular expression.
+     *
+     * @param expression the jflap.regular expression
+     * @return the syntax tree of the expression
+     * @throws UnsupportedOperationException if the expression is not properly
+     *                                       formed
+     */
+    public static RegularNode parse(RegularExpression expression) {
+        return parse(expression.asString());
+    }
+
+    /**
+     * Parses the string of a jflap.regular expression.
+     *
+     * @param expression the string of the expression
+     * @return the syntax tree of the expression
+     * @throws UnsupportedOperationException if the expression is not properly
+     *                                       formed
+     */
+    public static RegularNode parse(String expression) {
+        if (expression.length() == 0) {
+            return RegularNode.lambda();
+        }
+        RegularExpressionParser parser = new RegularExpressionParser(expression);
+        RegularNode tree = parser.union();
+        if (parser.myPosition < expression.length()) {
+            throw parser.error(expression.charAt(parser.myPosition) == ')'
+                ? "The parentheses are unbalanced!"
+                : "Operators are poorly formatted.");
+        }
+        return tree;
+    }
+
+    /**
+     * Parses operands separated by "+".
+     */
+    private RegularNode union() {
+        List<RegularNode> operands = new ArrayList<>();
+        operands.add(concatenation());
+        while (peek() == '+') {
+            myPosition++;
+            operands.add(concatenation());
+        }
+        return RegularNode.union(operands.toArray(new RegularNode[0]));
+    }
+
+    /**
+     * Parses starred operands written one after another.
+     */
+    private RegularNode concatenation() {
+        List<RegularNode> operands = new ArrayList<>();
+        while (myPosition < myExpression.length() && peek() != '+' && peek() != ')') {
+            RegularNode operand = atom();
+            while (peek() == '*') {
+                myPosition++;
+                operand = RegularNode.star(operand);
+            }
+            operands.add(operand);
+        }
+        if (operands.isEmpty()) {
+            throw error("Operators are poorly formatted.");
+        }
+        return RegularNode.concatenation(operands.toArray(new RegularNode[0]));
+    }
+
+    /**
+     * Parses a symbol, the empty string, the empty set or an expression in
+     * parentheses.
+     */
+    private RegularNode atom() {
+        char c = myExpression.charAt(myPosition);
+        if (c == '*') {
+            throw error("Operators are poorly formatted.");
+        }
+        if (c == '(') {
+            myPosition++;
+            RegularNode inner = union();
+            if (peek() != ')') {
+                throw error("The parentheses are unbalanced!");
+            }
+            myPosition++;
+            return inner;
+        }
+        myPosition++;
+        if (c == '!' || isEmptyString(c)) {
+            return RegularNode.lambda();
+        }
+        if (RegularNode.EMPTY_SET.charAt(0) == c) {
+            return RegularNode.empty();
+        }
+        return RegularNode.symbol(c);
+    }
+
+    /**
+     * Returns if a character is one of the ways to write the empty string.
+     */
+    private static boolean isEmptyString(char c) {
+        String emptyString = Universe.curProfile.getEmptyString();
+        return emptyString.length() == 1 && emptyString.charAt(0) == c
+            || Profile.LAMBDA.charAt(0) == c || Profile.EPSILON.charAt(0) == c;
+    }
+
+    /**
+     * Returns the next character, or <CODE>'\0'</CODE> at the end.
+     */
+    private char peek() {
+        return myPosition < myExpression.length() ? myExpression.charAt(myPosition) : '\0';
+    }
+
+    /**
+     * Returns the exception for an error at the current position.
+     */
+    private UnsupportedOperationException error(String message) {
+        return new UnsupportedOperationException(message + " (at position "
+            + myPosition + " of " + myExpression + ")");
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.regular;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The <CODE>RegularMatcher</CODE> matches words against a
+ * {@link RegularNFA} through a deterministic automaton built lazily: a state
+ * of it is a set of states of the nondeterministic automaton, made only when
+ * some word reaches it, and each of its transitions is computed once. The
+ * number of deterministic states is capped; when the cache is full it is
+ * dropped and built again from the states still in use, so memory stays
+ * bounded even for expressions whose full deterministic automaton is huge.
+ * <p>
+ * A matcher keeps its cache between words and is not safe for use by many
+ * threads at once; each thread should have its own.
+ *
+ * @see RegularNFA
+ */
+
+public class RegularMatcher {
+    /**
+     * The result of {@link #match} for words in the language.
+     */
+    public static final int ACCEPTED = -1;
+    /**
+     * The default maximal number of cached deterministic states.
+     */
+    public static final int DEFAULT_MAX_STATES = 10000;
+    /**
+     * The entry of the transition table for transitions not computed yet.
+     */
+    private static final int UNKNOWN = -2;
+    /**
+     * The entry of the transition table for transitions to the empty set.
+     */
+    private static final int DEAD = -1;
+
+    /**
+     * The nondeterministic automaton.
+     */
+    private final RegularNFA myNFA;
+    /**
+     * The symbols of the automaton, in ascending order; their indexes are the
+     * columns of the transition table.
+     */
+    private final char[] myAlphabet;
+    /**
+     * The maximal number of cached deterministic states.
+     */
+    private final int myMaxStates;
+    /**
+     * The set of initial states of the nondeterministic automaton.
+     */
+    private final BitSet myInitialSet;
+
+    /**
+     * The numbers of cached deterministic states, by their sets.
+     */
+    private final Map<BitSet, Integer> myNumbers = new HashMap<>();
+    /**
+     * The sets of cached deterministic states, by their numbers.
+     */
+    private final List<BitSet> mySets = new ArrayList<>();
+    /**
+     * Whether each cached deterministic state is final.
+     */
+    private boolean[] myAccepting = new boolean[16];
+    /**
+     * The transitions of cached deterministic states, one row of the size of
+     * the alphabet for each of them.
+     */
+    private int[] myTable = new int[0];
+    /**
+     * The number of the initial deterministic state, or -1 if it is not in
+     * the cache.
+     */
+    private int myInitial = -1;
+    /**
+     * The number of times the cache was dropped.
+     */
+    private int myFlushCount = 0;
+
+    /**
+     * Instantiates a matcher with the default cap of cached states.
+     *
+     * @param nfa the automaton to match words against
+     */
+    public RegularMatcher(RegularNFA nfa) {
+        this(nfa, DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Instantiates a matcher.
+     *
+     * @param nfa       the automaton to match words against
+     * @param maxStates the maximal number of cached deterministic states
+     * @throws IllegalArgumentException if <CODE>maxStates</CODE> is less than
+     *                                  one
+     */
+    public RegularMatcher(RegularNFA nfa, int maxStates) {
+        if (maxStates < 1) {
+            throw new IllegalArgumentException("At least one state must be cached.");
+        }
+        myNFA = nfa;
+        myAlphabet = nfa.getAlphabet();
+        myMaxStates = maxStates;
+        myInitialSet = nfa.initialStates();
+    }
+
+    /**
+     * Matches a word.
+     *
+     * @param word the word to match
+     * @return {@link #ACCEPTED} if the word is in the language, otherwise the
+     * number of symbols read before the match failed, which is the length of
+     * the word if it was read whole
+     */
+    public int match(CharSequence word) {
+        if (myInitial == -1) {
+            myInitial = number(myInitialSet);
+        }
+        int state = myInitial;
+        int width = myAlphabet.length;
+        for (int i = 0; i < word.length(); i++) {
+            int column = Arrays.binarySearch(myAlphabet, word.charAt(i));
+            if (column < 0) {
+                return i;
+            }
+            int next = myTable[state * width + column];
+            if (next == UNKNOWN) {
+                BitSet reached = myNFA.move(mySets.get(state), myAlphabet[column]);
+                int flushes = myFlushCount;
+                next = reached.isEmpty() ? DEAD : number(reached);
+                // If the cache was dropped, the state moved from is gone.
+                if (flushes == myFlushCount) {
+                    myTable[state * width + column] = next;
+                }
+            }
+            if (next == DEAD) {
+                return i;
+            }
+            state = next;
+        }
+        return myAccepting[state] ? ACCEPTED : word.length();
+    }
+
+    /**
+     * Returns if a word is in the language.
+     *
+     * @param word the word to match
+     * @return <CODE>true</CODE> if the word matches
+     */
+    public boolean matches(CharSequence word) {
+        return match(word) == ACCEPTED;
+    }
+
+    /**
+     * Returns the number of cached deterministic states.
+     *
+     * @return the number of states
+     */
+    public int getStateCount() {
+        return mySets.size();
+    }
+
+    /**
+     * Returns the number of times the cache was dropped because it was full.
+     *
+     * @return the number of flushes
+     */
+    public int getFlushCount() {
+        return myFlushCount;
+    }
+
+    /**
+     * Returns the number of the deterministic state of a set, adding it to
+     * the cache, which is dropped first if it is full.
+     */
+    private int number(BitSet set) {
+        Integer number = myNumbers.get(set);
+        if (number != null) {
+            return number;
+        }
+        if (mySets.size() == myMaxStates) {
+            myNumbers.clear();
+            mySets.clear();
+            myInitial = -1;
+            myFlushCount++;
+        }
+        number = mySets.size();
+        myNumbers.put(set, number);
+        mySets.add(set);
+        if (number == myAccepting.length) {
+            myAccepting = Arrays.copyOf(myAccepting, number * 2);
+        }
+        myAccepting[number] = myNFA.isAccepting(set);
+        int width = myAlphabet.length;
+        if ((number + 1) * width > myTable.length) {
+            int length = myTable.length;
+            myTable = Arrays.copyOf(myTable, Math.max((number + 1) * width, length * 2));
+            Arrays.fill(myTable, length, myTable.length, UNKNOWN);
+        }
+        Arrays.fill(myTable, number * width, (number + 1) * width, UNKNOWN);
+        return number;
+    }
+}
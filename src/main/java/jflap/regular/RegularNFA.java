@@ -0,0 +1,464 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.regular;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.TreeSet;
+import jflap.automata.State;
+import jflap.automata.fsa.FSATransition;
+import jflap.automata.fsa.FiniteStateAutomaton;
+
+/**
+ * The <CODE>RegularNFA</CODE> is a nondeterministic finite state automaton
+ * built from the syntax tree of a jflap.regular expression, with states
+ * numbered from 0 and transitions kept in arrays. It is built either by the
+ * Glushkov construction, which gives one state for every occurrence of a
+ * symbol and one initial state, and no lambda transitions, or by the Thompson
+ * construction, which gives at most two states for every node and joins them
+ * with lambda transitions.
+ *
+ * @see RegularMatcher
+ * @see RegularNode
+ */
+
+public class RegularNFA {
+    /**
+     * The number of states in a row of the layout of {@link #toAutomaton}.
+     */
+    private static final int LAYOUT_WIDTH = 10;
+    /**
+     * The distance between states in the layout of {@link #toAutomaton}.
+     */
+    private static final int LAYOUT_SPACING = 100;
+
+    /**
+     * The initial state.
+     */
+    private final int myInitial;
+    /**
+     * Whether each state is final.
+     */
+    private final boolean[] myFinal;
+    /**
+     * The symbols of transitions from each state.
+     */
+    private final char[][] mySymbols;
+    /**
+     * The targets of transitions from each state, in order of their symbols.
+     */
+    private final int[][] myTargets;
+    /**
+     * The targets of lambda transitions from each state.
+     */
+    private final int[][] myLambdaTargets;
+    /**
+     * The symbols of the automaton, in ascending order.
+     */
+    private final char[] myAlphabet;
+
+    /**
+     * Instantiates an automaton from the transitions collected by a builder.
+     */
+    private RegularNFA(Builder builder, int initial, boolean[] finals) {
+        myInitial = initial;
+        myFinal = finals;
+        int states = builder.myStateCount;
+        int[] counts = new int[states], lambdaCounts = new int[states];
+        TreeSet<Character> alphabet = new TreeSet<>();
+        for (int i = 0; i < builder.mySize; i++) {
+            if (builder.myLabels[i] < 0) {
+                lambdaCounts[builder.myFrom[i]]++;
+            } else {
+                counts[builder.myFrom[i]]++;
+                alphabet.add((char) builder.myLabels[i]);
+            }
+        }
+        mySymbols = new char[states][];
+        myTargets = new int[states][];
+        myLambdaTargets = new int[states][];
+        for (int i = 0; i < states; i++) {
+            mySymbols[i] = new char[counts[i]];
+            myTargets[i] = new int[counts[i]];
+            myLambdaTargets[i] = new int[lambdaCounts[i]];
+            counts[i] = lambdaCounts[i] = 0;
+        }
+        for (int i = 0; i < builder.mySize; i++) {
+            int from = builder.myFrom[i];
+            if (builder.myLabels[i] < 0) {
+                myLambdaTargets[from][lambdaCounts[from]++] = builder.myTo[i];
+            } else {
+                mySymbols[from][counts[from]] = (char) builder.myLabels[i];
+                myTargets[from][counts[from]++] = builder.myTo[i];
+            }
+        }
+        myAlphabet = new char[alphabet.size()];
+        int i = 0;
+        for (char c : alphabet) {
+            myAlphabet[i++] = c;
+        }
+    }
+
+    /**
+     * Builds the Glushkov automaton of an expression. State 0 is initial, and
+     * the state of every other position is entered only on its symbol.
+     *
+     * @param tree the syntax tree of the expression
+     * @return the position automaton
+     */
+    public static RegularNFA glushkov(RegularNode tree) {
+        Glushkov glushkov = new Glushkov(tree.getSymbolCount());
+        Positions positions = glushkov.visit(tree);
+        Builder builder = new Builder(tree.getSymbolCount() + 1);
+        BitSet first = positions.first;
+        for (int q = first.nextSetBit(0); q >= 0; q = first.nextSetBit(q + 1)) {
+            builder.add(0, q, glushkov.mySymbols[q]);
+        }
+        for (int p = 1; p < glushkov.myFollow.length; p++) {
+            BitSet follow = glushkov.myFollow[p];
+            for (int q = follow.nextSetBit(0); q >= 0; q = follow.nextSetBit(q + 1)) {
+                builder.add(p, q, glushkov.mySymbols[q]);
+            }
+        }
+        boolean[] finals = new boolean[builder.myStateCount];
+        BitSet last = positions.last;
+        for (int p = last.nextSetBit(0); p >= 0; p = last.nextSetBit(p + 1)) {
+            finals[p] = true;
+        }
+        finals[0] = positions.nullable;
+        return new RegularNFA(builder, 0, finals);
+    }
+
+    /**
+     * Builds the Thompson automaton of an expression, with one initial and
+     * one final state.
+     *
+     * @param tree the syntax tree of the expression
+     * @return the automaton with lambda transitions
+     */
+    public static RegularNFA thompson(RegularNode tree) {
+        Builder builder = new Builder(0);
+        int[] fragment = thompson(tree, builder);
+        boolean[] finals = new boolean[builder.myStateCount];
+        finals[fragment[1]] = true;
+        return new RegularNFA(builder, fragment[0], finals);
+    }
+
+    /**
+     * Adds the states of a node to <CODE>builder</CODE>.
+     *
+     * @return the entry and the exit state of the node
+     */
+    private static int[] thompson(RegularNode node, Builder builder) {
+        switch (node.getKind()) {
+            case RegularNode.EMPTY:
+                return new int[]{builder.state(), builder.state()};
+            case RegularNode.LAMBDA:
+            case RegularNode.SYMBOL: {
+                int start = builder.state(), end = builder.state();
+                builder.add(start, end, node.getKind() == RegularNode.SYMBOL
+                    ? node.getSymbol() : Builder.LAMBDA);
+                return new int[]{start, end};
+            }
+            case RegularNode.UNION: {
+                int start = builder.state(), end = builder.state();
+                for (int i = 0; i < node.getChildCount(); i++) {
+                    int[] child = thompson(node.getChild(i), builder);
+                    builder.add(start, child[0], Builder.LAMBDA);
+                    builder.add(child[1], end, Builder.LAMBDA);
+                }
+                return new int[]{start, end};
+            }
+            case RegularNode.CONCATENATION: {
+                int[] first = thompson(node.getChild(0), builder);
+                int end = first[1];
+                for (int i = 1; i < node.getChildCount(); i++) {
+                    int[] child = thompson(node.getChild(i), builder);
+                    builder.add(end, child[0], Builder.LAMBDA);
+                    end = child[1];
+                }
+                return new int[]{first[0], end};
+            }
+            default: {
+                int start = builder.state(), end = builder.state();
+                int[] child = thompson(node.getChild(0), builder);
+                builder.add(start, child[0], Builder.LAMBDA);
+                builder.add(start, end, Builder.LAMBDA);
+                builder.add(child[1], child[0], Builder.LAMBDA);
+                builder.add(child[1], end, Builder.LAMBDA);
+                return new int[]{start, end};
+            }
+        }
+    }
+
+    /**
+     * Returns the number of states.
+     *
+     * @return the number of states
+     */
+    public int getStateCount() {
+        return myFinal.length;
+    }
+
+    /**
+     * Returns the number of transitions, lambda transitions included.
+     *
+     * @return the number of transitions
+     */
+    public int getTransitionCount() {
+        int count = 0;
+        for (int i = 0; i < myFinal.length; i++) {
+            count += myTargets[i].length + myLambdaTargets[i].length;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the symbols of the automaton. The returned array should not be
+     * modified.
+     *
+     * @return the symbols, in ascending order
+     */
+    public char[] getAlphabet() {
+        return myAlphabet;
+    }
+
+    /**
+     * Returns the initial state with the states reachable from it by lambda
+     * transitions.
+     *
+     * @return the set of initial states
+     */
+    BitSet initialStates() {
+        BitSet states = new BitSet(myFinal.length);
+        states.set(myInitial);
+        return closure(states);
+    }
+
+    /**
+     * Returns the states reached from <CODE>states</CODE> on a symbol, with
+     * the states reachable from them by lambda transitions.
+     *
+     * @param states the set of states to move from
+     * @param symbol the symbol read
+     * @return the set of reached states, possibly empty
+     */
+    BitSet move(BitSet states, char symbol) {
+        BitSet next = new BitSet(myFinal.length);
+        for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+            char[] symbols = mySymbols[s];
+            for (int i = 0; i < symbols.length; i++) {
+                if (symbols[i] == symbol) {
+                    next.set(myTargets[s][i]);
+                }
+            }
+        }
+        return closure(next);
+    }
+
+    /**
+     * Returns if a set of states holds a final state.
+     *
+     * @param states the set of states
+     * @return <CODE>true</CODE> if any of the states is final
+     */
+    boolean isAccepting(BitSet states) {
+        for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+            if (myFinal[s]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds to <CODE>states</CODE> the states reachable from them by lambda
+     * transitions.
+     */
+    private BitSet closure(BitSet states) {
+        int[] stack = null;
+        int top = 0;
+        for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+            if (myLambdaTargets[s].length == 0) {
+                continue;
+            }
+            if (stack == null) {
+                stack = new int[myFinal.length];
+            }
+            stack[top++] = s;
+            while (top > 0) {
+                int[] targets = myLambdaTargets[stack[--top]];
+                for (int i = 0; i < targets.length; i++) {
+                    if (!states.get(targets[i])) {
+                        states.set(targets[i]);
+                        stack[top++] = targets[i];
+                    }
+                }
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Returns this automaton as a JFLAP automaton, with state <CODE>i</CODE>
+     * numbered <CODE>i</CODE> and the states laid out in rows.
+     *
+     * @return the finite state automaton
+     */
+    public FiniteStateAutomaton toAutomaton() {
+        FiniteStateAutomaton automaton = new FiniteStateAutomaton();
+        State[] states = new State[myFinal.length];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = automaton.createState(new Point(
+                LAYOUT_SPACING / 2 + LAYOUT_SPACING * (i % LAYOUT_WIDTH),
+                LAYOUT_SPACING / 2 + LAYOUT_SPACING * (i / LAYOUT_WIDTH)));
+            if (myFinal[i]) {
+                automaton.addFinalState(states[i]);
+            }
+        }
+        automaton.setInitialState(states[myInitial]);
+        for (int i = 0; i < states.length; i++) {
+            for (int j = 0; j < myTargets[i].length; j++) {
+                automaton.addTransition(new FSATransition(states[i],
+                    states[myTargets[i][j]], String.valueOf(mySymbols[i][j])));
+            }
+            for (int j = 0; j < myLambdaTargets[i].length; j++) {
+                automaton.addTransition(new FSATransition(states[i],
+                    states[myLambdaTargets[i][j]], ""));
+            }
+        }
+        return automaton;
+    }
+
+    /**
+     * The positions of a subexpression: whether it matches the empty string,
+     * and which positions may be read first and last.
+     */
+    private static class Positions {
+        boolean nullable;
+        BitSet first = new BitSet();
+        BitSet last = new BitSet();
+    }
+
+    /**
+     * The Glushkov construction, which numbers positions from 1 in the order
+     * of their symbols and collects the positions which may follow each one.
+     */
+    private static class Glushkov {
+        final char[] mySymbols;
+        final BitSet[] myFollow;
+        int myCount = 0;
+
+        Glushkov(int positions) {
+            mySymbols = new char[positions + 1];
+            myFollow = new BitSet[positions + 1];
+        }
+
+        Positions visit(RegularNode node) {
+            Positions positions = new Positions();
+            switch (node.getKind()) {
+                case RegularNode.LAMBDA:
+                    positions.nullable = true;
+                    break;
+                case RegularNode.SYMBOL:
+                    int p = ++myCount;
+                    mySymbols[p] = node.getSymbol();
+                    myFollow[p] = new BitSet();
+                    positions.first.set(p);
+                    positions.last.set(p);
+                    break;
+                case RegularNode.UNION:
+                    for (int i = 0; i < node.getChildCount(); i++) {
+                        Positions child = visit(node.getChild(i));
+                        positions.nullable |= child.nullable;
+                        positions.first.or(child.first);
+                        positions.last.or(child.last);
+                    }
+                    break;
+                case RegularNode.CONCATENATION:
+                    positions.nullable = true;
+                    for (int i = 0; i < node.getChildCount(); i++) {
+                        Positions child = visit(node.getChild(i));
+                        follow(positions.last, child.first);
+                        if (positions.nullable) {
+                            positions.first.or(child.first);
+                        }
+                        if (!child.nullable) {
+                            positions.last.clear();
+                        }
+                        positions.last.or(child.last);
+                        positions.nullable &= child.nullable;
+                    }
+                    break;
+                case RegularNode.STAR:
+                    positions = visit(node.getChild(0));
+                    follow(positions.last, positions.first);
+                    positions.nullable = true;
+                    break;
+            }
+            return positions;
+        }
+
+        /**
+         * Lets every position of <CODE>from</CODE> be followed by every
+         * position of <CODE>to</CODE>.
+         */
+        void follow(BitSet from, BitSet to) {
+            if (to.isEmpty()) {
+                return;
+            }
+            for (int p = from.nextSetBit(0); p >= 0; p = from.nextSetBit(p + 1)) {
+                myFollow[p].or(to);
+            }
+        }
+    }
+
+    /**
+     * Collects states and transitions of an automaton being built.
+     */
+    private static class Builder {
+        /**
+         * The label of lambda transitions.
+         */
+        static final int LAMBDA = -1;
+
+        int myStateCount;
+        int[] myFrom = new int[16], myTo = new int[16], myLabels = new int[16];
+        int mySize = 0;
+
+        Builder(int states) {
+            myStateCount = states;
+        }
+
+        int state() {
+            return myStateCount++;
+        }
+
+        void add(int from, int to, int label) {
+            if (mySize == myFrom.length) {
+                myFrom = Arrays.copyOf(myFrom, mySize * 2);
+                myTo = Arrays.copyOf(myTo, mySize * 2);
+                myLabels = Arrays.copyOf(myLabels, mySize * 2);
+            }
+            myFrom[mySize] = from;
+            myTo[mySize] = to;
+            myLabels[mySize++] = label;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.regular;
+
+import jflap.gui.environment.Universe;
+
+/**
+ * A <CODE>RegularNode</CODE> is a node of the syntax tree of a jflap.regular
+ * expression. Unions and concatenations hold all of their operands at once,
+ * so "a+b+c" is one union of three symbols, and the depth of the tree is only
+ * the depth of nesting of parentheses and stars.
+ *
+ * @see RegularExpressionParser
+ * @see RegularNodeFactory
+ * @see RegularNFA
+ */
+
+public class RegularNode {
+    /**
+     * The kind of node of the expression denoting no words at all.
+     */
+    public static final int EMPTY = 0;
+    /**
+     * The kind of node of the expression denoting the empty string.
+     */
+    public static final int LAMBDA = 1;
+    /**
+     * The kind of node of a single symbol.
+     */
+    public static final int SYMBOL = 2;
+    /**
+     * The kind of node of a union of its children.
+     */
+    public static final int UNION = 3;
+    /**
+     * The kind of node of a concatenation of its children.
+     */
+    public static final int CONCATENATION = 4;
+    /**
+     * The kind of node of the Kleene star of its only child.
+     */
+    public static final int STAR = 5;
+    /**
+     * The string standing for the empty set in expressions.
+     */
+    public static final String EMPTY_SET = "ø";
+
+    /**
+     * The kind of this node.
+     */
+    private final int myKind;
+    /**
+     * The symbol of a {@link #SYMBOL} node.
+     */
+    private final char mySymbol;
+    /**
+     * The operands of this node.
+     */
+    private final RegularNode[] myChildren;
+    /**
+     * The number of symbol nodes in this subtree.
+     */
+    private final int mySymbolCount;
+    /**
+     * Whether this expression matches the empty string.
+     */
+    private final boolean myNullable;
+
+    /**
+     * Instantiates a node.
+     *
+     * @param kind     the kind of node
+     * @param symbol   the symbol of a symbol node
+     * @param children the operands of the node
+     */
+    private RegularNode(int kind, char symbol, RegularNode[] children) {
+        myKind = kind;
+        mySymbol = symbol;
+        myChildren = children;
+        int count = kind == SYMBOL ? 1 : 0;
+        boolean nullable = kind == LAMBDA || kind == STAR || kind == CONCATENATION;
+        for (int i = 0; i < children.length; i++) {
+            count += children[i].mySymbolCount;
+            if (kind == UNION) {
+                nullable |= children[i].myNullable;
+            } else if (kind == CONCATENATION) {
+                nullable &= children[i].myNullable;
+            }
+        }
+        mySymbolCount = count;
+        myNullable = nullable;
+    }
+
+    /**
+     * Returns the node of the expression denoting no words.
+     *
+     * @return the empty set node
+     */
+    public static RegularNode empty() {
+        return new RegularNode(EMPTY, '\0', new RegularNode[0]);
+    }
+
+    /**
+     * Returns the node of the expression denoting the empty string.
+     *
+     * @return the lambda node
+     */
+    public static RegularNode lambda() {
+        return new RegularNode(LAMBDA, '\0', new RegularNode[0]);
+    }
+
+    /**
+     * Returns the node of a single symbol.
+     *
+     * @param symbol the symbol
+     * @return the symbol node
+     */
+    public static RegularNode symbol(char symbol) {
+        return new RegularNode(SYMBOL, symbol, new RegularNode[0]);
+    }
+
+    /**
+     * Returns the union of nodes. A single node is returned as it is.
+     *
+     * @param children the operands, at least one
+     * @return the union node
+     */
+    public static RegularNode union(RegularNode... children) {
+        return children.length == 1 ? children[0]
+            : new RegularNode(UNION, '\0', children.clone());
+    }
+
+    /**
+     * Returns the concatenation of nodes. A single node is returned as it is.
+     *
+     * @param children the operands, at least one
+     * @return the concatenation node
+     */
+    public static RegularNode concatenation(RegularNode... children) {
+        return children.length == 1 ? children[0]
+            : new RegularNode(CONCATENATION, '\0', children.clone());
+    }
+
+    /**
+     * Returns the Kleene star of a node.
+     *
+     * @param child the operand
+     * @return the star node
+     */
+    public static RegularNode star(RegularNode child) {
+        return new RegularNode(STAR, '\0', new RegularNode[]{child});
+    }
+
+    /**
+     * Returns the kind of this node.
+     *
+     * @return one of {@link #EMPTY}, {@link #LAMBDA}, {@link #SYMBOL},
+     * {@link #UNION}, {@link #CONCATENATION} and {@link #STAR}
+     */
+    public int getKind() {
+        return myKind;
+    }
+
+    /**
+     * Returns the symbol of a symbol node.
+     *
+     * @return the symbol
+     */
+    public char getSymbol() {
+        return mySymbol;
+    }
+
+    /**
+     * Returns the number of operands of this node.
+     *
+     * @return the number of children
+     */
+    public int getChildCount() {
+        return myChildren.length;
+    }
+
+    /**
+     * Returns an operand of this node.
+     *
+     * @param index the index of the operand
+     * @return the child
+     */
+    public RegularNode getChild(int index) {
+        return myChildren[index];
+    }
+
+    /**
+     * Returns the number of occurrences of symbols in this subtree, which is
+     * the number of positions of the Glushkov automaton.
+     *
+     * @return the number of symbol nodes
+     */
+    public int getSymbolCount() {
+        return mySymbolCount;
+    }
+
+    /**
+     * Returns if this expression matches the empty string.
+     *
+     * @return <CODE>true</CODE> if the expression is nullable
+     */
+    public boolean isNullable() {
+        return myNullable;
+    }
+
+    /**
+     * Returns this expression in the syntax of JFLAP, with parentheses only
+     * where they are needed.
+     *
+     * @return the expression as a string
+     */
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        append(builder, UNION);
+        return builder.toString();
+    }
+
+    /**
+     * Appends this expression to <CODE>builder</CODE>, in parentheses if it
+     * binds looser than the operator it is an operand of.
+     *
+     * @param builder the builder to append to
+     * @param context the kind of node this node is an operand of
+     */
+    private void append(StringBuilder builder, int context) {
+        switch (myKind) {
+            case EMPTY:
+                builder.append(EMPTY_SET);
+                return;
+            case LAMBDA:
+                builder.append(Universe.curProfile.getEmptyString());
+                return;
+            case SYMBOL:
+                builder.append(mySymbol);
+                return;
+        }
+        boolean parentheses = myKind < context && myKind != STAR;
+        if (parentheses) {
+            builder.append('(');
+        }
+        for (int i = 0; i < myChildren.length; i++) {
+            if (i > 0 && myKind == UNION) {
+                builder.append('+');
+            }
+            myChildren[i].append(builder, myKind == STAR ? STAR + 1 : myKind + 1);
+        }
+        if (myKind == STAR) {
+            builder.append('*');
+        }
+        if (parentheses) {
+            builder.append(')');
+        }
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ *  JFLAP - Formal Languages and Automata Package
+ *
+ *
+ *  Susan H. Rodger
+ *  Computer Science Department
+ *  Duke University
+ *  August 27, 2009
+
+ *  Copyright (c) 2002-2009
+ *  All rights reserved.
+
+ *  JFLAP is open source software. Please see the LICENSE for terms.
+ *
+ */
+
+
+package jflap.regular;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The <CODE>RegularNodeFactory</CODE> makes nodes of jflap.regular expressions
+ * which are hash-consed: equal nodes made by one factory are the same object,
+ * so expressions built from shared parts form a graph in which every part is
+ * stored once, and equal parts are found by comparing references.
+ * <p>
+ * Nodes are simplified as they are made. The empty set is absorbed by
+ * unions and concatenations, lambda by concatenations and by unions with
+ * another operand matching the empty string, nested unions and
+ * concatenations are flattened and repeated operands of unions dropped;
+ * <CODE>(r*)*</CODE>, <CODE>(!+r)*</CODE> and <CODE>(r*s*)*</CODE> become
+ * <CODE>r*</CODE>, <CODE>r*</CODE> and <CODE>(r+s)*</CODE>, and common
+ * first or last factors of operands of unions are factored out.
+ *
+ * @see RegularNode
+ */
+
+public class RegularNodeFactory {
+    /**
+     * The made nodes, by their kinds, symbols and operands.
+     */
+    private final Map<Key, RegularNode> myNodes = new HashMap<>();
+    /**
+     * The node of the empty set.
+     */
+    private final RegularNode myEmpty = intern(RegularNode.empty());
+    /**
+     * The node of the empty string.
+     */
+    private final RegularNode myLambda = intern(RegularNode.lambda());
+
+    /**
+     * Returns the node of the expression denoting no words.
+     *
+     * @return the empty set node
+     */
+    public RegularNode empty() {
+        return myEmpty;
+    }
+
+    /**
+     * Returns the node of the expression denoting the empty string.
+     *
+     * @return the lambda node
+     */
+    public RegularNode lambda() {
+        return myLambda;
+    }
+
+    /**
+     * Returns the node of a single symbol.
+     *
+     * @param symbol the symbol
+     * @return the symbol node
+     */
+    public RegularNode symbol(char symbol) {
+        return intern(RegularNode.symbol(symbol));
+    }
+
+    /**
+     * Returns the node of a word, which is a concatenation of its symbols or
+     * lambda for the empty word.
+     *
+     * @param word the word
+     * @return the node matching just the word
+     */
+    public RegularNode word(String word) {
+        RegularNode[] symbols = new RegularNode[word.length()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = symbol(word.charAt(i));
+        }
+        return concatenation(symbols);
+    }
+
+    /**
+     * Returns the simplified union of nodes.
+     *
+     * @param operands the nodes made by this factory
+     * @return the union node
+     */
+    public RegularNode union(RegularNode... operands) {
+        List<RegularNode> list = new ArrayList<>();
+        boolean lambda = false, nullable = false;
+        for (int i = 0; i < operands.length; i++) {
+            RegularNode operand = operands[i];
+            int count = operand.getKind() == RegularNode.UNION ? operand.getChildCount() : 1;
+            for (int j = 0; j < count; j++) {
+                RegularNode child = operand.getKind() == RegularNode.UNION ? operand.getChild(j) : operand;
+                if (child == myEmpty || indexOf(list, child) != -1) {
+                    continue;
+                }
+                if (child == myLambda) {
+                    lambda = true;
+                    continue;
+                }
+                nullable |= child.isNullable();
+                list.add(child);
+            }
+        }
+        if (lambda && !nullable) {
+            list.add(0, myLambda);
+        }
+        if (factor(list, true) || factor(list, false)) {
+            return union(list.toArray(new RegularNode[0]));
+        }
+        if (list.isEmpty()) {
+            return myEmpty;
+        }
+        return list.size() == 1 ? list.get(0)
+            : intern(RegularNode.union(list.toArray(new RegularNode[0])));
+    }
+
+    /**
+     * Returns the simplified concatenation of nodes.
+     *
+     * @param operands the nodes made by this factory
+     * @return the concatenation node
+     */
+    public RegularNode concatenation(RegularNode... operands) {
+        List<RegularNode> list = new ArrayList<>();
+        for (int i = 0; i < operands.length; i++) {
+            RegularNode operand = operands[i];
+            int count = operand.getKind() == RegularNode.CONCATENATION ? operand.getChildCount() : 1;
+            for (int j = 0; j < count; j++) {
+                RegularNode child = operand.getKind() == RegularNode.CONCATENATION
+                    ? operand.getChild(j) : operand;
+                if (child == myEmpty) {
+                    return myEmpty;
+                }
+                if (child == myLambda) {
+                    continue;
+                }
+                // r*r* is r*
+                if (child.getKind() == RegularNode.STAR && !list.isEmpty()
+                    && list.get(list.size() - 1) == child) {
+                    continue;
+                }
+                list.add(child);
+            }
+        }
+        if (list.isEmpty()) {
+            return myLambda;
+        }
+        return list.size() == 1 ? list.get(0)
+            : intern(RegularNode.concatenation(list.toArray(new RegularNode[0])));
+    }
+
+    /**
+     * Returns the simplified Kleene star of a node.
+     *
+     * @param operand the node made by this factory
+     * @return the star node
+     */
+    public RegularNode star(RegularNode operand) {
+        switch (operand.getKind()) {
+            case RegularNode.EMPTY:
+            case RegularNode.LAMBDA:
+            case RegularNode.STAR:
+                return operand.getKind() == RegularNode.STAR ? operand : myLambda;
+            case RegularNode.UNION:
+            case RegularNode.CONCATENATION:
+                // Inside a star, operands of unions and of concatenations of
+                // nullable operands may be starred or not; lambda may go.
+                if (operand.getKind() == RegularNode.CONCATENATION && !operand.isNullable()) {
+                    break;
+                }
+                RegularNode[] operands = new RegularNode[operand.getChildCount()];
+                boolean changed = operand.getKind() == RegularNode.CONCATENATION;
+                for (int i = 0; i < operands.length; i++) {
+                    RegularNode child = operand.getChild(i);
+                    operands[i] = child.getKind() == RegularNode.STAR ? child.getChild(0)
+                        : child == myLambda ? myEmpty : child;
+                    changed |= operands[i] != child;
+                }
+                if (changed) {
+                    return star(union(operands));
+                }
+                break;
+        }
+        return intern(RegularNode.star(operand));
+    }
+
+    /**
+     * Returns the number of distinct nodes made by this factory.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return myNodes.size();
+    }
+
+    /**
+     * Factors a common first (or last) operand out of two operands of a
+     * union, replacing them with the factored node.
+     *
+     * @param operands the operands of the union
+     * @param first    if <CODE>true</CODE>, first operands are factored,
+     *                 otherwise last ones
+     * @return <CODE>true</CODE> if two operands were factored
+     */
+    private boolean factor(List<RegularNode> operands, boolean first) {
+        for (int i = 0; i < operands.size(); i++) {
+            RegularNode x = operands.get(i);
+            RegularNode factor = end(x, first);
+            for (int j = i + 1; j < operands.size(); j++) {
+                RegularNode y = operands.get(j);
+                if (end(y, first) != factor) {
+                    continue;
+                }
+                RegularNode restX = rest(x, first), restY = rest(y, first);
+                // ab+a is a(b+!), which is only shorter if the factor is long
+                if ((restX == myLambda || restY == myLambda) && factor.getSymbolCount() < 2) {
+                    continue;
+                }
+                RegularNode rest = union(restX, restY);
+                operands.set(i, first ? concatenation(factor, rest) : concatenation(rest, factor));
+                operands.remove(j);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the first or last operand of a concatenation, or the node
+     * itself if it is not one.
+     */
+    private static RegularNode end(RegularNode node, boolean first) {
+        if (node.getKind() != RegularNode.CONCATENATION) {
+            return node;
+        }
+        return node.getChild(first ? 0 : node.getChildCount() - 1);
+    }
+
+    /**
+     * Returns what is left of a node without its first or last operand.
+     */
+    private RegularNode rest(RegularNode node, boolean first) {
+        if (node.getKind() != RegularNode.CONCATENATION) {
+            return myLambda;
+        }
+        int count = node.getChildCount();
+        RegularNode[] rest = new RegularNode[count - 1];
+        for (int i = 0; i < rest.length; i++) {
+            rest[i] = node.getChild(first ? i + 1 : i);
+        }
+        return concatenation(rest);
+    }
+
+    /**
+     * Returns the index of a node in a list, compared by reference.
+     */
+    private static int indexOf(List<RegularNode> list, RegularNode node) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == node) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the node equal to <CODE>node</CODE> made before, or
+     * <CODE>node</CODE> if there was none.
+     */
+    private RegularNode intern(RegularNode node) {
+        Key key = new Key(node);
+        RegularNode made = myNodes.get(key);
+        if (made == null) {
+            myNodes.put(key, node);
+            made = node;
+        }
+        return made;
+    }
+
+    /**
+     * The kind, symbol and operands of a node, with operands compared by
+     * reference since they are interned already.
+     */
+    private static final class Key {
+        private final int kind;
+        private final char symbol;
+        private final RegularNode[] children;
+        private final int hash;
+
+        Key(RegularNode node) {
+            kind = node.getKind();
+            symbol = node.getSymbol();
+            children = new RegularNode[node.getChildCount()];
+            int h = 31 * kind + symbol;
+            for (int i = 0; i < children.length; i++) {
+                children[i] = node.getChild(i);
+                h = 31 * h + System.identityHashCode(children[i]);
+            }
+            hash = h;
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object object) {
+            if (!(object instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) object;
+            if (kind != other.kind || symbol != other.symbol
+                || children.length != other.children.length) {
+                return false;
+            }
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] != other.children[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
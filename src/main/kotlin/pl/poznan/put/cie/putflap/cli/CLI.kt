@@ -28,7 +28,7 @@ object CLI : CliktCommand(
     /**
      * List of available CLI tasks
      */
-    private val subs = listOf(RandomCLI, RunCLI, TestCLI, WordCLI, ConvertCLI, SmartCLI)
+    private val subs = listOf(RandomCLI, RunCLI, ParseCLI, TestCLI, WordCLI, ConvertCLI, SmartCLI)
 
     /**
      * Initializes the Command Line Interface
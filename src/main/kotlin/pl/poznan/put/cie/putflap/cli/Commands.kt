@@ -4,22 +4,35 @@ import jflap.automata.Automaton
 import jflap.automata.fsa.FiniteStateAutomaton
 import jflap.file.XMLCodec
 import jflap.grammar.Grammar
+import jflap.regular.RegularExpression
 import pl.poznan.put.cie.putflap.cli.smart.Smart
 import pl.poznan.put.cie.putflap.exception.IncompatibleAutomatonException
 import pl.poznan.put.cie.putflap.exception.InvalidActionException
 import pl.poznan.put.cie.putflap.generator.AutomatonGenerator
 import pl.poznan.put.cie.putflap.generator.GrammarGenerator
 import pl.poznan.put.cie.putflap.generator.WordGenerator
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
 import pl.poznan.put.cie.putflap.jflapextensions.automaton.AutomatonConverter
 import pl.poznan.put.cie.putflap.jflapextensions.automaton.AutomatonCreator
 import pl.poznan.put.cie.putflap.jflapextensions.automaton.AutomatonRunner
 import pl.poznan.put.cie.putflap.jflapextensions.automaton.AutomatonTester
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.RunLimits
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.TraceLevel
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.TuringMachineRunner
+import pl.poznan.put.cie.putflap.jflapextensions.grammar.GrammarConverter
 import pl.poznan.put.cie.putflap.jflapextensions.grammar.GrammarCreator
+import pl.poznan.put.cie.putflap.jflapextensions.grammar.GrammarParser
+import pl.poznan.put.cie.putflap.jflapextensions.grammar.GrammarTester
+import pl.poznan.put.cie.putflap.jflapextensions.grammar.NormalForm
+import pl.poznan.put.cie.putflap.jflapextensions.grammar.ParserType
+import pl.poznan.put.cie.putflap.jflapextensions.regexp.NFAConstruction
+import pl.poznan.put.cie.putflap.jflapextensions.regexp.RegularExpressionRunner
 import pl.poznan.put.cie.putflap.report.*
 import pl.poznan.put.cie.putflap.report.structure.StructureReport
 import pl.poznan.put.cie.putflap.report.structure.automaton.AutomatonReport
 import pl.poznan.put.cie.putflap.report.structure.grammar.GrammarReport
 import java.io.File
+import java.io.FileInputStream
 import java.io.Serializable
 
 /**
@@ -69,14 +82,74 @@ object Commands {
     }
 
     /**
-     * Runs automaton for given [words] and saves result to file.
+     * Runs automaton or regular expression for given [words] and saves result to file.
      *
-     * @param automatonFileName name of .jff file with automaton to run
+     * @param automatonFileName name of .jff file with automaton or regular expression to run
      * @param words words to run automaton on
+     * @param parallelism number of threads to run words on
+     * @param trace level of detail of recorded steps
+     * @param limits limits of nondeterministic runs and Turing machine runs
+     * @param snapshotInterval number of steps between recorded tapes of Turing machines
+     */
+    fun run(
+        automatonFileName: String,
+        words: Array<String>,
+        parallelism: Int = Parallel.SEQUENTIAL,
+        trace: TraceLevel = TraceLevel.FULL,
+        limits: RunLimits = RunLimits(),
+        snapshotInterval: Int = TuringMachineRunner.EVERY_STEP
+    ) {
+        val structure = XMLCodec().decode(File(automatonFileName), null)
+        if (structure is RegularExpression)
+            CLI.saveFile(RegularExpressionRunner.run(structure, words, parallelism, trace, limits), "run_report")
+        else run(structure as Automaton, words, -1, parallelism, trace, limits, snapshotInterval)
+    }
+
+    /**
+     * Name of words file which stands for standard input
+     */
+    const val STANDARD_INPUT = "-"
+
+    /**
+     * Runs automaton or regular expression for words read line by line from file and writes [reports][RunReport]
+     * to standard output as JSON lines. Words are streamed, so the file can be of any size.
+     *
+     * @param automatonFileName name of .jff file with automaton or regular expression to run
+     * @param wordsFileName name of file with one word per line or [STANDARD_INPUT]
+     * @param parallelism number of threads to run words on
+     * @param trace level of detail of recorded steps
+     * @param limits limits of nondeterministic runs and Turing machine runs
+     * @param snapshotInterval number of steps between recorded tapes of Turing machines
      */
-    fun run(automatonFileName: String, words: Array<String>) {
-        val automaton = XMLCodec().decode(File(automatonFileName), null) as Automaton
-        run(automaton, words)
+    fun runStream(
+        automatonFileName: String,
+        wordsFileName: String,
+        parallelism: Int = Parallel.SEQUENTIAL,
+        trace: TraceLevel = TraceLevel.FULL,
+        limits: RunLimits = RunLimits(),
+        snapshotInterval: Int = TuringMachineRunner.EVERY_STEP
+    ) {
+        val structure = XMLCodec().decode(File(automatonFileName), null)
+        val input = if (wordsFileName == STANDARD_INPUT) System.`in` else FileInputStream(wordsFileName)
+        val reader = input.bufferedReader()
+        val output = Report.getJSONLinesWriter(System.out.bufferedWriter())
+        val action = { report: RunReport ->
+            output.write(report)
+            // flush whenever reading next word could block, so results show up as soon as possible
+            if (!reader.ready()) output.flush()
+        }
+
+        try {
+            if (structure is RegularExpression) RegularExpressionRunner.run(
+                structure, reader.lineSequence(), parallelism, trace, limits, action
+            )
+            else AutomatonRunner.runAutomaton(
+                structure as Automaton, reader.lineSequence(), parallelism, trace, limits, snapshotInterval, action
+            )
+        } finally {
+            output.close()
+            if (wordsFileName != STANDARD_INPUT) reader.close()
+        }
     }
 
     /**
@@ -84,10 +157,23 @@ object Commands {
      *
      * @param automatonReport [Report] with automaton to run
      * @param words words to run automaton on
+     * @param n if specified will be append to filename
+     * @param parallelism number of threads to run words on
+     * @param trace level of detail of recorded steps
+     * @param limits limits of nondeterministic runs and Turing machine runs
+     * @param snapshotInterval number of steps between recorded tapes of Turing machines
      */
-    fun run(automatonReport: AutomatonReport, words: Array<String>, n: Int = -1) {
+    fun run(
+        automatonReport: AutomatonReport,
+        words: Array<String>,
+        n: Int = -1,
+        parallelism: Int = Parallel.SEQUENTIAL,
+        trace: TraceLevel = TraceLevel.FULL,
+        limits: RunLimits = RunLimits(),
+        snapshotInterval: Int = TuringMachineRunner.EVERY_STEP
+    ) {
         val automaton = AutomatonCreator.fromReport(automatonReport)
-        run(automaton, words, n)
+        run(automaton, words, n, parallelism, trace, limits, snapshotInterval)
     }
 
     /**
@@ -96,12 +182,79 @@ object Commands {
      * @param automaton automaton to run
      * @param words words to run automaton on
      * @param n if specified will be append to filename
+     * @param parallelism number of threads to run words on
+     * @param trace level of detail of recorded steps
+     * @param limits limits of nondeterministic runs and Turing machine runs
+     * @param snapshotInterval number of steps between recorded tapes of Turing machines
      */
-    private fun run(automaton: Automaton, words: Array<String>, n: Int = -1) {
-        val report = AutomatonRunner.runAutomaton(automaton, words)
+    private fun run(
+        automaton: Automaton,
+        words: Array<String>,
+        n: Int = -1,
+        parallelism: Int,
+        trace: TraceLevel,
+        limits: RunLimits,
+        snapshotInterval: Int
+    ) {
+        val report = AutomatonRunner.runAutomaton(automaton, words, parallelism, trace, limits, snapshotInterval)
         CLI.saveFile(report, "run_report${if (n != -1) "_$n" else ""}")
     }
 
+    /**
+     * Parses given [words] with parse table of grammar and saves result to file.
+     *
+     * @param grammarFileName name of .jff file with grammar to parse with
+     * @param type type of parse table
+     * @param words words to parse
+     * @param parallelism number of threads to parse words on
+     */
+    fun parse(
+        grammarFileName: String,
+        type: ParserType,
+        words: Array<String>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ) {
+        val grammar = XMLCodec().decode(File(grammarFileName), null) as Grammar
+        val report = GrammarParser.parse(grammar, type, words, parallelism)
+        CLI.saveFile(report, "parse_report")
+    }
+
+    /**
+     * Parses words read line by line from file with parse table of grammar and writes [reports][ParseReport]
+     * to standard output as JSON lines. Words are streamed, so the file can be of any size.
+     *
+     * @param grammarFileName name of .jff file with grammar to parse with
+     * @param type type of parse table
+     * @param wordsFileName name of file with one word per line or [STANDARD_INPUT]
+     * @param parallelism number of threads to parse words on
+     * @throws InvalidActionException if the parse table has conflicts
+     */
+    fun parseStream(
+        grammarFileName: String,
+        type: ParserType,
+        wordsFileName: String,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ) {
+        val grammar = XMLCodec().decode(File(grammarFileName), null) as Grammar
+        val engine = GrammarParser.compile(grammar, type)
+        if (engine.hasConflicts())
+            throw InvalidActionException("Parse table has conflicts: ${engine.conflicts.joinToString("; ")}")
+
+        val input = if (wordsFileName == STANDARD_INPUT) System.`in` else FileInputStream(wordsFileName)
+        val reader = input.bufferedReader()
+        val output = Report.getJSONLinesWriter(System.out.bufferedWriter())
+
+        try {
+            GrammarParser.parse(engine, reader.lineSequence(), parallelism) {
+                output.write(it)
+                if (!reader.ready()) output.flush()
+            }
+        } finally {
+            output.close()
+            if (wordsFileName != STANDARD_INPUT) reader.close()
+        }
+    }
+
     /**
      * Performs test specified by [type] on given [inputs] and saves result to file.
      *
@@ -121,10 +274,17 @@ object Commands {
      *
      * @param type [type][Types.TestType] of test to perform
      * @param inputs [reports][AutomatonReport] with automatons to test
+     * @param classes if true equivalence test groups automatons into classes of equivalent ones
+     * @param parallelism number of threads to test automatons on
      */
-    fun test(type: Types.TestType, inputs: Array<AutomatonReport>) {
+    fun test(
+        type: Types.TestType,
+        inputs: Array<AutomatonReport>,
+        classes: Boolean = false,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ) {
         val automatons = automatonsFromReports(inputs)
-        test(type, automatons)
+        test(type, automatons, classes, parallelism)
     }
 
     /**
@@ -132,26 +292,95 @@ object Commands {
      *
      * @param type [type][Types.TestType] of test to perform
      * @param inputs [reports][GrammarReport] with grammars to test
+     * @param words words to test membership of
+     * @param parallelism number of threads to test words on
+     * @param limits limits of membership test in unrestricted grammar
      */
-    fun test(type: Types.TestType, inputs: Array<GrammarReport>) {
+    fun test(
+        type: Types.TestType,
+        inputs: Array<GrammarReport>,
+        words: Array<String> = emptyArray(),
+        parallelism: Int = Parallel.SEQUENTIAL,
+        limits: RunLimits = RunLimits()
+    ) {
         val grammars = grammarsFromReports(inputs)
-        test(type, grammars)
+        test(type, grammars, words, parallelism, limits)
     }
 
     /**
      * Performs test specified by [type] on given [inputs] and saves result to file.
      *
      * @param type [type][Types.TestType] of test to perform
-     * @param inputs names of .jff files with structures to test
+     * @param inputs names of .jff files with structures to test; regular expressions are tested for membership
+     * as they are, and converted to FSAs for other tests
+     * @param classes if true equivalence test groups automatons into classes of equivalent ones
+     * @param parallelism number of threads to test automatons or words on
+     * @param words words to test membership of
+     * @param limits limits of membership test in unrestricted grammar
      */
-    fun test(type: Types.TestType, inputs: Array<String>) {
-        val structures = Array(inputs.size) { XMLCodec().decode(File(inputs[it]), null) }
+    fun test(
+        type: Types.TestType,
+        inputs: Array<String>,
+        classes: Boolean = false,
+        parallelism: Int = Parallel.SEQUENTIAL,
+        words: Array<String> = emptyArray(),
+        limits: RunLimits = RunLimits()
+    ) {
+        val structures = Array(inputs.size) {
+            val structure = XMLCodec().decode(File(inputs[it]), null)
+            if (structure is RegularExpression && type != Types.TestType.MEM) RegularExpressionRunner.toFSA(structure)
+            else structure
+        }
 
         when {
-            structures.all { it is Automaton } -> test(type, Array(structures.size) { structures[it] as Automaton })
-            structures.all { it is Grammar } -> test(type, Array(structures.size) { structures[it] as Grammar })
-            else -> throw IllegalArgumentException("Tests can only be performed on automatons or grammars")
+            structures.all { it is RegularExpression } -> test(
+                type,
+                Array(structures.size) { structures[it] as RegularExpression },
+                words,
+                parallelism
+            )
+            structures.all { it is Automaton } -> test(
+                type,
+                Array(structures.size) { structures[it] as Automaton },
+                classes,
+                parallelism
+            )
+            structures.all { it is Grammar } -> test(
+                type,
+                Array(structures.size) { structures[it] as Grammar },
+                words,
+                parallelism,
+                limits
+            )
+            else -> throw IllegalArgumentException(
+                "Tests can only be performed on automatons, grammars or regular expressions"
+            )
+        }
+    }
+
+    /**
+     * Performs test specified by [type] on given [expressions] and saves result to file.
+     *
+     * @param type [type][Types.TestType] of test to perform
+     * @param expressions regular expressions to test
+     * @param words words to test membership of
+     * @param parallelism number of threads to test words on
+     */
+    private fun test(
+        type: Types.TestType,
+        expressions: Array<RegularExpression>,
+        words: Array<String>,
+        parallelism: Int
+    ) {
+        val report: Report = when (type) {
+            Types.TestType.MEM -> {
+                if (expressions.size == 1) RegularExpressionRunner.checkMembership(expressions[0], words, parallelism)
+                else throw IllegalArgumentException("Membership can be tested for one regular expression at a time")
+            }
+            else -> throw InvalidActionException("Regular expressions can only be tested for membership")
         }
+
+        CLI.saveFile(report, "test_${type.toString().toLowerCase()}_report")
     }
 
     /**
@@ -159,18 +388,26 @@ object Commands {
      *
      * @param type [type][Types.TestType] of test to perform
      * @param automatons automatons to test
+     * @param classes if true equivalence test groups automatons into classes of equivalent ones
+     * @param parallelism number of threads to test automatons on
      */
-    private fun test(type: Types.TestType, automatons: Array<Automaton>) {
+    private fun test(type: Types.TestType, automatons: Array<Automaton>, classes: Boolean, parallelism: Int) {
+        if (classes && type != Types.TestType.EQ)
+            throw InvalidActionException("Only equivalence test can group automatons into classes")
+
         val report: Report = when (type) {
-            Types.TestType.NDET -> AutomatonTester.checkNondeterminism(automatons)
+            Types.TestType.NDET -> AutomatonTester.checkNondeterminism(automatons, parallelism)
             Types.TestType.EQ -> {
                 val fsa = automatons.filterIsInstance<FiniteStateAutomaton>().toTypedArray()
                 if (fsa.size == automatons.size) {
-                    if (automatons.size > 1) AutomatonTester.checkEquivalenceOfManyFSAs(fsa)
-                    else throw IllegalArgumentException("More than one FSA expected")
+                    if (automatons.size > 1) {
+                        if (classes) AutomatonTester.findEquivalenceClasses(fsa, parallelism)
+                        else AutomatonTester.checkEquivalenceOfManyFSAs(fsa)
+                    } else throw IllegalArgumentException("More than one FSA expected")
                 } else throw IncompatibleAutomatonException("Only FSAs can be tested for equivalence")
             }
             Types.TestType.AL -> AutomatonTester.retrieveAlphabets(automatons)
+            Types.TestType.MEM -> throw InvalidActionException("Only grammars can be tested for membership")
         }
 
         CLI.saveFile(report, "test_${type.toString().toLowerCase()}_report")
@@ -181,11 +418,24 @@ object Commands {
      *
      * @param type [type][Types.TestType] of test to perform
      * @param grammars grammars to test
+     * @param words words to test membership of
+     * @param parallelism number of threads to test words on
+     * @param limits limits of membership test in unrestricted grammar
      */
-    private fun test(type: Types.TestType, grammars: Array<Grammar>) {
+    private fun test(
+        type: Types.TestType,
+        grammars: Array<Grammar>,
+        words: Array<String>,
+        parallelism: Int,
+        limits: RunLimits
+    ) {
         val report: Report = when (type) {
             Types.TestType.AL -> AutomatonTester.retrieveAlphabets(grammars)
-            else -> throw InvalidActionException("Grammars can only be tested for alphabet")
+            Types.TestType.MEM -> {
+                if (grammars.size == 1) GrammarTester.checkMembership(grammars[0], words, parallelism, limits)
+                else throw IllegalArgumentException("Membership can be tested for one grammar at a time")
+            }
+            else -> throw InvalidActionException("Grammars can only be tested for alphabet and membership")
         }
 
         CLI.saveFile(report, "test_${type.toString().toLowerCase()}_report")
@@ -218,10 +468,16 @@ object Commands {
      * @param type [type][Types.TestType] of conversion to perform
      * @param json if true the result is saved as JSON
      * @param inputs [reports][AutomatonReport] with automatons to convert
+     * @param parallelism number of threads to convert automatons on
      */
-    fun convert(type: Types.ConvertType, json: Boolean, inputs: Array<AutomatonReport>) {
+    fun convert(
+        type: Types.ConvertType,
+        json: Boolean,
+        inputs: Array<AutomatonReport>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ) {
         val automatons = automatonsFromReports(inputs)
-        convert(type, json, automatons)
+        convert(type, json, automatons, parallelism)
     }
 
     /**
@@ -230,10 +486,16 @@ object Commands {
      * @param type [type][Types.TestType] of conversion to perform
      * @param json if true the result is saved as JSON
      * @param inputs [reports][GrammarReport] with grammars to convert
+     * @param parallelism number of threads to convert grammars on
      */
-    fun convert(type: Types.ConvertType, json: Boolean, inputs: Array<GrammarReport>) {
+    fun convert(
+        type: Types.ConvertType,
+        json: Boolean,
+        inputs: Array<GrammarReport>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ) {
         val grammars = grammarsFromReports(inputs)
-        convert(type, json, grammars)
+        convert(type, json, grammars, parallelism)
     }
 
     /**
@@ -242,37 +504,95 @@ object Commands {
      * @param type [type][Types.TestType] of conversion to perform
      * @param json if true the result is saved as JSON
      * @param inputs names of .jff files with structures to convert
+     * @param parallelism number of threads to convert structures on
+     * @param construction construction of FSAs from regular expressions
      */
-    fun convert(type: Types.ConvertType, json: Boolean, inputs: Array<String>) {
+    fun convert(
+        type: Types.ConvertType,
+        json: Boolean,
+        inputs: Array<String>,
+        parallelism: Int = Parallel.SEQUENTIAL,
+        construction: NFAConstruction = NFAConstruction.GLUSHKOV
+    ) {
         val structures = Array(inputs.size) { XMLCodec().decode(File(inputs[it]), null) }
 
         when {
+            structures.all { it is RegularExpression } -> convert(
+                type,
+                json,
+                Array(structures.size) { structures[it] as RegularExpression },
+                parallelism,
+                construction
+            )
             structures.all { it is Automaton } -> convert(
                 type,
                 json,
-                Array(structures.size) { structures[it] as Automaton })
+                Array(structures.size) { structures[it] as Automaton },
+                parallelism
+            )
             structures.all { it is Grammar } -> convert(
                 type,
                 json,
-                Array(structures.size) { structures[it] as Grammar })
-            else -> throw IllegalArgumentException("Tests can only be performed on automatons or grammars")
+                Array(structures.size) { structures[it] as Grammar },
+                parallelism
+            )
+            else -> throw IllegalArgumentException(
+                "Convert can only be performed on automatons, grammars or regular expressions"
+            )
         }
 
     }
 
+    /**
+     * Performs conversion specified by [type] on given [expressions] and saves result to file. Expressions are
+     * converted to FSAs, which are converted further for types other than [Types.ConvertType.FSA]
+     *
+     * @param type [type][Types.TestType] of conversion to perform
+     * @param json if true the result is saved as JSON
+     * @param expressions regular expressions to convert
+     * @param parallelism number of threads to convert expressions on
+     * @param construction construction of FSAs from expressions
+     */
+    private fun convert(
+        type: Types.ConvertType,
+        json: Boolean,
+        expressions: Array<RegularExpression>,
+        parallelism: Int,
+        construction: NFAConstruction
+    ) {
+        when (type) {
+            Types.ConvertType.FSA -> CLI.saveFile(
+                AutomatonConverter.toFSA(expressions, construction, parallelism),
+                "converted_${type.name.toLowerCase()}",
+                json
+            )
+            Types.ConvertType.PDA -> throw InvalidActionException("Regular expressions can not be converted to PDA")
+            else -> convert(
+                type,
+                json,
+                Array<Automaton>(expressions.size) { RegularExpressionRunner.toFSA(expressions[it], construction) },
+                parallelism
+            )
+        }
+    }
+
     /**
      * Performs conversion specified by [type] on given [grammars] and saves result to file.
      *
      * @param type [type][Types.TestType] of conversion to perform
      * @param json if true the result is saved as JSON
      * @param grammars grammars to convert
+     * @param parallelism number of threads to convert grammars on
      */
-    private fun convert(type: Types.ConvertType, json: Boolean, grammars: Array<Grammar>) {
+    private fun convert(type: Types.ConvertType, json: Boolean, grammars: Array<Grammar>, parallelism: Int) {
         val conversion: Pair<MultipleConversionReport, Array<*>> = when (type) {
             Types.ConvertType.PDA -> TODO("implement conversion from grammar to PDA")
-            Types.ConvertType.FSA -> AutomatonConverter.toFSA(grammars)
-            Types.ConvertType.JSON -> AutomatonConverter.toJSON(grammars)
-            else -> throw InvalidActionException("Grammars can only be converted to PDA, FSA or JSON")
+            Types.ConvertType.FSA -> AutomatonConverter.toFSA(grammars, parallelism)
+            Types.ConvertType.JSON -> AutomatonConverter.toJSON(grammars, parallelism)
+            Types.ConvertType.CLEAN -> GrammarConverter.normalize(grammars, NormalForm.CLEAN, parallelism)
+            Types.ConvertType.CNF -> GrammarConverter.normalize(grammars, NormalForm.CNF, parallelism)
+            Types.ConvertType.GNF -> GrammarConverter.normalize(grammars, NormalForm.GNF, parallelism)
+            else -> throw InvalidActionException("Grammars can only be converted to PDA, FSA, JSON or normal forms")
         }
 
         if (type == Types.ConvertType.RE && !json) for (regex in conversion.second) println(regex)
@@ -289,18 +609,21 @@ object Commands {
      * @param type [type][Types.TestType] of conversion to perform
      * @param json if true the result is saved as JSON
      * @param automatons automatons to convert
+     * @param parallelism number of threads to convert automatons on
      */
-    private fun convert(type: Types.ConvertType, json: Boolean, automatons: Array<Automaton>) {
+    private fun convert(type: Types.ConvertType, json: Boolean, automatons: Array<Automaton>, parallelism: Int) {
         val conversion: Pair<MultipleConversionReport, Array<*>> = when (type) {
-            Types.ConvertType.GR -> AutomatonConverter.toGrammar(automatons)
-            Types.ConvertType.JSON -> AutomatonConverter.toJSON(automatons)
+            Types.ConvertType.GR -> AutomatonConverter.toGrammar(automatons, parallelism)
+            Types.ConvertType.JSON -> AutomatonConverter.toJSON(automatons, parallelism)
+            Types.ConvertType.CLEAN, Types.ConvertType.CNF, Types.ConvertType.GNF ->
+                throw InvalidActionException("Only grammars can be converted to normal forms")
             else -> when {
                 automatons.all { it is FiniteStateAutomaton } -> {
                     val fsa = automatons.filterIsInstance<FiniteStateAutomaton>().toTypedArray()
                     when (type) {
-                        Types.ConvertType.DFA -> AutomatonConverter.toDeterministicFSA(fsa)
-                        Types.ConvertType.MINI -> AutomatonConverter.toMinimalFSA(fsa)
-                        Types.ConvertType.RE -> AutomatonConverter.toRegularExpression(fsa)
+                        Types.ConvertType.DFA -> AutomatonConverter.toDeterministicFSA(fsa, parallelism)
+                        Types.ConvertType.MINI -> AutomatonConverter.toMinimalFSA(fsa, parallelism)
+                        Types.ConvertType.RE -> AutomatonConverter.toRegularExpression(fsa, parallelism)
                         else -> throw Exception()
                     }
                 }
@@ -327,13 +650,15 @@ object Commands {
     }
 
     /**
-     * Generates random valid words for given automaton
+     * Generates random valid words for given automaton or regular expression
      *
      * @param multiple number of words to generate
-     * @param inputFileName name of .jff with automaton to get words for
+     * @param inputFileName name of .jff with automaton or regular expression to get words for
      */
     fun word(multiple: Int, json: Boolean, inputFileName: String) {
-        val automaton = XMLCodec().decode(File(inputFileName), null) as Automaton
+        val structure = XMLCodec().decode(File(inputFileName), null)
+        val automaton = if (structure is RegularExpression) RegularExpressionRunner.toFSA(structure)
+        else structure as Automaton
         word(multiple, json, automaton)
     }
 
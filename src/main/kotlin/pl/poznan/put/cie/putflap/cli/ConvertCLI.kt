@@ -4,13 +4,18 @@ import com.github.ajalt.clikt.core.CliktCommand
 import com.github.ajalt.clikt.parameters.arguments.argument
 import com.github.ajalt.clikt.parameters.arguments.multiple
 import com.github.ajalt.clikt.parameters.options.convert
+import com.github.ajalt.clikt.parameters.options.default
 import com.github.ajalt.clikt.parameters.options.flag
 import com.github.ajalt.clikt.parameters.options.option
 import com.github.ajalt.clikt.parameters.options.required
+import com.github.ajalt.clikt.parameters.options.validate
 import com.github.ajalt.clikt.parameters.types.choice
+import com.github.ajalt.clikt.parameters.types.int
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
+import pl.poznan.put.cie.putflap.jflapextensions.regexp.NFAConstruction
 
 internal object ConvertCLI :
-    CliktCommand(name = "convert", help = "perform various conversion tasks on automaton and grammars") {
+    CliktCommand(name = "convert", help = "perform various conversion tasks on automatons, grammars and regular expressions") {
 
     private val type by option("-t", "--type", help = "type of conversion to perform")
         .choice(*Array(Types.ConvertType.values().size) { Types.ConvertType.values()[it].name.toLowerCase() })
@@ -20,10 +25,24 @@ internal object ConvertCLI :
     private val json by option("-j", "--json", help = "write answer as json")
         .flag(default = false)
 
+    private val parallelism by option("-p", "--parallelism", help = "number of threads to use [default=1]")
+        .int()
+        .default(Parallel.SEQUENTIAL)
+        .validate { require(it > 0) { "parallelism must be greater than zero" } }
+
+    private val construction by option(
+        "-c",
+        "--construction",
+        help = "construction of FSA from regular expression [default=glushkov]"
+    )
+        .choice(*Array(NFAConstruction.values().size) { NFAConstruction.values()[it].name.toLowerCase() })
+        .convert { NFAConstruction.valueOf(it.toUpperCase()) }
+        .default(NFAConstruction.GLUSHKOV)
+
     private val inputs by argument("inputs", help = "names of files with structures to convert")
         .multiple()
 
-    override fun run() = Commands.convert(type, json, inputs.toTypedArray())
+    override fun run() = Commands.convert(type, json, inputs.toTypedArray(), parallelism, construction)
 
 
 }
\ No newline at end of file
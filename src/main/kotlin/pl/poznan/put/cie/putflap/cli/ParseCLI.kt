@@ -0,0 +1,49 @@
+package pl.poznan.put.cie.putflap.cli
+
+import com.github.ajalt.clikt.core.CliktCommand
+import com.github.ajalt.clikt.core.UsageError
+import com.github.ajalt.clikt.parameters.arguments.argument
+import com.github.ajalt.clikt.parameters.arguments.multiple
+import com.github.ajalt.clikt.parameters.options.convert
+import com.github.ajalt.clikt.parameters.options.default
+import com.github.ajalt.clikt.parameters.options.option
+import com.github.ajalt.clikt.parameters.options.required
+import com.github.ajalt.clikt.parameters.options.validate
+import com.github.ajalt.clikt.parameters.types.choice
+import com.github.ajalt.clikt.parameters.types.int
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
+import pl.poznan.put.cie.putflap.jflapextensions.grammar.ParserType
+
+internal object ParseCLI : CliktCommand(name = "parse", help = "parsing words with LL(1) or SLR(1) table of grammar") {
+
+    private val inputFile by option("-i", "--input", help = "name of file with grammar to parse with")
+        .required()
+
+    private val type by option("-t", "--type", help = "type of parse table [default=slr]")
+        .choice(*Array(ParserType.values().size) { ParserType.values()[it].name.toLowerCase() })
+        .convert { ParserType.valueOf(it.toUpperCase()) }
+        .default(ParserType.SLR)
+
+    private val parallelism by option("-p", "--parallelism", help = "number of threads to use [default=1]")
+        .int()
+        .default(Parallel.SEQUENTIAL)
+        .validate { require(it > 0) { "parallelism must be greater than zero" } }
+
+    private val wordsFile by option(
+        "-w",
+        "--words",
+        help = "name of file with words to parse, one per line, or ${Commands.STANDARD_INPUT} for standard input; " +
+                "reports are streamed to standard output as JSON lines"
+    )
+
+    private val words by argument(help = "words to parse")
+        .multiple()
+
+    override fun run() = when (val file = wordsFile) {
+        null -> Commands.parse(inputFile, type, words.toTypedArray(), parallelism)
+        else -> {
+            if (words.isNotEmpty()) throw UsageError("words can not be given both as arguments and in file")
+            Commands.parseStream(inputFile, type, file, parallelism)
+        }
+    }
+}
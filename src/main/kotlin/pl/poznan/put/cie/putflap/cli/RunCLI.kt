@@ -1,18 +1,109 @@
 package pl.poznan.put.cie.putflap.cli
 
 import com.github.ajalt.clikt.core.CliktCommand
+import com.github.ajalt.clikt.core.UsageError
 import com.github.ajalt.clikt.parameters.arguments.argument
 import com.github.ajalt.clikt.parameters.arguments.multiple
+import com.github.ajalt.clikt.parameters.options.convert
+import com.github.ajalt.clikt.parameters.options.default
 import com.github.ajalt.clikt.parameters.options.option
 import com.github.ajalt.clikt.parameters.options.required
+import com.github.ajalt.clikt.parameters.options.validate
+import com.github.ajalt.clikt.parameters.types.choice
+import com.github.ajalt.clikt.parameters.types.int
+import com.github.ajalt.clikt.parameters.types.long
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.RunLimits
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.TraceLevel
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.TuringMachineRunner
 
-internal object RunCLI : CliktCommand(name = "run", help = "running automatons for given inputs") {
+internal object RunCLI : CliktCommand(name = "run", help = "running automatons and regular expressions for given inputs") {
 
-    private val inputFile by option("-i", "--input", help = "name of file with automaton to run")
+    private val inputFile by option("-i", "--input", help = "name of file with automaton or regular expression to run")
         .required()
 
+    private val parallelism by option("-p", "--parallelism", help = "number of threads to use [default=1]")
+        .int()
+        .default(Parallel.SEQUENTIAL)
+        .validate { require(it > 0) { "parallelism must be greater than zero" } }
+
+    private val trace by option("-t", "--trace", help = "level of detail of recorded steps [default=full]")
+        .choice(*Array(TraceLevel.values().size) { TraceLevel.values()[it].name.toLowerCase() })
+        .convert { TraceLevel.valueOf(it.toUpperCase()) }
+        .default(TraceLevel.FULL)
+
+    private val maxConfigurations by option(
+        "--max-configurations",
+        help = "maximal number of configurations visited by nondeterministic run, FSAs are not limited " +
+                "[default=${RunLimits.DEFAULT_MAX_CONFIGURATIONS}]"
+    )
+        .int()
+        .default(RunLimits.DEFAULT_MAX_CONFIGURATIONS)
+        .validate { require(it > 0) { "number of configurations must be greater than zero" } }
+
+    private val maxDepth by option(
+        "--max-depth",
+        help = "maximal number of steps of nondeterministic run, FSAs are not limited, " +
+                "${RunLimits.NO_LIMIT} for no limit [default=${RunLimits.DEFAULT_MAX_DEPTH}]"
+    )
+        .int()
+        .default(RunLimits.DEFAULT_MAX_DEPTH)
+        .validate { require(it >= 0) { "depth can not be negative" } }
+
+    private val maxStackHeight by option(
+        "--max-stack-height",
+        help = "maximal height of PDA stack, higher stacks are pruned, ${RunLimits.NO_LIMIT} for no limit " +
+                "[default=${RunLimits.DEFAULT_MAX_STACK_HEIGHT}]"
+    )
+        .int()
+        .default(RunLimits.DEFAULT_MAX_STACK_HEIGHT)
+        .validate { require(it >= 0) { "stack height can not be negative" } }
+
+    private val maxSteps by option(
+        "--max-steps",
+        help = "maximal number of steps of Turing machine run, ${RunLimits.NO_LIMIT} for no limit " +
+                "[default=${RunLimits.DEFAULT_MAX_STEPS}]"
+    )
+        .int()
+        .default(RunLimits.DEFAULT_MAX_STEPS)
+        .validate { require(it >= 0) { "number of steps can not be negative" } }
+
+    private val timeLimit by option(
+        "--time-limit",
+        help = "maximal time of single run in milliseconds, ${RunLimits.NO_TIME_LIMIT} for no limit " +
+                "[default=${RunLimits.NO_TIME_LIMIT}]"
+    )
+        .long()
+        .default(RunLimits.NO_TIME_LIMIT)
+        .validate { require(it >= 0) { "time limit can not be negative" } }
+
+    private val snapshotInterval by option(
+        "-s",
+        "--snapshot-interval",
+        help = "number of steps between recorded tapes of Turing machine with full trace, " +
+                "${TuringMachineRunner.EVERY_STEP} for every step [default=${TuringMachineRunner.EVERY_STEP}]"
+    )
+        .int()
+        .default(TuringMachineRunner.EVERY_STEP)
+        .validate { require(it >= 0) { "snapshot interval can not be negative" } }
+
+    private val wordsFile by option(
+        "-w",
+        "--words",
+        help = "name of file with words to run, one per line, or ${Commands.STANDARD_INPUT} for standard input; " +
+                "reports are streamed to standard output as JSON lines"
+    )
+
     private val words by argument(help = "words to run given automaton on")
         .multiple()
 
-    override fun run() = Commands.run(inputFile, words.toTypedArray())
+    override fun run() = when (val file = wordsFile) {
+        null -> Commands.run(inputFile, words.toTypedArray(), parallelism, trace, limits(), snapshotInterval)
+        else -> {
+            if (words.isNotEmpty()) throw UsageError("words can not be given both as arguments and in file")
+            Commands.runStream(inputFile, file, parallelism, trace, limits(), snapshotInterval)
+        }
+    }
+
+    private fun limits() = RunLimits(maxConfigurations, maxDepth, maxStackHeight, maxSteps, timeLimit)
 }
\ No newline at end of file
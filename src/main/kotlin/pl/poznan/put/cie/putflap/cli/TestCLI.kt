@@ -4,9 +4,17 @@ import com.github.ajalt.clikt.core.CliktCommand
 import com.github.ajalt.clikt.parameters.arguments.argument
 import com.github.ajalt.clikt.parameters.arguments.multiple
 import com.github.ajalt.clikt.parameters.options.convert
+import com.github.ajalt.clikt.parameters.options.default
+import com.github.ajalt.clikt.parameters.options.flag
+import com.github.ajalt.clikt.parameters.options.multiple
 import com.github.ajalt.clikt.parameters.options.option
 import com.github.ajalt.clikt.parameters.options.required
+import com.github.ajalt.clikt.parameters.options.validate
 import com.github.ajalt.clikt.parameters.types.choice
+import com.github.ajalt.clikt.parameters.types.int
+import com.github.ajalt.clikt.parameters.types.long
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.RunLimits
 
 internal object TestCLI :
     CliktCommand(name = "test", help = "check of specific characteristics of given automatons and grammars") {
@@ -16,8 +24,44 @@ internal object TestCLI :
         .convert { Types.TestType.valueOf(it.toUpperCase()) }
         .required()
 
+    private val classes by option("-c", "--classes", help = "group automatons into classes of equivalent ones")
+        .flag(default = false)
+
+    private val parallelism by option("-p", "--parallelism", help = "number of threads to use [default=1]")
+        .int()
+        .default(Parallel.SEQUENTIAL)
+        .validate { require(it > 0) { "parallelism must be greater than zero" } }
+
+    private val words by option("-w", "--word", help = "word to test membership of, may be given many times")
+        .multiple()
+
+    private val maxNodes by option(
+        "--max-nodes",
+        help = "maximal number of sentential forms visited by membership test of unrestricted grammar " +
+                "[default=${RunLimits.DEFAULT_MAX_CONFIGURATIONS}]"
+    )
+        .int()
+        .default(RunLimits.DEFAULT_MAX_CONFIGURATIONS)
+        .validate { require(it > 0) { "number of nodes must be greater than zero" } }
+
+    private val timeLimit by option(
+        "--time-limit",
+        help = "maximal time of membership test of single word in unrestricted grammar in milliseconds, " +
+                "${RunLimits.NO_TIME_LIMIT} for no limit [default=${RunLimits.NO_TIME_LIMIT}]"
+    )
+        .long()
+        .default(RunLimits.NO_TIME_LIMIT)
+        .validate { require(it >= 0) { "time limit can not be negative" } }
+
     private val inputs by argument("input", help = "names of files with structures to test")
         .multiple()
 
-    override fun run() = Commands.test(type, inputs.toTypedArray())
+    override fun run() = Commands.test(
+        type,
+        inputs.toTypedArray(),
+        classes,
+        parallelism,
+        words.toTypedArray(),
+        RunLimits(maxConfigurations = maxNodes, timeLimit = timeLimit)
+    )
 }
\ No newline at end of file
@@ -16,10 +16,10 @@ abstract class Types {
     }
 
     enum class TestType {
-        NDET, EQ, AL
+        NDET, EQ, AL, MEM
     }
 
     enum class ConvertType {
-        DFA, MINI, GR, RE, PDA, FSA, JSON
+        DFA, MINI, GR, RE, PDA, FSA, JSON, CLEAN, CNF, GNF
     }
 }
\ No newline at end of file
@@ -8,7 +8,7 @@ import com.github.ajalt.clikt.parameters.options.option
 import com.github.ajalt.clikt.parameters.options.validate
 import com.github.ajalt.clikt.parameters.types.int
 
-internal object WordCLI : CliktCommand(name = "word", help = "generate valid word for given automaton") {
+internal object WordCLI : CliktCommand(name = "word", help = "generate valid word for given automaton or regular expression") {
 
     private val multiple by option("-m", "--multiple", help = "number of words to generate [default=1]")
         .int()
@@ -18,7 +18,7 @@ internal object WordCLI : CliktCommand(name = "word", help = "generate valid wor
     private val json by option("-j", "--json", help = "write answer as json")
         .flag(default = false)
 
-    private val automatonFile by argument(help = "name of file with automaton")
+    private val automatonFile by argument(help = "name of file with automaton or regular expression")
 
     override fun run() = Commands.word(multiple, json, automatonFile)
 }
\ No newline at end of file
@@ -57,14 +57,20 @@ class Smart(
                     Commands.run(
                         parameters.input[i],
                         parameters.words,
-                        i + 1
+                        i + 1,
+                        parameters.parallelism,
+                        parameters.trace,
+                        parameters.limits,
+                        parameters.snapshotInterval
                     )
             }
             Types.InstructionType.TEST -> {
                 val parameters = getParameters<TestParameters>()
                 Commands.test(
                     parameters.type,
-                    parameters.inputs
+                    parameters.inputs,
+                    parameters.classes,
+                    parameters.parallelism
                 )
             }
             Types.InstructionType.CONVERT -> {
@@ -72,7 +78,8 @@ class Smart(
                 Commands.convert(
                     parameters.type,
                     parameters.json,
-                    parameters.input
+                    parameters.input,
+                    parameters.parallelism
                 )
             }
             Types.InstructionType.WORD -> {
@@ -1,12 +1,14 @@
 package pl.poznan.put.cie.putflap.cli.smart.parameters
 
 import pl.poznan.put.cie.putflap.cli.Types
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
 import pl.poznan.put.cie.putflap.report.structure.automaton.AutomatonReport
 
 data class ConvertParameters(
     val type: Types.ConvertType,
     val json: Boolean,
-    val input: Array<AutomatonReport>
+    val input: Array<AutomatonReport>,
+    val parallelism: Int = Parallel.SEQUENTIAL
 ) : SmartParameters() {
     override fun equals(other: Any?): Boolean {
         if (this === other) return true
@@ -17,6 +19,7 @@ data class ConvertParameters(
         if (type != other.type) return false
         if (json != other.json) return false
         if (!input.contentEquals(other.input)) return false
+        if (parallelism != other.parallelism) return false
 
         return true
     }
@@ -25,6 +28,7 @@ data class ConvertParameters(
         var result = type.hashCode()
         result = 31 * result + json.hashCode()
         result = 31 * result + input.contentHashCode()
+        result = 31 * result + parallelism
         return result
     }
 }
\ No newline at end of file
@@ -1,10 +1,18 @@
 package pl.poznan.put.cie.putflap.cli.smart.parameters
 
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.RunLimits
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.TraceLevel
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.TuringMachineRunner
 import pl.poznan.put.cie.putflap.report.structure.automaton.AutomatonReport
 
 data class RunParameters(
     val input: Array<AutomatonReport>,
-    val words: Array<String>
+    val words: Array<String>,
+    val parallelism: Int = Parallel.SEQUENTIAL,
+    val trace: TraceLevel = TraceLevel.FULL,
+    val limits: RunLimits = RunLimits(),
+    val snapshotInterval: Int = TuringMachineRunner.EVERY_STEP
 ) : SmartParameters() {
     override fun equals(other: Any?): Boolean {
         if (this === other) return true
@@ -14,6 +22,10 @@ data class RunParameters(
 
         if (!input.contentEquals(other.input)) return false
         if (!words.contentEquals(other.words)) return false
+        if (parallelism != other.parallelism) return false
+        if (trace != other.trace) return false
+        if (limits != other.limits) return false
+        if (snapshotInterval != other.snapshotInterval) return false
 
         return true
     }
@@ -21,6 +33,10 @@ data class RunParameters(
     override fun hashCode(): Int {
         var result = input.contentHashCode()
         result = 31 * result + words.contentHashCode()
+        result = 31 * result + parallelism
+        result = 31 * result + trace.hashCode()
+        result = 31 * result + limits.hashCode()
+        result = 31 * result + snapshotInterval
         return result
     }
 }
\ No newline at end of file
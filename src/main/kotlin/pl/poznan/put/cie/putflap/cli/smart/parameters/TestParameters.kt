@@ -1,11 +1,14 @@
 package pl.poznan.put.cie.putflap.cli.smart.parameters
 
 import pl.poznan.put.cie.putflap.cli.Types
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
 import pl.poznan.put.cie.putflap.report.structure.automaton.AutomatonReport
 
 data class TestParameters(
     val type: Types.TestType,
-    val inputs: Array<AutomatonReport>
+    val inputs: Array<AutomatonReport>,
+    val classes: Boolean = false,
+    val parallelism: Int = Parallel.SEQUENTIAL
 ) : SmartParameters() {
     override fun equals(other: Any?): Boolean {
         if (this === other) return true
@@ -15,6 +18,8 @@ data class TestParameters(
 
         if (type != other.type) return false
         if (!inputs.contentEquals(other.inputs)) return false
+        if (classes != other.classes) return false
+        if (parallelism != other.parallelism) return false
 
         return true
     }
@@ -22,6 +27,8 @@ data class TestParameters(
     override fun hashCode(): Int {
         var result = type.hashCode()
         result = 31 * result + inputs.contentHashCode()
+        result = 31 * result + classes.hashCode()
+        result = 31 * result + parallelism
         return result
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package pl.poznan.put.cie.putflap.jflapextensions
+
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.Future
+import java.util.concurrent.RecursiveAction
+import kotlin.concurrent.thread
+
+/**
+ * Runs independent tasks of batch operations on fork-join pool
+ */
+object Parallel {
+
+    /**
+     * Parallelism which runs all tasks on calling thread
+     */
+    const val SEQUENTIAL = 1
+
+    /**
+     * Number of elements per thread which are read ahead of the first result not yet passed on in [stream]
+     */
+    const val STREAM_BUFFER_SIZE = 1024
+
+    /**
+     * Creates array like [Array] constructor, but computes its elements on [parallelism] threads.
+     * Elements are always in order of their indexes
+     *
+     * @param size size of array
+     * @param parallelism number of threads to use
+     * @param init function computing element with given index
+     */
+    inline fun <reified T> array(size: Int, parallelism: Int, crossinline init: (Int) -> T): Array<T> {
+        val elements = arrayOfNulls<T>(size)
+        forEach(size, parallelism) { elements[it] = init(it) }
+        @Suppress("UNCHECKED_CAST")
+        return elements as Array<T>
+    }
+
+    /**
+     * Performs [action] for every index from 0 until [size] on [parallelism] threads
+     *
+     * @param size number of indexes
+     * @param parallelism number of threads to use
+     * @param action action to perform for index
+     */
+    fun forEach(size: Int, parallelism: Int, action: (Int) -> Unit) {
+        if (parallelism <= SEQUENTIAL || size <= 1) {
+            for (i in 0 until size) action(i)
+            return
+        }
+
+        val pool = ForkJoinPool(parallelism)
+        try {
+            pool.invoke(Range(0, size, action))
+        } finally {
+            pool.shutdown()
+        }
+    }
+
+    /**
+     * Transforms elements of [input] on [parallelism] threads and passes results to [action] in order of elements.
+     * Elements are read on separate thread and at most [STREAM_BUFFER_SIZE] per thread wait for their results,
+     * so [input] can be of any length. Every result is passed as soon as it and all results before it are ready,
+     * so slow or interactive producers get results without waiting for the rest of [input]
+     *
+     * @param input elements to transform
+     * @param parallelism number of threads to use
+     * @param transform function computing result of element
+     * @param action action performed for every result, on calling thread
+     */
+    fun <T, R> stream(input: Sequence<T>, parallelism: Int, transform: (T) -> R, action: (R) -> Unit) {
+        if (parallelism <= SEQUENTIAL) {
+            input.forEach { action(transform(it)) }
+            return
+        }
+
+        val workers = Executors.newFixedThreadPool(parallelism)
+        val pending = ArrayBlockingQueue<Future<R>>(STREAM_BUFFER_SIZE * parallelism)
+        val end = CompletableFuture<R>()
+        val reader = thread(isDaemon = true) {
+            val last = try {
+                for (element in input) pending.put(workers.submit(Callable { transform(element) }))
+                end
+            } catch (e: InterruptedException) {
+                return@thread
+            } catch (e: Throwable) {
+                CompletableFuture<R>().apply { completeExceptionally(e) }
+            }
+            try {
+                pending.put(last)
+            } catch (e: InterruptedException) {
+                // calling thread has already stopped taking results
+            }
+        }
+
+        try {
+            while (true) {
+                val next = pending.take()
+                if (next === end) break
+                action(result(next))
+            }
+        } finally {
+            reader.interrupt()
+            workers.shutdownNow()
+        }
+    }
+
+    /**
+     * Waits for [future] and returns its result, rethrowing exception of failed task as it was thrown
+     */
+    private fun <R> result(future: Future<R>): R = try {
+        future.get()
+    } catch (e: ExecutionException) {
+        throw e.cause ?: e
+    }
+
+    /**
+     * Task performing action for indexes from [from] until [to], split in halves until single indexes are left
+     */
+    private class Range(private val from: Int, private val to: Int, private val action: (Int) -> Unit) :
+        RecursiveAction() {
+
+        override fun compute() {
+            if (to - from == 1) action(from)
+            else {
+                val middle = (from + to) ushr 1
+                invokeAll(Range(from, middle, action), Range(middle, to, action))
+            }
+        }
+    }
+}
@@ -1,17 +1,19 @@
 package pl.poznan.put.cie.putflap.jflapextensions.automaton
 
 import jflap.automata.Automaton
-import jflap.automata.Transition
+import jflap.automata.AutomatonChecker
 import jflap.automata.fsa.*
 import jflap.automata.pda.PDAToCFGConverter
+import jflap.automata.pda.PDAToCFGTripleConverter
 import jflap.automata.pda.PushdownAutomaton
 import jflap.grammar.Grammar
 import jflap.grammar.GrammarChecker
-import jflap.grammar.Production
-import jflap.grammar.cfg.ContextFreeGrammar
 import jflap.grammar.reg.RightLinearGrammarToFSAConverter
-import jflap.gui.grammar.GrammarTableModel
+import jflap.regular.RegularExpression
 import pl.poznan.put.cie.putflap.exception.IncompatibleAutomatonException
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
+import pl.poznan.put.cie.putflap.jflapextensions.regexp.NFAConstruction
+import pl.poznan.put.cie.putflap.jflapextensions.regexp.RegularExpressionRunner
 import pl.poznan.put.cie.putflap.report.ConversionReport
 import pl.poznan.put.cie.putflap.report.MultipleConversionReport
 import pl.poznan.put.cie.putflap.report.structure.automaton.AutomatonReport
@@ -23,8 +25,11 @@ import pl.poznan.put.cie.putflap.report.structure.regexp.RegExpReport
  */
 object AutomatonConverter {
 
-    fun toDeterministicFSA(automatons: Array<FiniteStateAutomaton>): Pair<MultipleConversionReport, Array<FiniteStateAutomaton>> {
-        val conversions = Array(automatons.size) {
+    fun toDeterministicFSA(
+        automatons: Array<FiniteStateAutomaton>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ): Pair<MultipleConversionReport, Array<FiniteStateAutomaton>> {
+        val conversions = Parallel.array(automatons.size, parallelism) {
             toDeterministicFSA(
                 automatons[it]
             )
@@ -41,20 +46,28 @@ object AutomatonConverter {
     }
 
     private fun toDeterministicFSA(automaton: FiniteStateAutomaton): Pair<ConversionReport, FiniteStateAutomaton> {
-        val result = NFAToDFA().convertToDFA(automaton)
+        val converter = NFAToDFA()
+        val start = System.nanoTime()
+        val result = converter.convertToDFA(automaton)
+        val time = (System.nanoTime() - start) / 1_000_000
         return Pair(
             ConversionReport(
                 AutomatonType.get(automaton).toString(),
                 AutomatonType.get(result).toString(),
                 true,
-                AutomatonReport(result)
+                AutomatonReport(result),
+                exploredSubsets = converter.exploredSubsets,
+                time = time
             ),
             result
         )
     }
 
-    fun toMinimalFSA(automatons: Array<FiniteStateAutomaton>): Pair<MultipleConversionReport, Array<FiniteStateAutomaton>> {
-        val conversions = Array(automatons.size) {
+    fun toMinimalFSA(
+        automatons: Array<FiniteStateAutomaton>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ): Pair<MultipleConversionReport, Array<FiniteStateAutomaton>> {
+        val conversions = Parallel.array(automatons.size, parallelism) {
             toMinimalFSA(
                 automatons[it]
             )
@@ -71,10 +84,8 @@ object AutomatonConverter {
     }
 
     private fun toMinimalFSA(automaton: FiniteStateAutomaton): Pair<ConversionReport, FiniteStateAutomaton> {
-        val minimizer = Minimizer()
-        minimizer.initializeMinimizer()
-        minimizer.addTrapState(automaton)
-        val result = minimizer.getMinimumDfa(automaton, minimizer.getDistinguishableGroupsTree(automaton))
+        val dfa = if (AutomatonChecker().isNFA(automaton)) NFAToDFA().convertToDFA(automaton) else automaton
+        val result = HopcroftMinimizer().getMinimumDfa(dfa)
         return Pair(
             ConversionReport(
                 AutomatonType.get(automaton).toString(),
@@ -86,8 +97,11 @@ object AutomatonConverter {
         )
     }
 
-    fun toGrammar(automatons: Array<Automaton>): Pair<MultipleConversionReport, Array<Grammar>> {
-        val conversions = Array(automatons.size) {
+    fun toGrammar(
+        automatons: Array<Automaton>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ): Pair<MultipleConversionReport, Array<Grammar>> {
+        val conversions = Parallel.array(automatons.size, parallelism) {
             toGrammar(
                 automatons[it]
             )
@@ -107,30 +121,8 @@ object AutomatonConverter {
         val grammar = when (automaton) {
             is FiniteStateAutomaton -> FSAToRegularGrammarConverter().convertToRegularGrammar(automaton)
             is PushdownAutomaton -> {
-                val converter = PDAToCFGConverter()
-                if (!converter.isInCorrectFormForConversion(automaton)) throw IncompatibleAutomatonException()
-
-                val model = GrammarTableModel()
-                val transitionToProduction = mutableMapOf<Transition, Array<Production>>()
-                val productionToTransition = mutableMapOf<Production, Transition>()
-
-                automaton.transitions.forEach { transition ->
-                    val productions = converter.createProductionsForTransition(transition, automaton).toTypedArray()
-                    transitionToProduction[transition] = productions
-                    transitionToProduction[transition]?.forEach { productionToTransition[it] = transition }
-                }
-
-                transitionToProduction.values.forEach { productions ->
-                    productions.forEach { model.addProduction(it) }
-                }
-
-                converter.purgeProductions(automaton, model)
-                val ready = Array(model.productions.size) { converter.getSimplifiedProduction(model.productions[it]) }
-                val grammar = ContextFreeGrammar()
-                grammar.startVariable = "S"
-                grammar.addProductions(ready)
-
-                grammar
+                if (!PDAToCFGConverter().isInCorrectFormForConversion(automaton)) throw IncompatibleAutomatonException()
+                PDAToCFGTripleConverter(automaton).grammar
             }
             else -> throw IncompatibleAutomatonException("Only FSA and PDA to grammar conversion is currently supported")
         }
@@ -143,8 +135,11 @@ object AutomatonConverter {
         )
     }
 
-    fun toRegularExpression(automatons: Array<FiniteStateAutomaton>): Pair<MultipleConversionReport, Array<String>> {
-        val conversions = Array(automatons.size) {
+    fun toRegularExpression(
+        automatons: Array<FiniteStateAutomaton>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ): Pair<MultipleConversionReport, Array<String>> {
+        val conversions = Parallel.array(automatons.size, parallelism) {
             toRegularExpression(
                 automatons[it]
             )
@@ -161,21 +156,22 @@ object AutomatonConverter {
     }
 
     private fun toRegularExpression(automaton: FiniteStateAutomaton): Pair<ConversionReport, String> {
-        if (!FSAToRegularExpressionConverter.isConvertable(automaton))
-            throw IncompatibleAutomatonException("Incorrect form of FSA to perform conversion")
-
-        FSAToRegularExpressionConverter.convertToSimpleAutomaton(automaton)
-        val regexp = FSAToRegularExpressionConverter.convertToRegularExpression(automaton)
+        val start = System.nanoTime()
+        val regexp = FSAStateEliminationConverter(automaton).expression.toString()
+        val time = (System.nanoTime() - start) / 1_000_000
         return Pair(
             ConversionReport(
-                AutomatonType.get(automaton).toString(), "REGEX", true, RegExpReport(regexp)
+                AutomatonType.get(automaton).toString(), "REGEX", true, RegExpReport(regexp, regexp.length), time = time
             ),
             regexp
         )
     }
 
-    fun toFSA(grammars: Array<Grammar>): Pair<MultipleConversionReport, Array<FiniteStateAutomaton>> {
-        val conversions = Array(grammars.size) {
+    fun toFSA(
+        grammars: Array<Grammar>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ): Pair<MultipleConversionReport, Array<FiniteStateAutomaton>> {
+        val conversions = Parallel.array(grammars.size, parallelism) {
             toFSA(
                 grammars[it]
             )
@@ -214,8 +210,56 @@ object AutomatonConverter {
         )
     }
 
-    fun toJSON(automatons: Array<Automaton>): Pair<MultipleConversionReport, Array<Automaton>> {
-        val conversions = Array(automatons.size) {
+    /**
+     * Converts regular [expressions] to FSAs
+     *
+     * @param expressions regular expressions to convert
+     * @param construction [construction][NFAConstruction] of FSA from expression
+     * @param parallelism number of threads to convert expressions on
+     * @return report of all conversions and FSAs in the same order as [expressions]
+     */
+    fun toFSA(
+        expressions: Array<RegularExpression>,
+        construction: NFAConstruction = NFAConstruction.GLUSHKOV,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ): Pair<MultipleConversionReport, Array<FiniteStateAutomaton>> {
+        val conversions = Parallel.array(expressions.size, parallelism) {
+            toFSA(
+                expressions[it],
+                construction
+            )
+        }
+        val reports = Array(conversions.size) { conversions[it].first }
+        return Pair(
+            MultipleConversionReport(
+                "FSA",
+                reports.all { it.success },
+                reports
+            ),
+            Array(conversions.size) { conversions[it].second }
+        )
+    }
+
+    private fun toFSA(
+        expression: RegularExpression,
+        construction: NFAConstruction
+    ): Pair<ConversionReport, FiniteStateAutomaton> {
+        val start = System.nanoTime()
+        val automaton = RegularExpressionRunner.toFSA(expression, construction)
+        val time = (System.nanoTime() - start) / 1_000_000
+        return Pair(
+            ConversionReport(
+                "REGEX", AutomatonType.get(automaton).toString(), true, AutomatonReport(automaton), time = time
+            ),
+            automaton
+        )
+    }
+
+    fun toJSON(
+        automatons: Array<Automaton>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ): Pair<MultipleConversionReport, Array<Automaton>> {
+        val conversions = Parallel.array(automatons.size, parallelism) {
             toJSON(
                 automatons[it]
             )
@@ -240,8 +284,11 @@ object AutomatonConverter {
         )
     }
 
-    fun toJSON(grammars: Array<Grammar>): Pair<MultipleConversionReport, Array<Grammar>> {
-        val conversions = Array(grammars.size) {
+    fun toJSON(
+        grammars: Array<Grammar>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ): Pair<MultipleConversionReport, Array<Grammar>> {
+        val conversions = Parallel.array(grammars.size, parallelism) {
             toJSON(
                 grammars[it]
             )
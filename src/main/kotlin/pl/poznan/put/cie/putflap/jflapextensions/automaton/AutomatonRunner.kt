@@ -1,19 +1,37 @@
 package pl.poznan.put.cie.putflap.jflapextensions.automaton
 
 import jflap.automata.Automaton
+import jflap.automata.AutomatonSimulator
+import jflap.automata.Configuration
+import jflap.automata.State
+import jflap.automata.fsa.FiniteStateAutomaton
+import jflap.automata.pda.PDATransition
+import jflap.automata.pda.PushdownAutomaton
+import jflap.automata.turing.TuringMachine
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
 import pl.poznan.put.cie.putflap.report.ErrorReport
 import pl.poznan.put.cie.putflap.report.MultipleRunReport
 import pl.poznan.put.cie.putflap.report.RunReport
 import pl.poznan.put.cie.putflap.report.structure.automaton.AutomatonReport
 import pl.poznan.put.cie.putflap.report.structure.automaton.StepReport
+import java.util.*
 
 /**
  * Implements JFLAP run methods
  */
 object AutomatonRunner {
 
-    fun runAutomaton(automaton: Automaton, input: Array<String>): MultipleRunReport {
-        val runs = Array(input.size) { runAutomaton(automaton, input[it]) }
+    @JvmOverloads
+    fun runAutomaton(
+        automaton: Automaton,
+        input: Array<String>,
+        parallelism: Int = Parallel.SEQUENTIAL,
+        trace: TraceLevel = TraceLevel.FULL,
+        limits: RunLimits = RunLimits(),
+        snapshotInterval: Int = TuringMachineRunner.EVERY_STEP
+    ): MultipleRunReport {
+        val run = Run(automaton, trace, limits, snapshotInterval)
+        val runs = Parallel.array(input.size, parallelism) { runWord(run, input[it]) }
 
         return MultipleRunReport(
             AutomatonReport.generate(automaton),
@@ -21,24 +39,147 @@ object AutomatonRunner {
         )
     }
 
-    private fun runAutomaton(automaton: Automaton, input: String): RunReport {
-        if (automaton.initialState == null) return RunReport(
-            AutomatonType.get(automaton), input, ErrorReport.generate(ErrorReport.Companion.Error.NO_INITIAL_STATE)
-        )
-        if (!AutomatonTester.checkNondeterminism(automaton).deterministic) return RunReport(
-            AutomatonType.get(automaton), input, ErrorReport.generate(ErrorReport.Companion.Error.NON_DETERMINISM)
-        )
+    /**
+     * Runs [automaton] for words of [input] as they come and passes reports to [action] in order of words.
+     * Only a bounded number of words is held in memory, so [input] can be of any length
+     *
+     * @param automaton automaton to run
+     * @param input words to run automaton on
+     * @param parallelism number of threads to run words on
+     * @param trace level of detail of recorded steps
+     * @param limits limits of nondeterministic runs and Turing machine runs
+     * @param snapshotInterval number of steps between recorded tapes of Turing machines
+     * @param action action performed for report of every word
+     */
+    @JvmOverloads
+    fun runAutomaton(
+        automaton: Automaton,
+        input: Sequence<String>,
+        parallelism: Int = Parallel.SEQUENTIAL,
+        trace: TraceLevel = TraceLevel.FULL,
+        limits: RunLimits = RunLimits(),
+        snapshotInterval: Int = TuringMachineRunner.EVERY_STEP,
+        action: (RunReport) -> Unit
+    ) {
+        val run = Run(automaton, trace, limits, snapshotInterval)
+        Parallel.stream(input, parallelism, { runWord(run, it) }, action)
+    }
+
+    /**
+     * Everything needed to run one automaton, prepared once for all words
+     *
+     * @param automaton automaton to run
+     * @param trace level of detail of recorded steps
+     * @param limits limits of nondeterministic runs, PDA runs and Turing machine runs
+     * @param snapshotInterval number of steps between recorded tapes of Turing machines
+     */
+    private class Run(
+        val automaton: Automaton,
+        val trace: TraceLevel,
+        val limits: RunLimits,
+        val snapshotInterval: Int
+    ) {
+        /**
+         * [automaton] compiled to transition table, if it is deterministic FSA
+         */
+        val dfa = if (automaton is FiniteStateAutomaton) CompiledDFA.compile(automaton) else null
+
+        /**
+         * [automaton] compiled to bit masks, if it is nondeterministic FSA
+         */
+        val nfa = if (automaton is FiniteStateAutomaton && dfa == null) CompiledNFA.compile(automaton) else null
+
+        /**
+         * Deterministic PDAs can still diverge on lambda cycles which do not shrink the stack,
+         * so only PDAs without such cycles are run as deterministic
+         */
+        val deterministic = dfa != null || automaton.initialState != null &&
+                AutomatonTester.checkNondeterminism(automaton).deterministic &&
+                (automaton !is PushdownAutomaton || !hasLambdaCycleNotShrinkingStack(automaton))
+
+        /**
+         * Simulators of [automaton], one for every thread which asks for it, as JFLAP simulators are not thread safe
+         */
+        val simulators: ThreadLocal<AutomatonSimulator> = ThreadLocal.withInitial {
+            SimulatorFactoryCustom.getSimulator(automaton)!!
+        }
+    }
 
-        val simulator = SimulatorFactoryCustom.getSimulator(automaton)!!
+    /**
+     * Checks if [automaton] has cycle of transitions reading no input, which pushes at least as many symbols
+     * as it pops. Longest cycles are found with Floyd-Warshall algorithm over net changes of stack height
+     */
+    private fun hasLambdaCycleNotShrinkingStack(automaton: PushdownAutomaton): Boolean {
+        val states = automaton.getStates()
+        val indexes = HashMap<State, Int>(states.size * 2)
+        states.forEachIndexed { i, state -> indexes[state] = i }
+
+        val none = Int.MIN_VALUE
+        val longest = Array(states.size) { IntArray(states.size) { none } }
+        automaton.transitions.forEach {
+            val transition = it as PDATransition
+            if (transition.inputToRead.isNotEmpty()) return@forEach
+            val from = indexes[transition.fromState]!!
+            val to = indexes[transition.toState]!!
+            val change = transition.stringToPush.length - transition.stringToPop.length
+            if (from == to && change >= 0) return true
+            longest[from][to] = maxOf(longest[from][to], change)
+        }
+
+        for (k in states.indices) for (i in states.indices) {
+            if (longest[i][k] == none) continue
+            for (j in states.indices) {
+                if (longest[k][j] == none) continue
+                longest[i][j] = maxOf(longest[i][j], longest[i][k] + longest[k][j])
+            }
+            if (longest[i][i] >= 0) return true
+        }
+        return false
+    }
+
+    /**
+     * Runs automaton of [run] for single word, choosing the fastest way available
+     */
+    private fun runWord(run: Run, input: String): RunReport {
+        val automaton = run.automaton
+        return when {
+            run.dfa != null -> runAutomaton(automaton, run.dfa, input, run.trace)
+            automaton.initialState == null -> RunReport(
+                AutomatonType.get(automaton), input, ErrorReport.generate(ErrorReport.Companion.Error.NO_INITIAL_STATE)
+            )
+            run.nfa != null -> NFARunner.run(automaton as FiniteStateAutomaton, run.nfa, input, run.trace)
+            automaton is TuringMachine && run.deterministic -> TuringMachineRunner.run(
+                automaton, input, run.trace, run.limits, run.snapshotInterval
+            )
+            run.deterministic -> runAutomaton(automaton, run.simulators.get(), input, run.trace)
+            else -> NondeterministicRunner.run(automaton, run.simulators.get(), input, run.trace, run.limits)
+        }
+    }
+
+    /**
+     * Runs deterministic [automaton] following its only possible configurations. Like runs of
+     * [NondeterministicRunner], the report carries [Verdict] with numbers of explored configurations,
+     * which are all configurations of the run, and pruned ones, of which there are none
+     */
+    private fun runAutomaton(
+        automaton: Automaton,
+        simulator: AutomatonSimulator,
+        input: String,
+        trace: TraceLevel
+    ): RunReport {
         val initialConfiguration = simulator.getInitialConfigurations(input)[0]
-        val possibleConfigurations = simulator.stepConfiguration(initialConfiguration)
+        val possibleConfigurations = ArrayDeque(simulator.stepConfiguration(initialConfiguration))
 
         var accepted = false
-        val steps = mutableListOf(StepReport.initial(automaton, input))
+        val steps = if (trace == TraceLevel.FULL) mutableListOf(StepReport.initial(automaton, input)) else null
+        var stepCount = 1
+        var last: Configuration? = null
 
         while (possibleConfigurations.isNotEmpty()) {
-            val configuration = possibleConfigurations.removeAt(0)
-            steps.add(StepReport.generate(configuration))
+            val configuration = possibleConfigurations.poll()
+            steps?.add(StepReport.generate(configuration))
+            stepCount++
+            last = configuration
 
             if (configuration.isAccept) {
                 accepted = true
@@ -48,6 +189,53 @@ object AutomatonRunner {
             possibleConfigurations.addAll(simulator.stepConfiguration(configuration))
         }
 
-        return RunReport(AutomatonType.get(automaton), input, accepted, steps.toTypedArray())
+        val report = when (trace) {
+            TraceLevel.NONE -> RunReport(AutomatonType.get(automaton), input, accepted, stepCount)
+            TraceLevel.FINAL -> RunReport(
+                AutomatonType.get(automaton),
+                input,
+                accepted,
+                arrayOf(if (last != null) StepReport.generate(last) else StepReport.initial(automaton, input))
+            )
+            TraceLevel.FULL -> RunReport(AutomatonType.get(automaton), input, accepted, steps!!.toTypedArray())
+        }
+        return report.copy(
+            verdict = if (accepted) Verdict.ACCEPT else Verdict.REJECT,
+            explored = stepCount,
+            pruned = 0
+        )
+    }
+
+    /**
+     * Runs [automaton] compiled to [dfa] directly on transition table. Steps are recorded only if [trace] is
+     * [TraceLevel.FULL], otherwise the run does not allocate anything per character
+     */
+    private fun runAutomaton(automaton: Automaton, dfa: CompiledDFA, input: String, trace: TraceLevel): RunReport {
+        val steps = if (trace == TraceLevel.FULL) mutableListOf(StepReport.initial(automaton, input)) else null
+
+        var state = dfa.initial
+        var read = 0
+        while (read < input.length) {
+            val next = dfa.next(state, input[read])
+            if (next == CompiledDFA.DEAD) break
+            state = next
+            read++
+            steps?.add(StepReport(dfa.state(state).id, input[read - 1].toString(), input.substring(read)))
+        }
+
+        val accepted = read == input.length && dfa.isFinal(state)
+        return when (trace) {
+            TraceLevel.NONE -> RunReport(AutomatonType.get(automaton), input, accepted, read + 1)
+            TraceLevel.FINAL -> RunReport(
+                AutomatonType.get(automaton),
+                input,
+                accepted,
+                arrayOf(
+                    if (read == 0) StepReport.initial(automaton, input)
+                    else StepReport(dfa.state(state).id, input[read - 1].toString(), input.substring(read))
+                )
+            )
+            TraceLevel.FULL -> RunReport(AutomatonType.get(automaton), input, accepted, steps!!.toTypedArray())
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,14 @@
 package pl.poznan.put.cie.putflap.jflapextensions.automaton
 
 import jflap.automata.*
+import jflap.automata.fsa.FSATransition
 import jflap.automata.fsa.FiniteStateAutomaton
-import jflap.automata.graph.FSAEqualityChecker
+import jflap.automata.fsa.HopcroftMinimizer
+import jflap.automata.fsa.NFAToDFA
 import jflap.automata.mealy.MealyMachine
 import jflap.automata.mealy.MealyTransition
 import jflap.grammar.Grammar
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
 import pl.poznan.put.cie.putflap.report.test.*
 
 /**
@@ -13,8 +16,11 @@ import pl.poznan.put.cie.putflap.report.test.*
  */
 object AutomatonTester {
 
-    fun checkNondeterminism(automatons: Array<Automaton>): MultipleNondeterminismReport {
-        val reports = Array(automatons.size) { checkNondeterminism(automatons[it]) }
+    fun checkNondeterminism(
+        automatons: Array<Automaton>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ): MultipleNondeterminismReport {
+        val reports = Parallel.array(automatons.size, parallelism) { checkNondeterminism(automatons[it]) }
 
         return MultipleNondeterminismReport(
             reports.all { it.deterministic },
@@ -53,27 +59,62 @@ object AutomatonTester {
     }
 
     fun checkEquivalenceOfManyFSAs(automatons: Array<FiniteStateAutomaton>): EquivalenceReport {
-        return EquivalenceReport(
-            areEquivalent(automatons)
-        )
+        for (i in 1 until automatons.size) {
+            val counterexample = FSAEquivalenceChecker.counterexample(automatons[0], automatons[i])
+            if (counterexample != null) return EquivalenceReport(false, counterexample)
+        }
+
+        return EquivalenceReport(true)
     }
 
     private fun checkEquivalenceOfTwoFSAs(a1: FiniteStateAutomaton, a2: FiniteStateAutomaton): EquivalenceReport {
-        return EquivalenceReport(areEquivalent(a1, a2))
+        return checkEquivalenceOfManyFSAs(arrayOf(a1, a2))
+    }
+
+    /**
+     * Groups [automatons] into classes accepting the same language. Every automaton is reduced to the signature
+     * of its minimal DFA, so the cost is one minimization per automaton instead of comparing all pairs
+     *
+     * @return report with classes of indexes of [automatons], in order of first appearance
+     */
+    fun findEquivalenceClasses(
+        automatons: Array<FiniteStateAutomaton>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ): EquivalenceClassesReport {
+        val signatures = Parallel.array(automatons.size, parallelism) { signature(automatons[it]) }
+        val classes = LinkedHashMap<String, MutableList<Int>>()
+        signatures.forEachIndexed { i, signature -> classes.getOrPut(signature) { mutableListOf() }.add(i) }
+
+        return EquivalenceClassesReport(
+            classes.size <= 1,
+            classes.values.map { it.toTypedArray() }.toTypedArray()
+        )
     }
 
-    private fun areEquivalent(automatons: Array<FiniteStateAutomaton>): Boolean {
-        var allEquivalent = true
-        for (i in 1 until automatons.size) if (!areEquivalent(automatons[0], automatons[i])) {
-            allEquivalent = false
-            break
+    /**
+     * Signature of automaton with no initial state, the same as of minimal DFA of empty language
+     */
+    private const val EMPTY_SIGNATURE = "-;"
+
+    /**
+     * Writes minimal DFA of [automaton] as string which is equal for two automatons only if they accept
+     * the same language. States of minimal DFA are numbered canonically by [HopcroftMinimizer], every state
+     * is written as its finality followed by its transitions in alphabetical order
+     */
+    private fun signature(automaton: FiniteStateAutomaton): String {
+        if (automaton.initialState == null) return EMPTY_SIGNATURE
+        val dfa = if (AutomatonChecker().isNFA(automaton)) NFAToDFA().convertToDFA(automaton) else automaton
+        val minimal = HopcroftMinimizer().getMinimumDfa(dfa)
+
+        val signature = StringBuilder()
+        minimal.getStates().forEach { state ->
+            signature.append(if (minimal.isFinalState(state)) '+' else '-')
+            minimal.getTransitionsFromState(state)
+                .sortedBy { (it as FSATransition).label }
+                .forEach { signature.append((it as FSATransition).label).append(it.toState.id).append(',') }
+            signature.append(';')
         }
-
-        return allEquivalent
-    }
-
-    private fun areEquivalent(a1: FiniteStateAutomaton, a2: FiniteStateAutomaton): Boolean {
-        return FSAEqualityChecker().equals(a1, a2)
+        return signature.toString()
     }
 
     fun retrieveAlphabets(automatons: Array<Automaton>): MultipleAlphabetReport {
@@ -5,6 +5,8 @@ import jflap.automata.fsa.FiniteStateAutomaton
 import jflap.automata.mealy.MealyMachine
 import jflap.automata.mealy.MooreMachine
 import jflap.automata.pda.PushdownAutomaton
+import jflap.automata.turing.TMState
+import jflap.automata.turing.TuringMachine
 
 /**
  * Stores all possible types of automatons
@@ -19,6 +21,11 @@ enum class AutomatonType {
                 is MooreMachine -> MOORE
                 is MealyMachine -> MEALY
                 is PushdownAutomaton -> PDA
+                is TuringMachine -> when {
+                    automaton.states.any { (it as TMState).innerTM.states.isNotEmpty() } -> TURING_BB
+                    automaton.tapes() > 1 -> TURING_MT
+                    else -> TURING
+                }
                 else -> UNKNOWN
             }
         }
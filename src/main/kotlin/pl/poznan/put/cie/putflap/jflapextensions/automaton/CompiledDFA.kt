@@ -0,0 +1,126 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.State
+import jflap.automata.fsa.FSATransition
+import jflap.automata.fsa.FiniteStateAutomaton
+import java.util.*
+
+/**
+ * Deterministic, single-character [FiniteStateAutomaton] lowered to a dense transition table.
+ * States are numbered in order of ascending JFLAP ids, symbols in order of first appearance.
+ *
+ * Acceptance check does not allocate anything per character, so the same instance can be used
+ * to run any number of words.
+ *
+ * @param states JFLAP states in order of their indexes
+ * @param indexes maps JFLAP state to its index
+ * @param symbolIndex maps character code to symbol index, -1 for characters outside of the alphabet
+ * @param table transition table indexed with state and symbol, [DEAD] if there is no transition
+ * @param finals indexes of final states
+ * @param initial index of initial state
+ */
+class CompiledDFA private constructor(
+    private val states: Array<State>,
+    private val indexes: Map<State, Int>,
+    private val symbolIndex: IntArray,
+    private val table: Array<IntArray>,
+    private val finals: BitSet,
+    val initial: Int
+) {
+
+    companion object {
+        /**
+         * Index of the implicit trap state
+         */
+        const val DEAD = -1
+
+        /**
+         * Lowers [automaton] to [CompiledDFA]
+         *
+         * @param automaton automaton to compile
+         * @return compiled automaton or null if [automaton] has no initial state, is nondeterministic
+         * or any of its transitions does not read exactly one character
+         */
+        fun compile(automaton: FiniteStateAutomaton): CompiledDFA? {
+            if (automaton.initialState == null) return null
+            val transitions = automaton.transitions
+            if (transitions.any { (it as FSATransition).label.length != 1 }) return null
+
+            val states = automaton.getStates()
+            val indexes = HashMap<State, Int>(states.size * 2)
+            states.forEachIndexed { i, state -> indexes[state] = i }
+
+            var maxChar = 0
+            transitions.forEach { maxChar = maxOf(maxChar, (it as FSATransition).label[0].toInt()) }
+            val symbolIndex = IntArray(maxChar + 1) { DEAD }
+            var symbols = 0
+            transitions.forEach {
+                val c = (it as FSATransition).label[0].toInt()
+                if (symbolIndex[c] == DEAD) symbolIndex[c] = symbols++
+            }
+
+            val table = Array(states.size) { IntArray(symbols) { DEAD } }
+            transitions.forEach {
+                val from = indexes[it.fromState]!!
+                val symbol = symbolIndex[(it as FSATransition).label[0].toInt()]
+                if (table[from][symbol] != DEAD) return null
+                table[from][symbol] = indexes[it.toState]!!
+            }
+
+            val finals = BitSet(states.size)
+            automaton.finalStates.forEach { finals.set(indexes[it]!!) }
+
+            return CompiledDFA(states, indexes, symbolIndex, table, finals, indexes[automaton.initialState]!!)
+        }
+    }
+
+    /**
+     * Number of states of compiled automaton
+     */
+    val size: Int
+        get() = states.size
+
+    /**
+     * Characters read by automaton, in order of symbol indexes
+     */
+    val symbols: CharArray = CharArray(table.firstOrNull()?.size ?: 0).also { symbols ->
+        symbolIndex.forEachIndexed { c, symbol -> if (symbol != DEAD) symbols[symbol] = c.toChar() }
+    }
+
+    /**
+     * Returns index of state reached from [state] after reading [c] or [DEAD] if there is no such transition
+     */
+    fun next(state: Int, c: Char): Int {
+        val code = c.toInt()
+        if (code >= symbolIndex.size) return DEAD
+        val symbol = symbolIndex[code]
+        return if (symbol == DEAD) DEAD else table[state][symbol]
+    }
+
+    /**
+     * Checks if state with given [index] is final
+     */
+    fun isFinal(index: Int) = finals[index]
+
+    /**
+     * Returns JFLAP state with given [index]
+     */
+    fun state(index: Int): State = states[index]
+
+    /**
+     * Returns index of given JFLAP [state]
+     */
+    fun indexOf(state: State): Int = indexes[state]!!
+
+    /**
+     * Checks if automaton accepts [word]
+     */
+    fun accepts(word: CharSequence): Boolean {
+        var state = initial
+        for (i in 0 until word.length) {
+            state = next(state, word[i])
+            if (state == DEAD) return false
+        }
+        return finals[state]
+    }
+}
@@ -0,0 +1,46 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.Configuration
+import jflap.automata.fsa.FSAConfiguration
+import jflap.automata.fsa.FSAStepByStateSimulator
+import jflap.automata.fsa.FiniteStateAutomaton
+
+/**
+ * Simulator of deterministic, single-character FSA backed by [CompiledDFA]. Whole word runs are done on
+ * transition table without creating any configurations
+ *
+ * @param automaton simulated automaton
+ * @param dfa [automaton] lowered to [CompiledDFA]
+ */
+class CompiledDFASimulator(automaton: FiniteStateAutomaton, val dfa: CompiledDFA) : FSAStepByStateSimulator(automaton) {
+
+    /**
+     * Simulates one step for a particular configuration by looking up the transition table
+     *
+     * @param config the configuration to simulate the one step on
+     */
+    override fun stepConfiguration(config: Configuration): ArrayList<Configuration> {
+        val list = ArrayList<Configuration>(1)
+        val configuration = config as FSAConfiguration
+        val unprocessedInput = configuration.unprocessedInput
+        if (unprocessedInput.isEmpty()) return list
+
+        val next = dfa.next(dfa.indexOf(configuration.currentState), unprocessedInput[0])
+        if (next != CompiledDFA.DEAD) list.add(
+            FSAConfiguration(dfa.state(next), configuration, configuration.input, unprocessedInput.substring(1))
+        )
+
+        return list
+    }
+
+    /**
+     * Runs the automaton on the read string using the transition table only
+     *
+     * @param input the read string to be run on the automaton
+     * @return true if the automaton accepts the read
+     */
+    override fun simulateInput(input: String): Boolean {
+        myConfigurations.clear()
+        return dfa.accepts(input)
+    }
+}
@@ -0,0 +1,198 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.State
+import jflap.automata.fsa.FSATransition
+import jflap.automata.fsa.FiniteStateAutomaton
+import java.util.*
+
+/**
+ * Bit-parallel representation of any [FiniteStateAutomaton]. Set of active states is kept as [LongArray]
+ * and one input symbol is consumed with word-wide OR of precomputed masks.
+ *
+ * Multi-character transitions are split into chains of internal states and lambda closures of all states
+ * are taken once, at compile time, so [accepts] allocates only two masks per word.
+ *
+ * @param size number of states, including internal ones
+ * @param symbolIndex maps character code to symbol index, -1 for characters outside of the alphabet
+ * @param moves masks of states reachable from given state after reading given symbol, closure included;
+ * indexed with symbol and state, null if there is no such move
+ * @param initial closure of initial state
+ * @param finals mask of final states
+ */
+class CompiledNFA private constructor(
+    val size: Int,
+    private val symbolIndex: IntArray,
+    private val moves: Array<Array<LongArray?>>,
+    private val initial: LongArray,
+    private val finals: LongArray
+) {
+
+    companion object {
+        private const val LAMBDA = ""
+
+        /**
+         * Compiles [automaton] to its bit-parallel form
+         *
+         * @param automaton automaton to compile
+         * @return compiled automaton or null if [automaton] has no initial state
+         */
+        fun compile(automaton: FiniteStateAutomaton): CompiledNFA? {
+            if (automaton.initialState == null) return null
+
+            val states = automaton.getStates()
+            val indexes = HashMap<State, Int>(states.size * 2)
+            states.forEachIndexed { i, state -> indexes[state] = i }
+
+            // split transitions to single character edges
+            var size = states.size
+            val lambdaEdges = mutableListOf<IntArray>()
+            val edges = mutableListOf<Edge>()
+            automaton.transitions.forEach {
+                val label = (it as FSATransition).label
+                val from = indexes[it.fromState]!!
+                val to = indexes[it.toState]!!
+                when {
+                    label == LAMBDA -> lambdaEdges.add(intArrayOf(from, to))
+                    label.contains("[") -> {
+                        val start = label.indexOf("[")
+                        for (c in label[start + 1]..label[start + 3]) edges.add(Edge(from, c, to))
+                    }
+                    else -> {
+                        var current = from
+                        for (i in 0 until label.length - 1) {
+                            edges.add(Edge(current, label[i], size))
+                            current = size++
+                        }
+                        edges.add(Edge(current, label.last(), to))
+                    }
+                }
+            }
+
+            val words = wordsFor(size)
+            val closures = closures(size, words, lambdaEdges)
+
+            var maxChar = 0
+            edges.forEach { maxChar = maxOf(maxChar, it.symbol.toInt()) }
+            val symbolIndex = IntArray(maxChar + 1) { -1 }
+            var symbols = 0
+            edges.forEach { if (symbolIndex[it.symbol.toInt()] == -1) symbolIndex[it.symbol.toInt()] = symbols++ }
+
+            val moves = Array(symbols) { arrayOfNulls<LongArray>(size) }
+            edges.forEach {
+                val row = moves[symbolIndex[it.symbol.toInt()]]
+                val mask = row[it.from] ?: LongArray(words).also { mask -> row[it.from] = mask }
+                or(mask, closures[it.to])
+            }
+
+            val finals = LongArray(words)
+            automaton.finalStates.forEach { set(finals, indexes[it]!!) }
+
+            return CompiledNFA(size, symbolIndex, moves, closures[indexes[automaton.initialState]!!], finals)
+        }
+
+        /**
+         * Computes lambda closure of every state as a mask
+         */
+        private fun closures(size: Int, words: Int, lambdaEdges: List<IntArray>): Array<LongArray> {
+            val adjacency = Array(size) { mutableListOf<Int>() }
+            lambdaEdges.forEach { adjacency[it[0]].add(it[1]) }
+
+            val queue = IntArray(size)
+            return Array(size) { state ->
+                val closure = LongArray(words)
+                set(closure, state)
+                var head = 0
+                var tail = 0
+                queue[tail++] = state
+                while (head < tail) adjacency[queue[head++]].forEach {
+                    if (!isSet(closure, it)) {
+                        set(closure, it)
+                        queue[tail++] = it
+                    }
+                }
+                closure
+            }
+        }
+
+        private fun wordsFor(size: Int) = (size + 63) ushr 6
+
+        private fun set(mask: LongArray, i: Int) {
+            mask[i ushr 6] = mask[i ushr 6] or (1L shl i)
+        }
+
+        private fun isSet(mask: LongArray, i: Int) = mask[i ushr 6] and (1L shl i) != 0L
+
+        private fun or(target: LongArray, source: LongArray) {
+            for (i in target.indices) target[i] = target[i] or source[i]
+        }
+    }
+
+    /**
+     * Single character edge of compiled automaton
+     */
+    private class Edge(val from: Int, val symbol: Char, val to: Int)
+
+    /**
+     * Characters read by automaton, in order of symbol indexes
+     */
+    val symbols: CharArray = CharArray(moves.size).also { symbols ->
+        symbolIndex.forEachIndexed { c, symbol -> if (symbol != -1) symbols[symbol] = c.toChar() }
+    }
+
+    /**
+     * Returns new mask with closure of initial state
+     */
+    fun initialStates(): LongArray = initial.copyOf()
+
+    /**
+     * Computes states reachable from [current] after reading [c] and stores them in [next]
+     *
+     * @return false if no state is reachable
+     */
+    fun move(current: LongArray, c: Char, next: LongArray): Boolean {
+        Arrays.fill(next, 0L)
+        val code = c.toInt()
+        val symbol = if (code < symbolIndex.size) symbolIndex[code] else -1
+        if (symbol == -1) return false
+
+        val row = moves[symbol]
+        var any = false
+        for (w in current.indices) {
+            var bits = current[w]
+            while (bits != 0L) {
+                val mask = row[(w shl 6) + java.lang.Long.numberOfTrailingZeros(bits)]
+                bits = bits and (bits - 1)
+                if (mask != null) {
+                    for (j in next.indices) next[j] = next[j] or mask[j]
+                    any = true
+                }
+            }
+        }
+        return any
+    }
+
+    /**
+     * Checks if any of [states] is final
+     */
+    fun isAccepting(states: LongArray): Boolean {
+        for (w in states.indices) if (states[w] and finals[w] != 0L) return true
+        return false
+    }
+
+    /**
+     * Checks if automaton accepts [word]
+     */
+    fun accepts(word: CharSequence): Boolean {
+        var current = initialStates()
+        var next = LongArray(current.size)
+
+        for (i in 0 until word.length) {
+            if (!move(current, word[i], next)) return false
+            val swap = current
+            current = next
+            next = swap
+        }
+
+        return isAccepting(current)
+    }
+}
@@ -0,0 +1,26 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.fsa.FSAStepWithClosureSimulator
+import jflap.automata.fsa.FiniteStateAutomaton
+
+/**
+ * Simulator of nondeterministic FSA backed by [CompiledNFA]. Stepping of single configurations is left to
+ * [FSAStepWithClosureSimulator], while whole word runs are done on bit masks of active states
+ *
+ * @param automaton simulated automaton
+ * @param nfa [automaton] compiled to [CompiledNFA]
+ */
+class CompiledNFASimulator(automaton: FiniteStateAutomaton, val nfa: CompiledNFA) :
+    FSAStepWithClosureSimulator(automaton) {
+
+    /**
+     * Runs the automaton on the read string using bit-parallel simulation
+     *
+     * @param input the read string to be run on the automaton
+     * @return true if the automaton accepts the read
+     */
+    override fun simulateInput(input: String): Boolean {
+        myConfigurations.clear()
+        return nfa.accepts(input)
+    }
+}
@@ -0,0 +1,219 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.fsa.FiniteStateAutomaton
+import java.util.*
+
+/**
+ * Checks equivalence of two FSAs with Hopcroft-Karp union-find algorithm. Product of both automatons
+ * is explored breadth-first on the fly, nondeterministic automatons are determinized lazily, and
+ * the search stops at the first pair of states that disagree on acceptance.
+ *
+ * Breadth-first order guarantees that the returned counterexample is one of the shortest words
+ * accepted by exactly one of the automatons.
+ */
+object FSAEquivalenceChecker {
+
+    /**
+     * Checks if [a1] and [a2] accept the same language
+     *
+     * @return null if automatons are equivalent, otherwise the shortest word accepted by only one of them
+     */
+    fun counterexample(a1: FiniteStateAutomaton, a2: FiniteStateAutomaton): String? {
+        val d1 = DeterministicView.of(a1)
+        val d2 = DeterministicView.of(a2)
+        val symbols = (d1.symbols + d2.symbols).toSortedSet().toCharArray()
+
+        val classes = UnionFind()
+        val firsts = IntList()
+        val seconds = IntList()
+        val parents = IntList()
+        val read = CharList()
+
+        fun visit(p: Int, q: Int, parent: Int, c: Char): Boolean {
+            if (!classes.union(classes.node(0, p), classes.node(1, q))) return false
+            firsts.add(p)
+            seconds.add(q)
+            parents.add(parent)
+            read.add(c)
+            return d1.isFinal(p) != d2.isFinal(q)
+        }
+
+        if (visit(d1.initial, d2.initial, -1, ' ')) return ""
+        var head = 0
+        while (head < firsts.size) {
+            val p = firsts[head]
+            val q = seconds[head]
+            for (c in symbols) {
+                if (visit(d1.next(p, c), d2.next(q, c), head, c)) {
+                    val word = StringBuilder()
+                    var pair = firsts.size - 1
+                    while (parents[pair] != -1) {
+                        word.append(read[pair])
+                        pair = parents[pair]
+                    }
+                    return word.reverse().toString()
+                }
+            }
+            head++
+        }
+
+        return null
+    }
+
+    /**
+     * Checks if [a1] and [a2] accept the same language
+     */
+    fun equivalent(a1: FiniteStateAutomaton, a2: FiniteStateAutomaton): Boolean = counterexample(a1, a2) == null
+
+    /**
+     * Deterministic view of FSA with states numbered from 0 and [DEAD] for the implicit trap state
+     */
+    private abstract class DeterministicView {
+        abstract val initial: Int
+        abstract val symbols: CharArray
+        abstract fun next(state: Int, c: Char): Int
+        abstract fun isFinal(state: Int): Boolean
+
+        companion object {
+            const val DEAD = -1
+
+            fun of(automaton: FiniteStateAutomaton): DeterministicView {
+                val dfa = CompiledDFA.compile(automaton)
+                if (dfa != null) return DFAView(dfa)
+                val nfa = CompiledNFA.compile(automaton)
+                return if (nfa != null) LazyDFAView(nfa) else EmptyView
+            }
+        }
+    }
+
+    /**
+     * View of automaton which is already deterministic
+     */
+    private class DFAView(private val dfa: CompiledDFA) : DeterministicView() {
+        override val initial = dfa.initial
+        override val symbols = dfa.symbols
+        override fun next(state: Int, c: Char) = if (state == DEAD) DEAD else dfa.next(state, c)
+        override fun isFinal(state: Int) = state != DEAD && dfa.isFinal(state)
+    }
+
+    /**
+     * View of nondeterministic automaton, determinized on demand. Every reached set of states
+     * gets its own number
+     */
+    private class LazyDFAView(private val nfa: CompiledNFA) : DeterministicView() {
+        private val numbers = HashMap<Key, Int>()
+        private val sets = mutableListOf<LongArray>()
+        private val accepting = mutableListOf<Boolean>()
+        private val transitions = HashMap<Long, Int>()
+        override val initial = number(nfa.initialStates())
+        override val symbols = nfa.symbols
+
+        override fun next(state: Int, c: Char): Int {
+            if (state == DEAD) return DEAD
+            val key = (state.toLong() shl 16) or c.toLong()
+            return transitions.getOrPut(key) {
+                val next = LongArray(sets[state].size)
+                if (nfa.move(sets[state], c, next)) number(next) else DEAD
+            }
+        }
+
+        override fun isFinal(state: Int) = state != DEAD && accepting[state]
+
+        private fun number(set: LongArray): Int = numbers.getOrPut(Key(set)) {
+            sets.add(set)
+            accepting.add(nfa.isAccepting(set))
+            sets.size - 1
+        }
+
+        private class Key(val set: LongArray) {
+            private val hash = set.contentHashCode()
+            override fun hashCode() = hash
+            override fun equals(other: Any?) = other is Key && set.contentEquals(other.set)
+        }
+    }
+
+    /**
+     * View of automaton without initial state, which accepts nothing
+     */
+    private object EmptyView : DeterministicView() {
+        override val initial = DEAD
+        override val symbols = CharArray(0)
+        override fun next(state: Int, c: Char) = DEAD
+        override fun isFinal(state: Int) = false
+    }
+
+    /**
+     * Union-find over states of both automatons, with path halving and union by size
+     */
+    private class UnionFind {
+        private val nodes = arrayOf(HashMap<Int, Int>(), HashMap<Int, Int>())
+        private var parent = IntArray(16)
+        private var rank = IntArray(16)
+        private var size = 0
+
+        fun node(side: Int, state: Int): Int = nodes[side].getOrPut(state) {
+            if (size == parent.size) {
+                parent = parent.copyOf(size * 2)
+                rank = rank.copyOf(size * 2)
+            }
+            parent[size] = size
+            rank[size] = 1
+            size++
+        }
+
+        private fun find(x: Int): Int {
+            var node = x
+            while (parent[node] != node) {
+                parent[node] = parent[parent[node]]
+                node = parent[node]
+            }
+            return node
+        }
+
+        /**
+         * Merges classes of [x] and [y]
+         *
+         * @return false if they were already in the same class
+         */
+        fun union(x: Int, y: Int): Boolean {
+            var a = find(x)
+            var b = find(y)
+            if (a == b) return false
+            if (rank[a] < rank[b]) a = b.also { b = a }
+            parent[b] = a
+            rank[a] += rank[b]
+            return true
+        }
+    }
+
+    /**
+     * Growable list of primitive ints
+     */
+    private class IntList {
+        private var values = IntArray(16)
+        var size = 0
+            private set
+
+        fun add(value: Int) {
+            if (size == values.size) values = values.copyOf(size * 2)
+            values[size++] = value
+        }
+
+        operator fun get(index: Int) = values[index]
+    }
+
+    /**
+     * Growable list of primitive chars
+     */
+    private class CharList {
+        private var values = CharArray(16)
+        private var size = 0
+
+        fun add(value: Char) {
+            if (size == values.size) values = values.copyOf(size * 2)
+            values[size++] = value
+        }
+
+        operator fun get(index: Int) = values[index]
+    }
+}
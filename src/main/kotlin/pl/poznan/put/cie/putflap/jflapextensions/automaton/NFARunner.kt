@@ -0,0 +1,166 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.ClosureTaker
+import jflap.automata.State
+import jflap.automata.fsa.FSATransition
+import jflap.automata.fsa.FiniteStateAutomaton
+import pl.poznan.put.cie.putflap.report.RunReport
+import pl.poznan.put.cie.putflap.report.structure.automaton.StepReport
+import java.util.*
+
+/**
+ * Runs nondeterministic FSAs without any [RunLimits]. Sets of active states are finite, so every run
+ * is [Verdict.ACCEPT] or [Verdict.REJECT], never [Verdict.UNDECIDED].
+ *
+ * Without recorded steps the word is run on [CompiledNFA] in time linear in its length. Otherwise the witness
+ * path is found with breadth-first search over pairs of state and input position, of which there are at most
+ * number of states times length of the word. Like in JFLAP, lambda transitions are not steps of their own,
+ * every step reads a label and ends in any state of lambda closure of its target.
+ */
+object NFARunner {
+
+    /**
+     * Runs [automaton] compiled to [nfa] for [input]
+     *
+     * @param automaton automaton to run
+     * @param nfa [automaton] compiled to [CompiledNFA]
+     * @param input word to run automaton on
+     * @param trace level of detail of recorded steps
+     */
+    fun run(automaton: FiniteStateAutomaton, nfa: CompiledNFA, input: String, trace: TraceLevel): RunReport {
+        val type = AutomatonType.get(automaton)
+        if (trace == TraceLevel.NONE) {
+            var current = nfa.initialStates()
+            var next = LongArray(current.size)
+            var read = 0
+            while (read < input.length && nfa.move(current, input[read], next)) {
+                val swap = current
+                current = next
+                next = swap
+                read++
+            }
+            val accepted = read == input.length && nfa.isAccepting(current)
+            return RunReport(type, input, accepted, read + 1).copy(verdict = verdict(accepted))
+        }
+
+        val search = Search(automaton, input)
+        val last = search.run()
+        val steps = if (trace == TraceLevel.FINAL) arrayOf(search.step(last)) else search.path(last)
+        return RunReport(type, input, search.accepted, steps).copy(verdict = verdict(search.accepted))
+    }
+
+    private fun verdict(accepted: Boolean) = if (accepted) Verdict.ACCEPT else Verdict.REJECT
+
+    /**
+     * Breadth-first search for accepting pair of state and input position. Pairs are coded as
+     * `state * (input.length + 1) + position` and every visited pair keeps the pair it was reached from
+     */
+    private class Search(private val automaton: FiniteStateAutomaton, private val input: String) {
+        private val states = automaton.getStates()
+        private val indexes = HashMap<State, Int>(states.size * 2).also { indexes ->
+            states.forEachIndexed { i, state -> indexes[state] = i }
+        }
+        private val closures = arrayOfNulls<IntArray>(states.size)
+        private val positions = input.length + 1
+        private val parents = HashMap<Long, Long>()
+        private val queue = ArrayDeque<Long>()
+
+        var accepted = false
+            private set
+
+        /**
+         * Runs the search
+         *
+         * @return the first accepting pair, or the last explored one if there is none
+         */
+        fun run(): Long {
+            closure(indexes[automaton.initialState]!!).forEach { visit(node(it, 0), NONE) }
+
+            var last = NONE
+            while (queue.isNotEmpty()) {
+                val node = queue.poll()
+                last = node
+                val state = states[stateOf(node)]
+                val position = positionOf(node)
+                if (position == input.length && automaton.isFinalState(state)) {
+                    accepted = true
+                    break
+                }
+
+                automaton.getTransitionsFromState(state).forEach {
+                    val read = read((it as FSATransition).label, position)
+                    if (read > 0) closure(indexes[it.toState]!!).forEach { to ->
+                        visit(node(to, position + read), node)
+                    }
+                }
+            }
+            return last
+        }
+
+        /**
+         * Returns number of characters read by transition with [label] at [position], 0 if it can not be taken
+         */
+        private fun read(label: String, position: Int): Int = when {
+            label.isEmpty() || position == input.length -> 0
+            label.contains("[") -> {
+                val start = label.indexOf("[")
+                if (input[position] in label[start + 1]..label[start + 3]) 1 else 0
+            }
+            input.startsWith(label, position) -> label.length
+            else -> 0
+        }
+
+        private fun visit(node: Long, parent: Long) {
+            if (parents.containsKey(node)) return
+            parents[node] = parent
+            queue.add(node)
+        }
+
+        private fun closure(state: Int): IntArray = closures[state]
+            ?: ClosureTaker.getClosure(states[state], automaton).map { indexes[it]!! }.toIntArray()
+                .also { closures[state] = it }
+
+        /**
+         * Returns steps leading to [last] pair
+         */
+        fun path(last: Long): Array<StepReport> {
+            val nodes = mutableListOf<Long>()
+            var current = last
+            while (current != NONE) {
+                nodes.add(current)
+                current = parents[current]!!
+            }
+            nodes.reverse()
+            return Array(nodes.size) { step(nodes[it]) }
+        }
+
+        /**
+         * Returns step ending in [node] pair
+         */
+        fun step(node: Long): StepReport {
+            val state = states[stateOf(node)]
+            val position = positionOf(node)
+            val parent = parents[node]!!
+            return when {
+                parent != NONE -> StepReport(
+                    state.id, input.substring(positionOf(parent), position), input.substring(position)
+                )
+                state == automaton.initialState -> StepReport.initial(automaton, input)
+                else -> StepReport(state.id, "", input)
+            }
+        }
+
+        private fun node(state: Int, position: Int) = state.toLong() * positions + position
+
+        private fun stateOf(node: Long) = (node / positions).toInt()
+
+        private fun positionOf(node: Long) = (node % positions).toInt()
+
+        companion object {
+            /**
+             * Parent of pairs in lambda closure of initial state
+             */
+            private const val NONE = -1L
+        }
+    }
+}
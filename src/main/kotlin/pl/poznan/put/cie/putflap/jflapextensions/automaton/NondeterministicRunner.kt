@@ -0,0 +1,171 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.Automaton
+import jflap.automata.AutomatonSimulator
+import jflap.automata.Configuration
+import jflap.automata.State
+import jflap.automata.fsa.FSAConfiguration
+import jflap.automata.mealy.MealyConfiguration
+import jflap.automata.pda.PDAConfiguration
+import jflap.automata.turing.TMConfiguration
+import pl.poznan.put.cie.putflap.report.ErrorReport
+import pl.poznan.put.cie.putflap.report.RunReport
+import pl.poznan.put.cie.putflap.report.structure.automaton.StepReport
+import java.util.*
+
+/**
+ * Runs nondeterministic automatons and PDAs which may diverge with breadth-first search over their configurations.
+ *
+ * Configurations are deduplicated by state, unprocessed input and stack or output, regardless of the path
+ * they were reached with, so lambda cycles are visited once. Search stops at the first accepting configuration,
+ * whose ancestors form the witness path. Number of visited configurations and running time are bounded
+ * by [RunLimits], so lambda transitions pushing onto the stack can not make the search diverge; depth of search
+ * and height of PDA stack are bounded only if their limits are given.
+ * Every report carries [Verdict] of the search with numbers of explored and pruned configurations; run which hits
+ * a limit before acceptance is [Verdict.UNDECIDED] and ends with [ErrorReport.Companion.Error.LIMIT_EXCEEDED].
+ */
+object NondeterministicRunner {
+
+    /**
+     * Runs [automaton] for [input]
+     *
+     * @param automaton automaton to run
+     * @param simulator simulator of [automaton] used to step configurations
+     * @param input word to run automaton on
+     * @param trace level of detail of recorded steps
+     * @param limits limits of search
+     */
+    fun run(
+        automaton: Automaton,
+        simulator: AutomatonSimulator,
+        input: String,
+        trace: TraceLevel,
+        limits: RunLimits
+    ): RunReport {
+        val visited = HashSet<Key>()
+        val queue = ArrayDeque<Node>()
+        simulator.getInitialConfigurations(input).forEach {
+            if (visited.add(Key.of(it))) queue.add(Node(it, 0))
+        }
+
+        val clock = limits.startClock()
+        var explored = 0
+        var pruned = 0
+        var limited = false
+        var last: Configuration? = null
+        var accepted = false
+
+        search@ while (queue.isNotEmpty()) {
+            if (clock.tick()) {
+                limited = true
+                break
+            }
+            val node = queue.poll()
+            explored++
+            last = node.configuration
+            if (node.configuration.isAccept) {
+                accepted = true
+                break
+            }
+
+            val successors = simulator.stepConfiguration(node.configuration)
+            if (node.depth == limits.maxDepth && limits.maxDepth != RunLimits.NO_LIMIT) {
+                pruned += successors.size
+                limited = limited || successors.isNotEmpty()
+                continue
+            }
+
+            for (next in successors) {
+                if (next is PDAConfiguration && limits.maxStackHeight != RunLimits.NO_LIMIT &&
+                    next.stack.height() > limits.maxStackHeight
+                ) {
+                    pruned++
+                    limited = true
+                    continue
+                }
+                val key = Key.of(next)
+                if (key in visited) {
+                    pruned++
+                    continue
+                }
+                if (visited.size == limits.maxConfigurations) {
+                    limited = true
+                    break@search
+                }
+                visited.add(key)
+                queue.add(Node(next, node.depth + 1))
+            }
+        }
+
+        val type = AutomatonType.get(automaton)
+        val verdict = when {
+            accepted -> Verdict.ACCEPT
+            limited -> Verdict.UNDECIDED
+            else -> Verdict.REJECT
+        }
+        val report = when {
+            verdict == Verdict.UNDECIDED -> RunReport(
+                type, input, ErrorReport.generate(ErrorReport.Companion.Error.LIMIT_EXCEEDED)
+            )
+            trace == TraceLevel.NONE -> RunReport(type, input, accepted, explored)
+            trace == TraceLevel.FINAL -> RunReport(type, input, accepted, arrayOf(step(automaton, input, last)))
+            else -> RunReport(type, input, accepted, path(automaton, input, last))
+        }
+        return report.copy(verdict = verdict, explored = explored, pruned = pruned)
+    }
+
+    /**
+     * Returns steps leading to [configuration], which is the accepting one or the last one explored
+     */
+    private fun path(automaton: Automaton, input: String, configuration: Configuration?): Array<StepReport> {
+        val configurations = mutableListOf<Configuration>()
+        var current = configuration
+        while (current != null) {
+            configurations.add(current)
+            current = current.parent
+        }
+        if (configurations.isEmpty()) return arrayOf(StepReport.initial(automaton, input))
+
+        configurations.reverse()
+        return Array(configurations.size) { step(automaton, input, configurations[it]) }
+    }
+
+    private fun step(automaton: Automaton, input: String, configuration: Configuration?): StepReport = when {
+        configuration == null || configuration.parent == null && configuration.currentState == automaton.initialState ->
+            StepReport.initial(automaton, input)
+        configuration.parent == null -> StepReport(configuration.currentState.id, "", input)
+        else -> StepReport.generate(configuration)
+    }
+
+    /**
+     * Configuration waiting in search queue with its distance from initial configuration
+     */
+    private class Node(val configuration: Configuration, val depth: Int)
+
+    /**
+     * Identity of configuration, independent of the path it was reached with
+     *
+     * @param state current state
+     * @param remaining length of unprocessed input, which is always suffix of the same word
+     * @param contents stack of PDA, output of Mealy machine or tapes of Turing machine
+     */
+    private data class Key(val state: State, val remaining: Int, val contents: Any?) {
+        companion object {
+            fun of(configuration: Configuration): Key = when (configuration) {
+                is FSAConfiguration -> Key(configuration.currentState, configuration.unprocessedInput.length, null)
+                is PDAConfiguration -> Key(
+                    configuration.currentState,
+                    configuration.unprocessedInput.length,
+                    configuration.stack
+                )
+                is MealyConfiguration -> Key(
+                    configuration.currentState,
+                    configuration.unprocessedInput.length,
+                    configuration.output
+                )
+                is TMConfiguration -> Key(configuration.currentState, 0, configuration.tapes.toList())
+                else -> Key(configuration.currentState, 0, configuration)
+            }
+        }
+    }
+}
@@ -66,10 +66,10 @@ class PDAStepByStepSimulatorCustom(val automaton: PushdownAutomaton, val accepta
             val stringToPop = transition.stringToPop
             val tempStack = configuration.stack
 
-            /** copy stack object so as to not alter original.  */
-            val stack = CharacterStack(tempStack)
-            val stackContents = stack.pop(stringToPop.length)
-            if (unprocessedInput.startsWith(inputToRead) && stringToPop == stackContents) {
+            if (unprocessedInput.startsWith(inputToRead) && tempStack.startsWith(stringToPop)) {
+                /** copy stack object so as to not alter original; copies share all untouched characters.  */
+                val stack = CharacterStack(tempStack)
+                stack.pop(stringToPop.length)
                 var input = ""
                 if (inputToRead.length < unprocessedInput.length) {
                     input = unprocessedInput.substring(inputToRead.length)
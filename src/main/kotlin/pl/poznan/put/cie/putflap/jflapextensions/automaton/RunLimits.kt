@@ -0,0 +1,55 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+/**
+ * Limits of single run, which keep its memory use and running time bounded
+ *
+ * @param maxConfigurations maximal number of distinct configurations visited by nondeterministic run
+ * @param maxDepth maximal number of steps of nondeterministic run from initial configuration,
+ * [NO_LIMIT] if the depth is not limited
+ * @param maxStackHeight maximal height of PDA stack, [NO_LIMIT] if the height is not limited;
+ * configurations with higher stacks are pruned
+ * @param maxSteps maximal number of steps of deterministic Turing machine, [NO_LIMIT] if the steps are not limited
+ * @param timeLimit maximal time of single run in milliseconds, [NO_TIME_LIMIT] if the time is not limited
+ */
+data class RunLimits @JvmOverloads constructor(
+    val maxConfigurations: Int = DEFAULT_MAX_CONFIGURATIONS,
+    val maxDepth: Int = DEFAULT_MAX_DEPTH,
+    val maxStackHeight: Int = DEFAULT_MAX_STACK_HEIGHT,
+    val maxSteps: Int = DEFAULT_MAX_STEPS,
+    val timeLimit: Long = NO_TIME_LIMIT
+) {
+    companion object {
+        const val DEFAULT_MAX_CONFIGURATIONS = 100_000
+        const val NO_LIMIT = 0
+        const val DEFAULT_MAX_DEPTH = NO_LIMIT
+        const val DEFAULT_MAX_STACK_HEIGHT = NO_LIMIT
+        const val DEFAULT_MAX_STEPS = 1_000_000
+        const val NO_TIME_LIMIT = 0L
+
+        /**
+         * Number of steps between checks of the clock
+         */
+        private const val CLOCK_CHECK_INTERVAL = 1024
+    }
+
+    /**
+     * Starts the clock of a run limited by [timeLimit]
+     */
+    fun startClock() = Clock(if (timeLimit == NO_TIME_LIMIT) Long.MAX_VALUE else System.nanoTime() + timeLimit * 1_000_000)
+
+    /**
+     * Clock of a single run, checking time only once in [CLOCK_CHECK_INTERVAL] steps
+     *
+     * @param deadline value of [System.nanoTime] after which the run is out of time
+     */
+    class Clock internal constructor(private val deadline: Long) {
+        private var steps = 0
+
+        /**
+         * Counts one step of the run
+         *
+         * @return true if time of the run is up
+         */
+        fun tick(): Boolean = ++steps % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() > deadline
+    }
+}
@@ -17,7 +17,8 @@ import jflap.automata.turing.TuringMachine
  */
 object SimulatorFactoryCustom {
     /**
-     * Returns the automaton simulator for this type of automaton.
+     * Returns the automaton simulator for this type of automaton. Deterministic, single-character FSAs
+     * get [CompiledDFASimulator], other FSAs get bit-parallel [CompiledNFASimulator].
      *
      * @param automaton
      * the automaton to get the simulator for
@@ -27,7 +28,13 @@ object SimulatorFactoryCustom {
      */
     fun getSimulator(automaton: Automaton): AutomatonSimulator? {
         when (automaton) {
-            is FiniteStateAutomaton -> return FSAStepWithClosureSimulator(automaton)
+            is FiniteStateAutomaton -> {
+                val dfa = CompiledDFA.compile(automaton)
+                if (dfa != null) return CompiledDFASimulator(automaton, dfa)
+                val nfa = CompiledNFA.compile(automaton)
+                return if (nfa != null) CompiledNFASimulator(automaton, nfa)
+                else FSAStepWithClosureSimulator(automaton)
+            }
             is PushdownAutomaton -> return PDAStepByStepSimulatorCustom(
                 automaton,
                 PDAStepByStepSimulatorCustom.FINAL_STATE_ACCEPTANCE
@@ -38,7 +45,7 @@ object SimulatorFactoryCustom {
                 return if (nd.isNotEmpty()) {
                     jflap.automata.turing.NDTMSimulator(automaton)
                 } else {
-                    jflap.automata.turing.TMSimulator(automaton)
+                    jflap.automata.turing.TMSimulator(automaton, false)
                 }
             }
             is MooreMachine -> return MooreStepByStateSimulator(automaton)
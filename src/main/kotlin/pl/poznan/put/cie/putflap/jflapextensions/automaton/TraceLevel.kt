@@ -0,0 +1,21 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+/**
+ * Stores levels of detail of steps recorded during automaton runs
+ */
+enum class TraceLevel {
+    /**
+     * Only verdict and number of steps
+     */
+    NONE,
+
+    /**
+     * Verdict and the last step
+     */
+    FINAL,
+
+    /**
+     * Verdict and all steps
+     */
+    FULL
+}
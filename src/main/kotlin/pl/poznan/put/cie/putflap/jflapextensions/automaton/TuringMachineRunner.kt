@@ -0,0 +1,110 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.turing.TMConfiguration
+import jflap.automata.turing.TMSimulator
+import jflap.automata.turing.TuringMachine
+import pl.poznan.put.cie.putflap.report.ErrorReport
+import pl.poznan.put.cie.putflap.report.RunReport
+import pl.poznan.put.cie.putflap.report.structure.automaton.StepReport
+
+/**
+ * Runs deterministic single-tape, multi-tape and building block Turing machines without GUI.
+ *
+ * Every word is run on its own simulator, so words can be run concurrently. Run stops when machine accepts
+ * or halts, or after [RunLimits.maxSteps] steps or [RunLimits.timeLimit] milliseconds, in which case
+ * it is [Verdict.UNDECIDED] and ends with [ErrorReport.Companion.Error.LIMIT_EXCEEDED]. Building block without
+ * initial state ends run with [ErrorReport.Companion.Error.NO_INITIAL_STATE] and variable on the left side
+ * of assignment with [ErrorReport.Companion.Error.ILLEGAL_VARIABLE]. Report holds the halting state, output
+ * of the first tape and number of steps.
+ */
+object TuringMachineRunner {
+
+    /**
+     * Snapshot interval which records every step
+     */
+    const val EVERY_STEP = 0
+
+    /**
+     * Runs [machine] for [input]
+     *
+     * @param machine machine to run
+     * @param input word written on every tape
+     * @param trace level of detail of recorded steps
+     * @param limits limits of the run
+     * @param snapshotInterval number of steps between recorded snapshots of tapes if [trace] is [TraceLevel.FULL],
+     * [EVERY_STEP] to record all of them; the initial and the last step are always recorded
+     */
+    @JvmOverloads
+    fun run(
+        machine: TuringMachine,
+        input: String,
+        trace: TraceLevel,
+        limits: RunLimits,
+        snapshotInterval: Int = EVERY_STEP
+    ): RunReport {
+        val simulator = TMSimulator(machine, false)
+        var configuration = simulator.getInitialConfigurations(input)[0] as TMConfiguration
+        val steps = if (trace == TraceLevel.FULL) mutableListOf(StepReport.initial(machine, input)) else null
+        val clock = limits.startClock()
+
+        var stepCount = 0
+        var recorded = 0
+        var accepted = false
+        var limited = false
+        while (true) {
+            if (configuration.isAccept) {
+                accepted = true
+                break
+            }
+            if ((limits.maxSteps != RunLimits.NO_LIMIT && stepCount == limits.maxSteps) || clock.tick()) {
+                limited = true
+                break
+            }
+
+            val next = simulator.stepConfiguration(configuration)
+            if (next.isEmpty()) break
+            val nextConfiguration = next[0] as TMConfiguration
+            // halted configuration is returned once more to let acceptance by halting see it
+            if (nextConfiguration === configuration) continue
+
+            configuration = nextConfiguration
+            stepCount++
+            if (steps != null && (snapshotInterval == EVERY_STEP || stepCount % snapshotInterval == 0)) {
+                steps.add(StepReport(configuration))
+                recorded = stepCount
+            }
+        }
+        if (steps != null && recorded != stepCount) steps.add(StepReport(configuration))
+
+        val type = AutomatonType.get(machine)
+        if (limited) return RunReport(
+            type, input, ErrorReport.generate(ErrorReport.Companion.Error.LIMIT_EXCEEDED), steps?.toTypedArray()
+        ).copy(stepCount = stepCount, verdict = Verdict.UNDECIDED)
+
+        val error = when (simulator.error) {
+            TMSimulator.MISSING_INITIAL_STATE -> ErrorReport.Companion.Error.NO_INITIAL_STATE
+            TMSimulator.ILLEGAL_VARIABLE -> ErrorReport.Companion.Error.ILLEGAL_VARIABLE
+            else -> null
+        }
+        if (error != null) return RunReport(
+            type, input, ErrorReport.generate(error), steps?.toTypedArray()
+        ).copy(stepCount = stepCount)
+
+        return RunReport(
+            type,
+            input,
+            true,
+            accepted,
+            when (trace) {
+                TraceLevel.NONE -> null
+                TraceLevel.FINAL -> arrayOf(StepReport(configuration))
+                TraceLevel.FULL -> steps!!.toTypedArray()
+            },
+            configuration.tapes[0].output,
+            error = null,
+            stepCount = stepCount,
+            verdict = if (accepted) Verdict.ACCEPT else Verdict.REJECT,
+            haltState = configuration.currentState.id
+        )
+    }
+}
@@ -0,0 +1,21 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+/**
+ * Stores possible outcomes of bounded search for accepting configuration
+ */
+enum class Verdict {
+    /**
+     * Accepting configuration was found
+     */
+    ACCEPT,
+
+    /**
+     * All reachable configurations were explored and none of them accepts
+     */
+    REJECT,
+
+    /**
+     * Search hit one of [RunLimits] before finding accepting configuration
+     */
+    UNDECIDED
+}
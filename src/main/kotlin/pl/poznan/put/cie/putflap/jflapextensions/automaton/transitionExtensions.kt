@@ -4,6 +4,12 @@ import jflap.automata.Transition
 import jflap.automata.fsa.FSATransition
 import jflap.automata.mealy.MealyTransition
 import jflap.automata.pda.PDATransition
+import jflap.automata.turing.TMTransition
+
+/**
+ * Separates values of consecutive tapes of multi-tape Turing machine transitions
+ */
+const val TAPE_SEPARATOR = "|"
 
 /**
  * Universal method for retrieving transitions read value
@@ -13,6 +19,7 @@ fun Transition.labelValue(): String {
         is FSATransition -> label
         is MealyTransition -> label
         is PDATransition -> inputToRead
+        is TMTransition -> (0 until tapes()).joinToString(TAPE_SEPARATOR) { getRead(it) }
         else -> TODO("implement labelValue() for all automatons")
     }
 }
@@ -0,0 +1,88 @@
+package pl.poznan.put.cie.putflap.jflapextensions.grammar
+
+import jflap.grammar.Grammar
+import jflap.grammar.GrammarChecker
+import jflap.grammar.GrammarNormalizer
+import pl.poznan.put.cie.putflap.exception.IncompatibleAutomatonException
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
+import pl.poznan.put.cie.putflap.report.ConversionReport
+import pl.poznan.put.cie.putflap.report.ErrorReport
+import pl.poznan.put.cie.putflap.report.MultipleConversionReport
+import pl.poznan.put.cie.putflap.report.structure.grammar.GrammarReport
+
+/**
+ * Normalizes context-free grammars with [GrammarNormalizer], which keeps their languages. Reports hold
+ * numbers of productions before and after conversion. Removing lambda productions may give exponentially many
+ * productions; a grammar with a production giving more than [GrammarNormalizer.MAX_LAMBDA_VARIANTS] of them is
+ * not converted to [NormalForm.CLEAN] and its report fails with [ErrorReport.Companion.Error.LIMIT_EXCEEDED]
+ */
+object GrammarConverter {
+
+    /**
+     * Converts [grammars] to given normal [form]
+     *
+     * @param parallelism number of threads to convert grammars on
+     */
+    fun normalize(
+        grammars: Array<Grammar>,
+        form: NormalForm,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ): Pair<MultipleConversionReport, Array<Grammar>> {
+        val conversions = Parallel.array(grammars.size, parallelism) {
+            normalize(
+                grammars[it],
+                form
+            )
+        }
+        val reports = Array(conversions.size) { conversions[it].first }
+        return Pair(
+            MultipleConversionReport(
+                form.toString(),
+                reports.all { it.success },
+                reports
+            ),
+            Array(conversions.size) { conversions[it].second }
+        )
+    }
+
+    private fun normalize(grammar: Grammar, form: NormalForm): Pair<ConversionReport, Grammar> {
+        if (!GrammarChecker.isContextFreeGrammar(grammar))
+            throw IncompatibleAutomatonException("Only context-free grammars can be normalized")
+
+        val start = System.nanoTime()
+        val normalizer = GrammarNormalizer(grammar)
+        val before = normalizer.productionCount
+        when (form) {
+            NormalForm.CLEAN -> {
+                if (!normalizer.removeLambdaProductions()) return Pair(
+                    ConversionReport(
+                        "grammar",
+                        form.toString(),
+                        false,
+                        error = ErrorReport.generate(ErrorReport.Companion.Error.LIMIT_EXCEEDED),
+                        productionsBefore = before
+                    ),
+                    grammar
+                )
+                normalizer.removeUnitProductions()
+                normalizer.removeUselessProductions()
+            }
+            NormalForm.CNF -> normalizer.toChomskyNormalForm()
+            NormalForm.GNF -> normalizer.toGreibachNormalForm()
+        }
+        val result = normalizer.grammar
+        val time = (System.nanoTime() - start) / 1_000_000
+        return Pair(
+            ConversionReport(
+                "grammar",
+                form.toString(),
+                true,
+                GrammarReport(result),
+                time = time,
+                productionsBefore = before,
+                productionsAfter = normalizer.productionCount
+            ),
+            result
+        )
+    }
+}
@@ -0,0 +1,74 @@
+package pl.poznan.put.cie.putflap.jflapextensions.grammar
+
+import jflap.grammar.Grammar
+import jflap.grammar.GrammarNormalizer
+import jflap.grammar.parse.LLParseEngine
+import jflap.grammar.parse.LLParseTableGenerator
+import jflap.grammar.parse.LRParseEngine
+import jflap.grammar.parse.LRParseTableGenerator
+import jflap.grammar.parse.ParseEngine
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
+import pl.poznan.put.cie.putflap.report.MultipleParseReport
+import pl.poznan.put.cie.putflap.report.ParseReport
+
+/**
+ * Parses words with parse tables of grammars. Table is generated and compiled to [ParseEngine] once,
+ * and the same engine parses all words
+ */
+object GrammarParser {
+
+    /**
+     * Generates parse table of given [type] for [grammar] and compiles it. SLR table is generated for
+     * [grammar] without useless productions, as variables which derive no word could be reduced by their
+     * lambda productions forever, with stack growing on every reduction
+     */
+    fun compile(grammar: Grammar, type: ParserType): ParseEngine = when (type) {
+        ParserType.LL -> LLParseEngine(LLParseTableGenerator.generate(grammar), grammar)
+        ParserType.SLR -> LRParseEngine(LRParseTableGenerator.generate(withoutUselessProductions(grammar)))
+    }
+
+    private fun withoutUselessProductions(grammar: Grammar): Grammar {
+        val normalizer = GrammarNormalizer(grammar)
+        normalizer.removeUselessProductions()
+        return normalizer.grammar
+    }
+
+    /**
+     * Parses [words] with parse table of given [type] for [grammar]. If the table has conflicts,
+     * they are reported and no word is parsed
+     *
+     * @param parallelism number of threads to parse words on
+     */
+    fun parse(
+        grammar: Grammar,
+        type: ParserType,
+        words: Array<String>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ): MultipleParseReport {
+        val engine = compile(grammar, type)
+        val conflicts = engine.conflicts
+        if (conflicts.isNotEmpty()) return MultipleParseReport(type, conflicts, emptyArray())
+        return MultipleParseReport(type, conflicts, Parallel.array(words.size, parallelism) { parse(engine, words[it]) })
+    }
+
+    /**
+     * Parses words of [input] with [engine] as they come and passes reports to [action] in order of words.
+     * Only a bounded number of words is held in memory, so [input] can be of any length
+     *
+     * @param parallelism number of threads to parse words on
+     */
+    fun parse(engine: ParseEngine, input: Sequence<String>, parallelism: Int, action: (ParseReport) -> Unit) {
+        Parallel.stream(input, parallelism, { parse(engine, it) }, action)
+    }
+
+    /**
+     * Parses [word] with [engine]
+     *
+     * @return report with position of the token at which parsing failed if [word] is rejected
+     */
+    fun parse(engine: ParseEngine, word: String): ParseReport {
+        val result = engine.parse(word)
+        return if (result == ParseEngine.ACCEPTED) ParseReport(word, true)
+        else ParseReport(word, false, result)
+    }
+}
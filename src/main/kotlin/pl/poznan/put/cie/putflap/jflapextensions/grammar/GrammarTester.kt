@@ -0,0 +1,83 @@
+package pl.poznan.put.cie.putflap.jflapextensions.grammar
+
+import jflap.grammar.Grammar
+import jflap.grammar.parse.BruteSearch
+import jflap.grammar.parse.EarleyParser
+import jflap.grammar.parse.ParseNode
+import jflap.grammar.parse.Unrestricted
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.RunLimits
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.Verdict
+import pl.poznan.put.cie.putflap.report.test.MembershipReport
+import pl.poznan.put.cie.putflap.report.test.MultipleMembershipReport
+
+/**
+ * Implements tests of grammars
+ */
+object GrammarTester {
+
+    /**
+     * Checks which of [words] are derived by [grammar]. Context-free grammar is parsed as it is,
+     * without conversion to CNF, and is compiled only once for all words. Derivations in unrestricted
+     * grammar are searched for one word after another, within [limits]
+     *
+     * @param parallelism number of threads to check words on, or to search for single derivation on
+     * @param limits limits of search in unrestricted grammar, of which [RunLimits.maxConfigurations]
+     * bounds the number of visited sentential forms and [RunLimits.timeLimit] the time of search for one word
+     */
+    @JvmOverloads
+    fun checkMembership(
+        grammar: Grammar,
+        words: Array<String>,
+        parallelism: Int = Parallel.SEQUENTIAL,
+        limits: RunLimits = RunLimits()
+    ): MultipleMembershipReport {
+        if (Unrestricted.isUnrestricted(grammar))
+            return MultipleMembershipReport(Array(words.size) { search(grammar, words[it], limits, parallelism) })
+
+        val parser = EarleyParser(grammar)
+        return MultipleMembershipReport(Parallel.array(words.size, parallelism) { checkMembership(parser, words[it]) })
+    }
+
+    /**
+     * Checks if [word] is derived by grammar of [parser]
+     *
+     * @return report with the leftmost derivation of [word] if it is derived
+     */
+    fun checkMembership(parser: EarleyParser, word: String): MembershipReport {
+        val derivation = parser.parse(word).derivation ?: return MembershipReport(word, false)
+        return MembershipReport(word, true, sententialForms(derivation))
+    }
+
+    /**
+     * Searches for derivation of [word] in [grammar] with [BruteSearch], on [parallelism] threads
+     *
+     * @return report with the verdict of search, number of explored sentential forms and derivation
+     * of [word] if it was found
+     */
+    fun search(grammar: Grammar, word: String, limits: RunLimits, parallelism: Int): MembershipReport {
+        val search = BruteSearch(grammar, word)
+        val verdict = when (search.search(limits.maxConfigurations, limits.timeLimit, parallelism)) {
+            BruteSearch.ACCEPTED -> Verdict.ACCEPT
+            BruteSearch.REJECTED -> Verdict.REJECT
+            else -> Verdict.UNDECIDED
+        }
+        return MembershipReport(
+            word,
+            verdict == Verdict.ACCEPT,
+            search.answer?.let { sententialForms(it) },
+            verdict,
+            search.exploredCount
+        )
+    }
+
+    /**
+     * Returns sentential forms of derivation ending with [answer], starting with the start variable
+     */
+    private fun sententialForms(answer: ParseNode): Array<String> =
+        generateSequence(answer) { it.parent as ParseNode? }
+            .map { it.derivation }
+            .toList()
+            .asReversed()
+            .toTypedArray()
+}
@@ -0,0 +1,21 @@
+package pl.poznan.put.cie.putflap.jflapextensions.grammar
+
+/**
+ * Stores forms context-free grammars can be normalized to
+ */
+enum class NormalForm {
+    /**
+     * Grammar without useless, lambda and unit productions, except for lambda production of start variable
+     */
+    CLEAN,
+
+    /**
+     * Chomsky normal form, with two variables or one terminal on right hand side of every production
+     */
+    CNF,
+
+    /**
+     * Greibach normal form, with terminal followed by variables on right hand side of every production
+     */
+    GNF
+}
\ No newline at end of file
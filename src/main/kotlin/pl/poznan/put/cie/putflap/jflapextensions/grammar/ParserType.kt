@@ -0,0 +1,16 @@
+package pl.poznan.put.cie.putflap.jflapextensions.grammar
+
+/**
+ * Stores kinds of parse tables grammars can be parsed with
+ */
+enum class ParserType {
+    /**
+     * Predictive parsing with LL(1) table
+     */
+    LL,
+
+    /**
+     * Shift-reduce parsing with SLR(1) table built from goto graph of LR(0) items
+     */
+    SLR
+}
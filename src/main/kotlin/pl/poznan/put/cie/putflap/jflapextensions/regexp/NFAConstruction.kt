@@ -0,0 +1,16 @@
+package pl.poznan.put.cie.putflap.jflapextensions.regexp
+
+/**
+ * Stores constructions of NFA from regular expression
+ */
+enum class NFAConstruction {
+    /**
+     * Position automaton with one state per occurrence of symbol and no lambda transitions
+     */
+    GLUSHKOV,
+
+    /**
+     * Automaton with entry and exit state per subexpression, joined with lambda transitions
+     */
+    THOMPSON
+}
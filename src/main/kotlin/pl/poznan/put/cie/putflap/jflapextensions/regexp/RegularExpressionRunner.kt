@@ -0,0 +1,137 @@
+package pl.poznan.put.cie.putflap.jflapextensions.regexp
+
+import jflap.automata.fsa.FiniteStateAutomaton
+import jflap.regular.RegularExpression
+import jflap.regular.RegularExpressionParser
+import jflap.regular.RegularMatcher
+import jflap.regular.RegularNFA
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.AutomatonRunner
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.AutomatonType
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.RunLimits
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.TraceLevel
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.TuringMachineRunner
+import pl.poznan.put.cie.putflap.report.MultipleRunReport
+import pl.poznan.put.cie.putflap.report.RunReport
+import pl.poznan.put.cie.putflap.report.structure.regexp.RegExpReport
+import pl.poznan.put.cie.putflap.report.test.MembershipReport
+import pl.poznan.put.cie.putflap.report.test.MultipleMembershipReport
+
+/**
+ * Runs regular expressions without GUI. Expression is parsed and built into NFA once, and words are matched
+ * by [RegularMatcher], which determinizes the NFA lazily with capped number of states. Every thread has
+ * its own matcher, so words are matched concurrently without locking.
+ *
+ * Steps can only be recorded on states of automaton, so runs with [TraceLevel.FINAL] and [TraceLevel.FULL]
+ * are done on Glushkov automaton of the expression by [AutomatonRunner].
+ */
+object RegularExpressionRunner {
+
+    /**
+     * Parses [expression] and builds its NFA with [construction]
+     *
+     * @throws UnsupportedOperationException if [expression] is not properly formed
+     */
+    fun compile(expression: RegularExpression, construction: NFAConstruction = NFAConstruction.GLUSHKOV): RegularNFA {
+        val tree = RegularExpressionParser.parse(expression)
+        return when (construction) {
+            NFAConstruction.GLUSHKOV -> RegularNFA.glushkov(tree)
+            NFAConstruction.THOMPSON -> RegularNFA.thompson(tree)
+        }
+    }
+
+    /**
+     * Converts [expression] to FSA built with [construction]
+     */
+    fun toFSA(
+        expression: RegularExpression,
+        construction: NFAConstruction = NFAConstruction.GLUSHKOV
+    ): FiniteStateAutomaton = compile(expression, construction).toAutomaton()
+
+    /**
+     * Runs [expression] for [words]
+     *
+     * @param parallelism number of threads to run words on
+     * @param trace level of detail of recorded steps
+     * @param limits limits of runs with recorded steps
+     */
+    @JvmOverloads
+    fun run(
+        expression: RegularExpression,
+        words: Array<String>,
+        parallelism: Int = Parallel.SEQUENTIAL,
+        trace: TraceLevel = TraceLevel.NONE,
+        limits: RunLimits = RunLimits()
+    ): MultipleRunReport {
+        val structure = RegExpReport(expression.asString())
+        if (trace != TraceLevel.NONE) return MultipleRunReport(
+            structure,
+            AutomatonRunner.runAutomaton(toFSA(expression), words, parallelism, trace, limits).results
+        )
+
+        val matchers = matchers(expression)
+        return MultipleRunReport(structure, Parallel.array(words.size, parallelism) { run(matchers.get(), words[it]) })
+    }
+
+    /**
+     * Runs [expression] for words of [input] as they come and passes reports to [action] in order of words.
+     * Only a bounded number of words is held in memory, so [input] can be of any length
+     *
+     * @param parallelism number of threads to run words on
+     * @param trace level of detail of recorded steps
+     * @param limits limits of runs with recorded steps
+     * @param action action performed for report of every word
+     */
+    fun run(
+        expression: RegularExpression,
+        input: Sequence<String>,
+        parallelism: Int,
+        trace: TraceLevel,
+        limits: RunLimits,
+        action: (RunReport) -> Unit
+    ) {
+        if (trace != TraceLevel.NONE) {
+            AutomatonRunner.runAutomaton(
+                toFSA(expression), input, parallelism, trace, limits, TuringMachineRunner.EVERY_STEP, action
+            )
+            return
+        }
+
+        val matchers = matchers(expression)
+        Parallel.stream(input, parallelism, { run(matchers.get(), it) }, action)
+    }
+
+    /**
+     * Checks which of [words] match [expression]
+     *
+     * @param parallelism number of threads to check words on
+     */
+    fun checkMembership(
+        expression: RegularExpression,
+        words: Array<String>,
+        parallelism: Int = Parallel.SEQUENTIAL
+    ): MultipleMembershipReport {
+        val matchers = matchers(expression)
+        return MultipleMembershipReport(Parallel.array(words.size, parallelism) {
+            MembershipReport(words[it], matchers.get().matches(words[it]))
+        })
+    }
+
+    /**
+     * Creates matchers of [expression], one for every thread which asks for it
+     */
+    private fun matchers(expression: RegularExpression): ThreadLocal<RegularMatcher> {
+        val nfa = compile(expression)
+        return ThreadLocal.withInitial { RegularMatcher(nfa) }
+    }
+
+    /**
+     * Matches [word] with [matcher]. Step count is, as in runs of deterministic FSAs,
+     * one more than the number of read symbols
+     */
+    private fun run(matcher: RegularMatcher, word: String): RunReport {
+        val result = matcher.match(word)
+        return if (result == RegularMatcher.ACCEPTED) RunReport(AutomatonType.FA, word, true, word.length + 1)
+        else RunReport(AutomatonType.FA, word, false, result + 1)
+    }
+}
@@ -7,5 +7,9 @@ data class ConversionReport(
     val to: String,
     val success: Boolean,
     val result: StructureReport? = null,
-    val error: ErrorReport? = null
-) : Report()
\ No newline at end of file
+    val error: ErrorReport? = null,
+    val exploredSubsets: Int? = null,
+    val time: Long? = null,
+    val productionsBefore: Int? = null,
+    val productionsAfter: Int? = null
+) : Report()
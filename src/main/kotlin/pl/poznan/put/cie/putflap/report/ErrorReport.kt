@@ -9,7 +9,9 @@ data class ErrorReport internal constructor(
         enum class Error {
             NO_INITIAL_STATE,
             NO_FINAL_STATE,
-            NON_DETERMINISM
+            NON_DETERMINISM,
+            LIMIT_EXCEEDED,
+            ILLEGAL_VARIABLE
         }
 
         fun generate(error: Error): ErrorReport {
@@ -0,0 +1,37 @@
+package pl.poznan.put.cie.putflap.report
+
+import com.fasterxml.jackson.core.JsonGenerator
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter
+import com.fasterxml.jackson.databind.ObjectWriter
+import java.io.Closeable
+import java.io.Flushable
+
+/**
+ * Writes [reports][Report] as newline delimited JSON, one compact report per line. Reports are
+ * serialized straight to the underlying output, so memory use does not depend on their number
+ *
+ * @param writer JSON writer of reports
+ * @param generator generator writing to the output, which is flushed but never closed
+ */
+class JSONLinesWriter internal constructor(
+    private val writer: ObjectWriter,
+    private val generator: JsonGenerator
+) : Flushable, Closeable {
+
+    init {
+        generator.prettyPrinter = MinimalPrettyPrinter("")
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+    }
+
+    /**
+     * Writes [report] as single line
+     */
+    fun write(report: Report) {
+        writer.writeValue(generator, report)
+        generator.writeRaw('\n')
+    }
+
+    override fun flush() = generator.flush()
+
+    override fun close() = generator.close()
+}
@@ -0,0 +1,39 @@
+package pl.poznan.put.cie.putflap.report
+
+import pl.poznan.put.cie.putflap.jflapextensions.grammar.ParserType
+
+data class MultipleParseReport internal constructor(
+    val type: ParserType,
+    val conflicts: Array<String>,
+    val allAccepted: Boolean,
+    val results: Array<ParseReport>
+) : Report() {
+    constructor(type: ParserType, conflicts: Array<String>, results: Array<ParseReport>) : this(
+        type,
+        conflicts,
+        conflicts.isEmpty() && results.all { it.accepted },
+        results
+    )
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+
+        other as MultipleParseReport
+
+        if (type != other.type) return false
+        if (!conflicts.contentEquals(other.conflicts)) return false
+        if (allAccepted != other.allAccepted) return false
+        if (!results.contentEquals(other.results)) return false
+
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = type.hashCode()
+        result = 31 * result + conflicts.contentHashCode()
+        result = 31 * result + allAccepted.hashCode()
+        result = 31 * result + results.contentHashCode()
+        return result
+    }
+}
@@ -0,0 +1,7 @@
+package pl.poznan.put.cie.putflap.report
+
+data class ParseReport(
+    val word: String,
+    val accepted: Boolean,
+    val errorPosition: Int? = null
+) : Report()
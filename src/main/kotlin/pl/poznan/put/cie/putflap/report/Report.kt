@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonInclude
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.databind.SerializationFeature
 import com.fasterxml.jackson.module.kotlin.KotlinModule
+import java.io.Writer
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 abstract class Report protected constructor() {
@@ -20,5 +21,14 @@ abstract class Report protected constructor() {
         fun getJSON(report: Report): String {
             return mapper.writeValueAsString(report)
         }
+
+        fun getJSONLinesWriter(output: Writer): JSONLinesWriter {
+            return JSONLinesWriter(
+                mapper.writer()
+                    .without(SerializationFeature.INDENT_OUTPUT)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE),
+                mapper.factory.createGenerator(output)
+            )
+        }
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package pl.poznan.put.cie.putflap.report
 
 import pl.poznan.put.cie.putflap.jflapextensions.automaton.AutomatonType
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.Verdict
 import pl.poznan.put.cie.putflap.report.structure.automaton.StepReport
 
 data class RunReport internal constructor(
@@ -11,7 +12,12 @@ data class RunReport internal constructor(
     val steps: Array<StepReport>?,
     val output: String? = null,
     val unprocessed: String? = null,
-    val error: ErrorReport?
+    val error: ErrorReport?,
+    val stepCount: Int? = null,
+    val verdict: Verdict? = null,
+    val explored: Int? = null,
+    val pruned: Int? = null,
+    val haltState: Int? = null
 ) : Report() {
     constructor(type: AutomatonType, input: String, accepted: Boolean, steps: Array<StepReport>) : this(
         type,
@@ -24,6 +30,16 @@ data class RunReport internal constructor(
         null
     )
 
+    constructor(type: AutomatonType, input: String, accepted: Boolean, stepCount: Int) : this(
+        type,
+        input,
+        true,
+        accepted,
+        null,
+        error = null,
+        stepCount = stepCount
+    )
+
     constructor(type: AutomatonType, input: String, error: ErrorReport, steps: Array<StepReport>? = null) : this(
         type,
         input,
@@ -50,6 +66,11 @@ data class RunReport internal constructor(
         if (output != other.output) return false
         if (unprocessed != other.unprocessed) return false
         if (error != other.error) return false
+        if (stepCount != other.stepCount) return false
+        if (verdict != other.verdict) return false
+        if (explored != other.explored) return false
+        if (pruned != other.pruned) return false
+        if (haltState != other.haltState) return false
 
         return true
     }
@@ -63,6 +84,11 @@ data class RunReport internal constructor(
         result = 31 * result + (output?.hashCode() ?: 0)
         result = 31 * result + (unprocessed?.hashCode() ?: 0)
         result = 31 * result + (error?.hashCode() ?: 0)
+        result = 31 * result + (stepCount ?: 0)
+        result = 31 * result + (verdict?.hashCode() ?: 0)
+        result = 31 * result + (explored ?: 0)
+        result = 31 * result + (pruned ?: 0)
+        result = 31 * result + (haltState ?: 0)
         return result
     }
 
@@ -8,9 +8,12 @@ import jflap.automata.mealy.MealyTransition
 import jflap.automata.mealy.MooreMachine
 import jflap.automata.pda.PDATransition
 import jflap.automata.pda.PushdownAutomaton
+import jflap.automata.turing.TMTransition
+import jflap.automata.turing.TuringMachine
 import pl.poznan.put.cie.putflap.exception.IncompatibleAutomatonException
 import pl.poznan.put.cie.putflap.jflapextensions.automaton.AutomatonType
 import pl.poznan.put.cie.putflap.jflapextensions.automaton.StateType
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.TAPE_SEPARATOR
 import pl.poznan.put.cie.putflap.jflapextensions.automaton.labelValue
 import pl.poznan.put.cie.putflap.report.structure.StructureReport
 import kotlin.reflect.KClass
@@ -27,7 +30,10 @@ data class AutomatonReport internal constructor(
             is MooreMachine -> AutomatonReport(automaton)
             is MealyMachine -> AutomatonReport(automaton)
             is PushdownAutomaton -> AutomatonReport(automaton)
-            else -> throw IncompatibleAutomatonException("Automaton report supports only FSA, Mealy, Moore and PDA")
+            is TuringMachine -> AutomatonReport(automaton)
+            else -> throw IncompatibleAutomatonException(
+                "Automaton report supports only FSA, Mealy, Moore, PDA and Turing machine"
+            )
         }
     }
 
@@ -152,15 +158,46 @@ data class AutomatonReport internal constructor(
         }.invoke()
     )
 
+    constructor(automaton: TuringMachine) : this(
+        AutomatonType.get(automaton),
+        {
+            val list = automaton.states.toList()
+            val states = Array(list.size) {
+                StateReport(
+                    list[it].id,
+                    list[it].name,
+                    list[it].label ?: "",
+                    StateType.get(list[it], automaton),
+                    list[it].point.x,
+                    list[it].point.y
+                )
+            }
+            states
+        }.invoke(),
+        {
+            val list = automaton.transitions.toList()
+            val transitions = Array(list.size) {
+                val transition = list[it] as TMTransition
+                val tapes = 0 until transition.tapes()
+                TransitionReport(
+                    transition.fromState.id,
+                    transition.toState.id,
+                    transition.labelValue(),
+                    write = tapes.joinToString(TAPE_SEPARATOR) { tape -> transition.getWrite(tape) },
+                    move = tapes.joinToString(TAPE_SEPARATOR) { tape -> transition.getDirection(tape) }
+                )
+            }
+            transitions
+        }.invoke()
+    )
+
     @JsonIgnore
     fun getAutomatonClass(): KClass<out Automaton> = when (type) {
         AutomatonType.FA -> FiniteStateAutomaton::class
         AutomatonType.MOORE -> MooreMachine::class
         AutomatonType.MEALY -> MealyMachine::class
         AutomatonType.PDA -> PushdownAutomaton::class
-        AutomatonType.TURING -> TODO()
-        AutomatonType.TURING_MT -> TODO()
-        AutomatonType.TURING_BB -> TODO()
+        AutomatonType.TURING, AutomatonType.TURING_MT, AutomatonType.TURING_BB -> TuringMachine::class
         AutomatonType.UNKNOWN -> throw IllegalArgumentException("Invalid automaton type")
     }
 
@@ -7,6 +7,9 @@ import jflap.automata.mealy.MealyConfiguration
 import jflap.automata.mealy.MooreMachine
 import jflap.automata.pda.PDAConfiguration
 import jflap.automata.pda.PushdownAutomaton
+import jflap.automata.turing.TMConfiguration
+import jflap.automata.turing.Tape
+import jflap.automata.turing.TuringMachine
 import pl.poznan.put.cie.putflap.exception.IncompatibleAutomatonException
 import pl.poznan.put.cie.putflap.report.Report
 
@@ -15,7 +18,8 @@ data class StepReport(
     val read: String,
     val toProcess: String,
     val currentOutput: String? = null,
-    val stack: String? = null
+    val stack: String? = null,
+    val tapes: Array<TapeReport>? = null
 ) : Report() {
     companion object {
         fun generate(configuration: Configuration): StepReport {
@@ -23,7 +27,10 @@ data class StepReport(
                 is FSAConfiguration -> StepReport(configuration)
                 is MealyConfiguration -> StepReport(configuration)
                 is PDAConfiguration -> StepReport(configuration)
-                else -> throw IncompatibleAutomatonException("Step report supports only FSA, Mealy and PDA steps")
+                is TMConfiguration -> StepReport(configuration)
+                else -> throw IncompatibleAutomatonException(
+                    "Step report supports only FSA, Mealy, PDA and Turing machine steps"
+                )
             }
         }
 
@@ -36,7 +43,8 @@ data class StepReport(
                     is MooreMachine -> automaton.getOutput(automaton.initialState)
                     else -> null
                 },
-                if (automaton is PushdownAutomaton) "Z" else null
+                if (automaton is PushdownAutomaton) "Z" else null,
+                if (automaton is TuringMachine) Array(automaton.tapes()) { TapeReport(Tape(input)) } else null
             )
         }
 
@@ -84,4 +92,45 @@ data class StepReport(
         configuration.unprocessedInput,
         stack = configuration.stack.toString()
     )
+
+    /**
+     * Creates report of Turing machine step with snapshot of all tapes. Turing machines do not consume
+     * their input, so nothing is read or left to process, and output is the output of the first tape
+     */
+    constructor (configuration: TMConfiguration) : this(
+        configuration.currentState.id,
+        "",
+        "",
+        configuration.tapes[0].output,
+        tapes = Array(configuration.tapes.size) { TapeReport(configuration.tapes[it]) }
+    )
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+
+        other as StepReport
+
+        if (state != other.state) return false
+        if (read != other.read) return false
+        if (toProcess != other.toProcess) return false
+        if (currentOutput != other.currentOutput) return false
+        if (stack != other.stack) return false
+        if (tapes != null) {
+            if (other.tapes == null) return false
+            if (!tapes.contentEquals(other.tapes)) return false
+        } else if (other.tapes != null) return false
+
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = state
+        result = 31 * result + read.hashCode()
+        result = 31 * result + toProcess.hashCode()
+        result = 31 * result + (currentOutput?.hashCode() ?: 0)
+        result = 31 * result + (stack?.hashCode() ?: 0)
+        result = 31 * result + (tapes?.contentHashCode() ?: 0)
+        return result
+    }
 }
\ No newline at end of file
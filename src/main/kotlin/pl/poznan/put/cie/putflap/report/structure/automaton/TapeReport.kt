@@ -0,0 +1,16 @@
+package pl.poznan.put.cie.putflap.report.structure.automaton
+
+import jflap.automata.turing.Tape
+import pl.poznan.put.cie.putflap.report.Report
+
+data class TapeReport(
+    val contents: String,
+    val head: Int,
+    val output: String
+) : Report() {
+    constructor(tape: Tape) : this(
+        tape.contents,
+        tape.tapeHead,
+        tape.output
+    )
+}
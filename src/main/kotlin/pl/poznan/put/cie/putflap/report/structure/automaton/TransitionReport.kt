@@ -8,5 +8,7 @@ data class TransitionReport(
     val read: String,
     val value: String? = null,
     val pop: String? = null,
-    val push: String? = null
+    val push: String? = null,
+    val write: String? = null,
+    val move: String? = null
 ) : Report()
\ No newline at end of file
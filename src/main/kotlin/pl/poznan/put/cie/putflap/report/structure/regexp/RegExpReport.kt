@@ -2,6 +2,7 @@ package pl.poznan.put.cie.putflap.report.structure.regexp
 
 import pl.poznan.put.cie.putflap.report.structure.StructureReport
 
-data class RegExpReport(
-    val regexp: String
+data class RegExpReport @JvmOverloads constructor(
+    val regexp: String,
+    val size: Int? = null
 ) : StructureReport()
\ No newline at end of file
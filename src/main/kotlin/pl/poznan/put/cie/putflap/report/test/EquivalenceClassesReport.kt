@@ -0,0 +1,26 @@
+package pl.poznan.put.cie.putflap.report.test
+
+import pl.poznan.put.cie.putflap.report.Report
+
+data class EquivalenceClassesReport(
+    val equivalent: Boolean,
+    val classes: Array<Array<Int>>
+) : Report() {
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+
+        other as EquivalenceClassesReport
+
+        if (equivalent != other.equivalent) return false
+        if (!classes.contentDeepEquals(other.classes)) return false
+
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = equivalent.hashCode()
+        result = 31 * result + classes.contentDeepHashCode()
+        return result
+    }
+}
@@ -3,5 +3,6 @@ package pl.poznan.put.cie.putflap.report.test
 import pl.poznan.put.cie.putflap.report.Report
 
 data class EquivalenceReport(
-    val equivalent: Boolean
-) : Report()
\ No newline at end of file
+    val equivalent: Boolean,
+    val counterexample: String? = null
+) : Report()
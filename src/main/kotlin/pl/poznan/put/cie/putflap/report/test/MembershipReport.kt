@@ -0,0 +1,39 @@
+package pl.poznan.put.cie.putflap.report.test
+
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.Verdict
+import pl.poznan.put.cie.putflap.report.Report
+
+data class MembershipReport(
+    val word: String,
+    val member: Boolean,
+    val derivation: Array<String>? = null,
+    val verdict: Verdict? = null,
+    val explored: Int? = null
+) : Report() {
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+
+        other as MembershipReport
+
+        if (word != other.word) return false
+        if (member != other.member) return false
+        if (derivation != null) {
+            if (other.derivation == null) return false
+            if (!derivation.contentEquals(other.derivation)) return false
+        } else if (other.derivation != null) return false
+        if (verdict != other.verdict) return false
+        if (explored != other.explored) return false
+
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = word.hashCode()
+        result = 31 * result + member.hashCode()
+        result = 31 * result + (derivation?.contentHashCode() ?: 0)
+        result = 31 * result + (verdict?.hashCode() ?: 0)
+        result = 31 * result + (explored ?: 0)
+        return result
+    }
+}
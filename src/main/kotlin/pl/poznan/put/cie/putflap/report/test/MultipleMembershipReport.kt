@@ -0,0 +1,31 @@
+package pl.poznan.put.cie.putflap.report.test
+
+import pl.poznan.put.cie.putflap.report.Report
+
+data class MultipleMembershipReport internal constructor(
+    val allMembers: Boolean,
+    val results: Array<MembershipReport>
+) : Report() {
+    constructor(results: Array<MembershipReport>) : this(
+        results.all { it.member },
+        results
+    )
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+
+        other as MultipleMembershipReport
+
+        if (allMembers != other.allMembers) return false
+        if (!results.contentEquals(other.results)) return false
+
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = allMembers.hashCode()
+        result = 31 * result + results.contentHashCode()
+        return result
+    }
+}
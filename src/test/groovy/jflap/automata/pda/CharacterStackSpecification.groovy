@@ -0,0 +1,77 @@
+package jflap.automata.pda
+
+import spock.lang.Specification
+
+class CharacterStackSpecification extends Specification {
+
+    def "should push and pop characters in stack order"() {
+        given:
+        def stack = new CharacterStack()
+
+        when:
+        stack.push("ab")
+        stack.push('c' as char)
+
+        then:
+        stack.toString() == "cab"
+        stack.height() == 3
+        stack.startsWith("ca")
+        !stack.startsWith("ab")
+        stack.pop() == 'c' as char
+        stack.pop(2) == "ab"
+        stack.pop(1) == null
+        stack.height() == 0
+    }
+
+    def "should not change copy when original is changed"() {
+        given:
+        def original = new CharacterStack()
+        original.push("xyZ")
+
+        when:
+        def copy = new CharacterStack(original)
+        original.pop()
+        original.push("ab")
+        copy.push('q' as char)
+
+        then:
+        original.toString() == "abyZ"
+        copy.toString() == "qxyZ"
+    }
+
+    def "should compare stacks by characters regardless of shared nodes"() {
+        given:
+        def base = new CharacterStack()
+        base.push("Z")
+        def shared = new CharacterStack(base)
+        shared.push("ab")
+        def separate = new CharacterStack()
+        separate.push("abZ")
+        def other = new CharacterStack(base)
+        other.push("ba")
+
+        expect:
+        shared == separate
+        shared.hashCode() == separate.hashCode()
+        shared != other
+        shared != base
+        new CharacterStack() == new CharacterStack()
+    }
+
+    def "should keep characters through serialization"() {
+        given:
+        def stack = new CharacterStack()
+        stack.push("Z")
+        stack.push("\u0000é" + "a" * 70_000)
+
+        when:
+        def bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).withCloseable { it.writeObject(stack) }
+        def copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).withCloseable { it.readObject() }
+
+        then:
+        copy == stack
+        copy.hashCode() == stack.hashCode()
+        copy.height() == 70_003
+    }
+}
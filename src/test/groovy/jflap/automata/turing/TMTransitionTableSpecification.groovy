@@ -0,0 +1,75 @@
+package jflap.automata.turing
+
+import spock.lang.Specification
+
+import java.awt.Point
+
+class TMTransitionTableSpecification extends Specification {
+
+    def "should find matching transitions of multi-tape machine with wildcards and blanks"() {
+        given:
+        def machine = new TuringMachine(2)
+        def q0 = machine.createState(new Point(0, 0))
+        def q1 = machine.createState(new Point(100, 0))
+        def exact = transition(q0, q1, ["a", "b"])
+        def blank = transition(q0, q1, ["~", ""])
+        def any = transition(q0, q1, ["a", "~"])
+        [exact, blank, any].each { machine.addTransition(it) }
+        def table = new TMTransitionTable(false)
+
+        expect:
+        table.getTransitions(q0, [new Tape("a"), new Tape("b")] as Tape[]).toList() == [exact, any]
+        table.getTransitions(q0, [new Tape("a"), new Tape("")] as Tape[]).toList() == [blank, any]
+        table.getTransitions(q0, [new Tape("c"), new Tape("")] as Tape[]).toList() == [blank]
+        table.getTransitions(q0, [new Tape("c"), new Tape("b")] as Tape[]).toList() == []
+        table.getTransitions(q1, [new Tape("a"), new Tape("b")] as Tape[]).toList() == []
+    }
+
+    def "should compare read symbols literally"() {
+        given:
+        def machine = new TuringMachine(2)
+        def q0 = machine.createState(new Point(0, 0))
+        def exact = transition(q0, q0, ["a", "b"])
+        def any = transition(q0, q0, ["a", "~"])
+        def blank = transition(q0, q0, ["a", ""])
+        [exact, any, blank].each { machine.addTransition(it) }
+        def table = new TMTransitionTable(true)
+
+        expect:
+        table.getTransitions(q0, [new Tape("a"), new Tape("b")] as Tape[]).toList() == [exact]
+        table.getTransitions(q0, [new Tape("a"), new Tape("~")] as Tape[]).toList() == [any]
+        table.getTransitions(q0, [new Tape("a"), new Tape("")] as Tape[]).toList() == [blank]
+    }
+
+    def "should try negated transitions of single tape machine last"() {
+        given:
+        def machine = new TuringMachine()
+        def q0 = machine.createState(new Point(0, 0))
+        def notA = new TMTransition(q0, q0, "!a", "x", "R")
+        def b = new TMTransition(q0, q0, "b", "y", "R")
+        def assigned = new TMTransition(q0, q0, "a,c}v", "z", "R")
+        [notA, b, assigned].each { machine.addTransition(it) }
+        def table = new TMTransitionTable(false)
+
+        expect:
+        table.getTransitions(q0, [new Tape("b")] as Tape[]).toList() == [b, notA]
+        table.getTransitions(q0, [new Tape("a")] as Tape[]).toList() == [assigned]
+        table.getTransitions(q0, [new Tape("c")] as Tape[]).toList() == [assigned, notA]
+        table.getTransitions(q0, [new Tape("")] as Tape[]).toList() == [notA]
+    }
+
+    def "should reuse lookup of the same symbols"() {
+        given:
+        def machine = new TuringMachine()
+        def q0 = machine.createState(new Point(0, 0))
+        machine.addTransition(new TMTransition(q0, q0, "a", "a", "R"))
+        def table = new TMTransitionTable(false)
+
+        expect:
+        table.getTransitions(q0, [new Tape("a")] as Tape[]).is(table.getTransitions(q0, [new Tape("ab")] as Tape[]))
+    }
+
+    private static TMTransition transition(def from, def to, List<String> read) {
+        new TMTransition(from, to, read as String[], read.collect { "x" } as String[], read.collect { "S" } as String[])
+    }
+}
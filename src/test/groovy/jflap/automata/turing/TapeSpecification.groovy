@@ -0,0 +1,119 @@
+package jflap.automata.turing
+
+import spock.lang.Specification
+
+class TapeSpecification extends Specification {
+    def blank = Tape.BLANK as String
+
+    def "should grow right past chunk boundary"() {
+        given:
+        def tape = new Tape("ab")
+
+        when:
+        200.times {
+            tape.moveHead("R")
+            tape.writeChar('x' as char)
+        }
+
+        then:
+        tape.contents == "a" + "x" * 200
+        tape.tapeHead == 200
+        tape.read() == "x"
+    }
+
+    def "should grow left past chunk boundary"() {
+        given:
+        def tape = new Tape("ab")
+
+        when:
+        150.times {
+            tape.moveHead("L")
+            tape.writeChar('y' as char)
+        }
+
+        then:
+        tape.contents == "y" * 150 + "ab"
+        tape.tapeHead == 0
+        tape.output == "y" * 150 + "ab"
+    }
+
+    def "should end output at first blank after tape head"() {
+        given:
+        def tape = new Tape("ab")
+        3.times { tape.moveHead("R") }
+        tape.writeChar('c' as char)
+
+        when:
+        def atC = tape.output
+        tape.moveHead("L")
+        def atBlank = tape.output
+        2.times { tape.moveHead("L") }
+
+        then:
+        atC == "c"
+        atBlank == ""
+        tape.output == "ab"
+        tape.toString() == "[ab" + blank + "c] TAPE HEAD AT 0"
+    }
+
+    def "should write multiple character symbol in place of one cell"() {
+        given:
+        def tape = new Tape("abc")
+        tape.moveHead("R")
+
+        when:
+        tape.write("xyz")
+
+        then:
+        tape.contents == "axyzc"
+        tape.tapeHead == 1
+        tape.output == "xyzc"
+    }
+
+    def "should compare tapes regardless of blank prefix, suffix and chunk layout"() {
+        given:
+        def plain = new Tape("abc")
+        def padded = new Tape("")
+        200.times { padded.moveHead("L") }
+        "abc".each {
+            padded.writeChar(it as char)
+            padded.moveHead("R")
+        }
+        250.times { padded.moveHead("R") }
+        253.times { padded.moveHead("L") }
+
+        expect:
+        padded.contents.length() > 250
+        padded == plain
+        plain == padded
+        padded.hashCode() == plain.hashCode()
+    }
+
+    def "should distinguish tapes with different head positions"() {
+        given:
+        def tape = new Tape("abc")
+        def moved = new Tape(tape)
+        moved.moveHead("R")
+
+        expect:
+        tape != moved
+    }
+
+    def "should copy shared chunk only on write"() {
+        given:
+        def original = new Tape("a" * 200)
+        def copy = new Tape(original)
+        150.times { copy.moveHead("R") }
+
+        when:
+        copy.writeChar('b' as char)
+        150.times { copy.moveHead("L") }
+
+        then:
+        original.contents == "a" * 200
+        copy.contents == "a" * 150 + "b" + "a" * 49
+        copy != original
+        copy.hashCode() != original.hashCode()
+        new Tape(original) == original
+    }
+}
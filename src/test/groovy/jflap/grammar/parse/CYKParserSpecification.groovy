@@ -0,0 +1,123 @@
+package jflap.grammar.parse
+
+import jflap.grammar.Production
+import jflap.grammar.cfg.ContextFreeGrammar
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CYKParserSpecification extends Specification {
+
+    static grammar(List<List<String>> productions) {
+        def grammar = new ContextFreeGrammar()
+        productions.each { grammar.addProduction(new Production(it[0], it[1])) }
+        grammar.startVariable = productions[0][0]
+        return grammar
+    }
+
+    static anbn = grammar([["S", "AB"], ["S", "AC"], ["C", "SB"], ["A", "a"], ["B", "b"]])
+
+    static trace(CYKParser parser) {
+        parser.trace.collect { [it.getLHS(), it.getRHS()] }
+    }
+
+    /**
+     * Applies productions of the trace to the leftmost variable, starting from the start variable
+     */
+    static derive(List<List<String>> trace) {
+        def form = "S"
+        trace.each {
+            def index = form.findIndexOf { Character.isUpperCase(it as char) }
+            assert form[index] == it[0]
+            form = form.substring(0, index) + it[1] + form.substring(index + 1)
+        }
+        return form
+    }
+
+    @Unroll
+    def "should check membership of '#word' in a^n b^n"() {
+        given:
+        def parser = new CYKParser(anbn)
+
+        expect:
+        parser.solve(word) == member
+
+        where:
+        word       || member
+        ""         || false
+        "a"        || false
+        "ab"       || true
+        "aabb"     || true
+        "abab"     || false
+        "aab"      || false
+        "aabbc"    || false
+        "aaabbb"   || true
+    }
+
+    def "should trace leftmost derivation"() {
+        given:
+        def parser = new CYKParser(anbn)
+
+        when:
+        def solved = parser.solve("aabb")
+
+        then:
+        solved
+        trace(parser) == [["S", "AC"], ["A", "a"], ["C", "SB"], ["S", "AB"], ["A", "a"], ["B", "b"], ["B", "b"]]
+    }
+
+    def "should accept and trace a single terminal"() {
+        given:
+        def parser = new CYKParser(grammar([["S", "a"]]))
+
+        expect:
+        parser.solve("a")
+        trace(parser) == [["S", "a"]]
+        !parser.solve("b")
+        !parser.solve("aa")
+        !parser.solve("")
+        trace(parser) == []
+    }
+
+    def "should not trace rejected words"() {
+        given:
+        def parser = new CYKParser(anbn)
+
+        when:
+        parser.solve("ab")
+        def solved = parser.solve("abb")
+
+        then:
+        !solved
+        trace(parser) == []
+    }
+
+    def "should trace words of ambiguous grammar longer than 64 characters"() {
+        given:
+        def parser = new CYKParser(grammar([["S", "SS"], ["S", "AB"], ["A", "a"], ["B", "b"]]))
+        def word = "ab" * 70
+
+        when:
+        def solved = parser.solve(word)
+        def steps = trace(parser)
+
+        then:
+        solved
+        steps.size() == 2 * word.length() - 1
+        derive(steps) == word
+        !parser.solve(word + "a")
+        !parser.solve("a" * 70 + "b" * 70)
+    }
+
+    def "should trace a^n b^n words longer than 64 characters"() {
+        given:
+        def parser = new CYKParser(anbn)
+        def word = "a" * 100 + "b" * 100
+
+        when:
+        def solved = parser.solve(word)
+
+        then:
+        solved
+        derive(trace(parser)) == word
+    }
+}
@@ -0,0 +1,92 @@
+package pl.poznan.put.cie.putflap.jflapextensions
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import kotlin.jvm.functions.Function1
+import kotlin.sequences.SequencesKt
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class ParallelSpecification extends Specification {
+    def parallel = Parallel.INSTANCE
+
+    @Unroll
+    def "should perform action for every index with parallelism #parallelism"() {
+        given:
+        def visited = new int[100]
+
+        when:
+        parallel.forEach(100, parallelism, { visited[it]++ } as Function1)
+
+        then:
+        visited.every { it == 1 }
+
+        where:
+        parallelism << [1, 2, 8]
+    }
+
+    def "should rethrow exception of failed task"() {
+        when:
+        parallel.forEach(10, 4, { if (it == 7) throw new IllegalStateException("failed") } as Function1)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    @Unroll
+    def "should stream results in order of elements with parallelism #parallelism"() {
+        given:
+        def results = []
+
+        when:
+        parallel.stream(
+            SequencesKt.asSequence((0..4999).iterator()),
+            parallelism,
+            { it * 2 } as Function1,
+            { results << it } as Function1
+        )
+
+        then:
+        results == (0..4999).collect { it * 2 }
+
+        where:
+        parallelism << [1, 4]
+    }
+
+    def "should pass result before input ends"() {
+        given:
+        def first = new CountDownLatch(1)
+        def passedEarly = false
+        def input = new Iterator<Integer>() {
+            int next = 0
+
+            boolean hasNext() { next < 2 }
+
+            Integer next() {
+                if (next == 1) passedEarly = first.await(5, TimeUnit.SECONDS)
+                next++
+            }
+        }
+
+        when:
+        parallel.stream(SequencesKt.asSequence(input), 4, { it } as Function1, { first.countDown() } as Function1)
+
+        then:
+        passedEarly
+    }
+
+    def "should rethrow exception of failed element in stream"() {
+        when:
+        parallel.stream(
+            SequencesKt.asSequence((0..99).iterator()),
+            4,
+            { if (it == 42) throw new IllegalStateException("failed"); it } as Function1,
+            { } as Function1
+        )
+
+        then:
+        thrown(IllegalStateException)
+    }
+}
@@ -0,0 +1,240 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.fsa.FSATransition
+import jflap.automata.Automaton
+import jflap.automata.fsa.FiniteStateAutomaton
+import jflap.automata.pda.PDAToCFGConverter
+import jflap.automata.pda.PDATransition
+import jflap.automata.pda.PushdownAutomaton
+import jflap.grammar.parse.EarleyParser
+import jflap.regular.RegularExpression
+import pl.poznan.put.cie.putflap.jflapextensions.regexp.NFAConstruction
+import pl.poznan.put.cie.putflap.jflapextensions.regexp.RegularExpressionRunner
+import pl.poznan.put.cie.putflap.testutils.AutomatonReader
+import spock.lang.Specification
+
+import java.awt.Point
+
+class AutomatonConverterSpecification extends Specification {
+    def automatonConverter = AutomatonConverter.INSTANCE
+    def words = ["", "h", "j", "ja", "jh", "jhh", "jgj", "hj", "gg", "jgh", "jgg"]
+
+    def "should convert NFA to equivalent DFA"() {
+        given:
+        def nfa = AutomatonReader.get("fsa_nondet.jff")
+        def compiledNfa = CompiledNFA.@Companion.compile(nfa)
+
+        when:
+        def conversion = automatonConverter.toDeterministicFSA(nfa)
+        def dfa = CompiledDFA.@Companion.compile(conversion.second)
+
+        then:
+        conversion.first.success
+        conversion.first.exploredSubsets == conversion.second.states.size()
+        dfa != null
+        words.every { dfa.accepts(it) == compiledNfa.accepts(it) }
+    }
+
+    def "should keep order of inputs when converting in parallel"() {
+        given:
+        def automatons = (0..7).collect {
+            AutomatonReader.get(it % 2 == 0 ? "fsa_nondet.jff" : "fsa.jff")
+        } as FiniteStateAutomaton[]
+
+        when:
+        def sequential = automatonConverter.toMinimalFSA(automatons, 1)
+        def parallel = automatonConverter.toMinimalFSA(automatons, 4)
+
+        then:
+        parallel.first.allSucceed
+        parallel.second.size() == automatons.size()
+        (0..7).every { parallel.second[it].states.size() == sequential.second[it].states.size() }
+        (0..7).every {
+            def minimal = CompiledDFA.@Companion.compile(parallel.second[it])
+            def original = CompiledNFA.@Companion.compile(automatons[it])
+            words.every { word -> minimal.accepts(word) == original.accepts(word) }
+        }
+    }
+
+    def "should minimize DFA without changing its language"() {
+        given:
+        def automaton = AutomatonReader.get("fsa.jff")
+        def dfa = CompiledDFA.@Companion.compile(automaton)
+        def fsaWords = ["", "a", "d", "ab", "ad", "afd", "ahab", "agaa", "ahgac", "x"]
+
+        when:
+        def conversion = automatonConverter.toMinimalFSA(automaton)
+        def minimal = CompiledDFA.@Companion.compile(conversion.second)
+
+        then:
+        conversion.first.success
+        conversion.second.states.size() <= automaton.states.size()
+        fsaWords.every { minimal.accepts(it) == dfa.accepts(it) }
+    }
+
+    def "should merge equivalent states"() {
+        given:
+        def automaton = new FiniteStateAutomaton()
+        def states = (0..3).collect { automaton.createState(new Point(0, 0)) }
+        automaton.initialState = states[0]
+        automaton.addFinalState(states[2])
+        automaton.addFinalState(states[3])
+        automaton.addTransition(new FSATransition(states[0], states[1], "a"))
+        automaton.addTransition(new FSATransition(states[1], states[2], "b"))
+        automaton.addTransition(new FSATransition(states[0], states[3], "b"))
+        automaton.addTransition(new FSATransition(states[2], states[3], "a"))
+        automaton.addTransition(new FSATransition(states[3], states[2], "a"))
+
+        when:
+        def minimal = automatonConverter.toMinimalFSA(automaton).second
+
+        then:
+        minimal.states.size() == 3
+        minimal.transitions.size() == 4
+        minimal.finalStates.size() == 1
+    }
+
+    def "should minimize DFA with multiple character labels sharing a prefix"() {
+        given:
+        def automaton = new FiniteStateAutomaton()
+        def states = (0..2).collect { automaton.createState(new Point(0, 0)) }
+        automaton.initialState = states[0]
+        automaton.addFinalState(states[1])
+        automaton.addFinalState(states[2])
+        automaton.addTransition(new FSATransition(states[0], states[1], "ab"))
+        automaton.addTransition(new FSATransition(states[0], states[2], "ac"))
+
+        when:
+        def conversion = automatonConverter.toMinimalFSA(automaton)
+        def minimal = CompiledDFA.@Companion.compile(conversion.second)
+
+        then:
+        conversion.first.success
+        minimal.accepts("ab")
+        minimal.accepts("ac")
+        !minimal.accepts("a")
+        !minimal.accepts("abc")
+        conversion.second.states.size() == 3
+    }
+
+    def "should convert any FSA to equivalent regular expression"() {
+        given:
+        def random = new Random(7)
+        def automatons = (0..199).collect {
+            def automaton = new FiniteStateAutomaton()
+            def states = (0..random.nextInt(6)).collect { automaton.createState(new Point(0, 0)) }
+            automaton.initialState = states[0]
+            states.each { if (random.nextInt(3) == 0) automaton.addFinalState(it) }
+            random.nextInt(3 * states.size()).times {
+                def label = ["", "a", "b", "ab"][random.nextInt(4)]
+                automaton.addTransition(
+                    new FSATransition(states[random.nextInt(states.size())], states[random.nextInt(states.size())], label)
+                )
+            }
+            automaton
+        } as FiniteStateAutomaton[]
+
+        when:
+        def conversion = automatonConverter.toRegularExpression(automatons, 1)
+
+        then:
+        conversion.first.allSucceed
+        (0..199).every {
+            def regexp = conversion.second[it]
+            def automaton = RegularExpressionRunner.INSTANCE.toFSA(new RegularExpression(regexp), NFAConstruction.GLUSHKOV)
+            conversion.first.conversions[it].result.size == regexp.length() &&
+                FSAEquivalenceChecker.INSTANCE.equivalent(automaton, automatons[it])
+        }
+    }
+
+    def "should simplify regular expression while eliminating states"() {
+        given:
+        def automaton = new FiniteStateAutomaton()
+        def states = (0..2).collect { automaton.createState(new Point(0, 0)) }
+        automaton.initialState = states[0]
+        automaton.addFinalState(states[0])
+        automaton.addTransition(new FSATransition(states[0], states[1], "a"))
+        automaton.addTransition(new FSATransition(states[1], states[0], "b"))
+        automaton.addTransition(new FSATransition(states[0], states[2], "a"))
+        automaton.addTransition(new FSATransition(states[2], states[0], "b"))
+
+        when:
+        def regexp = automatonConverter.toRegularExpression([automaton] as FiniteStateAutomaton[], 1).second[0]
+
+        then:
+        regexp == "(ab)*"
+    }
+
+    static pdaWords = (0..6).collectMany { length ->
+        length == 0 ? [""] : (0..<(1 << length)).collect { bits ->
+            (0..<length).collect { (bits >> it & 1) == 0 ? "a" : "b" }.join()
+        }
+    }
+
+    static anbn(int extraStates) {
+        def automaton = new PushdownAutomaton()
+        def states = (0..2 + extraStates).collect { automaton.createState(new Point(0, 0)) }
+        automaton.initialState = states[0]
+        automaton.addFinalState(states[2])
+        automaton.addTransition(new PDATransition(states[0], states[0], "a", "Z", "AZ"))
+        automaton.addTransition(new PDATransition(states[0], states[0], "a", "A", "AA"))
+        automaton.addTransition(new PDATransition(states[0], states[1], "b", "A", ""))
+        automaton.addTransition(new PDATransition(states[1], states[1], "b", "A", ""))
+        automaton.addTransition(new PDATransition(states[1], states[2], "", "Z", ""))
+        automaton.addTransition(new PDATransition(states[0], states[2], "", "Z", ""))
+        (3..<states.size()).each {
+            automaton.addTransition(new PDATransition(states[it], states[0], "a", "A", "AZ"))
+        }
+        return automaton
+    }
+
+    def "should convert PDA to grammar of productions reachable from start and deriving words"() {
+        given:
+        def automaton = anbn(40)
+
+        when:
+        def conversion = automatonConverter.toGrammar([automaton] as Automaton[], 1)
+        def grammar = conversion.second[0]
+        def parser = new EarleyParser(grammar)
+
+        then:
+        conversion.first.allSucceed
+        grammar.startVariable == "S"
+        grammar.productions.size() == 6
+        pdaWords.findAll { parser.solve(it) } == ["", "ab", "aabb", "aaabbb"]
+    }
+
+    def "should convert PDA to grammar of the same language as grammar of all triples"() {
+        given:
+        def random = new Random(3)
+        def automatons = (0..99).collect {
+            def automaton = new PushdownAutomaton()
+            def states = (0..2).collect { automaton.createState(new Point(0, 0)) }
+            automaton.initialState = states[0]
+            automaton.addFinalState(states[2])
+            (3 + random.nextInt(6)).times {
+                def to = states[random.nextInt(3)]
+                def pop = to == states[2] ? "Z" : ["Z", "A"][random.nextInt(2)]
+                def push = ["", "", "AZ", "AA", "ZA", "ZZ"][random.nextInt(6)]
+                automaton.addTransition(
+                    new PDATransition(states[random.nextInt(3)], to, ["", "a", "b"][random.nextInt(3)], pop, push)
+                )
+            }
+            automaton
+        }.findAll { new PDAToCFGConverter().isInCorrectFormForConversion(it) } as Automaton[]
+
+        when:
+        def conversion = automatonConverter.toGrammar(automatons, 2)
+
+        then:
+        automatons.size() > 50
+        (0..<automatons.size()).every {
+            def full = new PDAToCFGConverter().convertToContextFreeGrammar(automatons[it])
+            full.startVariable = "S"
+            def expected = new EarleyParser(full)
+            def parser = new EarleyParser(conversion.second[it])
+            conversion.second[it].productions.size() <= full.productions.size() &&
+                pdaWords.every { word -> parser.solve(word) == expected.solve(word) }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.fsa.FSATransition
+import jflap.automata.fsa.FiniteStateAutomaton
+import jflap.automata.pda.PDATransition
+import jflap.automata.pda.PushdownAutomaton
+import pl.poznan.put.cie.putflap.report.structure.automaton.StepReport
+import pl.poznan.put.cie.putflap.testutils.AutomatonReader
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.awt.Point
+
+class AutomatonRunnerSpecification extends Specification {
+    def automatonRunner = AutomatonRunner.INSTANCE
+
+    @Unroll
+    def "should record steps according to trace level for #file"() {
+        given:
+        def automaton = AutomatonReader.get(file)
+
+        when:
+        def full = automatonRunner.runAutomaton(automaton, words as String[], 1, TraceLevel.FULL)
+        def last = automatonRunner.runAutomaton(automaton, words as String[], 1, TraceLevel.FINAL)
+        def none = automatonRunner.runAutomaton(automaton, words as String[], 1, TraceLevel.NONE)
+
+        then:
+        full.results*.accepted == last.results*.accepted
+        full.results*.accepted == none.results*.accepted
+        (0..<words.size()).every { last.results[it].steps.toList() == [full.results[it].steps.last()] }
+        (0..<words.size()).every { last.results[it].output == full.results[it].output }
+        none.results.every { it.steps == null }
+        (0..<words.size()).every { none.results[it].stepCount == full.results[it].steps.length }
+
+        where:
+        file        || words
+        "fsa.jff"   || ["a", "ahab", "x", ""]
+        "mealy.jff" || ["cde", "ij", "x"]
+        "moore.jff" || ["cde", "ij", ""]
+    }
+
+    def "should run deterministic FSA on transition table"() {
+        given:
+        def automaton = AutomatonReader.get("fsa.jff")
+
+        when:
+        def report = automatonRunner.runAutomaton(automaton, ["a", "ahab", "ahx", ""] as String[], 1, TraceLevel.FULL)
+
+        then:
+        report.results*.accepted == [true, true, false, false]
+        report.results*.steps*.length == [2, 5, 3, 1]
+    }
+
+    @Unroll
+    def "should run nondeterministic #file for word #word"() {
+        given:
+        def automaton = AutomatonReader.get(file)
+
+        when:
+        def report = automatonRunner.runAutomaton(automaton, [word] as String[], 1, TraceLevel.FULL)
+        def run = report.results[0]
+
+        then:
+        run.succeed
+        run.accepted == result
+        !result || run.steps.last().toProcess == ""
+        run.steps.first().read == ""
+
+        where:
+        file                | word   || result
+        "fsa_nondet.jff"    | "jhh"  || true
+        "fsa_nondet.jff"    | "jh"   || false
+        "pda_palindrom.jff" | "0110" || true
+        "pda_palindrom.jff" | "010"  || true
+        "pda_palindrom.jff" | "01"   || false
+    }
+
+    def "should run long words on NFA without limits"() {
+        given:
+        def automaton = new FiniteStateAutomaton()
+        def q0 = automaton.createState(new Point(0, 0))
+        def q1 = automaton.createState(new Point(100, 0))
+        automaton.initialState = q0
+        automaton.addFinalState(q1)
+        automaton.addTransition(new FSATransition(q0, q0, "a"))
+        automaton.addTransition(new FSATransition(q0, q1, "a"))
+        def word = "a" * 20_000
+
+        when:
+        def none = automatonRunner.runAutomaton(automaton, [word, word + "b"] as String[], 1, TraceLevel.NONE)
+        def last = automatonRunner.runAutomaton(automaton, [word] as String[], 1, TraceLevel.FINAL)
+
+        then:
+        none.results*.verdict == [Verdict.ACCEPT, Verdict.REJECT]
+        none.results*.succeed == [true, true]
+        last.results[0].accepted
+        last.results[0].steps.toList() == [new StepReport(q1.id, "a", "", null, null, null)]
+    }
+
+    def "should record witness path of NFA run"() {
+        given:
+        def automaton = AutomatonReader.get("fsa_nondet.jff")
+
+        when:
+        def report = automatonRunner.runAutomaton(automaton, ["jhh"] as String[], 1, TraceLevel.FULL)
+        def steps = report.results[0].steps
+
+        then:
+        report.results[0].verdict == Verdict.ACCEPT
+        steps*.read.join("") == "jhh"
+        (1..<steps.length).every { steps[it - 1].toProcess == steps[it].read + steps[it].toProcess }
+    }
+
+    def "should stop nondeterministic run at configuration limit"() {
+        given:
+        def automaton = AutomatonReader.get("pda_palindrom.jff")
+
+        when:
+        def report = automatonRunner.runAutomaton(
+                automaton, ["010101010110"] as String[], 1, TraceLevel.NONE, new RunLimits(3, 100)
+        )
+
+        then:
+        !report.results[0].succeed
+        report.results[0].error.message == "LIMIT_EXCEEDED"
+        report.results[0].verdict == Verdict.UNDECIDED
+    }
+
+    def "should report verdict and counters of PDA runs"() {
+        given:
+        def automaton = AutomatonReader.get("pda_palindrom.jff")
+
+        when:
+        def report = automatonRunner.runAutomaton(
+                automaton, ["0110", "01"] as String[], 1, TraceLevel.NONE
+        )
+
+        then:
+        report.results*.verdict == [Verdict.ACCEPT, Verdict.REJECT]
+        report.results.every { it.explored > 0 && it.pruned >= 0 }
+    }
+
+    def "should prune PDA configurations above stack height limit"() {
+        given:
+        def automaton = new PushdownAutomaton()
+        def q0 = automaton.createState(new Point(0, 0))
+        def q1 = automaton.createState(new Point(100, 0))
+        automaton.initialState = q0
+        automaton.addFinalState(q1)
+        automaton.addTransition(new PDATransition(q0, q0, "", "", "A"))
+        automaton.addTransition(new PDATransition(q0, q1, "b", "", ""))
+
+        when:
+        def report = automatonRunner.runAutomaton(
+                automaton, ["a", "b"] as String[], 1, TraceLevel.NONE, new RunLimits(100_000, 10_000, 5)
+        )
+
+        then:
+        report.results*.verdict == [Verdict.UNDECIDED, Verdict.ACCEPT]
+        report.results[0].explored == 5
+        report.results[0].pruned == 1
+    }
+
+    def "should run deterministic PDA without limits"() {
+        given:
+        def automaton = new PushdownAutomaton()
+        def states = (0..2).collect { automaton.createState(new Point(0, 0)) }
+        automaton.initialState = states[0]
+        automaton.addFinalState(states[2])
+        automaton.addTransition(new PDATransition(states[0], states[0], "a", "Z", "AZ"))
+        automaton.addTransition(new PDATransition(states[0], states[0], "a", "A", "AA"))
+        automaton.addTransition(new PDATransition(states[0], states[1], "b", "A", ""))
+        automaton.addTransition(new PDATransition(states[1], states[1], "b", "A", ""))
+        automaton.addTransition(new PDATransition(states[1], states[2], "", "Z", "Z"))
+        def words = ["a" * 1500 + "b" * 1500, "a" * 1500 + "b" * 1499]
+
+        when:
+        def report = automatonRunner.runAutomaton(automaton, words as String[], 1, TraceLevel.NONE)
+
+        then:
+        report.results*.succeed == [true, true]
+        report.results*.accepted == [true, false]
+        report.results*.verdict == [Verdict.ACCEPT, Verdict.REJECT]
+        report.results*.explored == [3002, 3000]
+        report.results*.pruned == [0, 0]
+    }
+
+    def "should search deterministic PDA with lambda cycle growing the stack"() {
+        given:
+        def automaton = new PushdownAutomaton()
+        def q0 = automaton.createState(new Point(0, 0))
+        def q1 = automaton.createState(new Point(100, 0))
+        automaton.initialState = q0
+        automaton.addFinalState(q1)
+        automaton.addTransition(new PDATransition(q0, q1, "", "Z", "AZ"))
+        automaton.addTransition(new PDATransition(q1, q1, "", "A", "AA"))
+
+        when:
+        def report = automatonRunner.runAutomaton(
+                automaton, ["a"] as String[], 1, TraceLevel.NONE, new RunLimits(1000)
+        )
+
+        then:
+        report.results[0].verdict == Verdict.UNDECIDED
+    }
+}
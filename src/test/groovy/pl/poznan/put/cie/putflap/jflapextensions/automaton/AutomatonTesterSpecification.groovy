@@ -1,5 +1,7 @@
 package pl.poznan.put.cie.putflap.jflapextensions.automaton
 
+import jflap.automata.fsa.FiniteStateAutomaton
+import jflap.automata.fsa.NFAToDFA
 import pl.poznan.put.cie.putflap.testutils.AutomatonReader
 import spock.lang.Specification
 import spock.lang.Unroll
@@ -42,7 +44,7 @@ class AutomatonTesterSpecification extends Specification {
     @Unroll
     def "should check equivalence of two FSA"() {
         when:
-        def equivalent = automatonTester.areEquivalent(fsa1, fsa2)
+        def equivalent = automatonTester.checkEquivalenceOfManyFSAs([fsa1, fsa2] as FiniteStateAutomaton[]).equivalent
 
         then:
         equivalent == result
@@ -53,6 +55,24 @@ class AutomatonTesterSpecification extends Specification {
         AutomatonReader.get("fsa_nondet.jff") | AutomatonReader.get("fsa.jff") || false
     }
 
+    def "should group FSAs into classes of equivalent ones"() {
+        given:
+        def automatons = [
+                AutomatonReader.get("fsa.jff"),
+                AutomatonReader.get("fsa_nondet.jff"),
+                new NFAToDFA().convertToDFA(AutomatonReader.get("fsa_nondet.jff")),
+                AutomatonReader.get("fsa.jff"),
+                AutomatonReader.get("fsa_simple.jff")
+        ] as FiniteStateAutomaton[]
+
+        when:
+        def report = automatonTester.findEquivalenceClasses(automatons, 2)
+
+        then:
+        !report.equivalent
+        report.classes.collect { it as List } == [[0, 3], [1, 2], [4]]
+    }
+
     @Unroll
     def "should retrieve in alphabet of given automaton"() {
         when:
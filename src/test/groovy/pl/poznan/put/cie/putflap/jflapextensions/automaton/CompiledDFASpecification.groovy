@@ -0,0 +1,36 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.fsa.FSAStepWithClosureSimulator
+import pl.poznan.put.cie.putflap.testutils.AutomatonReader
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CompiledDFASpecification extends Specification {
+
+    def "should not compile nondeterministic automaton"() {
+        expect:
+        CompiledDFA.@Companion.compile(AutomatonReader.get("fsa_nondet.jff")) == null
+    }
+
+    @Unroll
+    def "should accept the same words as JFLAP simulator for word #word"() {
+        given:
+        def automaton = AutomatonReader.get("fsa.jff")
+        def dfa = CompiledDFA.@Companion.compile(automaton)
+
+        expect:
+        dfa.accepts(word) == result
+        new FSAStepWithClosureSimulator(automaton).simulateInput(word) == result
+
+        where:
+        word    || result
+        ""      || false
+        "a"     || true
+        "d"     || true
+        "ab"    || true
+        "ad"    || false
+        "afd"   || true
+        "ahab"  || true
+        "x"     || false
+    }
+}
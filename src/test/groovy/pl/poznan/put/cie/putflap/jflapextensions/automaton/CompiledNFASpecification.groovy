@@ -0,0 +1,59 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.fsa.FSAStepWithClosureSimulator
+import jflap.automata.fsa.FSATransition
+import jflap.automata.fsa.FiniteStateAutomaton
+import pl.poznan.put.cie.putflap.testutils.AutomatonReader
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.awt.Point
+
+class CompiledNFASpecification extends Specification {
+
+    @Unroll
+    def "should accept the same words as JFLAP simulator for word #word"() {
+        given:
+        def automaton = AutomatonReader.get("fsa_nondet.jff")
+        def nfa = CompiledNFA.@Companion.compile(automaton)
+
+        expect:
+        nfa.accepts(word) == result
+        new FSAStepWithClosureSimulator(automaton).simulateInput(word) == result
+
+        where:
+        word  || result
+        ""    || false
+        "h"   || true
+        "j"   || true
+        "ja"  || true
+        "jh"  || false
+        "jhh" || true
+        "jgj" || true
+        "x"   || false
+    }
+
+    @Unroll
+    def "should split multi-character transitions for word #word"() {
+        given:
+        def automaton = new FiniteStateAutomaton()
+        def q0 = automaton.createState(new Point(0, 0))
+        def q1 = automaton.createState(new Point(0, 0))
+        automaton.initialState = q0
+        automaton.addFinalState(q1)
+        automaton.addTransition(new FSATransition(q0, q1, "ab"))
+        automaton.addTransition(new FSATransition(q1, q0, ""))
+        def nfa = CompiledNFA.@Companion.compile(automaton)
+
+        expect:
+        nfa.accepts(word) == result
+
+        where:
+        word   || result
+        ""     || false
+        "a"    || false
+        "ab"   || true
+        "abab" || true
+        "aba"  || false
+    }
+}
@@ -0,0 +1,72 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.fsa.FSATransition
+import jflap.automata.fsa.FiniteStateAutomaton
+import pl.poznan.put.cie.putflap.testutils.AutomatonReader
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.awt.Point
+
+class FSAEquivalenceCheckerSpecification extends Specification {
+    def checker = FSAEquivalenceChecker.INSTANCE
+
+    @Unroll
+    def "should check equivalence of #first and #second"() {
+        given:
+        def fsa1 = AutomatonReader.get(first)
+        def fsa2 = AutomatonReader.get(second)
+
+        when:
+        def counterexample = checker.counterexample(fsa1, fsa2)
+
+        then:
+        (counterexample == null) == result
+        counterexample == null ||
+                CompiledNFA.@Companion.compile(fsa1).accepts(counterexample) !=
+                CompiledNFA.@Companion.compile(fsa2).accepts(counterexample)
+
+        where:
+        first            | second           || result
+        "fsa.jff"        | "fsa.jff"        || true
+        "fsa_nondet.jff" | "fsa_nondet.jff" || true
+        "fsa_nondet.jff" | "fsa.jff"        || false
+        "fsa.jff"        | "fsa_simple.jff" || false
+    }
+
+    def "should find shortest counterexample"() {
+        given: "a+ and a+ without aaa"
+        def fsa1 = chain(4, true)
+        def fsa2 = chain(4, false)
+
+        expect:
+        checker.counterexample(fsa1, fsa2) == "aaa"
+        checker.counterexample(fsa2, fsa1) == "aaa"
+    }
+
+    def "should treat empty word as counterexample"() {
+        given:
+        def fsa1 = chain(1, true)
+        def fsa2 = chain(1, true)
+        fsa2.addFinalState(fsa2.initialState)
+
+        expect:
+        checker.counterexample(fsa1, fsa2) == ""
+    }
+
+    /**
+     * Creates chain of states reading "a", where the last state loops on "a" and every state except
+     * the initial one is final, optionally except the third one
+     */
+    private static FiniteStateAutomaton chain(int length, boolean thirdFinal) {
+        def automaton = new FiniteStateAutomaton()
+        def states = (0..length).collect { automaton.createState(new Point(0, 0)) }
+        automaton.initialState = states[0]
+        for (i in 1..length) {
+            automaton.addTransition(new FSATransition(states[i - 1], states[i], "a"))
+            if (i != 3 || thirdFinal) automaton.addFinalState(states[i])
+        }
+        automaton.addTransition(new FSATransition(states[length], states[length], "a"))
+        automaton
+    }
+}
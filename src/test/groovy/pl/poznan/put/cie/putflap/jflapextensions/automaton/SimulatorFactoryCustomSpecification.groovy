@@ -8,6 +8,7 @@ import jflap.automata.mealy.MealyStepByStateSimulator
 import jflap.automata.mealy.MooreMachine
 import jflap.automata.mealy.MooreStepByStateSimulator
 import jflap.automata.pda.PushdownAutomaton
+import pl.poznan.put.cie.putflap.testutils.AutomatonReader
 import spock.lang.Specification
 import spock.lang.Unroll
 
@@ -23,6 +24,8 @@ class SimulatorFactoryCustomSpecification extends Specification {
         where:
         automaton                  || result
         new FiniteStateAutomaton() || FSAStepWithClosureSimulator.class
+        AutomatonReader.get("fsa.jff")        || CompiledDFASimulator.class
+        AutomatonReader.get("fsa_nondet.jff") || CompiledNFASimulator.class
         new PushdownAutomaton()    || PDAStepByStepSimulatorCustom.class
         new MooreMachine()         || MooreStepByStateSimulator.class
         new MealyMachine()         || MealyStepByStateSimulator.class
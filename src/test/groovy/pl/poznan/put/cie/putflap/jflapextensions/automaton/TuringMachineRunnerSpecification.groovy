@@ -0,0 +1,192 @@
+package pl.poznan.put.cie.putflap.jflapextensions.automaton
+
+import jflap.automata.turing.TMTransition
+import jflap.automata.turing.Tape
+import jflap.automata.turing.TuringMachine
+import jflap.automata.turing.TuringMachineBuildingBlocks
+import pl.poznan.put.cie.putflap.testutils.AutomatonReader
+import spock.lang.Specification
+
+import java.awt.Point
+
+class TuringMachineRunnerSpecification extends Specification {
+    def runner = TuringMachineRunner.INSTANCE
+
+    def "should run single-tape Turing machine"() {
+        given:
+        def machine = AutomatonReader.get("turing.jff") as TuringMachine
+
+        when:
+        def report = runner.run(machine, "abba", TraceLevel.NONE, new RunLimits())
+
+        then:
+        report.succeed
+        report.accepted
+        report.type == AutomatonType.TURING
+        report.verdict == Verdict.ACCEPT
+        report.output == "baab"
+        report.haltState == 2
+        report.stepCount == 10
+        report.steps == null
+    }
+
+    def "should record snapshots of tapes every #interval steps"() {
+        given:
+        def machine = AutomatonReader.get("turing.jff") as TuringMachine
+
+        when:
+        def report = runner.run(machine, "abba", TraceLevel.FULL, new RunLimits(), interval)
+
+        then:
+        report.steps.length == length
+        report.steps.first().tapes[0].contents == "abba"
+        report.steps.last().tapes[0].contents.contains("baab")
+        report.steps.last().tapes[0].output == "baab"
+
+        where:
+        interval                       || length
+        TuringMachineRunner.EVERY_STEP || 11
+        1                              || 11
+        4                              || 4
+        20                             || 2
+    }
+
+    def "should run multi-tape Turing machine"() {
+        given:
+        def machine = AutomatonReader.get("turing_mt.jff") as TuringMachine
+
+        when:
+        def report = runner.run(machine, "ab", TraceLevel.FINAL, new RunLimits())
+
+        then:
+        report.accepted
+        report.type == AutomatonType.TURING_MT
+        report.stepCount == 3
+        report.steps.length == 1
+        report.steps[0].tapes*.contents == ["ab" + Tape.BLANK, "cc" + Tape.BLANK]
+    }
+
+    def "should stop Turing machine after #description"() {
+        given:
+        def machine = new TuringMachine(1)
+        def state = machine.createTMState(new Point(0, 0))
+        machine.initialState = state
+        machine.addTransition(new TMTransition(state, state, "~", "~", "R"))
+
+        when:
+        def report = runner.run(machine, "a", TraceLevel.NONE, limits)
+
+        then:
+        !report.succeed
+        report.error.message == "LIMIT_EXCEEDED"
+        report.verdict == Verdict.UNDECIDED
+        steps == null || report.stepCount == steps
+
+        where:
+        description       | limits                                                   || steps
+        "step limit"      | new RunLimits(100_000, 10_000, 1_000, 100, 0)            || 100
+        "time limit"      | new RunLimits(100_000, 10_000, 1_000, Integer.MAX_VALUE, 10) || null
+    }
+
+    def "should not limit steps of Turing machine with no step limit"() {
+        given:
+        def machine = AutomatonReader.get("turing.jff") as TuringMachine
+
+        when:
+        def report = runner.run(machine, "abba", TraceLevel.NONE, new RunLimits(100_000, 0, 0, RunLimits.NO_LIMIT, 0))
+
+        then:
+        report.succeed
+        report.verdict == Verdict.ACCEPT
+        report.stepCount == 10
+    }
+
+    def "should report #error of Turing machine as run error"() {
+        given:
+        def machine = new TuringMachine(1)
+        def inner = new TuringMachineBuildingBlocks()
+        def state = machine.createTMState(new Point(0, 0))
+        machine.initialState = state
+        if (block) {
+            inner.createTMState(new Point(0, 0))
+            def blockState = machine.createInnerTM(new Point(100, 0), inner, "block", 1)
+            machine.addTransition(new TMTransition(state, blockState, "a", "a", "R"))
+        } else {
+            def next = machine.createTMState(new Point(100, 0))
+            machine.addTransition(new TMTransition(state, next, "a}w", "~", "R"))
+            machine.addTransition(new TMTransition(next, next, "w}v", "~", "R"))
+        }
+
+        when:
+        def report = runner.run(machine, "aw", TraceLevel.NONE, new RunLimits())
+
+        then:
+        !report.succeed
+        report.error.message == error
+        report.stepCount == 1
+
+        where:
+        block || error
+        true  || "NO_INITIAL_STATE"
+        false || "ILLEGAL_VARIABLE"
+    }
+
+    def "should keep copies of tape independent"() {
+        given:
+        def tape = new Tape("a" * 100)
+        (0..<70).each { tape.moveHead("R") }
+
+        when:
+        def copy = new Tape(tape)
+        copy.write("b")
+        copy.moveHead("L")
+        copy.moveHead("R")
+        def same = new Tape(copy)
+        same.write("a")
+
+        then:
+        tape.contents == "a" * 100
+        copy.contents == "a" * 70 + "b" + "a" * 29
+        copy.tapeHead == 70
+        same == tape
+        same.hashCode() == tape.hashCode()
+        copy != tape
+    }
+
+    def "should merge equal branches of nondeterministic Turing machine"() {
+        given:
+        def machine = new TuringMachine(1)
+        def states = (0..2).collect { machine.createTMState(new Point(it * 100, 0)) }
+        machine.initialState = states[0]
+        machine.addFinalState(states[2])
+        [[0, 0], [0, 1], [1, 0], [1, 1]].each { from, to ->
+            machine.addTransition(new TMTransition(states[from], states[to], "a", "a", "R"))
+        }
+        machine.addTransition(new TMTransition(states[0], states[2], Tape.BLANK as String, Tape.BLANK as String, "S"))
+
+        when:
+        def report = AutomatonRunner.INSTANCE.runAutomaton(
+                machine, ["a" * 200] as String[], 1, TraceLevel.NONE
+        ).results[0]
+
+        then:
+        report.accepted
+        report.verdict == Verdict.ACCEPT
+        report.explored <= 2 * 200 + 3
+    }
+
+    def "should run Turing machines for many words concurrently"() {
+        given:
+        def machine = AutomatonReader.get("turing.jff")
+        def words = (0..<50).collect { "ab" * it } as String[]
+
+        when:
+        def report = AutomatonRunner.INSTANCE.runAutomaton(
+                machine, words, 4, TraceLevel.NONE
+        )
+
+        then:
+        report.allAccepted
+        (0..<50).every { report.results[it].output == "ba" * it }
+    }
+}
@@ -0,0 +1,182 @@
+package pl.poznan.put.cie.putflap.jflapextensions.grammar
+
+import jflap.grammar.Grammar
+import jflap.grammar.Production
+import jflap.grammar.ProductionChecker
+import jflap.grammar.UnrestrictedGrammar
+import jflap.grammar.cfg.ContextFreeGrammar
+import jflap.grammar.parse.EarleyParser
+import pl.poznan.put.cie.putflap.exception.IncompatibleAutomatonException
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class GrammarConverterSpecification extends Specification {
+    def grammarConverter = GrammarConverter.INSTANCE
+
+    static words = (0..6).collectMany { length ->
+        length == 0 ? [""] : (0..<(1 << length)).collect { bits ->
+            (0..<length).collect { (bits >> it & 1) == 0 ? "a" : "b" }.join()
+        }
+    }
+
+    static randomGrammar(Random random) {
+        def grammar = new ContextFreeGrammar()
+        def variables = ["S", "A", "B", "C"]
+        def symbols = variables + ["a", "b"]
+        (2 + random.nextInt(7)).times {
+            def rhs = (0..<random.nextInt(4)).collect { symbols[random.nextInt(symbols.size())] }.join()
+            grammar.addProduction(new Production(variables[random.nextInt(variables.size())], rhs))
+        }
+        grammar.addProduction(new Production("S", ["a", "b", "A"][random.nextInt(3)]))
+        grammar.startVariable = "S"
+        return grammar
+    }
+
+    static language(Grammar grammar) {
+        def parser = new EarleyParser(grammar)
+        return words.findAll { parser.solve(it) }
+    }
+
+    static isVariable(String symbol) {
+        ProductionChecker.isVariable(symbol.charAt(0))
+    }
+
+    static onRightHandSide(Grammar grammar, String variable) {
+        grammar.productions.any { it.RHS.contains(variable) }
+    }
+
+    @Unroll
+    def "should keep language of random grammars in #form"() {
+        given:
+        def random = new Random(form.ordinal())
+        def grammars = (0..99).collect { randomGrammar(random) } as Grammar[]
+
+        when:
+        def conversion = grammarConverter.normalize(grammars, form, 2)
+
+        then:
+        conversion.first.allSucceed
+        (0..99).every { language(conversion.second[it]) == language(grammars[it]) }
+        conversion.second.every { grammar ->
+            def start = grammar.startVariable
+            grammar.productions.every { production ->
+                def rhs = production.RHS.collect { it as String }
+                if (rhs.isEmpty()) return production.LHS == start && !onRightHandSide(grammar, start)
+                switch (form) {
+                    case NormalForm.CLEAN: return !(rhs.size() == 1 && isVariable(rhs[0]))
+                    case NormalForm.CNF: return rhs.size() == 1 ? !isVariable(rhs[0]) : rhs.size() == 2 && rhs.every { isVariable(it) }
+                    case NormalForm.GNF: return !isVariable(rhs[0]) && rhs.drop(1).every { isVariable(it) }
+                }
+            }
+        }
+
+        where:
+        form << NormalForm.values()
+    }
+
+    def "should remove useless, lambda and unit productions"() {
+        given:
+        def grammar = GrammarTesterSpecification.grammar([
+                ["S", "AB"], ["S", "C"], ["A", "aA"], ["A", ""], ["B", "b"], ["C", "Cc"], ["D", "d"]
+        ])
+
+        when:
+        def clean = grammarConverter.normalize([grammar] as Grammar[], NormalForm.CLEAN, 1).second[0]
+
+        then:
+        clean.productions.collect { it.LHS + "->" + it.RHS } as Set == ["S->AB", "S->b", "A->aA", "A->a", "B->b"] as Set
+    }
+
+    def "should give new start variable its name when start derives empty string"() {
+        given:
+        def grammar = GrammarTesterSpecification.grammar([["S", "aSb"], ["S", ""]])
+
+        when:
+        def cnf = grammarConverter.normalize([grammar] as Grammar[], NormalForm.CNF, 1).second[0]
+
+        then:
+        cnf.startVariable == "S"
+        cnf.productions[0].LHS == "S"
+        cnf.productions.any { it.LHS == "S" && it.RHS == "" }
+        !onRightHandSide(cnf, "S")
+        language(cnf) == ["", "ab", "aabb", "aaabbb"]
+    }
+
+    def "should share variables of equal suffixes in CNF"() {
+        given:
+        def grammar = GrammarTesterSpecification.grammar([
+                ["S", "ABCD"], ["S", "BCD"], ["S", "ECD"], ["S", "ecd"],
+                ["A", "a"], ["B", "b"], ["C", "c"], ["D", "d"], ["E", "e"]
+        ])
+
+        when:
+        def conversion = grammarConverter.normalize([grammar] as Grammar[], NormalForm.CNF, 1)
+        def report = conversion.first.conversions[0]
+
+        then:
+        report.productionsBefore == 9
+        report.productionsAfter == 10
+        conversion.second[0].productions.size() == 10
+        language(conversion.second[0]) == language(grammar)
+    }
+
+    def "should convert long right hand side of nullable variables to CNF without exponential growth"() {
+        given:
+        def grammar = GrammarTesterSpecification.grammar([["S", "A" * 40], ["A", "a"], ["A", ""]])
+
+        when:
+        def conversion = grammarConverter.normalize([grammar] as Grammar[], NormalForm.CNF, 1)
+        def parser = new EarleyParser(conversion.second[0])
+
+        then:
+        conversion.first.conversions[0].productionsAfter < 40 * 40
+        (0..40).every { parser.solve("a" * it) }
+        !parser.solve("a" * 41)
+    }
+
+    def "should remove lambda productions of repeated nullable variable without duplicates"() {
+        given:
+        def grammar = GrammarTesterSpecification.grammar([["S", "A" * 40], ["A", "a"], ["A", ""]])
+
+        when:
+        def conversion = grammarConverter.normalize([grammar] as Grammar[], NormalForm.CLEAN, 1)
+        def clean = conversion.second[0]
+        def parser = new EarleyParser(clean)
+
+        then:
+        conversion.first.allSucceed
+        clean.productions.size() == 42
+        (0..40).every { parser.solve("a" * it) }
+        !parser.solve("a" * 41)
+    }
+
+    def "should report failure when removing lambda productions gives too many productions"() {
+        given:
+        def variables = ('B'..'R')
+        def grammar = GrammarTesterSpecification.grammar(
+                [["S", variables.join()]] + variables.collectMany { [[it, it.toLowerCase()], [it, ""]] }
+        )
+
+        when:
+        def conversion = grammarConverter.normalize([grammar] as Grammar[], NormalForm.CLEAN, 1)
+        def report = conversion.first.conversions[0]
+
+        then:
+        !conversion.first.allSucceed
+        !report.success
+        report.error.message == "LIMIT_EXCEEDED"
+        report.result == null
+        conversion.second[0].is(grammar)
+    }
+
+    def "should not normalize unrestricted grammar"() {
+        given:
+        def grammar = GrammarTesterSpecification.grammar([["S", "aSb"], ["aS", "b"]], new UnrestrictedGrammar())
+
+        when:
+        grammarConverter.normalize([grammar] as Grammar[], NormalForm.CNF, 1)
+
+        then:
+        thrown(IncompatibleAutomatonException)
+    }
+}
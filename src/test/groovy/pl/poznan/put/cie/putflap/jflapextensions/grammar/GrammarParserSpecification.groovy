@@ -0,0 +1,137 @@
+package pl.poznan.put.cie.putflap.jflapextensions.grammar
+
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
+import pl.poznan.put.cie.putflap.report.ParseReport
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static pl.poznan.put.cie.putflap.jflapextensions.grammar.GrammarTesterSpecification.grammar
+
+class GrammarParserSpecification extends Specification {
+    def grammarParser = GrammarParser.INSTANCE
+
+    static expressions() {
+        grammar([
+                ["E", "E+T"], ["E", "T"], ["T", "T*F"], ["T", "F"], ["F", "(E)"], ["F", "a"]
+        ])
+    }
+
+    @Unroll
+    def "should parse '#word' with #type table of grammar with lambda productions"() {
+        given:
+        def g = grammar([["S", "aSb"], ["S", ""]])
+
+        when:
+        def report = grammarParser.parse(g, type, [word] as String[], Parallel.SEQUENTIAL)
+
+        then:
+        report.conflicts.length == 0
+        report.results[0] == new ParseReport(word, accepted, errorPosition)
+
+        where:
+        word   | type          || accepted | errorPosition
+        ""     | ParserType.LL || true     | null
+        "aabb" | ParserType.LL || true     | null
+        "aab"  | ParserType.LL || false    | 3
+        "ba"   | ParserType.LL || false    | 0
+        "abx"  | ParserType.LL || false    | 2
+        ""     | ParserType.SLR || true     | null
+        "aabb" | ParserType.SLR || true     | null
+        "aab"  | ParserType.SLR || false    | 3
+        "ba"   | ParserType.SLR || false    | 0
+        "abx"  | ParserType.SLR || false    | 2
+    }
+
+    @Unroll
+    def "should parse '#word' with SLR table of left recursive grammar"() {
+        when:
+        def report = grammarParser.parse(expressions(), ParserType.SLR, [word] as String[], Parallel.SEQUENTIAL)
+
+        then:
+        report.results[0] == new ParseReport(word, accepted, errorPosition)
+
+        where:
+        word        || accepted | errorPosition
+        "a+a*(a+a)" || true     | null
+        "((a))"     || true     | null
+        "a+*a"      || false    | 2
+        "(a"        || false    | 2
+        "a)"        || false    | 1
+    }
+
+    @Unroll
+    def "should reject '#word' with SLR table of grammar with lambda productions of useless variables"() {
+        when:
+        def report = grammarParser.parse(grammar(productions), ParserType.SLR, [word] as String[], Parallel.SEQUENTIAL)
+
+        then:
+        report.conflicts.length == 0
+        report.results[0] == new ParseReport(word, accepted, errorPosition)
+
+        where:
+        productions                                                               | word || accepted | errorPosition
+        [["S", "BSB"], ["B", ""]]                                                 | ""   || false    | 0
+        [["S", ""], ["S", "CCb"], ["S", "a"], ["C", "ACA"], ["A", ""]]            | "b"  || false    | 0
+        [["S", ""], ["S", "CCb"], ["S", "a"], ["C", "ACA"], ["A", ""]]            | "a"  || true     | null
+    }
+
+    def "should report conflicts instead of parsing"() {
+        when:
+        def slr = grammarParser.parse(grammar([["E", "E+E"], ["E", "a"]]), ParserType.SLR, ["a+a"] as String[], 1)
+        def ll = grammarParser.parse(expressions(), ParserType.LL, ["a"] as String[], 1)
+
+        then:
+        slr.conflicts.length > 0
+        slr.conflicts.every { it.contains("+") }
+        !slr.allAccepted
+        slr.results.length == 0
+        ll.conflicts.length > 0
+        ll.results.length == 0
+    }
+
+    def "should parse deeply nested words and keep order of streamed words"() {
+        given:
+        def g = grammar([["S", "aSb"], ["S", ""]])
+        def deep = "a" * 100000 + "b" * 100000
+        def words = (0..<5000).collect { "a" * (it % 7) + "b" * (it % 5) }
+
+        when:
+        def reports = [:]
+        ParserType.values().each { type ->
+            def streamed = []
+            grammarParser.parse(grammarParser.compile(g, type), kotlin.sequences.SequencesKt.asSequence(words.iterator()), 4) { streamed << it }
+            reports[type] = streamed
+        }
+        def deepReports = ParserType.values().collect {
+            grammarParser.parse(g, it, [deep] as String[], Parallel.SEQUENTIAL).results[0]
+        }
+
+        then:
+        deepReports*.accepted == [true, true]
+        ParserType.values().every { type -> reports[type]*.word == words }
+        ParserType.values().every { type ->
+            reports[type]*.accepted == words.collect { it.count("a") == it.count("b") }
+        }
+    }
+
+    def "should build tables of grammar with hundreds of productions"() {
+        given:
+        def variables = ('A'..'Z') - ['S']
+        def productions = [["S", "A"]]
+        variables.eachWithIndex { v, i ->
+            def next = i + 1 < variables.size() ? variables[i + 1] : ""
+            (0..<12).each { productions << [v, ('a'..'z')[it] + next + "z"] }
+            productions << [v, ""]
+        }
+        def g = grammar(productions)
+        def words = ["c" * 25 + "z" * 25, "c" * 25 + "z" * 24]
+
+        when:
+        def reports = ParserType.values().collect { grammarParser.parse(g, it, words as String[], 1) }
+
+        then:
+        g.productions.length == 326
+        reports*.conflicts*.length == [0, 0]
+        reports*.results*.accepted == [[true, false], [true, false]]
+    }
+}
@@ -0,0 +1,148 @@
+package pl.poznan.put.cie.putflap.jflapextensions.grammar
+
+import jflap.grammar.Production
+import jflap.grammar.UnrestrictedGrammar
+import jflap.grammar.cfg.ContextFreeGrammar
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.RunLimits
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.Verdict
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class GrammarTesterSpecification extends Specification {
+    def grammarTester = GrammarTester.INSTANCE
+
+    static grammar(List<List<String>> productions, grammar = new ContextFreeGrammar()) {
+        productions.each { grammar.addProduction(new Production(it[0], it[1])) }
+        grammar.startVariable = productions[0][0]
+        return grammar
+    }
+
+    @Unroll
+    def "should check membership of '#word' with lambda productions"() {
+        given:
+        def g = grammar([["S", "aSb"], ["S", ""]])
+
+        when:
+        def report = grammarTester.checkMembership(g, [word] as String[], Parallel.SEQUENTIAL).results[0]
+
+        then:
+        report.member == member
+        report.derivation == derivation as String[]
+
+        where:
+        word   || member | derivation
+        ""     || true   | ["S", ""]
+        "ab"   || true   | ["S", "aSb", "ab"]
+        "aabb" || true   | ["S", "aSb", "aaSbb", "aabb"]
+        "aab"  || false  | null
+        "ba"   || false  | null
+    }
+
+    def "should give leftmost derivation of ambiguous left recursive grammar"() {
+        given:
+        def g = grammar([["E", "E+E"], ["E", "E*E"], ["E", "(E)"], ["E", "a"]])
+
+        when:
+        def report = grammarTester.checkMembership(g, ["a+(a*a)", "a+*a"] as String[], Parallel.SEQUENTIAL)
+
+        then:
+        !report.allMembers
+        report.results[0].member
+        report.results[0].derivation.first() == "E"
+        report.results[0].derivation.last() == "a+(a*a)"
+        report.results[0].derivation.size() == 7
+        !report.results[1].member
+    }
+
+    def "should derive long words of right recursive grammar through unit and lambda productions"() {
+        given:
+        def g = grammar([["S", "A"], ["A", "aB"], ["B", "S"], ["B", "C"], ["C", ""], ["C", "b"]])
+        def word = "a" * 3000 + "b"
+
+        when:
+        def report = grammarTester.checkMembership(g, [word, "a" * 3000, "b"] as String[], 2)
+
+        then:
+        report.results*.member == [true, true, false]
+        report.results[0].derivation.last() == word
+        report.results[0].derivation.size() == 3000 * 3 + 2
+    }
+
+    @Unroll
+    def "should give finite derivation of '#word' in grammar with cyclic productions #productions"() {
+        given:
+        def g = grammar(productions)
+
+        when:
+        def report = grammarTester.checkMembership(g, [word] as String[], Parallel.SEQUENTIAL).results[0]
+
+        then:
+        report.member
+        report.derivation == derivation as String[]
+
+        where:
+        productions                                             | word  || derivation
+        [["S", "C"], ["S", "S"], ["C", "b"]]                    | "b"   || ["S", "C", "b"]
+        [["S", "S"], ["S", "C"], ["C", "S"], ["C", "b"]]        | "b"   || ["S", "C", "b"]
+        [["S", "SA"], ["S", "b"], ["A", ""], ["A", "a"]]        | "ba"  || ["S", "SA", "bA", "ba"]
+        [["S", "AS"], ["S", "b"], ["A", ""], ["A", "a"]]        | "ab"  || ["S", "AS", "aS", "ab"]
+    }
+
+    @Unroll
+    def "should search for '#word' in unrestricted grammar on #parallelism threads"() {
+        given:
+        def g = grammar([
+                ["S", "aSBC"], ["S", "aBC"], ["CB", "BC"], ["aB", "ab"], ["bB", "bb"], ["bC", "bc"], ["cC", "cc"]
+        ], new UnrestrictedGrammar())
+
+        when:
+        def report = grammarTester.checkMembership(g, [word] as String[], parallelism, new RunLimits()).results[0]
+
+        then:
+        report.member == (verdict == Verdict.ACCEPT)
+        report.verdict == verdict
+        report.explored > 0
+        report.derivation?.first() == (report.member ? "S" : null)
+        report.derivation?.last() == (report.member ? word : null)
+
+        where:
+        word        | parallelism          || verdict
+        "abc"       | Parallel.SEQUENTIAL  || Verdict.ACCEPT
+        "aaabbbccc" | Parallel.SEQUENTIAL  || Verdict.ACCEPT
+        "aaabbbccc" | 4                    || Verdict.ACCEPT
+        "aabbc"     | Parallel.SEQUENTIAL  || Verdict.REJECT
+        "aabcbc"    | 4                    || Verdict.REJECT
+    }
+
+    def "should stop search when visited sentential forms exceed limit"() {
+        given:
+        def g = grammar([
+                ["S", "aSBC"], ["S", "aBC"], ["CB", "BC"], ["aB", "ab"], ["bB", "bb"], ["bC", "bc"], ["cC", "cc"]
+        ], new UnrestrictedGrammar())
+        def limits = new RunLimits(10)
+
+        when:
+        def report = grammarTester.checkMembership(g, ["aaaabbbbcccc"] as String[], Parallel.SEQUENTIAL, limits)
+
+        then:
+        !report.allMembers
+        report.results[0].verdict == Verdict.UNDECIDED
+        report.results[0].derivation == null
+    }
+
+    def "should search leftmost derivations of context-free grammar"() {
+        given:
+        def g = grammar([["E", "E+E"], ["E", "E*E"], ["E", "(E)"], ["E", "a"]])
+
+        when:
+        def member = grammarTester.search(g, "a+(a*a)", new RunLimits(), Parallel.SEQUENTIAL)
+        def nonMember = grammarTester.search(g, "a+*a", new RunLimits(), Parallel.SEQUENTIAL)
+
+        then:
+        member.verdict == Verdict.ACCEPT
+        member.derivation.size() == 7
+        member.derivation.last() == "a+(a*a)"
+        nonMember.verdict == Verdict.REJECT
+    }
+}
@@ -0,0 +1,111 @@
+package pl.poznan.put.cie.putflap.jflapextensions.regexp
+
+import jflap.regular.RegularExpression
+import jflap.regular.RegularExpressionParser
+import jflap.regular.RegularMatcher
+import jflap.regular.RegularNFA
+import pl.poznan.put.cie.putflap.jflapextensions.Parallel
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.AutomatonType
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.FSAEquivalenceChecker
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.RunLimits
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.TraceLevel
+import pl.poznan.put.cie.putflap.report.RunReport
+import pl.poznan.put.cie.putflap.report.structure.regexp.RegExpReport
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.regex.Pattern
+
+class RegularExpressionRunnerSpecification extends Specification {
+    def runner = RegularExpressionRunner.INSTANCE
+
+    static words() {
+        def words = [""]
+        (1..6).each { length ->
+            words.addAll(words.findAll { it.length() == length - 1 }.collectMany { w -> ["a", "b", "c"].collect { w + it } })
+        }
+        words
+    }
+
+    @Unroll
+    def "should match the same words as java pattern for '#expression'"() {
+        given:
+        def tree = RegularExpressionParser.parse(expression)
+        def pattern = Pattern.compile(expression.replace("+", "|").replace("!", "").replace("ø", "[^\\s\\S]"))
+        def matchers = [
+                new RegularMatcher(RegularNFA.glushkov(tree)),
+                new RegularMatcher(RegularNFA.thompson(tree)),
+                new RegularMatcher(RegularNFA.glushkov(tree), 1)
+        ]
+
+        expect:
+        words().every { word -> matchers.every { it.matches(word) == pattern.matcher(word).matches() } }
+        RegularExpressionParser.parse(tree.toString().replace("λ", "!")).toString() == tree.toString()
+
+        where:
+        expression << ["a", "!", "ø", "ab+c", "(a+b)*c", "(a+!)(b+!)c*", "((ab)*+c)*a", "a(ø+b)*", "(a*b*)*c+!"]
+    }
+
+    @Unroll
+    def "should reject malformed expression '#expression'"() {
+        when:
+        RegularExpressionParser.parse(expression)
+
+        then:
+        thrown(UnsupportedOperationException)
+
+        where:
+        expression << ["a+", "(a", "a)", "*a", "()", "a+*b"]
+    }
+
+    def "should build equivalent Glushkov and Thompson automatons"() {
+        given:
+        def expression = new RegularExpression("(a+b)*a(a+b)(a+b)")
+
+        when:
+        def glushkov = runner.toFSA(expression, NFAConstruction.GLUSHKOV)
+        def thompson = runner.toFSA(expression, NFAConstruction.THOMPSON)
+
+        then:
+        glushkov.states.length == 8
+        glushkov.transitions.every { it.label != "" }
+        thompson.transitions.any { it.label == "" }
+        FSAEquivalenceChecker.INSTANCE.equivalent(glushkov, thompson)
+    }
+
+    def "should keep matching correctly when cache of states is dropped"() {
+        given:
+        def nfa = RegularNFA.glushkov(RegularExpressionParser.parse("(a+b)*a" + "(a+b)" * 12))
+        def matcher = new RegularMatcher(nfa, 50)
+        def random = new Random(1)
+        def words = (0..<2000).collect { (0..<30).collect { random.nextBoolean() ? "a" : "b" }.join() }
+
+        expect:
+        words.every { matcher.matches(it) == (it[-13] == "a") }
+        matcher.flushCount > 0
+        matcher.stateCount <= 50
+    }
+
+    def "should run words without trace and with trace on Glushkov automaton"() {
+        given:
+        def expression = new RegularExpression("a*b")
+        def words = ["aab", "aba", "b", "c"] as String[]
+
+        when:
+        def fast = runner.run(expression, words, 4, TraceLevel.NONE, new RunLimits())
+        def traced = runner.run(expression, words, Parallel.SEQUENTIAL, TraceLevel.FULL, new RunLimits())
+
+        then:
+        fast.structure == new RegExpReport("a*b")
+        fast.results as List == [
+                new RunReport(AutomatonType.FA, "aab", true, 4),
+                new RunReport(AutomatonType.FA, "aba", false, 3),
+                new RunReport(AutomatonType.FA, "b", true, 2),
+                new RunReport(AutomatonType.FA, "c", false, 1)
+        ]
+        traced.structure == fast.structure
+        traced.results*.accepted == fast.results*.accepted
+        traced.results.every { it.steps != null }
+        runner.checkMembership(expression, words, 2).results*.member == [true, false, true, false]
+    }
+}
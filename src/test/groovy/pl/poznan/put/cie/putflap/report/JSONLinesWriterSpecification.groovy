@@ -0,0 +1,44 @@
+package pl.poznan.put.cie.putflap.report
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.AutomatonRunner
+import pl.poznan.put.cie.putflap.jflapextensions.automaton.TraceLevel
+import pl.poznan.put.cie.putflap.testutils.AutomatonReader
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import kotlin.jvm.functions.Function1
+
+class JSONLinesWriterSpecification extends Specification {
+
+    @Unroll
+    def "should write one run report per line with parallelism #parallelism"() {
+        given:
+        def automaton = AutomatonReader.get("fsa.jff")
+        def words = ["a", "x", "ahab", "", "d"]
+        def output = new StringWriter()
+        def writer = Report.@Companion.getJSONLinesWriter(output)
+
+        when:
+        AutomatonRunner.INSTANCE.runAutomaton(
+                automaton,
+                kotlin.sequences.SequencesKt.asSequence(words.iterator()),
+                parallelism,
+                TraceLevel.NONE,
+                { writer.write(it) } as Function1
+        )
+        writer.close()
+        def lines = output.toString().split("\n")
+
+        then:
+        output.toString().endsWith("\n")
+        lines.size() == words.size()
+        lines.collect { new ObjectMapper().readTree(it).get("input").textValue() } == words
+        lines.collect { new ObjectMapper().readTree(it).get("accepted").booleanValue() } ==
+                [true, false, true, false, true]
+        lines.every { !it.contains("steps") }
+
+        where:
+        parallelism << [1, 3]
+    }
+}